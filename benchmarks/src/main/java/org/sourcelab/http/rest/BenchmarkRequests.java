@@ -0,0 +1,105 @@
+/**
+ * Copyright 2019 SourceLab.org https://github.com/SourceLabOrg/http-client-wrapper
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit
+ * persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.sourcelab.http.rest;
+
+import org.sourcelab.http.rest.request.RequestMethod;
+import org.sourcelab.http.rest.request.RequestParameter;
+import org.sourcelab.http.rest.request.body.RequestBodyContent;
+import org.sourcelab.http.rest.request.body.StringBodyContent;
+import org.sourcelab.http.rest.request.body.UrlEncodedFormBodyContent;
+import org.sourcelab.http.rest.request.Request;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Requests shared by the benchmarks.
+ */
+final class BenchmarkRequests {
+    private BenchmarkRequests() {
+    }
+
+    /**
+     * @param parameterCount Number of query parameters.
+     * @return GET request with the given number of query parameters.
+     */
+    static Request<String> get(final int parameterCount) {
+        return new BenchmarkRequest(RequestMethod.GET, form(parameterCount));
+    }
+
+    /**
+     * @param parameterCount Number of form parameters.
+     * @return POST request with a url encoded form body.
+     */
+    static Request<String> postForm(final int parameterCount) {
+        return new BenchmarkRequest(RequestMethod.POST, form(parameterCount));
+    }
+
+    /**
+     * @param bodySize Size of the body in characters.
+     * @return POST request with a string body.
+     */
+    static Request<String> postString(final int bodySize) {
+        final StringBuilder body = new StringBuilder(bodySize);
+        for (int index = 0; index < bodySize; index++) {
+            body.append('a');
+        }
+        return new BenchmarkRequest(RequestMethod.POST, new StringBodyContent(body.toString()));
+    }
+
+    private static UrlEncodedFormBodyContent form(final int parameterCount) {
+        final List<RequestParameter> parameters = new ArrayList<>(parameterCount);
+        for (int index = 0; index < parameterCount; index++) {
+            parameters.add(new RequestParameter("name" + index, "value " + index + " & more"));
+        }
+        return new UrlEncodedFormBodyContent(parameters);
+    }
+
+    /**
+     * Request against a fixed endpoint returning the response body as is.
+     */
+    private static final class BenchmarkRequest implements Request<String> {
+        private final RequestMethod requestMethod;
+        private final RequestBodyContent requestBody;
+
+        BenchmarkRequest(final RequestMethod requestMethod, final RequestBodyContent requestBody) {
+            this.requestMethod = requestMethod;
+            this.requestBody = requestBody;
+        }
+
+        @Override
+        public String getApiEndpoint() {
+            return "/api/resource";
+        }
+
+        @Override
+        public RequestMethod getRequestMethod() {
+            return requestMethod;
+        }
+
+        @Override
+        public RequestBodyContent getRequestBody() {
+            return requestBody;
+        }
+
+        @Override
+        public String parseResponse(final String responseStr) {
+            return responseStr;
+        }
+    }
+}
@@ -0,0 +1,87 @@
+/**
+ * Copyright 2019 SourceLab.org https://github.com/SourceLabOrg/http-client-wrapper
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit
+ * persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.sourcelab.http.rest;
+
+import org.eclipse.jetty.server.Request;
+import org.eclipse.jetty.server.Server;
+import org.eclipse.jetty.server.ServerConnector;
+import org.eclipse.jetty.server.handler.AbstractHandler;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Local Jetty server answering every request with a fixed response body, so end to end benchmarks measure the client
+ * rather than the server.
+ */
+final class LocalServer implements AutoCloseable {
+    private final Server server;
+    private final int port;
+
+    /**
+     * Constructor, starts the server on an ephemeral port.
+     * @param responseBodySize Size of the response body in bytes.
+     * @throws Exception if the server could not be started.
+     */
+    LocalServer(final int responseBodySize) throws Exception {
+        final byte[] responseBody = new byte[responseBodySize];
+        Arrays.fill(responseBody, (byte) 'a');
+
+        server = new Server();
+        final ServerConnector connector = new ServerConnector(server);
+        connector.setHost("127.0.0.1");
+        connector.setPort(0);
+        server.addConnector(connector);
+        server.setHandler(new AbstractHandler() {
+            @Override
+            public void handle(
+                final String target,
+                final Request baseRequest,
+                final HttpServletRequest request,
+                final HttpServletResponse response
+            ) throws IOException {
+                // Drain any request body so the connection may be reused.
+                final byte[] buffer = new byte[4096];
+                while (request.getInputStream().read(buffer) != -1) {
+                    // Discard.
+                }
+                response.setStatus(200);
+                response.setContentType("text/plain; charset=UTF-8");
+                response.setContentLength(responseBody.length);
+                response.getOutputStream().write(responseBody);
+                baseRequest.setHandled(true);
+            }
+        });
+        server.start();
+        port = connector.getLocalPort();
+    }
+
+    /**
+     * @return Base url of the server.
+     */
+    String getUrl() {
+        return "http://127.0.0.1:" + port;
+    }
+
+    @Override
+    public void close() throws Exception {
+        server.stop();
+    }
+}
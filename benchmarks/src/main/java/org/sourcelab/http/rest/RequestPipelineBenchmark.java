@@ -0,0 +1,133 @@
+/**
+ * Copyright 2019 SourceLab.org https://github.com/SourceLabOrg/http-client-wrapper
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit
+ * persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.sourcelab.http.rest;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.sourcelab.http.rest.configuration.BasicConfiguration;
+import org.sourcelab.http.rest.interceptor.RequestContext;
+import org.sourcelab.http.rest.interceptor.RequestInterceptor;
+import org.sourcelab.http.rest.request.Request;
+import org.sourcelab.http.rest.request.RequestHeader;
+import org.sourcelab.http.rest.request.RequestParameter;
+import org.sourcelab.http.rest.transport.PreparedRequest;
+
+import java.net.URISyntaxException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of the shared request pipeline in isolation, without any I/O.
+ *
+ * <p>Parameter and header processing, url construction and body encoding are private to {@link HttpRequestBuilder},
+ * so each is measured through {@link HttpRequestBuilder#build(Request)} with a request exercising it:</p>
+ * <ul>
+ *     <li>{@link #buildGet()} runs parameters and headers through the interceptors and builds the url via URIBuilder.</li>
+ *     <li>{@link #buildFormPost()} encodes a {@link org.sourcelab.http.rest.request.body.UrlEncodedFormBodyContent}.</li>
+ *     <li>{@link #buildStringPost()} encodes a {@link org.sourcelab.http.rest.request.body.StringBodyContent}.</li>
+ * </ul>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RequestPipelineBenchmark {
+
+    /**
+     * Number of configured request interceptors, each adding a header and a parameter.
+     */
+    @Param({"0", "1", "5"})
+    public int interceptorCount;
+
+    /**
+     * Number of request parameters, or form fields.
+     */
+    @Param({"4"})
+    public int parameterCount;
+
+    private HttpRequestBuilder requestBuilder;
+    private Request<String> getRequest;
+    private Request<String> formPostRequest;
+    private Request<String> stringPostRequest;
+
+    @Setup
+    public void setup() {
+        final BasicConfiguration<?> configuration = new BasicConfiguration<>("http://localhost:8080");
+        for (int index = 0; index < interceptorCount; index++) {
+            configuration.useRequestInteceptor(new AddingRequestInterceptor(index));
+        }
+        requestBuilder = new HttpRequestBuilder(configuration);
+        getRequest = BenchmarkRequests.get(parameterCount);
+        formPostRequest = BenchmarkRequests.postForm(parameterCount);
+        stringPostRequest = BenchmarkRequests.postString(256);
+    }
+
+    @Benchmark
+    public PreparedRequest buildGet() throws URISyntaxException {
+        return requestBuilder.build(getRequest);
+    }
+
+    @Benchmark
+    public PreparedRequest buildFormPost() throws URISyntaxException {
+        return requestBuilder.build(formPostRequest);
+    }
+
+    @Benchmark
+    public PreparedRequest buildStringPost() throws URISyntaxException {
+        return requestBuilder.build(stringPostRequest);
+    }
+
+    /**
+     * Interceptor adding a fixed header and parameter to every request.
+     */
+    private static final class AddingRequestInterceptor implements RequestInterceptor {
+        private final RequestHeader header;
+        private final RequestParameter parameter;
+
+        AddingRequestInterceptor(final int index) {
+            this.header = new RequestHeader("X-Benchmark-" + index, "value");
+            this.parameter = new RequestParameter("interceptor" + index, "value");
+        }
+
+        @Override
+        public List<RequestParameter> modifyRequestParameters(
+            final List<RequestParameter> requestParameters,
+            final RequestContext requestContext
+        ) {
+            requestParameters.add(parameter);
+            return requestParameters;
+        }
+
+        @Override
+        public List<RequestHeader> modifyHeaders(final List<RequestHeader> requestHeaders, final RequestContext requestContext) {
+            requestHeaders.add(header);
+            return requestHeaders;
+        }
+    }
+}
@@ -0,0 +1,85 @@
+/**
+ * Copyright 2019 SourceLab.org https://github.com/SourceLabOrg/http-client-wrapper
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit
+ * persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.sourcelab.http.rest;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.sourcelab.http.rest.configuration.BasicConfiguration;
+import org.sourcelab.http.rest.request.Request;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End to end cost of {@link HttpClientRestClient#submitRequest(Request)} against a local server over a pooled,
+ * kept alive connection.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SubmitRequestBenchmark {
+
+    /**
+     * Size of the response body in bytes.
+     */
+    @Param({"128", "16384"})
+    public int responseBodySize;
+
+    private LocalServer server;
+    private HttpClientRestClient restClient;
+    private Request<String> getRequest;
+    private Request<String> postRequest;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        server = new LocalServer(responseBodySize);
+        restClient = new HttpClientRestClient();
+        restClient.init(new BasicConfiguration<>(server.getUrl()));
+        getRequest = BenchmarkRequests.get(4);
+        postRequest = BenchmarkRequests.postForm(4);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        restClient.close();
+        server.close();
+    }
+
+    @Benchmark
+    public RestResponse submitGet() {
+        return restClient.submitRequest(getRequest);
+    }
+
+    @Benchmark
+    public RestResponse submitPost() {
+        return restClient.submitRequest(postRequest);
+    }
+}
@@ -0,0 +1,140 @@
+/**
+ * Copyright 2019 SourceLab.org https://github.com/SourceLabOrg/http-client-wrapper
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit
+ * persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.sourcelab.http.rest;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.sourcelab.http.rest.configuration.Configuration;
+import org.sourcelab.http.rest.exceptions.ConnectionException;
+import org.sourcelab.http.rest.request.Request;
+import org.sourcelab.http.rest.request.StreamingRequest;
+import org.sourcelab.http.rest.transport.AsyncTransport;
+import org.sourcelab.http.rest.transport.PreparedRequest;
+
+import java.net.URISyntaxException;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Base for RestClient implementations backed by a specific {@link AsyncTransport}.  Requests are passed through
+ * the shared request pipeline and then handed to the transport.
+ */
+abstract class AbstractAsyncTransportRestClient implements AsyncRestClient, RestClient {
+    private static final Logger logger = LoggerFactory.getLogger(AbstractAsyncTransportRestClient.class);
+
+    /**
+     * Our underlying transport.
+     */
+    private AsyncTransport transport;
+
+    /**
+     * Translates requests into prepared requests, applying request interceptors.
+     */
+    private HttpRequestBuilder httpRequestBuilder;
+
+    /**
+     * Create a new, uninitialized, transport instance.
+     * @return new AsyncTransport instance.
+     */
+    protected abstract AsyncTransport createTransport();
+
+    /**
+     * Initialization method.  This takes in the configuration and sets up the underlying
+     * transport appropriately.
+     * @param configuration The user defined configuration.
+     */
+    @Override
+    public void init(final Configuration configuration) {
+        // Create request builder, this loads our request interceptors.
+        httpRequestBuilder = new HttpRequestBuilder(configuration);
+
+        // Create and initialize our transport.
+        transport = createTransport();
+        transport.init(configuration);
+    }
+
+    @Override
+    public void close() {
+        if (transport != null) {
+            transport.close();
+        }
+        transport = null;
+    }
+
+    /**
+     * Submit a request without blocking the calling thread.
+     * @param request The request to submit.
+     * @return Future completed with the response.
+     */
+    @Override
+    public CompletableFuture<RestResponse> submitRequestAsync(final Request request) {
+        // Build the request, passing it through our interceptors.
+        final PreparedRequest preparedRequest;
+        try {
+            preparedRequest = prepareRequest(request);
+        } catch (final ConnectionException exception) {
+            final CompletableFuture<RestResponse> result = new CompletableFuture<>();
+            result.completeExceptionally(exception);
+            return result;
+        }
+
+        // Execute
+        return transport.executeAsync(preparedRequest);
+    }
+
+    /**
+     * Make a request, blocking until the response is available.
+     * @param request The request to submit.
+     * @return The response, in UTF-8 String format.
+     * @throws RestException if something goes wrong.
+     */
+    @Override
+    public RestResponse submitRequest(final Request request) throws RestException {
+        return transport.execute(prepareRequest(request));
+    }
+
+    /**
+     * Make a request, passing the response body to the request's parser.
+     * @param request The request to submit.
+     * @param <T> return type of the request.
+     * @return The parsed response.
+     * @throws RestException if something goes wrong.
+     */
+    @Override
+    public <T> T submitStreamingRequest(final StreamingRequest<T> request) throws RestException {
+        return transport.executeStreaming(prepareRequest(request), request);
+    }
+
+    /**
+     * Build the request, passing it through our interceptors.
+     * @param request The request to build.
+     * @return PreparedRequest instance.
+     * @throws ConnectionException if the request url could not be constructed.
+     */
+    private PreparedRequest prepareRequest(final Request request) throws ConnectionException {
+        final PreparedRequest preparedRequest;
+        try {
+            preparedRequest = httpRequestBuilder.build(request);
+        } catch (final URISyntaxException exception) {
+            throw new ConnectionException(exception.getMessage(), exception);
+        }
+        if (logger.isDebugEnabled()) {
+            logger.debug("Executing request {} with {}", preparedRequest, request.getRequestBody());
+        }
+        return preparedRequest;
+    }
+}
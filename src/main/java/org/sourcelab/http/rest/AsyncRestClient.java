@@ -0,0 +1,48 @@
+/**
+ * Copyright 2019 SourceLab.org https://github.com/SourceLabOrg/http-client-wrapper
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit
+ * persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.sourcelab.http.rest;
+
+import org.sourcelab.http.rest.configuration.Configuration;
+import org.sourcelab.http.rest.request.Request;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Interface for making non-blocking HTTP calls.
+ */
+public interface AsyncRestClient {
+    /**
+     * Initializes the AsyncRestClient implementation.
+     * Any setup or resource allocation should happen here.
+     * @param configuration Api Configuration.
+     */
+    void init(final Configuration configuration);
+
+    /**
+     * Submit a request without blocking the calling thread.
+     * @param request The request to submit.
+     * @return Future completed with the response, or completed exceptionally with a {@link RestException}
+     *         when something goes wrong in an underlying implementation.
+     */
+    CompletableFuture<RestResponse> submitRequestAsync(final Request request);
+
+    /**
+     * Called to release any internally held resources.
+     */
+    void close();
+}
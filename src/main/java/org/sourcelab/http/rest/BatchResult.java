@@ -0,0 +1,78 @@
+/**
+ * Copyright 2019 SourceLab.org https://github.com/SourceLabOrg/http-client-wrapper
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit
+ * persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.sourcelab.http.rest;
+
+import org.sourcelab.http.rest.request.Request;
+
+/**
+ * Represents the outcome of a single request submitted as part of a batch via
+ * {@link RestClient#submitAll(java.util.Collection, int)}.  Exactly one of the response or exception is set.
+ */
+public final class BatchResult {
+    private final int index;
+    private final Request request;
+    private final RestResponse response;
+    private final RuntimeException exception;
+
+    /**
+     * Constructor.
+     * @param index Position of the request within the submitted collection.
+     * @param request The submitted request.
+     * @param response The response, or null if the request failed.
+     * @param exception The failure, or null if the request succeeded.
+     */
+    public BatchResult(final int index, final Request request, final RestResponse response, final RuntimeException exception) {
+        this.index = index;
+        this.request = request;
+        this.response = response;
+        this.exception = exception;
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    public Request getRequest() {
+        return request;
+    }
+
+    public RestResponse getResponse() {
+        return response;
+    }
+
+    public RuntimeException getException() {
+        return exception;
+    }
+
+    /**
+     * Did the request complete without throwing an exception.
+     * @return true if a response was received.
+     */
+    public boolean isSuccess() {
+        return exception == null;
+    }
+
+    @Override
+    public String toString() {
+        return "BatchResult{"
+            + "index=" + index
+            + ", response=" + response
+            + ", exception=" + exception
+            + '}';
+    }
+}
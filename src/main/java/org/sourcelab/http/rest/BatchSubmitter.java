@@ -0,0 +1,141 @@
+/**
+ * Copyright 2019 SourceLab.org https://github.com/SourceLabOrg/http-client-wrapper
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit
+ * persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.sourcelab.http.rest;
+
+import org.sourcelab.http.rest.request.Request;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Submits a collection of independent requests through a {@link RestClient} with bounded concurrency,
+ * capturing failures per request so a single failure does not abort the batch.
+ */
+class BatchSubmitter {
+    private static final AtomicInteger BATCH_COUNTER = new AtomicInteger();
+
+    /**
+     * Client to submit each request with.
+     */
+    private final RestClient restClient;
+
+    /**
+     * Maximum number of requests in flight at once.
+     */
+    private final int parallelism;
+
+    /**
+     * Constructor.
+     * @param restClient Client to submit each request with.
+     * @param parallelism Maximum number of requests in flight at once.
+     */
+    BatchSubmitter(final RestClient restClient, final int parallelism) {
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException("parallelism must be greater than 0");
+        }
+        this.restClient = Objects.requireNonNull(restClient);
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Submit all requests, returning once every request has completed.
+     * @param requests The requests to submit.
+     * @return Results in the same order as the submitted requests.
+     */
+    List<BatchResult> submitAll(final Collection<? extends Request> requests) {
+        final BatchResult[] results = new BatchResult[requests.size()];
+        submitAll(requests, (result) -> results[result.getIndex()] = result);
+        return Arrays.asList(results);
+    }
+
+    /**
+     * Submit all requests, passing each result to the consumer as soon as it completes.  The consumer is
+     * always invoked on the calling thread.
+     * @param requests The requests to submit.
+     * @param resultConsumer Passed each result, in completion order.
+     */
+    void submitAll(final Collection<? extends Request> requests, final Consumer<BatchResult> resultConsumer) {
+        Objects.requireNonNull(resultConsumer);
+        if (requests.isEmpty()) {
+            return;
+        }
+
+        final ExecutorService executorService = Executors.newFixedThreadPool(
+            Math.min(parallelism, requests.size()),
+            new BatchThreadFactory()
+        );
+        try {
+            final CompletionService<BatchResult> completionService = new ExecutorCompletionService<>(executorService);
+
+            // Submit each request, capturing any failure in its result.
+            final List<Request> requestList = new ArrayList<>(requests);
+            for (int index = 0; index < requestList.size(); index++) {
+                final int requestIndex = index;
+                final Request request = requestList.get(index);
+                completionService.submit(() -> submit(requestIndex, request));
+            }
+
+            // Hand back results as they complete.
+            for (int completed = 0; completed < requestList.size(); completed++) {
+                resultConsumer.accept(completionService.take().get());
+            }
+        } catch (final InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            throw new RestException("Interrupted while waiting on batch to complete", exception);
+        } catch (final ExecutionException exception) {
+            // Should not happen as each task captures its own failures.
+            throw new RestException(exception.getMessage(), exception.getCause());
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
+    private BatchResult submit(final int index, final Request request) {
+        try {
+            return new BatchResult(index, request, restClient.submitRequest(request), null);
+        } catch (final RuntimeException exception) {
+            return new BatchResult(index, request, null, exception);
+        }
+    }
+
+    /**
+     * Names batch worker threads, and marks them as daemon threads so an abandoned batch cannot hold the JVM open.
+     */
+    private static class BatchThreadFactory implements ThreadFactory {
+        private final int batchId = BATCH_COUNTER.incrementAndGet();
+        private final AtomicInteger threadCounter = new AtomicInteger();
+
+        @Override
+        public Thread newThread(final Runnable runnable) {
+            final Thread thread = new Thread(runnable, "rest-client-batch-" + batchId + "-" + threadCounter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,195 @@
+/**
+ * Copyright 2019 SourceLab.org https://github.com/SourceLabOrg/http-client-wrapper
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit
+ * persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.sourcelab.http.rest;
+
+import org.sourcelab.http.rest.configuration.Configuration;
+import org.sourcelab.http.rest.request.Request;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Exposes a blocking {@link RestClient} as an {@link AsyncRestClient} by running each
+ * {@link RestClient#submitRequest(Request)} call as a task on an {@link ExecutorService}.
+ *
+ * On JDK 21 or newer {@link #newVirtualThreadClient(RestClient, int)} runs each request on its own virtual thread.
+ * HttpClient 4.x waits for a pooled connection, and establishes new connections, while holding an object monitor,
+ * which pins a virtual thread to its carrier thread.  To keep carrier threads free, callers are gated by a
+ * {@link Semaphore} sized to the connection pool so excess virtual threads park before leasing a connection.
+ */
+public class ExecutorAsyncRestClient implements AsyncRestClient, RestClient {
+    /**
+     * Underlying blocking client.
+     */
+    private final RestClient restClient;
+
+    /**
+     * Executes each blocking request.
+     */
+    private final ExecutorService executorService;
+
+    /**
+     * Optionally bounds the number of requests submitted to the underlying client at once, null if unbounded.
+     */
+    private final Semaphore permits;
+
+    /**
+     * Constructor.  The ExecutorService is owned by this instance and shut down when it is closed.
+     * @param restClient Underlying blocking client to submit requests with.
+     * @param executorService ExecutorService to run each blocking request on.
+     */
+    public ExecutorAsyncRestClient(final RestClient restClient, final ExecutorService executorService) {
+        this(restClient, executorService, 0);
+    }
+
+    /**
+     * Constructor.  The ExecutorService is owned by this instance and shut down when it is closed.
+     * @param restClient Underlying blocking client to submit requests with.
+     * @param executorService ExecutorService to run each blocking request on.
+     * @param maxConcurrentRequests Maximum number of requests submitted to the underlying client at once,
+     *                              0 or less for no limit.
+     */
+    public ExecutorAsyncRestClient(final RestClient restClient, final ExecutorService executorService, final int maxConcurrentRequests) {
+        this.restClient = Objects.requireNonNull(restClient);
+        this.executorService = Objects.requireNonNull(executorService);
+        this.permits = maxConcurrentRequests > 0 ? new Semaphore(maxConcurrentRequests) : null;
+    }
+
+    /**
+     * Create a client running each request on a fixed pool of platform threads.
+     * @param restClient Underlying blocking client to submit requests with.
+     * @param threads Number of threads in the pool.
+     * @return ExecutorAsyncRestClient instance.
+     */
+    public static ExecutorAsyncRestClient newFixedThreadPoolClient(final RestClient restClient, final int threads) {
+        return new ExecutorAsyncRestClient(restClient, Executors.newFixedThreadPool(threads));
+    }
+
+    /**
+     * Create a client running each request on its own virtual thread.  Requires JDK 21 or newer.
+     * @param restClient Underlying blocking client to submit requests with.
+     * @param maxConcurrentRequests Maximum number of requests submitted to the underlying client at once.  This should
+     *                              match the connection pool size to avoid virtual threads pinning their carrier
+     *                              threads while waiting to lease a connection.  0 or less for no limit.
+     * @return ExecutorAsyncRestClient instance.
+     * @throws UnsupportedOperationException if the running JVM does not support virtual threads.
+     */
+    public static ExecutorAsyncRestClient newVirtualThreadClient(final RestClient restClient, final int maxConcurrentRequests) {
+        return new ExecutorAsyncRestClient(restClient, newVirtualThreadPerTaskExecutor(), maxConcurrentRequests);
+    }
+
+    /**
+     * Does the running JVM support virtual threads.
+     * @return true if virtual threads are supported.
+     */
+    public static boolean isVirtualThreadSupported() {
+        return getVirtualThreadExecutorFactory() != null;
+    }
+
+    @Override
+    public void init(final Configuration configuration) {
+        restClient.init(configuration);
+    }
+
+    @Override
+    public CompletableFuture<RestResponse> submitRequestAsync(final Request request) {
+        try {
+            return CompletableFuture.supplyAsync(() -> submitWithPermit(request), executorService);
+        } catch (final RejectedExecutionException exception) {
+            final CompletableFuture<RestResponse> result = new CompletableFuture<>();
+            result.completeExceptionally(new RestException("Client is closed", exception));
+            return result;
+        }
+    }
+
+    @Override
+    public RestResponse submitRequest(final Request request) throws RestException {
+        try {
+            return submitRequestAsync(request).join();
+        } catch (final CompletionException exception) {
+            if (exception.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) exception.getCause();
+            }
+            throw new RestException(exception.getMessage(), exception.getCause());
+        }
+    }
+
+    @Override
+    public void close() {
+        executorService.shutdown();
+        restClient.close();
+    }
+
+    /**
+     * Submit a request to the underlying client, waiting for a permit if concurrency is bounded.
+     * @param request The request to submit.
+     * @return The response.
+     */
+    private RestResponse submitWithPermit(final Request request) {
+        if (permits == null) {
+            return restClient.submitRequest(request);
+        }
+
+        try {
+            permits.acquire();
+        } catch (final InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            throw new RestException(exception.getMessage(), exception);
+        }
+        try {
+            return restClient.submitRequest(request);
+        } finally {
+            permits.release();
+        }
+    }
+
+    /**
+     * Create a new virtual thread per task executor.
+     * @return ExecutorService instance.
+     */
+    private static ExecutorService newVirtualThreadPerTaskExecutor() {
+        final Method factory = getVirtualThreadExecutorFactory();
+        if (factory == null) {
+            throw new UnsupportedOperationException("Virtual threads require JDK 21 or newer, running " + System.getProperty("java.version"));
+        }
+        try {
+            return (ExecutorService) factory.invoke(null);
+        } catch (final IllegalAccessException | InvocationTargetException exception) {
+            throw new UnsupportedOperationException(exception.getMessage(), exception);
+        }
+    }
+
+    /**
+     * Looked up reflectively so this library continues to run on JDK 8.
+     * @return Executors.newVirtualThreadPerTaskExecutor() method, or null if not available.
+     */
+    private static Method getVirtualThreadExecutorFactory() {
+        try {
+            return Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+        } catch (final NoSuchMethodException exception) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,44 @@
+/**
+ * Copyright 2019 SourceLab.org https://github.com/SourceLabOrg/http-client-wrapper
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit
+ * persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.sourcelab.http.rest;
+
+import org.sourcelab.http.rest.transport.AsyncTransport;
+import org.sourcelab.http.rest.transport.Http2Transport;
+
+/**
+ * Non-blocking RestClient implementation speaking HTTP/2 using HttpClient 5.  Concurrent requests to the API host
+ * are multiplexed as streams over a single connection, rather than requiring a connection per in-flight request.
+ *
+ * The API host must support HTTP/2, negotiated via ALPN for https, or with prior knowledge (h2c) for http.
+ * Proxies are not supported.
+ *
+ * Requires the optional org.apache.httpcomponents.client5:httpclient5 dependency.
+ */
+public class Http2RestClient extends AbstractAsyncTransportRestClient {
+
+    /**
+     * Constructor.
+     */
+    public Http2RestClient() {
+    }
+
+    @Override
+    protected AsyncTransport createTransport() {
+        return new Http2Transport();
+    }
+}
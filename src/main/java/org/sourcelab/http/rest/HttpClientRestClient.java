@@ -17,84 +17,100 @@
 
 package org.sourcelab.http.rest;
 
-import org.apache.http.HttpEntity;
-import org.apache.http.HttpHost;
-import org.apache.http.NameValuePair;
-import org.apache.http.auth.AuthScope;
-import org.apache.http.auth.UsernamePasswordCredentials;
-import org.apache.http.client.AuthCache;
-import org.apache.http.client.ClientProtocolException;
-import org.apache.http.client.CredentialsProvider;
-import org.apache.http.client.ResponseHandler;
-import org.apache.http.client.config.RequestConfig;
-import org.apache.http.client.entity.UrlEncodedFormEntity;
-import org.apache.http.client.methods.HttpDelete;
-import org.apache.http.client.methods.HttpGet;
-import org.apache.http.client.methods.HttpPost;
-import org.apache.http.client.methods.HttpPut;
-import org.apache.http.client.methods.HttpRequestBase;
-import org.apache.http.client.protocol.HttpClientContext;
-import org.apache.http.client.utils.URIBuilder;
-import org.apache.http.entity.StringEntity;
-import org.apache.http.impl.auth.BasicScheme;
-import org.apache.http.impl.client.BasicAuthCache;
-import org.apache.http.impl.client.BasicCredentialsProvider;
-import org.apache.http.impl.client.CloseableHttpClient;
-import org.apache.http.impl.client.HttpClientBuilder;
-import org.apache.http.message.BasicHeader;
-import org.apache.http.message.BasicNameValuePair;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.sourcelab.http.rest.configuration.Configuration;
-import org.sourcelab.http.rest.configuration.ProxyConfiguration;
-import org.sourcelab.http.rest.request.RequestHeader;
 import org.sourcelab.http.rest.exceptions.ConnectionException;
-import org.sourcelab.http.rest.exceptions.ResultParsingException;
-import org.sourcelab.http.rest.handlers.RestResponseHandler;
-import org.sourcelab.http.rest.interceptor.HeaderRequestInterceptor;
-import org.sourcelab.http.rest.interceptor.RequestContext;
-import org.sourcelab.http.rest.interceptor.RequestInterceptor;
+import org.sourcelab.http.rest.metrics.MetricsRegistry;
+import org.sourcelab.http.rest.metrics.MetricsTransport;
 import org.sourcelab.http.rest.request.Request;
-import org.sourcelab.http.rest.request.RequestMethod;
-import org.sourcelab.http.rest.request.RequestParameter;
-import org.sourcelab.http.rest.request.body.NoBodyContent;
-import org.sourcelab.http.rest.request.body.RequestBodyContent;
-import org.sourcelab.http.rest.request.body.UrlEncodedFormBodyContent;
-
-import javax.net.ssl.SSLHandshakeException;
-import java.io.IOException;
-import java.io.UnsupportedEncodingException;
-import java.net.MalformedURLException;
-import java.net.SocketException;
+import org.sourcelab.http.rest.request.StreamingRequest;
+import org.sourcelab.http.rest.tracing.TracingTransport;
+import org.sourcelab.http.rest.transport.AdaptiveConcurrencyLimiter;
+import org.sourcelab.http.rest.transport.AdaptiveConcurrencyTransport;
+import org.sourcelab.http.rest.transport.Bulkhead;
+import org.sourcelab.http.rest.transport.BulkheadTransport;
+import org.sourcelab.http.rest.transport.CircuitBreaker;
+import org.sourcelab.http.rest.transport.CircuitBreakerTransport;
+import org.sourcelab.http.rest.transport.CoalescingStatistics;
+import org.sourcelab.http.rest.transport.CoalescingTransport;
+import org.sourcelab.http.rest.transport.ConnectionPoolMetrics;
+import org.sourcelab.http.rest.transport.HedgingStatistics;
+import org.sourcelab.http.rest.transport.HedgingTransport;
+import org.sourcelab.http.rest.transport.HttpClientTransport;
+import org.sourcelab.http.rest.transport.PreparedRequest;
+import org.sourcelab.http.rest.transport.RateLimiter;
+import org.sourcelab.http.rest.transport.RateLimitingTransport;
+import org.sourcelab.http.rest.transport.RetryStatistics;
+import org.sourcelab.http.rest.transport.RetryingTransport;
+import org.sourcelab.http.rest.transport.Transport;
+import org.sourcelab.http.rest.transport.Transports;
+
 import java.net.URISyntaxException;
-import java.net.URL;
-import java.nio.charset.StandardCharsets;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.concurrent.TimeUnit;
+import java.util.Collection;
+import java.util.Collections;
 
 /**
- * RestClient implementation using HTTPClient.
+ * RestClient implementation using HTTPClient by default.  Requests are passed through the shared request pipeline
+ * and then executed by the {@link Transport} selected via the configuration, see {@link Transports}.
  */
 public class HttpClientRestClient implements RestClient {
     private static final Logger logger = LoggerFactory.getLogger(HttpClientRestClient.class);
 
     /**
-     * Save a copy of the configuration.
+     * Our underlying transport.
+     */
+    private Transport transport;
+
+    /**
+     * The underlying HttpClient transport, NULL if another transport is configured.
      */
-    private Configuration configuration;
+    private HttpClientTransport httpClientTransport;
 
     /**
-     * Our underlying Http Client.
+     * Records request metrics, NULL if not enabled.
      */
-    private CloseableHttpClient httpClient;
+    private MetricsTransport metricsTransport;
 
-    private HttpClientContext httpClientContext;
+    /**
+     * Coalesces identical concurrent GET requests, NULL if not enabled.
+     */
+    private CoalescingTransport coalescingTransport;
+
+    /**
+     * Retries failed requests, NULL if not enabled.
+     */
+    private RetryingTransport retryingTransport;
+
+    /**
+     * Hedges slow requests, NULL if not enabled.
+     */
+    private HedgingTransport hedgingTransport;
+
+    /**
+     * Isolates endpoints behind bulkheads, NULL if not enabled.
+     */
+    private BulkheadTransport bulkheadTransport;
+
+    /**
+     * Guards endpoints with circuit breakers, NULL if not enabled.
+     */
+    private CircuitBreakerTransport circuitBreakerTransport;
+
+    /**
+     * Enforces client side rate limits, NULL if not enabled.
+     */
+    private RateLimitingTransport rateLimitingTransport;
 
     /**
-     * To allow for custom modifications to request prior to submitting it.
+     * Enforces an adaptive concurrency limit, NULL if not enabled.
      */
-    private final List<RequestInterceptor> requestInterceptors = new ArrayList<>();
+    private AdaptiveConcurrencyTransport adaptiveConcurrencyTransport;
+
+    /**
+     * Translates requests into prepared requests, applying request interceptors.
+     */
+    private HttpRequestBuilder httpRequestBuilder;
 
     /**
      * Constructor.
@@ -104,130 +120,97 @@ public class HttpClientRestClient implements RestClient {
 
     /**
      * Initialization method.  This takes in the configuration and sets up the underlying
-     * http client appropriately.
+     * transport appropriately.
      * @param configuration The user defined configuration.
      */
     @Override
     public void init(final Configuration configuration) {
-        // Save reference to configuration
-        this.configuration = configuration;
-
-        // Load default headers
-        if (configuration.getRequestHeaders() != null && !configuration.getRequestHeaders().isEmpty()) {
-            // Add interceptor to add headers to all requests.
-            requestInterceptors.add(
-                new HeaderRequestInterceptor(configuration.getRequestHeaders())
-            );
+        // Create request builder, this loads our request interceptors.
+        httpRequestBuilder = new HttpRequestBuilder(configuration);
+
+        // Create and initialize our configured transport.
+        transport = Transports.create(configuration);
+        if (transport instanceof HttpClientTransport) {
+            httpClientTransport = (HttpClientTransport) transport;
         }
 
-        // Load RequestMutator instance from configuration.
-        requestInterceptors.addAll(configuration.getRequestInterceptors());
-
-        // Create https context builder utility.
-        final HttpsContextBuilder httpsContextBuilder = new HttpsContextBuilder(configuration);
-
-        // Setup client builder
-        final HttpClientBuilder clientBuilder = HttpClientBuilder.create();
-        clientBuilder
-            // Define timeout
-            .setConnectionTimeToLive(configuration.getRequestTimeoutInSeconds(), TimeUnit.SECONDS)
-
-            // Define SSL Socket Factory instance.
-            .setSSLSocketFactory(httpsContextBuilder.createSslSocketFactory());
-
-        // Define our RequestConfigBuilder
-        final RequestConfig.Builder requestConfigBuilder = RequestConfig.custom();
-
-        // Define our Credentials Provider
-        final CredentialsProvider credsProvider = new BasicCredentialsProvider();
-
-        // Define our context
-        httpClientContext = HttpClientContext.create();
-
-        // Define our auth cache
-        final AuthCache authCache = new BasicAuthCache();
-
-        // If we have a configured proxy host
-        if (configuration.getProxyConfiguration() != null) {
-            final ProxyConfiguration proxyConfiguration = configuration.getProxyConfiguration();
-
-            // Define proxy host
-            final HttpHost proxyHost = new HttpHost(
-                proxyConfiguration.getProxyHost(),
-                proxyConfiguration.getProxyPort(),
-                proxyConfiguration.getProxyScheme()
-            );
-
-            // If we have proxy auth enabled
-            if (proxyConfiguration.isProxyAuthenticationEnabled()) {
-                // Add proxy credentials
-                credsProvider.setCredentials(
-                    new AuthScope(proxyConfiguration.getProxyHost(), proxyConfiguration.getProxyPort()),
-                    new UsernamePasswordCredentials(proxyConfiguration.getProxyUsername(), proxyConfiguration.getProxyPassword())
-                );
-
-                // Preemptive load context with authentication.
-                authCache.put(
-                    new HttpHost(
-                        proxyConfiguration.getProxyHost(),
-                        proxyConfiguration.getProxyPort(),
-                        proxyConfiguration.getProxyScheme()
-                    ), new BasicScheme()
-                );
-            }
+        // Optionally enforce an adaptive concurrency limit, closest to the wire so latency is measured accurately.  The
+        // circuit breaker does not record its rejections as failures.
+        if (configuration.getAdaptiveConcurrencyConfiguration() != null) {
+            adaptiveConcurrencyTransport = new AdaptiveConcurrencyTransport(transport, configuration.getAdaptiveConcurrencyConfiguration());
+            transport = adaptiveConcurrencyTransport;
+        }
 
-            // Attach Proxy to request config builder
-            requestConfigBuilder.setProxy(proxyHost);
+        // Optionally guard endpoints with circuit breakers, each retry attempt passes through the circuit breaker.
+        if (configuration.getCircuitBreakerConfiguration() != null) {
+            circuitBreakerTransport = new CircuitBreakerTransport(transport, configuration.getCircuitBreakerConfiguration());
+            transport = circuitBreakerTransport;
         }
 
-        // If BasicAuth credentials are configured.
-        if (configuration.getBasicAuthUsername() != null) {
-            try {
-                // parse ApiHost for Hostname and port.
-                final URL apiUrl = new URL(configuration.getApiHost());
-
-                // Add credentials
-                credsProvider.setCredentials(
-                    new AuthScope(apiUrl.getHost(), apiUrl.getPort()),
-                    new UsernamePasswordCredentials(
-                        configuration.getBasicAuthUsername(),
-                        configuration.getBasicAuthPassword()
-                    )
-                );
-
-                // Preemptive load context with authentication.
-                authCache.put(
-                    new HttpHost(apiUrl.getHost(), apiUrl.getPort(), apiUrl.getProtocol()), new BasicScheme()
-                );
-            } catch (final MalformedURLException exception) {
-                throw new RuntimeException(exception.getMessage(), exception);
-            }
+        // Optionally enforce rate limits, each retry attempt acquires its own permit.  Outside the circuit breaker so
+        // rejections, and time spent waiting for a permit, are not recorded against the endpoint.
+        if (configuration.getRateLimiterConfiguration() != null) {
+            rateLimitingTransport = new RateLimitingTransport(transport, configuration.getRateLimiterConfiguration());
+            transport = rateLimitingTransport;
+        }
+
+        // Optionally isolate endpoints behind bulkheads, outside the circuit breaker so rejections are not failures.
+        if (configuration.getBulkheadConfiguration() != null) {
+            bulkheadTransport = new BulkheadTransport(transport, configuration.getBulkheadConfiguration());
+            transport = bulkheadTransport;
+        }
+
+        // Optionally hedge slow requests, each hedge passes through the circuit breaker and rate limits.
+        if (configuration.getHedgingConfiguration() != null) {
+            hedgingTransport = new HedgingTransport(transport, configuration.getHedgingConfiguration());
+            transport = hedgingTransport;
         }
 
-        // Configure context.
-        httpClientContext.setAuthCache(authCache);
-        httpClientContext.setCredentialsProvider(credsProvider);
+        // Optionally retry failed requests.
+        if (configuration.getRetryConfiguration() != null) {
+            retryingTransport = new RetryingTransport(transport, configuration.getRetryConfiguration());
+            transport = retryingTransport;
+        }
 
-        // Attach Credentials provider to client builder.
-        clientBuilder.setDefaultCredentialsProvider(credsProvider);
+        // Optionally coalesce identical concurrent GET requests, sharing a single request's retries.
+        if (configuration.getCoalescingConfiguration() != null) {
+            coalescingTransport = new CoalescingTransport(transport, configuration.getCoalescingConfiguration());
+            transport = coalescingTransport;
+        }
+
+        // Optionally record spans for sampled traces, covering retries, hedges and time spent queued.
+        if (configuration.getTracingConfiguration() != null) {
+            transport = new TracingTransport(transport, configuration.getTracingConfiguration());
+        }
 
-        // Attach default request config
-        clientBuilder.setDefaultRequestConfig(requestConfigBuilder.build());
+        // Optionally record metrics, outermost so they reflect the latency seen by callers.
+        if (configuration.getMetricsConfiguration() != null) {
+            metricsTransport = new MetricsTransport(transport, configuration.getMetricsConfiguration());
+            transport = metricsTransport;
 
-        // build http client
-        httpClient = clientBuilder.build();
+            // Aggregate the phase level timing of each request, where the transport records it.
+            if (httpClientTransport != null) {
+                httpClientTransport.addRequestTimingListener(metricsTransport);
+            }
+        }
+        transport.init(configuration);
     }
 
     @Override
     public void close() {
-        if (httpClient != null) {
-            try {
-                httpClient.close();
-            } catch (final IOException e) {
-                logger.error("Error closing: {}", e.getMessage(), e);
-            }
+        if (transport != null) {
+            transport.close();
         }
-        httpClient = null;
+        transport = null;
+        httpClientTransport = null;
+        metricsTransport = null;
+        coalescingTransport = null;
+        retryingTransport = null;
+        hedgingTransport = null;
+        bulkheadTransport = null;
+        circuitBreakerTransport = null;
+        rateLimitingTransport = null;
+        adaptiveConcurrencyTransport = null;
     }
 
     /**
@@ -238,252 +221,109 @@ public class HttpClientRestClient implements RestClient {
      */
     @Override
     public RestResponse submitRequest(final Request request) throws RestException {
-        final String url = constructApiUrl(request.getApiEndpoint());
-        final ResponseHandler<RestResponse> responseHandler = new RestResponseHandler();
-
-        try {
-            switch (request.getRequestMethod()) {
-                case GET:
-                    return submitGetRequest(url, request.getRequestBody(), responseHandler);
-                case POST:
-                    return submitPostRequest(url, request.getRequestBody(), responseHandler);
-                case PUT:
-                    return submitPutRequest(url, request.getRequestBody(), responseHandler);
-                case DELETE:
-                    return submitDeleteRequest(url, request.getRequestBody(), responseHandler);
-                default:
-                    throw new IllegalArgumentException("Unknown Request Method: " + request.getRequestMethod());
-            }
-        } catch (final IOException exception) {
-            throw new RestException(exception.getMessage(), exception);
-        }
+        return transport.execute(prepareRequest(request));
     }
 
     /**
-     * Internal GET method.
-     * @param url Url to GET to.
-     * @param requestBodyContent parameters to include in the request
-     * @param responseHandler The response Handler to use to parse the response
-     * @param <T> The type that ResponseHandler returns.
-     * @return Parsed response.
+     * Make a request, passing the response body stream directly to the request's parser.
+     * @param request The request to submit.
+     * @param <T> return type of the request.
+     * @return The parsed response.
+     * @throws RestException if something goes wrong.
      */
-    private <T> T submitGetRequest(
-        final String url,
-        final RequestBodyContent requestBodyContent,
-        final ResponseHandler<T> responseHandler
-    ) throws IOException {
-        final RequestContext requestContext = new RequestContext(url, RequestMethod.GET);
-
-        try {
-            // Construct URI including our request parameters.
-            final URIBuilder uriBuilder = new URIBuilder(url)
-                .setCharset(StandardCharsets.UTF_8);
-
-            // Process request parameters/
-            List<RequestParameter> requestParameters = new ArrayList<>();
-            if (requestBodyContent instanceof UrlEncodedFormBodyContent) {
-                requestParameters = ((UrlEncodedFormBodyContent) requestBodyContent).getRequestParameters();
-            }
-
-            // run parameters through interceptors.
-            requestParameters = processRequestParameters(requestParameters, requestContext);
-
-            // Attach submitRequest params
-            for (final RequestParameter requestParameter : requestParameters) {
-                uriBuilder.setParameter(requestParameter.getName(), requestParameter.getValue());
-            }
-
-            // Build Get Request
-            final HttpGet get = new HttpGet(uriBuilder.build());
-
-            // Add headers.
-            buildHeaders(get, requestContext);
-
-            logger.debug("Executing request {}", get.getRequestLine());
-
-            // Execute and return
-            return httpClient.execute(get, responseHandler, httpClientContext);
-        } catch (final ClientProtocolException | SocketException | URISyntaxException | SSLHandshakeException connectionException) {
-            // Typically this is a connection or certificate issue.
-            throw new ConnectionException(connectionException.getMessage(), connectionException);
-        } catch (final IOException ioException) {
-            // Typically this is a parse error.
-            throw new ResultParsingException(ioException.getMessage(), ioException);
-        }
+    @Override
+    public <T> T submitStreamingRequest(final StreamingRequest<T> request) throws RestException {
+        return transport.executeStreaming(prepareRequest(request), request);
     }
 
     /**
-     * Internal POST method.
-     * @param url Url to POST to.
-     * @param requestBodyContent POST entity include in the request body
-     * @param responseHandler The response Handler to use to parse the response
-     * @param <T> The type that ResponseHandler returns.
-     * @return Parsed response.
+     * Metrics recorded for each endpoint and request method.
+     * @return NULL if metrics are not enabled, otherwise registry instance.
      */
-    private <T> T submitPostRequest(
-        final String url,
-        final RequestBodyContent requestBodyContent,
-        final ResponseHandler<T> responseHandler
-    ) throws IOException {
-        final RequestContext requestContext = new RequestContext(url, RequestMethod.POST);
-
-        try {
-            final HttpPost post = new HttpPost(url);
-
-            // Pass headers through interceptor interface
-            buildHeaders(post, requestContext);
-
-            // Build request entity
-            post.setEntity(
-                buildEntity(requestBodyContent, requestContext)
-            );
-            logger.debug("Executing request {} with {}", post.getRequestLine(), requestBodyContent);
-
-            // Execute and return
-            return httpClient.execute(post, responseHandler, httpClientContext);
-        } catch (final ClientProtocolException | SocketException | SSLHandshakeException connectionException) {
-            // Typically this is a connection issue.
-            throw new ConnectionException(connectionException.getMessage(), connectionException);
-        } catch (final IOException ioException) {
-            // Typically this is a parse error.
-            throw new ResultParsingException(ioException.getMessage(), ioException);
-        }
+    public MetricsRegistry getMetrics() {
+        return metricsTransport == null ? null : metricsTransport.getRegistry();
     }
 
     /**
-     * Internal PUT method.
-     * @param url Url to POST to.
-     * @param requestBodyContent POST entity include in the request body
-     * @param responseHandler The response Handler to use to parse the response
-     * @param <T> The type that ResponseHandler returns.
-     * @return Parsed response.
+     * Live view of the connection pool, including how long requests wait to lease a connection.
+     * @return NULL if not initialized or another transport is configured, otherwise metrics instance.
      */
-    private <T> T submitPutRequest(
-        final String url,
-        final RequestBodyContent requestBodyContent,
-        final ResponseHandler<T> responseHandler
-    ) throws IOException {
-        final RequestContext requestContext = new RequestContext(url, RequestMethod.PUT);
-
-        try {
-            final HttpPut put = new HttpPut(url);
-
-            // Pass headers through interceptor interface
-            buildHeaders(put, requestContext);
-
-            // Build request entity
-            put.setEntity(
-                buildEntity(requestBodyContent, requestContext)
-            );
-            logger.debug("Executing request {} with {}", put.getRequestLine(), requestBodyContent);
-
-            // Execute and return
-            return httpClient.execute(put, responseHandler, httpClientContext);
-        } catch (final ClientProtocolException | SocketException | SSLHandshakeException connectionException) {
-            // Typically this is a connection issue.
-            throw new ConnectionException(connectionException.getMessage(), connectionException);
-        } catch (final IOException ioException) {
-            // Typically this is a parse error.
-            throw new ResultParsingException(ioException.getMessage(), ioException);
-        }
+    public ConnectionPoolMetrics getConnectionPoolMetrics() {
+        return httpClientTransport == null ? null : httpClientTransport.getConnectionPoolMetrics();
     }
 
     /**
-     * Internal DELETE method.
-     * @param url Url to DELETE to.
-     * @param requestBody POST entity include in the request body
-     * @param responseHandler The response Handler to use to parse the response
-     * @param <T> The type that ResponseHandler returns.
-     * @return Parsed response.
+     * Counters describing how many requests were coalesced.
+     * @return NULL if request coalescing is not enabled, otherwise statistics instance.
      */
-    private <T> T submitDeleteRequest(final String url, final Object requestBody, final ResponseHandler<T> responseHandler) throws IOException {
-        final RequestContext requestContext = new RequestContext(url, RequestMethod.DELETE);
-
-        try {
-            final HttpDelete delete = new HttpDelete(url);
-
-            // Pass headers through interceptor interface
-            buildHeaders(delete, requestContext);
+    public CoalescingStatistics getCoalescingStatistics() {
+        return coalescingTransport == null ? null : coalescingTransport.getStatistics();
+    }
 
-            // Delete requests have no request body.
+    /**
+     * Counters describing how often requests were retried.
+     * @return NULL if retries are not enabled, otherwise statistics instance.
+     */
+    public RetryStatistics getRetryStatistics() {
+        return retryingTransport == null ? null : retryingTransport.getStatistics();
+    }
 
-            // Execute and return
-            return httpClient.execute(delete, responseHandler, httpClientContext);
-        } catch (final ClientProtocolException | SocketException | SSLHandshakeException connectionException) {
-            // Typically this is a connection issue.
-            throw new ConnectionException(connectionException.getMessage(), connectionException);
-        } catch (final IOException ioException) {
-            // Typically this is a parse error.
-            throw new ResultParsingException(ioException.getMessage(), ioException);
-        }
+    /**
+     * Counters describing how often requests were hedged.
+     * @return NULL if request hedging is not enabled, otherwise statistics instance.
+     */
+    public HedgingStatistics getHedgingStatistics() {
+        return hedgingTransport == null ? null : hedgingTransport.getStatistics();
     }
 
     /**
-     * Internal helper method for generating URLs w/ the appropriate API host and API version.
-     * @param endPoint The end point you want to hit.
-     * @return Constructed URL for the end point.
+     * Bulkheads isolating endpoints.
+     * @return Bulkheads, empty if bulkheads are not enabled.
      */
-    private String constructApiUrl(final String endPoint) {
-        return configuration.getApiHost() + endPoint;
+    public Collection<Bulkhead> getBulkheads() {
+        return bulkheadTransport == null ? Collections.emptyList() : bulkheadTransport.getBulkheads();
     }
 
-    private HttpEntity buildEntity(final RequestBodyContent requestBodyContent, final RequestContext requestContext) throws UnsupportedEncodingException {
-        if (requestBodyContent instanceof UrlEncodedFormBodyContent) {
-            List<RequestParameter> requestParameters = processRequestParameters(
-                ((UrlEncodedFormBodyContent) requestBodyContent).getRequestParameters(), requestContext
-            );
-
-            // Build Form parameters
-            final List<NameValuePair> params = new ArrayList<>();
-
-            // Attach submitRequest params
-            requestParameters
-                .forEach(parameter -> params.add(new BasicNameValuePair(parameter.getName(), parameter.getValue())));
-            return new UrlEncodedFormEntity(params, StandardCharsets.UTF_8);
-        } else if ( requestBodyContent instanceof NoBodyContent) {
-            return null;
-        } else {
-            return new StringEntity(
-                requestBodyContent.toString(), StandardCharsets.UTF_8
-            );
-        }
+    /**
+     * Circuit breakers created so far, one per endpoint or endpoint pattern.
+     * @return Circuit breakers, empty if circuit breakers are not enabled.
+     */
+    public Collection<CircuitBreaker> getCircuitBreakers() {
+        return circuitBreakerTransport == null ? Collections.emptyList() : circuitBreakerTransport.getCircuitBreakers();
     }
 
     /**
-     * Process headers through requestInteceptor instances.
-     * @param requestBase The underlying request object.
-     * @param requestContext Contextual details about the request.
+     * Rate limiters for the API host and endpoints.
+     * @return Rate limiters, empty if rate limits are not enabled.
      */
-    private void buildHeaders(final HttpRequestBase requestBase, final RequestContext requestContext) {
-        // Pass headers through interceptor interface
-        List<RequestHeader> headers = new ArrayList<>();
-        for (final RequestInterceptor requestInterceptor : requestInterceptors) {
-            headers = requestInterceptor.modifyHeaders(headers, requestContext);
-        }
+    public Collection<RateLimiter> getRateLimiters() {
+        return rateLimitingTransport == null ? Collections.emptyList() : rateLimitingTransport.getRateLimiters();
+    }
 
-        // Add headers to the request instance.
-        headers
-            .stream()
-            .map((entry) -> new BasicHeader(entry.getName(), entry.getValue()))
-            .forEach(requestBase::addHeader);
+    /**
+     * The adaptive concurrency limiter, exposing the live limit.
+     * @return NULL if adaptive concurrency limiting is not enabled, otherwise limiter instance.
+     */
+    public AdaptiveConcurrencyLimiter getConcurrencyLimiter() {
+        return adaptiveConcurrencyTransport == null ? null : adaptiveConcurrencyTransport.getLimiter();
     }
 
     /**
-     * Process request parameters through request interceptors.
-     *
-     * @param incomingParameters The defined request parameters.
-     * @param requestContext Contextual details about the request.
-     * @return Modified request parameters.
+     * Build the request, passing it through our interceptors.
+     * @param request The request to build.
+     * @return PreparedRequest instance.
+     * @throws ConnectionException if the request url could not be constructed.
      */
-    private List<RequestParameter> processRequestParameters(final List<RequestParameter> incomingParameters, final RequestContext requestContext) {
-        // Copy parameters
-        List<RequestParameter> requestParameters = new ArrayList<>(incomingParameters);
-
-        // Loop over each interceptor
-        for (final RequestInterceptor requestInterceptor : requestInterceptors) {
-            // Pass in the parameters and get the returned list.
-            requestParameters = requestInterceptor.modifyRequestParameters(requestParameters, requestContext);
+    private PreparedRequest prepareRequest(final Request request) throws ConnectionException {
+        final PreparedRequest preparedRequest;
+        try {
+            preparedRequest = httpRequestBuilder.build(request);
+        } catch (final URISyntaxException exception) {
+            throw new ConnectionException(exception.getMessage(), exception);
+        }
+        if (logger.isDebugEnabled()) {
+            logger.debug("Executing request {} with {}", preparedRequest, request.getRequestBody());
         }
-        return requestParameters;
+        return preparedRequest;
     }
 }
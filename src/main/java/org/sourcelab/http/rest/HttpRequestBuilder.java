@@ -0,0 +1,302 @@
+/**
+ * Copyright 2019 SourceLab.org https://github.com/SourceLabOrg/http-client-wrapper
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit
+ * persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.sourcelab.http.rest;
+
+import org.apache.http.NameValuePair;
+import org.apache.http.client.utils.URIBuilder;
+import org.apache.http.client.utils.URLEncodedUtils;
+import org.apache.http.message.BasicNameValuePair;
+import org.sourcelab.http.rest.configuration.Configuration;
+import org.sourcelab.http.rest.interceptor.HeaderRequestInterceptor;
+import org.sourcelab.http.rest.interceptor.RequestContext;
+import org.sourcelab.http.rest.interceptor.RequestInterceptor;
+import org.sourcelab.http.rest.request.Request;
+import org.sourcelab.http.rest.request.RequestHeader;
+import org.sourcelab.http.rest.request.RequestMethod;
+import org.sourcelab.http.rest.request.RequestParameter;
+import org.sourcelab.http.rest.request.body.NoBodyContent;
+import org.sourcelab.http.rest.request.body.RequestBodyContent;
+import org.sourcelab.http.rest.request.body.UrlEncodedFormBodyContent;
+import org.sourcelab.http.rest.transport.PreparedRequest;
+import org.sourcelab.http.rest.tracing.TraceContext;
+import org.sourcelab.http.rest.tracing.Tracer;
+import org.sourcelab.http.rest.transport.Transport;
+
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Shared request pipeline.  Translates {@link Request} instances into {@link PreparedRequest} instances ready to be
+ * handed to a {@link Transport}, passing headers and parameters through the configured {@link RequestInterceptor}
+ * instances, constructing the url and encoding the request body.
+ */
+class HttpRequestBuilder {
+    /**
+     * Content-Type sent with url encoded form bodies.
+     */
+    private static final String FORM_CONTENT_TYPE = "application/x-www-form-urlencoded; charset=UTF-8";
+
+    /**
+     * Content-Type sent with all other bodies.
+     */
+    private static final String TEXT_CONTENT_TYPE = "text/plain; charset=UTF-8";
+
+    /**
+     * W3C trace context headers.
+     */
+    private static final String TRACEPARENT_HEADER = "traceparent";
+    private static final String TRACESTATE_HEADER = "tracestate";
+
+    /**
+     * Client configuration.
+     */
+    private final Configuration configuration;
+
+    /**
+     * To allow for custom modifications to request prior to submitting it.
+     */
+    private final List<RequestInterceptor> requestInterceptors;
+
+    /**
+     * Starts the span of each request, NULL if tracing is not enabled.
+     */
+    private final Tracer tracer;
+
+    /**
+     * Constructor.
+     * @param configuration client configuration instance.
+     */
+    public HttpRequestBuilder(final Configuration configuration) {
+        this.configuration = Objects.requireNonNull(configuration);
+
+        final List<RequestInterceptor> interceptors = new ArrayList<>();
+
+        // Load default headers
+        if (configuration.getRequestHeaders() != null && !configuration.getRequestHeaders().isEmpty()) {
+            // Add interceptor to add headers to all requests.
+            interceptors.add(
+                new HeaderRequestInterceptor(configuration.getRequestHeaders())
+            );
+        }
+
+        // Load RequestMutator instance from configuration.
+        interceptors.addAll(configuration.getRequestInterceptors());
+
+        this.requestInterceptors = Collections.unmodifiableList(interceptors);
+        this.tracer = configuration.getTracingConfiguration() == null ? null : new Tracer(configuration.getTracingConfiguration());
+    }
+
+    /**
+     * Build the prepared request for the given request.
+     * @param request The request to build.
+     * @return PreparedRequest instance ready to be executed.
+     * @throws URISyntaxException if the request url could not be constructed.
+     */
+    public PreparedRequest build(final Request request) throws URISyntaxException {
+        final String url = constructApiUrl(request.getApiEndpoint());
+        final RequestMethod requestMethod = request.getRequestMethod();
+        final RequestContext requestContext = new RequestContext(url, requestMethod, startSpan(request));
+
+        switch (requestMethod) {
+            case GET:
+                return new PreparedRequest(
+                    request,
+                    requestMethod,
+                    buildGetUrl(url, request.getRequestBody(), requestContext),
+                    buildHeaders(request, requestContext),
+                    null,
+                    null,
+                    requestContext.getTraceContext()
+                );
+            case POST:
+            case PUT:
+                return buildEntityRequest(request, url, requestContext);
+            case DELETE:
+                // Delete requests have no request body.
+                return new PreparedRequest(
+                    request, requestMethod, url, buildHeaders(request, requestContext), null, null, requestContext.getTraceContext()
+                );
+            default:
+                throw new IllegalArgumentException("Unknown Request Method: " + requestMethod);
+        }
+    }
+
+    /**
+     * Start the span of the request, continuing the request's own trace context or the current context if any.
+     * @param request The request being built.
+     * @return NULL if tracing is not enabled, otherwise the span's trace context.
+     */
+    private TraceContext startSpan(final Request request) {
+        if (tracer == null) {
+            return null;
+        }
+        final TraceContext parent = request.getTraceContext();
+        return tracer.startSpan(parent == null ? TraceContext.current() : parent);
+    }
+
+    /**
+     * Construct the url for a GET request, including our request parameters.
+     * @param url Url to GET.
+     * @param requestBodyContent parameters to include in the request
+     * @param requestContext Contextual details about the request.
+     * @return Url including query parameters.
+     */
+    private String buildGetUrl(final String url, final RequestBodyContent requestBodyContent, final RequestContext requestContext)
+        throws URISyntaxException {
+        // Construct URI including our request parameters.
+        final URIBuilder uriBuilder = new URIBuilder(url)
+            .setCharset(StandardCharsets.UTF_8);
+
+        // Process request parameters/
+        List<RequestParameter> requestParameters = new ArrayList<>();
+        if (requestBodyContent instanceof UrlEncodedFormBodyContent) {
+            requestParameters = ((UrlEncodedFormBodyContent) requestBodyContent).getRequestParameters();
+        }
+
+        // run parameters through interceptors.
+        requestParameters = processRequestParameters(requestParameters, requestContext);
+
+        // Attach submitRequest params
+        for (final RequestParameter requestParameter : requestParameters) {
+            uriBuilder.setParameter(requestParameter.getName(), requestParameter.getValue());
+        }
+        return uriBuilder.build().toString();
+    }
+
+    /**
+     * Build a POST or PUT request, including an encoded request body.
+     * @param request The request to build.
+     * @param url Url to submit to.
+     * @param requestContext Contextual details about the request.
+     * @return PreparedRequest instance.
+     */
+    private PreparedRequest buildEntityRequest(final Request request, final String url, final RequestContext requestContext) {
+        // Pass headers through interceptor interface
+        final List<RequestHeader> headers = buildHeaders(request, requestContext);
+
+        // Encode request body
+        final RequestBodyContent requestBodyContent = request.getRequestBody();
+        if (requestBodyContent instanceof UrlEncodedFormBodyContent) {
+            return new PreparedRequest(
+                request,
+                request.getRequestMethod(),
+                url,
+                headers,
+                buildEntity(requestBodyContent, requestContext),
+                FORM_CONTENT_TYPE,
+                requestContext.getTraceContext()
+            );
+        }
+        final byte[] body = buildEntity(requestBodyContent, requestContext);
+        return new PreparedRequest(
+            request,
+            request.getRequestMethod(),
+            url,
+            headers,
+            body,
+            body == null ? null : TEXT_CONTENT_TYPE,
+            requestContext.getTraceContext()
+        );
+    }
+
+    /**
+     * Internal helper method for generating URLs w/ the appropriate API host and API version.
+     * @param endPoint The end point you want to hit.
+     * @return Constructed URL for the end point.
+     */
+    private String constructApiUrl(final String endPoint) {
+        return configuration.getApiHost() + endPoint;
+    }
+
+    /**
+     * Encode the request body.
+     * @param requestBodyContent The request body.
+     * @param requestContext Contextual details about the request.
+     * @return Encoded bytes, or NULL if there is no body.
+     */
+    private byte[] buildEntity(final RequestBodyContent requestBodyContent, final RequestContext requestContext) {
+        if (requestBodyContent instanceof UrlEncodedFormBodyContent) {
+            List<RequestParameter> requestParameters = processRequestParameters(
+                ((UrlEncodedFormBodyContent) requestBodyContent).getRequestParameters(), requestContext
+            );
+
+            // Build Form parameters
+            final List<NameValuePair> params = new ArrayList<>();
+
+            // Attach submitRequest params
+            requestParameters
+                .forEach(parameter -> params.add(new BasicNameValuePair(parameter.getName(), parameter.getValue())));
+            return URLEncodedUtils.format(params, StandardCharsets.UTF_8).getBytes(StandardCharsets.US_ASCII);
+        } else if (requestBodyContent == null || requestBodyContent instanceof NoBodyContent) {
+            return null;
+        } else {
+            final String content = requestBodyContent.toString();
+            return content == null ? null : content.getBytes(StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * Process headers through requestInteceptor instances.
+     * @param request The request being built.
+     * @param requestContext Contextual details about the request.
+     * @return Headers to send with the request.
+     */
+    private List<RequestHeader> buildHeaders(final Request request, final RequestContext requestContext) {
+        // Start with headers defined on the request, and pass through interceptor interface
+        List<RequestHeader> headers = new ArrayList<>(request.getRequestHeaders());
+
+        // Propagate trace context, replacing any headers defined on the request.
+        final TraceContext traceContext = requestContext.getTraceContext();
+        if (traceContext != null) {
+            headers.removeIf((header) -> header.getName().equalsIgnoreCase(TRACEPARENT_HEADER)
+                || header.getName().equalsIgnoreCase(TRACESTATE_HEADER));
+            headers.add(new RequestHeader(TRACEPARENT_HEADER, traceContext.toTraceparent()));
+            if (traceContext.getTraceState() != null) {
+                headers.add(new RequestHeader(TRACESTATE_HEADER, traceContext.getTraceState()));
+            }
+        }
+
+        for (final RequestInterceptor requestInterceptor : requestInterceptors) {
+            headers = requestInterceptor.modifyHeaders(headers, requestContext);
+        }
+        return headers;
+    }
+
+    /**
+     * Process request parameters through request interceptors.
+     *
+     * @param incomingParameters The defined request parameters.
+     * @param requestContext Contextual details about the request.
+     * @return Modified request parameters.
+     */
+    private List<RequestParameter> processRequestParameters(final List<RequestParameter> incomingParameters, final RequestContext requestContext) {
+        // Copy parameters
+        List<RequestParameter> requestParameters = new ArrayList<>(incomingParameters);
+
+        // Loop over each interceptor
+        for (final RequestInterceptor requestInterceptor : requestInterceptors) {
+            // Pass in the parameters and get the returned list.
+            requestParameters = requestInterceptor.modifyRequestParameters(requestParameters, requestContext);
+        }
+        return requestParameters;
+    }
+}
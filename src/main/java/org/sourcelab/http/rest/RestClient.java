@@ -18,7 +18,13 @@
 package org.sourcelab.http.rest;
 
 import org.sourcelab.http.rest.configuration.Configuration;
+import org.sourcelab.http.rest.handlers.StreamingResponseHandler;
 import org.sourcelab.http.rest.request.Request;
+import org.sourcelab.http.rest.request.StreamingRequest;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Consumer;
 
 /**
  * Interface for making HTTP calls.
@@ -39,6 +45,48 @@ public interface RestClient {
      */
     RestResponse submitRequest(final Request request) throws RestException;
 
+    /**
+     * Make a request, passing the response body stream directly to the request's parser rather than first
+     * loading it into a String.
+     *
+     * The default implementation buffers the response via {@link #submitRequest(Request)}, implementations able to
+     * stream the response body should override this.
+     *
+     * @param request The request to submit.
+     * @param <T> return type of the request.
+     * @return The parsed response.
+     * @throws RestException When something goes wrong in an underlying implementation.
+     */
+    default <T> T submitStreamingRequest(final StreamingRequest<T> request) throws RestException {
+        return StreamingResponseHandler.parseBufferedResponse(request, submitRequest(request));
+    }
+
+    /**
+     * Submit a batch of independent requests, with at most parallelism requests in flight at once.
+     * A failed request does not abort the batch, its exception is captured in its result instead.
+     *
+     * @param requests The requests to submit.
+     * @param parallelism Maximum number of requests in flight at once.
+     * @return Results, in the same order as the submitted requests.
+     */
+    default List<BatchResult> submitAll(final Collection<? extends Request> requests, final int parallelism) {
+        return new BatchSubmitter(this, parallelism).submitAll(requests);
+    }
+
+    /**
+     * Submit a batch of independent requests, with at most parallelism requests in flight at once, passing each
+     * result to the consumer as soon as it completes.  The consumer is invoked on the calling thread, which
+     * blocks until every request has completed.
+     * A failed request does not abort the batch, its exception is captured in its result instead.
+     *
+     * @param requests The requests to submit.
+     * @param parallelism Maximum number of requests in flight at once.
+     * @param resultConsumer Passed each result, in completion order.
+     */
+    default void submitAll(final Collection<? extends Request> requests, final int parallelism, final Consumer<BatchResult> resultConsumer) {
+        new BatchSubmitter(this, parallelism).submitAll(requests, resultConsumer);
+    }
+
     /**
      * Called to release any internally held resources.
      */
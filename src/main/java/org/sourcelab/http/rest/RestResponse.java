@@ -17,12 +17,36 @@
 
 package org.sourcelab.http.rest;
 
+import org.sourcelab.http.rest.transport.RequestTiming;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
 /**
  * Represents the response from the API.
+ *
+ * Responses read from the wire are backed by the raw response bytes, and only decoded into a String the first time
+ * {@link #getResponseStr()} is called.  Likewise responses constructed from a String are only encoded into bytes
+ * the first time the body is requested.
  */
 public final class RestResponse {
-    private final String responseStr;
+    private final Charset charset;
     private final int httpCode;
+    private final List<ResponseHeader> headers;
+    private final RequestTiming timing;
+
+    /**
+     * Raw body and decoded body, either may be lazily populated from the other.
+     */
+    private volatile byte[] body;
+    private volatile String responseStr;
 
     /**
      * Constructor.
@@ -30,22 +54,160 @@ public final class RestResponse {
      * @param httpCode The http status code from the response.
      */
     public RestResponse(final String responseStr, final int httpCode) {
+        this.charset = StandardCharsets.UTF_8;
+        this.httpCode = httpCode;
+        this.headers = Collections.emptyList();
+        this.timing = null;
         this.responseStr = responseStr;
+    }
+
+    /**
+     * Constructor.
+     * @param body The raw http response body, or NULL if the response has no body.  The array is not copied and
+     *             must not be modified after being passed in.
+     * @param charset The charset used to decode the response body.
+     * @param httpCode The http status code from the response.
+     */
+    public RestResponse(final byte[] body, final Charset charset, final int httpCode) {
+        this(body, charset, httpCode, Collections.emptyList());
+    }
+
+    /**
+     * Constructor.
+     * @param body The raw http response body, or NULL if the response has no body.  The array is not copied and
+     *             must not be modified after being passed in.
+     * @param charset The charset used to decode the response body.
+     * @param httpCode The http status code from the response.
+     * @param headers The http response headers.
+     */
+    public RestResponse(final byte[] body, final Charset charset, final int httpCode, final List<ResponseHeader> headers) {
+        this(body, charset, httpCode, headers, null);
+    }
+
+    /**
+     * Constructor.
+     * @param body The raw http response body, or NULL if the response has no body.  The array is not copied and
+     *             must not be modified after being passed in.
+     * @param charset The charset used to decode the response body.
+     * @param httpCode The http status code from the response.
+     * @param headers The http response headers.
+     * @param timing Time spent in each phase of the request, or NULL if not recorded.
+     */
+    public RestResponse(
+        final byte[] body,
+        final Charset charset,
+        final int httpCode,
+        final List<ResponseHeader> headers,
+        final RequestTiming timing) {
+        this.body = body;
+        this.charset = Objects.requireNonNull(charset);
         this.httpCode = httpCode;
+        this.headers = Collections.unmodifiableList(new ArrayList<>(headers));
+        this.timing = timing;
     }
 
+    /**
+     * The response body, decoded using {@link #getCharset()}.  Decoded on first access and cached.
+     * @return The response body in string format, or NULL if the response has no body.
+     */
     public String getResponseStr() {
-        return responseStr;
+        String decoded = responseStr;
+        if (decoded == null && body != null) {
+            decoded = new String(body, charset);
+            responseStr = decoded;
+        }
+        return decoded;
+    }
+
+    /**
+     * The raw response body.
+     * @return Read-only view of the response body, or NULL if the response has no body.
+     */
+    public ByteBuffer getBody() {
+        final byte[] bytes = getBodyBytes();
+        if (bytes == null) {
+            return null;
+        }
+        return ByteBuffer.wrap(bytes).asReadOnlyBuffer();
+    }
+
+    /**
+     * The raw response body as a stream, without copying.
+     * @return Stream over the response body, empty if the response has no body.
+     */
+    public InputStream getBodyAsStream() {
+        final byte[] bytes = getBodyBytes();
+        return new ByteArrayInputStream(bytes == null ? new byte[0] : bytes);
+    }
+
+    /**
+     * Length of the raw response body.
+     * @return Length of the response body in bytes, 0 if the response has no body.
+     */
+    public int getBodyLength() {
+        final byte[] bytes = getBodyBytes();
+        return bytes == null ? 0 : bytes.length;
+    }
+
+    /**
+     * The charset used to decode the response body.
+     * @return Charset used to decode the response body.
+     */
+    public Charset getCharset() {
+        return charset;
+    }
+
+    /**
+     * Raw body, encoded on first access if constructed from a String.
+     * @return Raw body, or NULL if the response has no body.
+     */
+    private byte[] getBodyBytes() {
+        byte[] bytes = body;
+        if (bytes == null && responseStr != null) {
+            bytes = responseStr.getBytes(charset);
+            body = bytes;
+        }
+        return bytes;
     }
 
     public int getHttpCode() {
         return httpCode;
     }
 
+    /**
+     * The http response headers.
+     * @return Immutable list of response headers, empty if not available.
+     */
+    public List<ResponseHeader> getHeaders() {
+        return headers;
+    }
+
+    /**
+     * Find the first response header with the given name, ignoring case.
+     * @param name Name of the header.
+     * @return Value of the header, or NULL if not present.
+     */
+    public String getHeader(final String name) {
+        for (final ResponseHeader header : headers) {
+            if (header.getName().equalsIgnoreCase(name)) {
+                return header.getValue();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Time spent in each phase of the request, such as DNS, connect, TLS handshake and waiting for the server.
+     * @return NULL if the transport does not record phase timing, otherwise timing instance.
+     */
+    public RequestTiming getTiming() {
+        return timing;
+    }
+
     @Override
     public String toString() {
         return "RestResponse{"
-            + "responseStr='" + responseStr + '\''
+            + "responseStr='" + getResponseStr() + '\''
             + ", httpCode=" + httpCode
             + '}';
     }
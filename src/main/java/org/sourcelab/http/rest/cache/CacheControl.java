@@ -0,0 +1,109 @@
+/**
+ * Copyright 2019 SourceLab.org https://github.com/SourceLabOrg/http-client-wrapper
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit
+ * persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.sourcelab.http.rest.cache;
+
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Parsed Cache-Control directives relevant to a private cache.
+ */
+final class CacheControl {
+    private final boolean noStore;
+    private final boolean noCache;
+    private final long maxAgeInSeconds;
+
+    private CacheControl(final boolean noStore, final boolean noCache, final long maxAgeInSeconds) {
+        this.noStore = noStore;
+        this.noCache = noCache;
+        this.maxAgeInSeconds = maxAgeInSeconds;
+    }
+
+    /**
+     * Parse Cache-Control header values.
+     * @param headerValues All values of the Cache-Control header.
+     * @return Parsed directives.
+     */
+    static CacheControl parse(final List<String> headerValues) {
+        boolean noStore = false;
+        boolean noCache = false;
+        long maxAge = -1;
+
+        for (final String headerValue : headerValues) {
+            if (headerValue == null) {
+                continue;
+            }
+            for (final String directive : headerValue.split(",")) {
+                final int equalsIndex = directive.indexOf('=');
+                final String name = (equalsIndex == -1 ? directive : directive.substring(0, equalsIndex)).trim().toLowerCase(Locale.ROOT);
+                final String value = equalsIndex == -1 ? null : unquote(directive.substring(equalsIndex + 1).trim());
+
+                switch (name) {
+                    case "no-store":
+                        noStore = true;
+                        break;
+                    case "no-cache":
+                        noCache = true;
+                        break;
+                    case "max-age":
+                        maxAge = parseSeconds(value);
+                        break;
+                    default:
+                        // Other directives do not affect a private cache.
+                        break;
+                }
+            }
+        }
+        return new CacheControl(noStore, noCache, maxAge);
+    }
+
+    private static String unquote(final String value) {
+        if (value.length() >= 2 && value.startsWith("\"") && value.endsWith("\"")) {
+            return value.substring(1, value.length() - 1);
+        }
+        return value;
+    }
+
+    private static long parseSeconds(final String value) {
+        if (value == null) {
+            return 0;
+        }
+        try {
+            return Math.max(0, Long.parseLong(value));
+        } catch (final NumberFormatException exception) {
+            // Invalid max-age values are treated as stale.
+            return 0;
+        }
+    }
+
+    boolean isNoStore() {
+        return noStore;
+    }
+
+    boolean isNoCache() {
+        return noCache;
+    }
+
+    /**
+     * The max-age directive.
+     * @return max-age in seconds, or -1 if not present.
+     */
+    long getMaxAgeInSeconds() {
+        return maxAgeInSeconds;
+    }
+}
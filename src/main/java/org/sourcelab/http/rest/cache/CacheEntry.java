@@ -0,0 +1,152 @@
+/**
+ * Copyright 2019 SourceLab.org https://github.com/SourceLabOrg/http-client-wrapper
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit
+ * persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.sourcelab.http.rest.cache;
+
+import org.sourcelab.http.rest.ResponseHeader;
+import org.sourcelab.http.rest.RestResponse;
+
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * A cached response, along with the details required to calculate its freshness and to select it for a request.
+ */
+public final class CacheEntry {
+    private final int httpCode;
+    private final Charset charset;
+    private final List<ResponseHeader> headers;
+    private final byte[] body;
+    private final long requestTimeInMilliseconds;
+    private final long responseTimeInMilliseconds;
+    private final Map<String, String> varyHeaders;
+
+    /**
+     * Constructor.
+     * @param httpCode The http status code from the response.
+     * @param charset The charset used to decode the response body.
+     * @param headers The http response headers.
+     * @param body The raw response body, or NULL if the response has no body.  The array is not copied.
+     * @param requestTimeInMilliseconds Time the request was sent, in epoch milliseconds.
+     * @param responseTimeInMilliseconds Time the response was received, in epoch milliseconds.
+     * @param varyHeaders Lower cased names and values of the request headers nominated by the response's Vary header.
+     *                    Values are NULL if the header was not sent.
+     */
+    public CacheEntry(
+        final int httpCode,
+        final Charset charset,
+        final List<ResponseHeader> headers,
+        final byte[] body,
+        final long requestTimeInMilliseconds,
+        final long responseTimeInMilliseconds,
+        final Map<String, String> varyHeaders) {
+        this.httpCode = httpCode;
+        this.charset = Objects.requireNonNull(charset);
+        this.headers = Collections.unmodifiableList(new ArrayList<>(headers));
+        this.body = body;
+        this.requestTimeInMilliseconds = requestTimeInMilliseconds;
+        this.responseTimeInMilliseconds = responseTimeInMilliseconds;
+        this.varyHeaders = Collections.unmodifiableMap(new LinkedHashMap<>(varyHeaders));
+    }
+
+    public int getHttpCode() {
+        return httpCode;
+    }
+
+    public Charset getCharset() {
+        return charset;
+    }
+
+    public List<ResponseHeader> getHeaders() {
+        return headers;
+    }
+
+    /**
+     * The raw response body.  The returned array is shared and must not be modified.
+     * @return Raw response body, or NULL if the response has no body.
+     */
+    public byte[] getBody() {
+        return body;
+    }
+
+    public long getRequestTimeInMilliseconds() {
+        return requestTimeInMilliseconds;
+    }
+
+    public long getResponseTimeInMilliseconds() {
+        return responseTimeInMilliseconds;
+    }
+
+    public Map<String, String> getVaryHeaders() {
+        return varyHeaders;
+    }
+
+    /**
+     * Find the first response header with the given name, ignoring case.
+     * @param name Name of the header.
+     * @return Value of the header, or NULL if not present.
+     */
+    public String getHeader(final String name) {
+        for (final ResponseHeader header : headers) {
+            if (header.getName().equalsIgnoreCase(name)) {
+                return header.getValue();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Find all response headers with the given name, ignoring case.
+     * @param name Name of the header.
+     * @return Values of the header, empty if not present.
+     */
+    public List<String> getHeaderValues(final String name) {
+        final List<String> values = new ArrayList<>();
+        for (final ResponseHeader header : headers) {
+            if (header.getName().equalsIgnoreCase(name)) {
+                values.add(header.getValue());
+            }
+        }
+        return values;
+    }
+
+    /**
+     * Build a response from this entry.
+     * @return RestResponse instance.
+     */
+    public RestResponse toRestResponse() {
+        return new RestResponse(body, charset, httpCode, headers);
+    }
+
+    @Override
+    public String toString() {
+        return "CacheEntry{"
+            + "httpCode=" + httpCode
+            + ", charset=" + charset
+            + ", headers=" + headers
+            + ", bodyLength=" + (body == null ? 0 : body.length)
+            + ", requestTimeInMilliseconds=" + requestTimeInMilliseconds
+            + ", responseTimeInMilliseconds=" + responseTimeInMilliseconds
+            + ", varyHeaders=" + varyHeaders
+            + '}';
+    }
+}
@@ -0,0 +1,56 @@
+/**
+ * Copyright 2019 SourceLab.org https://github.com/SourceLabOrg/http-client-wrapper
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit
+ * persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.sourcelab.http.rest.cache;
+
+/**
+ * Storage for cached responses.  Implementations must be safe for use by multiple threads.
+ */
+public interface CacheStore {
+    /**
+     * Retrieve the entry stored under the given key.
+     * @param key The cache key.
+     * @return The entry, or NULL if not present.
+     */
+    CacheEntry get(final String key);
+
+    /**
+     * Store an entry, replacing any entry already stored under the given key.  Implementations may decline to
+     * store, or later evict, any entry.
+     * @param key The cache key.
+     * @param entry The entry to store.
+     */
+    void put(final String key, final CacheEntry entry);
+
+    /**
+     * Remove the entry stored under the given key, if present.
+     * @param key The cache key.
+     */
+    void remove(final String key);
+
+    /**
+     * Number of entries currently stored.
+     * @return number of entries.
+     */
+    long size();
+
+    /**
+     * Release any resources held by the store.
+     */
+    default void close() {
+    }
+}
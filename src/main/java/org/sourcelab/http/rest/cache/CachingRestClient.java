@@ -0,0 +1,450 @@
+/**
+ * Copyright 2019 SourceLab.org https://github.com/SourceLabOrg/http-client-wrapper
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit
+ * persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.sourcelab.http.rest.cache;
+
+import org.apache.http.NameValuePair;
+import org.apache.http.client.utils.DateUtils;
+import org.apache.http.client.utils.URLEncodedUtils;
+import org.apache.http.message.BasicNameValuePair;
+import org.sourcelab.http.rest.ResponseHeader;
+import org.sourcelab.http.rest.RestClient;
+import org.sourcelab.http.rest.RestException;
+import org.sourcelab.http.rest.RestResponse;
+import org.sourcelab.http.rest.configuration.Configuration;
+import org.sourcelab.http.rest.request.Request;
+import org.sourcelab.http.rest.request.RequestHeader;
+import org.sourcelab.http.rest.request.RequestMethod;
+import org.sourcelab.http.rest.request.RequestParameter;
+import org.sourcelab.http.rest.request.body.UrlEncodedFormBodyContent;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * RestClient decorator which caches GET responses as a private cache, following RFC 7234.
+ *
+ * Fresh responses, as defined by their Cache-Control max-age or Expires headers, are served without contacting the
+ * API host.  Stale responses with an ETag or Last-Modified validator are revalidated using If-None-Match and
+ * If-Modified-Since, serving the cached body if the API host responds 304 Not Modified.  Responses are selected
+ * using the request method, url and any request headers nominated by the response's Vary header.
+ *
+ * The cache key is built from the request before it is passed through any configured request interceptors, so
+ * interceptors must not alter the url or the headers nominated by Vary.
+ */
+public class CachingRestClient implements RestClient {
+    /**
+     * Default maximum size of the in-memory cache, in bytes.
+     */
+    public static final long DEFAULT_MAX_SIZE_IN_BYTES = 64L * 1024 * 1024;
+
+    /**
+     * Status codes which are cacheable by default, RFC 7231 section 6.1.
+     */
+    private static final Set<Integer> CACHEABLE_STATUS_CODES = Collections.unmodifiableSet(new HashSet<>(
+        Arrays.asList(200, 203, 204, 300, 301, 404, 405, 410, 414, 501)
+    ));
+
+    /**
+     * Headers from a 304 response which must not replace those of the cached response.
+     */
+    private static final Set<String> NON_UPDATABLE_HEADERS = Collections.unmodifiableSet(new HashSet<>(
+        Arrays.asList("content-length", "content-encoding", "transfer-encoding")
+    ));
+
+    private final RestClient restClient;
+    private final CacheStore cacheStore;
+    private final Clock clock;
+    private final CacheStatistics statistics = new CacheStatistics();
+
+    private String apiHost = "";
+    private List<RequestHeader> configurationHeaders = Collections.emptyList();
+
+    /**
+     * Constructor, caching responses in memory up to {@link #DEFAULT_MAX_SIZE_IN_BYTES}.
+     * @param restClient Underlying client to submit requests with.
+     */
+    public CachingRestClient(final RestClient restClient) {
+        this(restClient, new InMemoryCacheStore(DEFAULT_MAX_SIZE_IN_BYTES));
+    }
+
+    /**
+     * Constructor.
+     * @param restClient Underlying client to submit requests with.
+     * @param cacheStore Storage for cached responses.
+     */
+    public CachingRestClient(final RestClient restClient, final CacheStore cacheStore) {
+        this(restClient, cacheStore, Clock.systemUTC());
+    }
+
+    /**
+     * Constructor.
+     * @param restClient Underlying client to submit requests with.
+     * @param cacheStore Storage for cached responses.
+     * @param clock Source of the current time.
+     */
+    CachingRestClient(final RestClient restClient, final CacheStore cacheStore, final Clock clock) {
+        this.restClient = Objects.requireNonNull(restClient);
+        this.cacheStore = Objects.requireNonNull(cacheStore);
+        this.clock = Objects.requireNonNull(clock);
+    }
+
+    @Override
+    public void init(final Configuration configuration) {
+        apiHost = configuration.getApiHost();
+        configurationHeaders = configuration.getRequestHeaders() == null ? Collections.emptyList() : configuration.getRequestHeaders();
+        restClient.init(configuration);
+    }
+
+    @Override
+    public RestResponse submitRequest(final Request request) throws RestException {
+        final String cacheKey = getCacheKey(request);
+
+        // Only GET responses are cached.
+        if (request.getRequestMethod() != RequestMethod.GET) {
+            final RestResponse response = restClient.submitRequest(request);
+
+            // Successful unsafe requests invalidate the cached response for the same url.
+            if (response != null && response.getHttpCode() >= 200 && response.getHttpCode() < 400) {
+                cacheStore.remove(cacheKey);
+            }
+            return response;
+        }
+
+        final List<RequestHeader> requestHeaders = getRequestHeaders(request);
+        final CacheControl requestCacheControl = CacheControl.parse(getRequestHeaderValues(requestHeaders, "Cache-Control"));
+        if (requestCacheControl.isNoStore()) {
+            statistics.recordMiss();
+            return restClient.submitRequest(request);
+        }
+
+        // Find a cached response for this request.
+        CacheEntry entry = cacheStore.get(cacheKey);
+        if (entry != null && !matchesVary(entry, requestHeaders)) {
+            entry = null;
+        }
+
+        // Serve fresh responses without contacting the API host.
+        if (entry != null && !requestCacheControl.isNoCache() && isFresh(entry, clock.millis())) {
+            statistics.recordHit();
+            return entry.toRestResponse();
+        }
+
+        final long requestTime = clock.millis();
+        if (entry != null && hasValidator(entry)) {
+            // Revalidate stale response.
+            final RestResponse response = restClient.submitRequest(new ConditionalRequest<>(request, entry));
+            final long responseTime = clock.millis();
+            if (response != null && response.getHttpCode() == 304) {
+                statistics.recordRevalidation();
+                final CacheEntry revalidated = new CacheEntry(
+                    entry.getHttpCode(),
+                    entry.getCharset(),
+                    mergeHeaders(entry.getHeaders(), response.getHeaders()),
+                    entry.getBody(),
+                    requestTime,
+                    responseTime,
+                    entry.getVaryHeaders()
+                );
+                cacheStore.put(cacheKey, revalidated);
+                return revalidated.toRestResponse();
+            }
+            statistics.recordMiss();
+            store(cacheKey, requestHeaders, response, requestTime, responseTime);
+            return response;
+        }
+
+        statistics.recordMiss();
+        final RestResponse response = restClient.submitRequest(request);
+        store(cacheKey, requestHeaders, response, requestTime, clock.millis());
+        return response;
+    }
+
+    @Override
+    public void close() {
+        try {
+            restClient.close();
+        } finally {
+            cacheStore.close();
+        }
+    }
+
+    /**
+     * Counters describing how effective the cache is.
+     * @return CacheStatistics instance.
+     */
+    public CacheStatistics getStatistics() {
+        return statistics;
+    }
+
+    /**
+     * Store the response if it is cacheable, otherwise drop any previously cached response.
+     */
+    private void store(
+        final String cacheKey,
+        final List<RequestHeader> requestHeaders,
+        final RestResponse response,
+        final long requestTime,
+        final long responseTime) {
+        if (response == null) {
+            return;
+        }
+
+        // Determine which request headers select this response.
+        final Map<String, String> varyHeaders = new LinkedHashMap<>();
+        for (final String name : getVaryHeaderNames(response.getHeaders())) {
+            if ("*".equals(name)) {
+                // Response varies on more than request headers, never reusable.
+                cacheStore.remove(cacheKey);
+                return;
+            }
+            varyHeaders.put(name, getRequestHeaderValue(requestHeaders, name));
+        }
+
+        final ByteBuffer bodyBuffer = response.getBody();
+        byte[] body = null;
+        if (bodyBuffer != null) {
+            body = new byte[bodyBuffer.remaining()];
+            bodyBuffer.get(body);
+        }
+
+        final CacheEntry entry = new CacheEntry(
+            response.getHttpCode(), response.getCharset(), response.getHeaders(), body, requestTime, responseTime, varyHeaders
+        );
+        if (isCacheable(entry)) {
+            cacheStore.put(cacheKey, entry);
+        } else {
+            cacheStore.remove(cacheKey);
+        }
+    }
+
+    /**
+     * A response may be stored if its status code is cacheable by default, it does not forbid storage, and it can
+     * either be served fresh or revalidated.
+     */
+    private static boolean isCacheable(final CacheEntry entry) {
+        if (!CACHEABLE_STATUS_CODES.contains(entry.getHttpCode())) {
+            return false;
+        }
+        final CacheControl cacheControl = CacheControl.parse(entry.getHeaderValues("Cache-Control"));
+        if (cacheControl.isNoStore()) {
+            return false;
+        }
+        return getFreshnessLifetime(entry) > 0 || hasValidator(entry);
+    }
+
+    /**
+     * Is the cached response fresh, RFC 7234 section 4.2.
+     */
+    private static boolean isFresh(final CacheEntry entry, final long now) {
+        final CacheControl cacheControl = CacheControl.parse(entry.getHeaderValues("Cache-Control"));
+        if (cacheControl.isNoCache()) {
+            // Must always be revalidated.
+            return false;
+        }
+        return getFreshnessLifetime(entry) > getCurrentAge(entry, now);
+    }
+
+    /**
+     * Freshness lifetime in milliseconds, from max-age or Expires.  No heuristic freshness is applied.
+     */
+    private static long getFreshnessLifetime(final CacheEntry entry) {
+        final CacheControl cacheControl = CacheControl.parse(entry.getHeaderValues("Cache-Control"));
+        if (cacheControl.getMaxAgeInSeconds() >= 0) {
+            return cacheControl.getMaxAgeInSeconds() * 1000;
+        }
+
+        final String expires = entry.getHeader("Expires");
+        if (expires != null) {
+            final Date expiresDate = DateUtils.parseDate(expires);
+            if (expiresDate == null) {
+                // Invalid dates, such as 0, represent a time in the past.
+                return 0;
+            }
+            return Math.max(0, expiresDate.getTime() - getDateValue(entry));
+        }
+        return 0;
+    }
+
+    /**
+     * Current age in milliseconds, RFC 7234 section 4.2.3.
+     */
+    private static long getCurrentAge(final CacheEntry entry, final long now) {
+        final long apparentAge = Math.max(0, entry.getResponseTimeInMilliseconds() - getDateValue(entry));
+        final long responseDelay = entry.getResponseTimeInMilliseconds() - entry.getRequestTimeInMilliseconds();
+        final long correctedAgeValue = getAgeValue(entry) + responseDelay;
+        final long correctedInitialAge = Math.max(apparentAge, correctedAgeValue);
+        final long residentTime = now - entry.getResponseTimeInMilliseconds();
+        return correctedInitialAge + residentTime;
+    }
+
+    /**
+     * Value of the Date header in epoch milliseconds, falling back to the time the response was received.
+     */
+    private static long getDateValue(final CacheEntry entry) {
+        final String date = entry.getHeader("Date");
+        if (date != null) {
+            final Date parsed = DateUtils.parseDate(date);
+            if (parsed != null) {
+                return parsed.getTime();
+            }
+        }
+        return entry.getResponseTimeInMilliseconds();
+    }
+
+    /**
+     * Value of the Age header in milliseconds.
+     */
+    private static long getAgeValue(final CacheEntry entry) {
+        final String age = entry.getHeader("Age");
+        if (age == null) {
+            return 0;
+        }
+        try {
+            return Math.max(0, Long.parseLong(age.trim())) * 1000;
+        } catch (final NumberFormatException exception) {
+            return 0;
+        }
+    }
+
+    private static boolean hasValidator(final CacheEntry entry) {
+        return entry.getHeader("ETag") != null || entry.getHeader("Last-Modified") != null;
+    }
+
+    /**
+     * Update the headers of a cached response with those from a 304 response, RFC 7234 section 4.3.4.
+     */
+    private static List<ResponseHeader> mergeHeaders(final List<ResponseHeader> cached, final List<ResponseHeader> updated) {
+        final Set<String> updatedNames = new HashSet<>();
+        for (final ResponseHeader header : updated) {
+            final String name = header.getName().toLowerCase(Locale.ROOT);
+            if (!NON_UPDATABLE_HEADERS.contains(name)) {
+                updatedNames.add(name);
+            }
+        }
+
+        final List<ResponseHeader> merged = new ArrayList<>();
+        for (final ResponseHeader header : cached) {
+            if (!updatedNames.contains(header.getName().toLowerCase(Locale.ROOT))) {
+                merged.add(header);
+            }
+        }
+        for (final ResponseHeader header : updated) {
+            if (updatedNames.contains(header.getName().toLowerCase(Locale.ROOT))) {
+                merged.add(header);
+            }
+        }
+        return merged;
+    }
+
+    /**
+     * Does the request send the same values for the headers nominated by the cached response's Vary header.
+     */
+    private static boolean matchesVary(final CacheEntry entry, final List<RequestHeader> requestHeaders) {
+        for (final Map.Entry<String, String> varyHeader : entry.getVaryHeaders().entrySet()) {
+            if (!Objects.equals(varyHeader.getValue(), getRequestHeaderValue(requestHeaders, varyHeader.getKey()))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Lower cased names of the request headers nominated by the Vary header.
+     */
+    private static List<String> getVaryHeaderNames(final List<ResponseHeader> headers) {
+        final List<String> names = new ArrayList<>();
+        for (final ResponseHeader header : headers) {
+            if (header.getName().equalsIgnoreCase("Vary") && header.getValue() != null) {
+                for (final String name : header.getValue().split(",")) {
+                    if (!name.trim().isEmpty()) {
+                        names.add(name.trim().toLowerCase(Locale.ROOT));
+                    }
+                }
+            }
+        }
+        return names;
+    }
+
+    /**
+     * Headers sent with every request, followed by headers defined on the request.
+     */
+    private List<RequestHeader> getRequestHeaders(final Request request) {
+        final List<RequestHeader> headers = new ArrayList<>(configurationHeaders);
+        headers.addAll(request.getRequestHeaders());
+        return headers;
+    }
+
+    private static List<String> getRequestHeaderValues(final List<RequestHeader> requestHeaders, final String name) {
+        final List<String> values = new ArrayList<>();
+        for (final RequestHeader header : requestHeaders) {
+            if (header.getName().equalsIgnoreCase(name)) {
+                values.add(header.getValue());
+            }
+        }
+        return values;
+    }
+
+    /**
+     * Combined value of the named request header, or NULL if not sent.
+     */
+    private static String getRequestHeaderValue(final List<RequestHeader> requestHeaders, final String name) {
+        final List<String> values = getRequestHeaderValues(requestHeaders, name);
+        return values.isEmpty() ? null : String.join(",", values);
+    }
+
+    /**
+     * Cache key built from the request method and url, including GET parameters.
+     */
+    private String getCacheKey(final Request request) {
+        final StringBuilder key = new StringBuilder("GET ")
+            .append(apiHost)
+            .append(request.getApiEndpoint());
+
+        if (request.getRequestMethod() == RequestMethod.GET && request.getRequestBody() instanceof UrlEncodedFormBodyContent) {
+            final List<NameValuePair> params = new ArrayList<>();
+            for (final RequestParameter parameter : ((UrlEncodedFormBodyContent) request.getRequestBody()).getRequestParameters()) {
+                params.add(new BasicNameValuePair(parameter.getName(), parameter.getValue()));
+            }
+            if (!params.isEmpty()) {
+                key.append('?').append(URLEncodedUtils.format(params, StandardCharsets.UTF_8));
+            }
+        }
+        return key.toString();
+    }
+
+    @Override
+    public String toString() {
+        return "CachingRestClient{"
+            + "restClient=" + restClient
+            + ", cacheStore=" + cacheStore
+            + ", statistics=" + statistics
+            + '}';
+    }
+}
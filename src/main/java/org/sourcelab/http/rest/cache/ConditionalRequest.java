@@ -0,0 +1,88 @@
+/**
+ * Copyright 2019 SourceLab.org https://github.com/SourceLabOrg/http-client-wrapper
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit
+ * persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.sourcelab.http.rest.cache;
+
+import org.sourcelab.http.rest.request.Request;
+import org.sourcelab.http.rest.request.RequestHeader;
+import org.sourcelab.http.rest.request.RequestMethod;
+import org.sourcelab.http.rest.request.body.RequestBodyContent;
+import org.sourcelab.http.rest.tracing.TraceContext;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Wraps a request, adding the validators of a cached response so the API host may respond with 304 Not Modified.
+ * @param <T> return type of request.
+ */
+final class ConditionalRequest<T> implements Request<T> {
+    private final Request<T> request;
+    private final List<RequestHeader> requestHeaders;
+
+    /**
+     * Constructor.
+     * @param request The original request.
+     * @param entry The cached response to validate.
+     */
+    ConditionalRequest(final Request<T> request, final CacheEntry entry) {
+        this.request = request;
+
+        final List<RequestHeader> headers = new ArrayList<>(request.getRequestHeaders());
+        final String etag = entry.getHeader("ETag");
+        if (etag != null) {
+            headers.add(new RequestHeader("If-None-Match", etag));
+        }
+        final String lastModified = entry.getHeader("Last-Modified");
+        if (lastModified != null) {
+            headers.add(new RequestHeader("If-Modified-Since", lastModified));
+        }
+        this.requestHeaders = Collections.unmodifiableList(headers);
+    }
+
+    @Override
+    public String getApiEndpoint() {
+        return request.getApiEndpoint();
+    }
+
+    @Override
+    public RequestMethod getRequestMethod() {
+        return request.getRequestMethod();
+    }
+
+    @Override
+    public RequestBodyContent getRequestBody() {
+        return request.getRequestBody();
+    }
+
+    @Override
+    public List<RequestHeader> getRequestHeaders() {
+        return requestHeaders;
+    }
+
+    @Override
+    public TraceContext getTraceContext() {
+        return request.getTraceContext();
+    }
+
+    @Override
+    public T parseResponse(final String responseStr) throws IOException {
+        return request.parseResponse(responseStr);
+    }
+}
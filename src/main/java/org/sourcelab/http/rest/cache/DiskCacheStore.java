@@ -0,0 +1,709 @@
+/**
+ * Copyright 2019 SourceLab.org https://github.com/SourceLabOrg/http-client-wrapper
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit
+ * persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.sourcelab.http.rest.cache;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.sourcelab.http.rest.ResponseHeader;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.CRC32;
+
+/**
+ * Persistent {@link CacheStore}, allowing a restarted process to serve, or revalidate, responses cached by its
+ * previous incarnation.
+ *
+ * Entries are appended to fixed size, memory-mapped segment files and located via an in-memory index, which is
+ * rebuilt by scanning the segments on startup.  Each record is CRC-checked, so torn or corrupt records are skipped
+ * rather than served.  Once the segments exceed the configured size, the segment holding the fewest live bytes is
+ * compacted by copying its live records into the active segment.  If they do not fit, the oldest segment is dropped.
+ */
+public class DiskCacheStore implements CacheStore {
+    private static final Logger logger = LoggerFactory.getLogger(DiskCacheStore.class);
+
+    /**
+     * Default size of each segment file, in bytes.
+     */
+    public static final int DEFAULT_SEGMENT_SIZE_IN_BYTES = 16 * 1024 * 1024;
+
+    private static final Pattern SEGMENT_FILE_PATTERN = Pattern.compile("segment-(\\d{10})\\.dat");
+
+    // Record layout: magic, record length, crc of type onwards, type, key length, key, entry.
+    private static final int MAGIC = 0x48434331;
+    private static final int RECORD_HEADER_SIZE = 12;
+
+    // Header, type and key length.
+    private static final int MIN_RECORD_SIZE = RECORD_HEADER_SIZE + 1 + 4;
+    private static final byte TYPE_PUT = 1;
+    private static final byte TYPE_REMOVE = 2;
+
+    private final File directory;
+    private final long maxSizeInBytes;
+    private final int segmentSizeInBytes;
+
+    /**
+     * Segments ordered by id, the last being the active segment.  Guarded by lock.
+     */
+    private final TreeMap<Long, Segment> segments = new TreeMap<>();
+
+    /**
+     * Location of the live record for each key.  Guarded by lock.
+     */
+    private final Map<String, Location> index = new HashMap<>();
+
+    /**
+     * Reads share the lock, writes, compaction and close are exclusive.
+     */
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder corruptRecords = new LongAdder();
+
+    /**
+     * Constructor, using segments of {@link #DEFAULT_SEGMENT_SIZE_IN_BYTES}.
+     * @param directory Directory to hold segment files, created if it does not exist.
+     * @param maxSizeInBytes Maximum total size of segment files.
+     */
+    public DiskCacheStore(final File directory, final long maxSizeInBytes) {
+        this(directory, maxSizeInBytes, DEFAULT_SEGMENT_SIZE_IN_BYTES);
+    }
+
+    /**
+     * Constructor.
+     * @param directory Directory to hold segment files, created if it does not exist.
+     * @param maxSizeInBytes Maximum total size of segment files, must hold at least two segments.
+     * @param segmentSizeInBytes Size of each segment file.  Entries larger than a segment are not stored.
+     */
+    public DiskCacheStore(final File directory, final long maxSizeInBytes, final int segmentSizeInBytes) {
+        this.directory = Objects.requireNonNull(directory);
+        if (segmentSizeInBytes <= MIN_RECORD_SIZE) {
+            throw new IllegalArgumentException("segmentSizeInBytes must be greater than " + MIN_RECORD_SIZE);
+        }
+        if (maxSizeInBytes < 2L * segmentSizeInBytes) {
+            throw new IllegalArgumentException("maxSizeInBytes must hold at least two segments");
+        }
+        this.maxSizeInBytes = maxSizeInBytes;
+        this.segmentSizeInBytes = segmentSizeInBytes;
+
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new UncheckedIOException(new IOException("Unable to create cache directory " + directory));
+        }
+
+        try {
+            load();
+        } catch (final IOException exception) {
+            close();
+            throw new UncheckedIOException(exception);
+        }
+    }
+
+    @Override
+    public CacheEntry get(final String key) {
+        final Location location;
+        lock.readLock().lock();
+        try {
+            location = index.get(key);
+            if (location == null) {
+                return null;
+            }
+            final Record record = segments.get(location.segmentId).read(location.offset);
+            if (record != null && record.type == TYPE_PUT && record.key.equals(key)) {
+                return record.entry;
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        // Record failed its CRC check, forget about it unless it was replaced in the meantime.
+        corruptRecords.increment();
+        lock.writeLock().lock();
+        try {
+            if (index.remove(key, location)) {
+                final Segment segment = segments.get(location.segmentId);
+                if (segment != null) {
+                    segment.liveBytes -= location.length;
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        return null;
+    }
+
+    @Override
+    public void put(final String key, final CacheEntry entry) {
+        final byte[] record = encodeRecord(TYPE_PUT, key, entry);
+
+        lock.writeLock().lock();
+        try {
+            if (record.length > segmentSizeInBytes) {
+                // Would never fit, drop any previous version.
+                removeLocked(key);
+                return;
+            }
+            final Location location = append(record);
+            removeFromIndex(key);
+            index.put(key, location);
+            segments.get(location.segmentId).liveBytes += record.length;
+            enforceMaxSize();
+        } catch (final IOException exception) {
+            throw new UncheckedIOException(exception);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void remove(final String key) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(key);
+        } catch (final IOException exception) {
+            throw new UncheckedIOException(exception);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public long size() {
+        lock.readLock().lock();
+        try {
+            return index.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Total size of segment files on disk.
+     * @return number of bytes.
+     */
+    public long getSizeInBytes() {
+        lock.readLock().lock();
+        try {
+            return (long) segments.size() * segmentSizeInBytes;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Number of entries dropped to stay within the size limit.
+     * @return number of evicted entries.
+     */
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+
+    /**
+     * Number of records found to be corrupt, either on startup or when read.
+     * @return number of corrupt records.
+     */
+    public long getCorruptRecordCount() {
+        return corruptRecords.sum();
+    }
+
+    /**
+     * Flush all segments to disk and release them.
+     */
+    @Override
+    public void close() {
+        lock.writeLock().lock();
+        try {
+            for (final Segment segment : segments.values()) {
+                segment.close();
+            }
+            segments.clear();
+            index.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Rebuild the index by scanning existing segments in order.
+     */
+    private void load() throws IOException {
+        final File[] files = directory.listFiles();
+        if (files != null) {
+            for (final File file : files) {
+                final Matcher matcher = SEGMENT_FILE_PATTERN.matcher(file.getName());
+                if (matcher.matches()) {
+                    final long segmentId = Long.parseLong(matcher.group(1));
+                    segments.put(segmentId, Segment.open(file, segmentId, segmentSizeInBytes));
+                }
+            }
+        }
+
+        for (final Segment segment : segments.values()) {
+            int offset = 0;
+            while (offset + RECORD_HEADER_SIZE <= segmentSizeInBytes) {
+                final int recordLength = segment.recordLengthAt(offset);
+                if (recordLength <= 0) {
+                    // End of written data.
+                    break;
+                }
+                final Record record = segment.read(offset);
+                if (record == null) {
+                    // Torn or corrupt write, nothing after it can be trusted.
+                    corruptRecords.increment();
+                    logger.warn("Ignoring corrupt cache record in {} at offset {}", segment.file, offset);
+                    break;
+                }
+
+                removeFromIndex(record.key);
+                if (record.type == TYPE_PUT) {
+                    index.put(record.key, new Location(segment.id, offset, recordLength));
+                    segment.liveBytes += recordLength;
+                } else {
+                    segment.tombstoneBytes += recordLength;
+                }
+                offset += recordLength;
+            }
+            segment.writePosition = offset;
+        }
+
+        if (segments.isEmpty()) {
+            createSegment(1);
+        }
+    }
+
+    private void removeLocked(final String key) throws IOException {
+        if (index.containsKey(key)) {
+            removeFromIndex(key);
+
+            // Record removal, so the entry is not resurrected on restart.
+            final byte[] record = encodeRecord(TYPE_REMOVE, key, null);
+            final Location location = append(record);
+            segments.get(location.segmentId).tombstoneBytes += record.length;
+            enforceMaxSize();
+        }
+    }
+
+    private void removeFromIndex(final String key) {
+        final Location previous = index.remove(key);
+        if (previous != null) {
+            final Segment segment = segments.get(previous.segmentId);
+            if (segment != null) {
+                segment.liveBytes -= previous.length;
+            }
+        }
+    }
+
+    /**
+     * Append a record to the active segment, rolling to a new segment if it does not fit.
+     */
+    private Location append(final byte[] record) throws IOException {
+        Segment active = segments.lastEntry().getValue();
+        if (active.remaining() < record.length) {
+            active.force();
+            active = createSegment(active.id + 1);
+        }
+        final int offset = active.append(record);
+        return new Location(active.id, offset, record.length);
+    }
+
+    private Segment createSegment(final long segmentId) throws IOException {
+        final File file = new File(directory, String.format("segment-%010d.dat", segmentId));
+        final Segment segment = Segment.open(file, segmentId, segmentSizeInBytes);
+        segments.put(segmentId, segment);
+        return segment;
+    }
+
+    /**
+     * Compact or drop segments until we are back under our size limit.
+     */
+    private void enforceMaxSize() throws IOException {
+        while ((long) segments.size() * segmentSizeInBytes > maxSizeInBytes && segments.size() > 1) {
+            // Compact the inactive segment with the fewest live bytes.
+            final Segment active = segments.lastEntry().getValue();
+            Segment victim = null;
+            for (final Segment segment : segments.headMap(active.id).values()) {
+                if (victim == null || segment.liveBytes + segment.tombstoneBytes < victim.liveBytes + victim.tombstoneBytes) {
+                    victim = segment;
+                }
+            }
+
+            if (victim.liveBytes + victim.tombstoneBytes <= active.remaining()) {
+                compact(victim, active);
+            } else {
+                // Too large to compact, drop the oldest segment.  Dropping any other would lose its tombstones and
+                // newer versions of entries, resurrecting removed or superseded entries held by older segments.
+                victim = segments.firstEntry().getValue();
+                drop(victim);
+            }
+            segments.remove(victim.id);
+            victim.delete();
+        }
+    }
+
+    /**
+     * Copy the live records of the victim into the active segment.
+     */
+    private void compact(final Segment victim, final Segment active) {
+        final boolean isOldest = victim.id == segments.firstKey();
+        int offset = 0;
+        while (offset < victim.writePosition) {
+            final int recordLength = victim.recordLengthAt(offset);
+            final Record record = victim.read(offset);
+            if (record == null) {
+                break;
+            }
+            final Location location = index.get(record.key);
+
+            if (record.type == TYPE_PUT && location != null && location.segmentId == victim.id && location.offset == offset) {
+                final int newOffset = active.append(victim.copy(offset, recordLength));
+                index.put(record.key, new Location(active.id, newOffset, recordLength));
+                active.liveBytes += recordLength;
+            } else if (record.type == TYPE_REMOVE && !isOldest && !index.containsKey(record.key)) {
+                // An older segment may still hold the removed entry.
+                active.append(victim.copy(offset, recordLength));
+                active.tombstoneBytes += recordLength;
+            }
+            offset += recordLength;
+        }
+    }
+
+    /**
+     * Drop the live records of the victim.
+     */
+    private void drop(final Segment victim) {
+        final List<String> droppedKeys = new ArrayList<>();
+        for (final Map.Entry<String, Location> entry : index.entrySet()) {
+            if (entry.getValue().segmentId == victim.id) {
+                droppedKeys.add(entry.getKey());
+            }
+        }
+        for (final String key : droppedKeys) {
+            index.remove(key);
+            evictions.increment();
+        }
+    }
+
+    /**
+     * Serialize a record, including its header.
+     */
+    static byte[] encodeRecord(final byte type, final String key, final CacheEntry entry) {
+        try {
+            final ByteArrayOutputStream byteStream = new ByteArrayOutputStream();
+            final DataOutputStream output = new DataOutputStream(byteStream);
+
+            // Header placeholder, populated once the record length and CRC are known.
+            output.writeInt(MAGIC);
+            output.writeInt(0);
+            output.writeInt(0);
+
+            output.writeByte(type);
+            final byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+            output.writeInt(keyBytes.length);
+            output.write(keyBytes);
+
+            if (entry != null) {
+                output.writeInt(entry.getHttpCode());
+                output.writeUTF(entry.getCharset().name());
+                output.writeLong(entry.getRequestTimeInMilliseconds());
+                output.writeLong(entry.getResponseTimeInMilliseconds());
+
+                output.writeInt(entry.getHeaders().size());
+                for (final ResponseHeader header : entry.getHeaders()) {
+                    writeString(output, header.getName());
+                    writeString(output, header.getValue());
+                }
+
+                output.writeInt(entry.getVaryHeaders().size());
+                for (final Map.Entry<String, String> varyHeader : entry.getVaryHeaders().entrySet()) {
+                    writeString(output, varyHeader.getKey());
+                    writeString(output, varyHeader.getValue());
+                }
+
+                if (entry.getBody() == null) {
+                    output.writeInt(-1);
+                } else {
+                    output.writeInt(entry.getBody().length);
+                    output.write(entry.getBody());
+                }
+            }
+            output.flush();
+
+            final byte[] record = byteStream.toByteArray();
+            final CRC32 crc = new CRC32();
+            crc.update(record, RECORD_HEADER_SIZE, record.length - RECORD_HEADER_SIZE);
+
+            final ByteBuffer header = ByteBuffer.wrap(record);
+            header.putInt(4, record.length);
+            header.putInt(8, (int) crc.getValue());
+            return record;
+        } catch (final IOException exception) {
+            // Not possible writing to a byte array.
+            throw new UncheckedIOException(exception);
+        }
+    }
+
+    /**
+     * Deserialize a record, validating its CRC.
+     * @return Record, or NULL if corrupt.
+     */
+    static Record decodeRecord(final byte[] record) {
+        if (record.length < MIN_RECORD_SIZE) {
+            return null;
+        }
+        final ByteBuffer buffer = ByteBuffer.wrap(record);
+        if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != record.length) {
+            return null;
+        }
+        final CRC32 crc = new CRC32();
+        crc.update(record, RECORD_HEADER_SIZE, record.length - RECORD_HEADER_SIZE);
+        if (buffer.getInt(8) != (int) crc.getValue()) {
+            return null;
+        }
+
+        // The record must be long enough to hold its key.
+        final int keyLength = buffer.getInt(RECORD_HEADER_SIZE + 1);
+        if (keyLength < 0 || keyLength > record.length - MIN_RECORD_SIZE) {
+            return null;
+        }
+
+        try {
+            final DataInputStream input = new DataInputStream(
+                new ByteArrayInputStream(record, MIN_RECORD_SIZE, record.length - MIN_RECORD_SIZE)
+            );
+            final byte type = record[RECORD_HEADER_SIZE];
+            final byte[] keyBytes = new byte[keyLength];
+            input.readFully(keyBytes);
+            final String key = new String(keyBytes, StandardCharsets.UTF_8);
+            if (type != TYPE_PUT) {
+                return new Record(type, key, null);
+            }
+
+            final int httpCode = input.readInt();
+            final Charset charset = Charset.forName(input.readUTF());
+            final long requestTime = input.readLong();
+            final long responseTime = input.readLong();
+
+            final int headerCount = input.readInt();
+            final List<ResponseHeader> headers = new ArrayList<>(headerCount);
+            for (int index = 0; index < headerCount; index++) {
+                headers.add(new ResponseHeader(readString(input), readString(input)));
+            }
+
+            final int varyCount = input.readInt();
+            final Map<String, String> varyHeaders = new LinkedHashMap<>();
+            for (int index = 0; index < varyCount; index++) {
+                varyHeaders.put(readString(input), readString(input));
+            }
+
+            final int bodyLength = input.readInt();
+            byte[] body = null;
+            if (bodyLength >= 0) {
+                body = new byte[bodyLength];
+                input.readFully(body);
+            }
+            return new Record(type, key, new CacheEntry(httpCode, charset, headers, body, requestTime, responseTime, varyHeaders));
+        } catch (final IOException | RuntimeException exception) {
+            return null;
+        }
+    }
+
+    private static void writeString(final DataOutputStream output, final String value) throws IOException {
+        if (value == null) {
+            output.writeInt(-1);
+            return;
+        }
+        final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        output.writeInt(bytes.length);
+        output.write(bytes);
+    }
+
+    private static String readString(final DataInputStream input) throws IOException {
+        final int length = input.readInt();
+        if (length < 0) {
+            return null;
+        }
+        final byte[] bytes = new byte[length];
+        input.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public String toString() {
+        return "DiskCacheStore{"
+            + "directory=" + directory
+            + ", maxSizeInBytes=" + maxSizeInBytes
+            + ", segmentSizeInBytes=" + segmentSizeInBytes
+            + ", size=" + size()
+            + ", evictions=" + getEvictionCount()
+            + '}';
+    }
+
+    /**
+     * Location of a record.
+     */
+    private static final class Location {
+        private final long segmentId;
+        private final int offset;
+        private final int length;
+
+        private Location(final long segmentId, final int offset, final int length) {
+            this.segmentId = segmentId;
+            this.offset = offset;
+            this.length = length;
+        }
+    }
+
+    /**
+     * A decoded record.
+     */
+    static final class Record {
+        private final byte type;
+        private final String key;
+        private final CacheEntry entry;
+
+        private Record(final byte type, final String key, final CacheEntry entry) {
+            this.type = type;
+            this.key = key;
+            this.entry = entry;
+        }
+    }
+
+    /**
+     * A memory-mapped, append-only segment file.
+     */
+    private static final class Segment {
+        private final File file;
+        private final long id;
+        private final RandomAccessFile randomAccessFile;
+        private final MappedByteBuffer buffer;
+
+        // Guarded by the store's lock.
+        private int writePosition = 0;
+        private long liveBytes = 0;
+        private long tombstoneBytes = 0;
+
+        private Segment(final File file, final long id, final RandomAccessFile randomAccessFile, final MappedByteBuffer buffer) {
+            this.file = file;
+            this.id = id;
+            this.randomAccessFile = randomAccessFile;
+            this.buffer = buffer;
+        }
+
+        static Segment open(final File file, final long id, final int segmentSizeInBytes) throws IOException {
+            final RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw");
+            try {
+                // New segments are zero filled, which marks the end of written data.
+                randomAccessFile.setLength(segmentSizeInBytes);
+                final MappedByteBuffer buffer = randomAccessFile.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, segmentSizeInBytes);
+                return new Segment(file, id, randomAccessFile, buffer);
+            } catch (final IOException exception) {
+                randomAccessFile.close();
+                throw exception;
+            }
+        }
+
+        int remaining() {
+            return buffer.capacity() - writePosition;
+        }
+
+        /**
+         * Length of the record at the given offset, or 0 if there is no record.
+         */
+        int recordLengthAt(final int offset) {
+            if (offset + RECORD_HEADER_SIZE > buffer.capacity() || buffer.getInt(offset) != MAGIC) {
+                return 0;
+            }
+            final int length = buffer.getInt(offset + 4);
+            if (length < MIN_RECORD_SIZE || offset + (long) length > buffer.capacity()) {
+                return 0;
+            }
+            return length;
+        }
+
+        byte[] copy(final int offset, final int length) {
+            final byte[] bytes = new byte[length];
+            final ByteBuffer view = buffer.duplicate();
+            view.position(offset);
+            view.get(bytes);
+            return bytes;
+        }
+
+        /**
+         * Read the record at the given offset.
+         * @return Record, or NULL if missing or corrupt.
+         */
+        Record read(final int offset) {
+            final int length = recordLengthAt(offset);
+            if (length == 0) {
+                return null;
+            }
+            return decodeRecord(copy(offset, length));
+        }
+
+        int append(final byte[] record) {
+            final int offset = writePosition;
+            final ByteBuffer view = buffer.duplicate();
+            view.position(offset);
+            view.put(record);
+            writePosition += record.length;
+            return offset;
+        }
+
+        void force() {
+            buffer.force();
+        }
+
+        void close() {
+            try {
+                force();
+                randomAccessFile.close();
+            } catch (final IOException exception) {
+                logger.error("Error closing {}: {}", file, exception.getMessage(), exception);
+            }
+        }
+
+        void delete() {
+            close();
+            if (!file.delete()) {
+                logger.warn("Unable to delete cache segment {}", file);
+            }
+        }
+    }
+}
@@ -0,0 +1,140 @@
+/**
+ * Copyright 2019 SourceLab.org https://github.com/SourceLabOrg/http-client-wrapper
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit
+ * persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.sourcelab.http.rest.cache;
+
+import org.sourcelab.http.rest.ResponseHeader;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In-memory {@link CacheStore}, bounded by the approximate number of bytes held.  When full, the least recently
+ * used entries are evicted.
+ */
+public class InMemoryCacheStore implements CacheStore {
+    /**
+     * Approximate fixed overhead of each entry, in bytes.
+     */
+    private static final int ENTRY_OVERHEAD = 128;
+
+    private final long maxSizeInBytes;
+
+    /**
+     * Entries in access order, guarded by this.
+     */
+    private final LinkedHashMap<String, CacheEntry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long sizeInBytes = 0;
+
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * Constructor.
+     * @param maxSizeInBytes Maximum approximate number of bytes to hold.
+     */
+    public InMemoryCacheStore(final long maxSizeInBytes) {
+        if (maxSizeInBytes <= 0) {
+            throw new IllegalArgumentException("maxSizeInBytes must be greater than 0");
+        }
+        this.maxSizeInBytes = maxSizeInBytes;
+    }
+
+    @Override
+    public synchronized CacheEntry get(final String key) {
+        return entries.get(key);
+    }
+
+    @Override
+    public synchronized void put(final String key, final CacheEntry entry) {
+        final long weight = weigh(key, entry);
+        if (weight > maxSizeInBytes) {
+            // Would never fit, drop any previous version.
+            remove(key);
+            return;
+        }
+
+        final CacheEntry previous = entries.put(key, entry);
+        if (previous != null) {
+            sizeInBytes -= weigh(key, previous);
+        }
+        sizeInBytes += weight;
+
+        // Evict least recently used entries until we're back under our limit.
+        final Iterator<Map.Entry<String, CacheEntry>> iterator = entries.entrySet().iterator();
+        while (sizeInBytes > maxSizeInBytes && iterator.hasNext()) {
+            final Map.Entry<String, CacheEntry> eldest = iterator.next();
+            sizeInBytes -= weigh(eldest.getKey(), eldest.getValue());
+            iterator.remove();
+            evictions.increment();
+        }
+    }
+
+    @Override
+    public synchronized void remove(final String key) {
+        final CacheEntry previous = entries.remove(key);
+        if (previous != null) {
+            sizeInBytes -= weigh(key, previous);
+        }
+    }
+
+    @Override
+    public synchronized long size() {
+        return entries.size();
+    }
+
+    /**
+     * Approximate number of bytes currently held.
+     * @return number of bytes.
+     */
+    public synchronized long getSizeInBytes() {
+        return sizeInBytes;
+    }
+
+    /**
+     * Number of entries evicted to stay within the size limit.
+     * @return number of evicted entries.
+     */
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+
+    /**
+     * Approximate memory held by an entry.
+     */
+    private static long weigh(final String key, final CacheEntry entry) {
+        long weight = ENTRY_OVERHEAD + 2L * key.length();
+        if (entry.getBody() != null) {
+            weight += entry.getBody().length;
+        }
+        for (final ResponseHeader header : entry.getHeaders()) {
+            weight += 2L * (header.getName().length() + (header.getValue() == null ? 0 : header.getValue().length()));
+        }
+        return weight;
+    }
+
+    @Override
+    public String toString() {
+        return "InMemoryCacheStore{"
+            + "maxSizeInBytes=" + maxSizeInBytes
+            + ", sizeInBytes=" + getSizeInBytes()
+            + ", size=" + size()
+            + ", evictions=" + getEvictionCount()
+            + '}';
+    }
+}
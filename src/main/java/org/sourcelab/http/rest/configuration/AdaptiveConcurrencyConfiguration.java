@@ -0,0 +1,266 @@
+/**
+ * Copyright 2019 SourceLab.org https://github.com/SourceLabOrg/http-client-wrapper
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit
+ * persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.sourcelab.http.rest.configuration;
+
+/**
+ * Defines how the adaptive concurrency limit is discovered, and what happens to requests beyond it.
+ */
+public class AdaptiveConcurrencyConfiguration {
+
+    // Limit bounds
+    private final int initialLimit;
+    private final int minLimit;
+    private final int maxLimit;
+
+    // Limit algorithm
+    private final double rttTolerance;
+    private final double smoothing;
+    private final int longRttWindow;
+    private final double backoffRatio;
+
+    // Requests beyond the limit
+    private final int maxQueueSize;
+    private final long maxQueueWaitInMilliseconds;
+
+    /**
+     * Constructor.
+     * @param initialLimit concurrency limit before any latency has been observed.
+     * @param minLimit lowest the limit may fall.
+     * @param maxLimit highest the limit may grow.
+     * @param rttTolerance how much the latency of recent requests may exceed the long term average before the limit
+     *                     is reduced, 1.5 tolerates a 50% increase.
+     * @param smoothing how quickly the limit moves toward its new estimate, between 0 and 1.
+     * @param longRttWindow number of requests the long term average latency is measured over.
+     * @param backoffRatio ratio the limit is multiplied by when a request fails with an exception.
+     * @param maxQueueSize number of requests which may wait for capacity, 0 to reject immediately.
+     * @param maxQueueWaitInMilliseconds how long a queued request may wait for capacity.
+     */
+    public AdaptiveConcurrencyConfiguration(
+        final int initialLimit,
+        final int minLimit,
+        final int maxLimit,
+        final double rttTolerance,
+        final double smoothing,
+        final int longRttWindow,
+        final double backoffRatio,
+        final int maxQueueSize,
+        final long maxQueueWaitInMilliseconds) {
+        if (minLimit <= 0 || maxLimit < minLimit) {
+            throw new IllegalArgumentException("minLimit must be greater than 0 and no greater than maxLimit");
+        }
+        if (initialLimit < minLimit || initialLimit > maxLimit) {
+            throw new IllegalArgumentException("initialLimit must be between minLimit and maxLimit");
+        }
+        if (rttTolerance < 1) {
+            throw new IllegalArgumentException("rttTolerance must be at least 1");
+        }
+        if (smoothing <= 0 || smoothing > 1) {
+            throw new IllegalArgumentException("smoothing must be greater than 0 and at most 1");
+        }
+        if (longRttWindow <= 0) {
+            throw new IllegalArgumentException("longRttWindow must be greater than 0");
+        }
+        if (backoffRatio <= 0 || backoffRatio >= 1) {
+            throw new IllegalArgumentException("backoffRatio must be between 0 and 1");
+        }
+        if (maxQueueSize < 0 || maxQueueWaitInMilliseconds < 0) {
+            throw new IllegalArgumentException("maxQueueSize and maxQueueWaitInMilliseconds must not be negative");
+        }
+        this.initialLimit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.rttTolerance = rttTolerance;
+        this.smoothing = smoothing;
+        this.longRttWindow = longRttWindow;
+        this.backoffRatio = backoffRatio;
+        this.maxQueueSize = maxQueueSize;
+        this.maxQueueWaitInMilliseconds = maxQueueWaitInMilliseconds;
+    }
+
+    public int getInitialLimit() {
+        return initialLimit;
+    }
+
+    public int getMinLimit() {
+        return minLimit;
+    }
+
+    public int getMaxLimit() {
+        return maxLimit;
+    }
+
+    public double getRttTolerance() {
+        return rttTolerance;
+    }
+
+    public double getSmoothing() {
+        return smoothing;
+    }
+
+    public int getLongRttWindow() {
+        return longRttWindow;
+    }
+
+    public double getBackoffRatio() {
+        return backoffRatio;
+    }
+
+    public int getMaxQueueSize() {
+        return maxQueueSize;
+    }
+
+    public long getMaxQueueWaitInMilliseconds() {
+        return maxQueueWaitInMilliseconds;
+    }
+
+    /**
+     * Builder instance for AdaptiveConcurrencyConfiguration.
+     * @return builder instance.
+     */
+    public static Builder newBuilder() {
+        return new Builder();
+    }
+
+    @Override
+    public String toString() {
+        return "AdaptiveConcurrencyConfiguration{"
+            + "initialLimit=" + initialLimit
+            + ", minLimit=" + minLimit
+            + ", maxLimit=" + maxLimit
+            + ", rttTolerance=" + rttTolerance
+            + ", smoothing=" + smoothing
+            + ", longRttWindow=" + longRttWindow
+            + ", backoffRatio=" + backoffRatio
+            + ", maxQueueSize=" + maxQueueSize
+            + ", maxQueueWaitInMilliseconds=" + maxQueueWaitInMilliseconds
+            + '}';
+    }
+
+    /**
+     * AdaptiveConcurrencyConfiguration Builder.
+     */
+    public static final class Builder {
+        // Limit bounds, the maximum matching the default connection pool size.
+        private int initialLimit = 20;
+        private int minLimit = 1;
+        private int maxLimit = 200;
+
+        // Limit algorithm
+        private double rttTolerance = 1.5;
+        private double smoothing = 0.2;
+        private int longRttWindow = 600;
+        private double backoffRatio = 0.9;
+
+        // Briefly queue requests beyond the limit.
+        private int maxQueueSize = 100;
+        private long maxQueueWaitInMilliseconds = 50;
+
+        private Builder() {
+        }
+
+        /**
+         * Set the bounds of the concurrency limit.
+         *
+         * @param initialLimit concurrency limit before any latency has been observed.
+         * @param minLimit lowest the limit may fall.
+         * @param maxLimit highest the limit may grow.
+         * @return Builder instance.
+         */
+        public Builder withLimits(final int initialLimit, final int minLimit, final int maxLimit) {
+            this.initialLimit = initialLimit;
+            this.minLimit = minLimit;
+            this.maxLimit = maxLimit;
+            return this;
+        }
+
+        /**
+         * Set how much the latency of recent requests may exceed the long term average before the limit is reduced.
+         *
+         * @param rttTolerance tolerance of at least 1, 1.5 tolerates a 50% increase.
+         * @return Builder instance.
+         */
+        public Builder withRttTolerance(final double rttTolerance) {
+            this.rttTolerance = rttTolerance;
+            return this;
+        }
+
+        /**
+         * Set how quickly the limit moves toward its new estimate.
+         *
+         * @param smoothing ratio between 0 and 1.
+         * @return Builder instance.
+         */
+        public Builder withSmoothing(final double smoothing) {
+            this.smoothing = smoothing;
+            return this;
+        }
+
+        /**
+         * Set the number of requests the long term average latency is measured over.
+         *
+         * @param longRttWindow number of requests.
+         * @return Builder instance.
+         */
+        public Builder withLongRttWindow(final int longRttWindow) {
+            this.longRttWindow = longRttWindow;
+            return this;
+        }
+
+        /**
+         * Set the ratio the limit is multiplied by when a request fails with an exception.
+         *
+         * @param backoffRatio ratio between 0 and 1.
+         * @return Builder instance.
+         */
+        public Builder withBackoffRatio(final double backoffRatio) {
+            this.backoffRatio = backoffRatio;
+            return this;
+        }
+
+        /**
+         * Set how requests beyond the limit are queued.
+         *
+         * @param maxQueueSize number of requests which may wait for capacity, 0 to reject immediately.
+         * @param maxQueueWaitInMilliseconds how long a queued request may wait for capacity.
+         * @return Builder instance.
+         */
+        public Builder withQueue(final int maxQueueSize, final long maxQueueWaitInMilliseconds) {
+            this.maxQueueSize = maxQueueSize;
+            this.maxQueueWaitInMilliseconds = maxQueueWaitInMilliseconds;
+            return this;
+        }
+
+        /**
+         * Create a new AdaptiveConcurrencyConfiguration instance.
+         * @return new AdaptiveConcurrencyConfiguration instance.
+         */
+        public AdaptiveConcurrencyConfiguration build() {
+            return new AdaptiveConcurrencyConfiguration(
+                initialLimit,
+                minLimit,
+                maxLimit,
+                rttTolerance,
+                smoothing,
+                longRttWindow,
+                backoffRatio,
+                maxQueueSize,
+                maxQueueWaitInMilliseconds
+            );
+        }
+    }
+}
@@ -19,6 +19,9 @@ package org.sourcelab.http.rest.configuration;
 
 import org.sourcelab.http.rest.interceptor.RequestInterceptor;
 import org.sourcelab.http.rest.request.RequestHeader;
+import org.sourcelab.http.rest.transport.RequestEventListener;
+import org.sourcelab.http.rest.transport.RequestTimingListener;
+import org.sourcelab.http.rest.transport.TransportFactory;
 
 import java.io.File;
 import java.util.ArrayList;
@@ -38,6 +41,9 @@ public class BasicConfiguration<SELF extends BasicConfiguration> implements Conf
 
     // Optional Connection options
     private int requestTimeoutInSeconds = 300;
+    private int connectTimeoutInMilliseconds = -1;
+    private int socketTimeoutInMilliseconds = -1;
+    private long connectionTimeToLiveInMilliseconds = -1;
 
     // Optional BasicAuth options
     private String basicAuthUsername = null;
@@ -55,11 +61,60 @@ public class BasicConfiguration<SELF extends BasicConfiguration> implements Conf
     // Optional Proxy Configuration
     private ProxyConfiguration proxyConfiguration =  null;
 
+    // Connection Pool Configuration
+    private ConnectionPoolConfiguration connectionPoolConfiguration = ConnectionPoolConfiguration.newBuilder().build();
+
+    // Optional Transport selection
+    private String transport = null;
+    private TransportFactory transportFactory = null;
+
+    // Optional coalescing of identical concurrent GET requests
+    private CoalescingConfiguration coalescingConfiguration = null;
+
+    // Optional retrying of failed requests
+    private RetryConfiguration retryConfiguration = null;
+
+    // Optional per endpoint circuit breakers
+    private CircuitBreakerConfiguration circuitBreakerConfiguration = null;
+
+    // Optional client side rate limits
+    private RateLimiterConfiguration rateLimiterConfiguration = null;
+
+    // Optional adaptive concurrency limit
+    private AdaptiveConcurrencyConfiguration adaptiveConcurrencyConfiguration = null;
+
+    // Optional request hedging
+    private HedgingConfiguration hedgingConfiguration = null;
+
+    // Optional per endpoint bulkheads
+    private BulkheadConfiguration bulkheadConfiguration = null;
+
+    // Optional request metrics
+    private MetricsConfiguration metricsConfiguration = null;
+
+    // Optional trace context propagation
+    private TracingConfiguration tracingConfiguration = null;
+
     /**
      * Request interceptor.
      */
     private final List<RequestInterceptor> requestInterceptors = new ArrayList<>();
 
+    /**
+     * Request timing listeners.
+     */
+    private final List<RequestTimingListener> requestTimingListeners = new ArrayList<>();
+
+    /**
+     * Request lifecycle event listeners.
+     */
+    private final List<RequestEventListener> requestEventListeners = new ArrayList<>();
+
+    /**
+     * Emit Java Flight Recorder events, disabled by default.
+     */
+    private boolean flightRecorderEventsEnabled = false;
+
     /**
      * Request headers added to every request.
      */
@@ -107,6 +162,209 @@ public class BasicConfiguration<SELF extends BasicConfiguration> implements Conf
         return (SELF) this;
     }
 
+    /**
+     * Allow setting optional connection pool configuration.
+     *
+     * @param connectionPoolConfig configuration for the connection pool.
+     * @return Configuration instance.
+     */
+    public SELF useConnectionPool(final ConnectionPoolConfiguration connectionPoolConfig) {
+        this.connectionPoolConfiguration = Objects.requireNonNull(connectionPoolConfig);
+        return (SELF) this;
+    }
+
+    /**
+     * Select the transport used to execute requests by name, as registered via ServiceLoader.
+     * Built in transports are "httpclient" (default), "httpasyncclient" and "http2".
+     *
+     * @param transport name of the transport.
+     * @return Configuration instance.
+     */
+    public SELF useTransport(final String transport) {
+        this.transport = Objects.requireNonNull(transport);
+        this.transportFactory = null;
+        return (SELF) this;
+    }
+
+    /**
+     * Supply the factory for the transport used to execute requests.
+     *
+     * @param transportFactory factory for the transport.
+     * @return Configuration instance.
+     */
+    public SELF useTransport(final TransportFactory transportFactory) {
+        this.transportFactory = Objects.requireNonNull(transportFactory);
+        this.transport = transportFactory.getName();
+        return (SELF) this;
+    }
+
+    /**
+     * Coalesce identical concurrent GET requests, identified by their url plus the Authorization and Accept headers,
+     * into a single request to the API host.
+     *
+     * @return Configuration instance.
+     */
+    public SELF useRequestCoalescing() {
+        return useRequestCoalescing(CoalescingConfiguration.newBuilder().build());
+    }
+
+    /**
+     * Coalesce identical concurrent GET requests into a single request to the API host.
+     *
+     * @param coalescingConfig defines how requests are identified.
+     * @return Configuration instance.
+     */
+    public SELF useRequestCoalescing(final CoalescingConfiguration coalescingConfig) {
+        this.coalescingConfiguration = Objects.requireNonNull(coalescingConfig);
+        return (SELF) this;
+    }
+
+    /**
+     * Retry idempotent requests failing with a connection error or a 429, 502, 503 or 504 status, up to 3 attempts.
+     *
+     * @return Configuration instance.
+     */
+    public SELF useRetries() {
+        return useRetries(RetryConfiguration.newBuilder().build());
+    }
+
+    /**
+     * Retry failed requests.
+     *
+     * @param retryConfig defines when and how requests are retried.
+     * @return Configuration instance.
+     */
+    public SELF useRetries(final RetryConfiguration retryConfig) {
+        this.retryConfiguration = Objects.requireNonNull(retryConfig);
+        return (SELF) this;
+    }
+
+    /**
+     * Guard each endpoint with a circuit breaker using the default thresholds, opening once half of the last 100 calls
+     * fail or take longer than 10 seconds.
+     *
+     * @return Configuration instance.
+     */
+    public SELF useCircuitBreakers() {
+        return useCircuitBreakers(CircuitBreakerConfiguration.newBuilder().build());
+    }
+
+    /**
+     * Guard each endpoint with a circuit breaker.
+     *
+     * @param circuitBreakerConfig defines circuit breaker thresholds and recovery.
+     * @return Configuration instance.
+     */
+    public SELF useCircuitBreakers(final CircuitBreakerConfiguration circuitBreakerConfig) {
+        this.circuitBreakerConfiguration = Objects.requireNonNull(circuitBreakerConfig);
+        return (SELF) this;
+    }
+
+    /**
+     * Limit the rate of requests against the API host and individual endpoints.
+     *
+     * @param rateLimiterConfig defines the rate limits.
+     * @return Configuration instance.
+     */
+    public SELF useRateLimiter(final RateLimiterConfiguration rateLimiterConfig) {
+        this.rateLimiterConfiguration = Objects.requireNonNull(rateLimiterConfig);
+        return (SELF) this;
+    }
+
+    /**
+     * Limit the number of concurrent requests to a limit which adapts to the latency observed from the API host,
+     * starting at 20 and growing up to 200.
+     *
+     * @return Configuration instance.
+     */
+    public SELF useAdaptiveConcurrencyLimit() {
+        return useAdaptiveConcurrencyLimit(AdaptiveConcurrencyConfiguration.newBuilder().build());
+    }
+
+    /**
+     * Limit the number of concurrent requests to a limit which adapts to the latency observed from the API host.
+     *
+     * @param adaptiveConcurrencyConfig defines the limit algorithm and queueing.
+     * @return Configuration instance.
+     */
+    public SELF useAdaptiveConcurrencyLimit(final AdaptiveConcurrencyConfiguration adaptiveConcurrencyConfig) {
+        this.adaptiveConcurrencyConfiguration = Objects.requireNonNull(adaptiveConcurrencyConfig);
+        return (SELF) this;
+    }
+
+    /**
+     * Hedge slow GET requests, sending a duplicate request once a request is slower than the 95th percentile
+     * latency of its endpoint, limited to 5% additional requests.
+     *
+     * @return Configuration instance.
+     */
+    public SELF useHedging() {
+        return useHedging(HedgingConfiguration.newBuilder().build());
+    }
+
+    /**
+     * Hedge slow requests, sending a duplicate request and using whichever response arrives first.
+     *
+     * @param hedgingConfig defines when requests are hedged.
+     * @return Configuration instance.
+     */
+    public SELF useHedging(final HedgingConfiguration hedgingConfig) {
+        this.hedgingConfiguration = Objects.requireNonNull(hedgingConfig);
+        return (SELF) this;
+    }
+
+    /**
+     * Isolate endpoints behind bulkheads, limiting the number of concurrent requests to endpoints matching a pattern.
+     *
+     * @param bulkheadConfig defines the bulkheads.
+     * @return Configuration instance.
+     */
+    public SELF useBulkheads(final BulkheadConfiguration bulkheadConfig) {
+        this.bulkheadConfiguration = Objects.requireNonNull(bulkheadConfig);
+        return (SELF) this;
+    }
+
+    /**
+     * Record latency, status, exception and body size metrics for each endpoint and request method.
+     *
+     * @return Configuration instance.
+     */
+    public SELF useMetrics() {
+        return useMetrics(MetricsConfiguration.newBuilder().build());
+    }
+
+    /**
+     * Record latency, status, exception and body size metrics for each endpoint and request method.
+     *
+     * @param metricsConfig defines how metrics are grouped and exported.
+     * @return Configuration instance.
+     */
+    public SELF useMetrics(final MetricsConfiguration metricsConfig) {
+        this.metricsConfiguration = Objects.requireNonNull(metricsConfig);
+        return (SELF) this;
+    }
+
+    /**
+     * Propagate W3C trace context with each request, continuing the current trace or starting a new one, and sample
+     * 1% of new traces.
+     *
+     * @return Configuration instance.
+     */
+    public SELF useTracing() {
+        return useTracing(TracingConfiguration.newBuilder().build());
+    }
+
+    /**
+     * Propagate W3C trace context with each request, continuing the current trace or starting a new one.
+     *
+     * @param tracingConfig defines how traces are sampled, and where spans are exported.
+     * @return Configuration instance.
+     */
+    public SELF useTracing(final TracingConfiguration tracingConfig) {
+        this.tracingConfiguration = Objects.requireNonNull(tracingConfig);
+        return (SELF) this;
+    }
+
     /**
      * Skip all validation of SSL Certificates.  This is insecure and highly discouraged!
      *
@@ -149,7 +407,10 @@ public class BasicConfiguration<SELF extends BasicConfiguration> implements Conf
     }
 
     /**
-     * Set the request timeout value, in seconds.
+     * Set the request timeout value, in seconds.  This is used as the connect and socket timeouts unless
+     * they are explicitly set via {@link #useConnectTimeoutInMilliseconds(int)} and
+     * {@link #useSocketTimeoutInMilliseconds(int)}.
+     *
      * @param requestTimeoutInSeconds How long before a request times out, in seconds.
      * @return Configuration instance.
      */
@@ -158,6 +419,42 @@ public class BasicConfiguration<SELF extends BasicConfiguration> implements Conf
         return (SELF) this;
     }
 
+    /**
+     * Set how long to wait while establishing a connection to the API host, in milliseconds.
+     * A value of 0 waits indefinitely.
+     *
+     * @param connectTimeoutInMilliseconds How long before connecting times out, in milliseconds.
+     * @return Configuration instance.
+     */
+    public SELF useConnectTimeoutInMilliseconds(final int connectTimeoutInMilliseconds) {
+        this.connectTimeoutInMilliseconds = connectTimeoutInMilliseconds;
+        return (SELF) this;
+    }
+
+    /**
+     * Set the maximum period of inactivity between two consecutive data packets while waiting on a
+     * response, in milliseconds.  A value of 0 waits indefinitely.
+     *
+     * @param socketTimeoutInMilliseconds How long before reading from the socket times out, in milliseconds.
+     * @return Configuration instance.
+     */
+    public SELF useSocketTimeoutInMilliseconds(final int socketTimeoutInMilliseconds) {
+        this.socketTimeoutInMilliseconds = socketTimeoutInMilliseconds;
+        return (SELF) this;
+    }
+
+    /**
+     * Set the maximum lifetime of a pooled persistent connection, in milliseconds.  Connections older than
+     * this are closed rather than reused.  A value of 0 or less places no limit on connection lifetime.
+     *
+     * @param connectionTimeToLiveInMilliseconds Maximum lifetime of a pooled connection, in milliseconds.
+     * @return Configuration instance.
+     */
+    public SELF useConnectionTimeToLiveInMilliseconds(final long connectionTimeToLiveInMilliseconds) {
+        this.connectionTimeToLiveInMilliseconds = connectionTimeToLiveInMilliseconds;
+        return (SELF) this;
+    }
+
     /**
      * Set request interceptor instance.
      * @param requestInterceptor instance.
@@ -168,6 +465,39 @@ public class BasicConfiguration<SELF extends BasicConfiguration> implements Conf
         return (SELF) this;
     }
 
+    /**
+     * Add a listener notified with the time spent in each phase of each request, such as DNS, connect and TLS
+     * handshake.  Only supported by the HttpClient transport.
+     * @param requestTimingListener instance.
+     * @return Configuration instance.
+     */
+    public SELF useRequestTimingListener(final RequestTimingListener requestTimingListener) {
+        this.requestTimingListeners.add(Objects.requireNonNull(requestTimingListener));
+        return (SELF) this;
+    }
+
+    /**
+     * Add a listener notified as each request starts, acquires and releases a connection, is sent, receives its
+     * response headers and body, fails or is retried.  Only supported by the HttpClient transport.
+     * @param requestEventListener instance.
+     * @return Configuration instance.
+     */
+    public SELF useRequestEventListener(final RequestEventListener requestEventListener) {
+        this.requestEventListeners.add(Objects.requireNonNull(requestEventListener));
+        return (SELF) this;
+    }
+
+    /**
+     * Emit Java Flight Recorder events for request execution, connection leases, TLS handshakes and response parsing.
+     * Events are only recorded while a recording with them enabled is running.  Requires a JVM providing the jdk.jfr
+     * module, and only supported by the HttpClient transport.
+     * @return Configuration instance.
+     */
+    public SELF useFlightRecorderEvents() {
+        this.flightRecorderEventsEnabled = true;
+        return (SELF) this;
+    }
+
     /**
      * Add additional request header to add to each request.
      *
@@ -200,6 +530,27 @@ public class BasicConfiguration<SELF extends BasicConfiguration> implements Conf
         return requestTimeoutInSeconds;
     }
 
+    @Override
+    public int getConnectTimeoutInMilliseconds() {
+        if (connectTimeoutInMilliseconds < 0) {
+            return requestTimeoutInSeconds * 1000;
+        }
+        return connectTimeoutInMilliseconds;
+    }
+
+    @Override
+    public int getSocketTimeoutInMilliseconds() {
+        if (socketTimeoutInMilliseconds < 0) {
+            return requestTimeoutInSeconds * 1000;
+        }
+        return socketTimeoutInMilliseconds;
+    }
+
+    @Override
+    public long getConnectionTimeToLiveInMilliseconds() {
+        return connectionTimeToLiveInMilliseconds;
+    }
+
     public File getKeyStoreFile() {
         return keyStoreFile;
     }
@@ -221,11 +572,86 @@ public class BasicConfiguration<SELF extends BasicConfiguration> implements Conf
         return proxyConfiguration;
     }
 
+    @Override
+    public ConnectionPoolConfiguration getConnectionPoolConfiguration() {
+        return connectionPoolConfiguration;
+    }
+
+    @Override
+    public String getTransport() {
+        return transport;
+    }
+
+    @Override
+    public TransportFactory getTransportFactory() {
+        return transportFactory;
+    }
+
+    @Override
+    public CoalescingConfiguration getCoalescingConfiguration() {
+        return coalescingConfiguration;
+    }
+
+    @Override
+    public RetryConfiguration getRetryConfiguration() {
+        return retryConfiguration;
+    }
+
+    @Override
+    public CircuitBreakerConfiguration getCircuitBreakerConfiguration() {
+        return circuitBreakerConfiguration;
+    }
+
+    @Override
+    public RateLimiterConfiguration getRateLimiterConfiguration() {
+        return rateLimiterConfiguration;
+    }
+
+    @Override
+    public AdaptiveConcurrencyConfiguration getAdaptiveConcurrencyConfiguration() {
+        return adaptiveConcurrencyConfiguration;
+    }
+
+    @Override
+    public HedgingConfiguration getHedgingConfiguration() {
+        return hedgingConfiguration;
+    }
+
+    @Override
+    public BulkheadConfiguration getBulkheadConfiguration() {
+        return bulkheadConfiguration;
+    }
+
+    @Override
+    public MetricsConfiguration getMetricsConfiguration() {
+        return metricsConfiguration;
+    }
+
+    @Override
+    public TracingConfiguration getTracingConfiguration() {
+        return tracingConfiguration;
+    }
+
     @Override
     public List<RequestInterceptor> getRequestInterceptors() {
         return requestInterceptors;
     }
 
+    @Override
+    public List<RequestTimingListener> getRequestTimingListeners() {
+        return requestTimingListeners;
+    }
+
+    @Override
+    public List<RequestEventListener> getRequestEventListeners() {
+        return requestEventListeners;
+    }
+
+    @Override
+    public boolean getFlightRecorderEventsEnabled() {
+        return flightRecorderEventsEnabled;
+    }
+
     @Override
     public List<RequestHeader> getRequestHeaders() {
         return Collections.unmodifiableList(requestHeaders);
@@ -235,7 +661,10 @@ public class BasicConfiguration<SELF extends BasicConfiguration> implements Conf
     public String toString() {
         final StringBuilder stringBuilder = new StringBuilder("Configuration{")
             .append("apiHost='").append(apiHost).append('\'')
-            .append(", requestTimeout='").append(requestTimeoutInSeconds).append('\'');
+            .append(", requestTimeout='").append(requestTimeoutInSeconds).append('\'')
+            .append(", connectTimeout='").append(getConnectTimeoutInMilliseconds()).append("ms'")
+            .append(", socketTimeout='").append(getSocketTimeoutInMilliseconds()).append("ms'")
+            .append(", connectionTimeToLive='").append(connectionTimeToLiveInMilliseconds).append("ms'");
         if (getProxyConfiguration() != null) {
             stringBuilder
                 .append(", proxy='").append(getProxyConfiguration().getProxyScheme()).append("://");
@@ -247,6 +676,40 @@ public class BasicConfiguration<SELF extends BasicConfiguration> implements Conf
 
             stringBuilder.append(getProxyConfiguration().getProxyHost()).append(":").append(getProxyConfiguration().getProxyPort()).append('\'');
         }
+        stringBuilder.append(", connectionPool='").append(connectionPoolConfiguration).append('\'');
+        if (transport != null) {
+            stringBuilder.append(", transport='").append(transport).append('\'');
+        }
+        if (coalescingConfiguration != null) {
+            stringBuilder.append(", coalescing='").append(coalescingConfiguration).append('\'');
+        }
+        if (retryConfiguration != null) {
+            stringBuilder.append(", retry='").append(retryConfiguration).append('\'');
+        }
+        if (circuitBreakerConfiguration != null) {
+            stringBuilder.append(", circuitBreaker='").append(circuitBreakerConfiguration).append('\'');
+        }
+        if (rateLimiterConfiguration != null) {
+            stringBuilder.append(", rateLimiter='").append(rateLimiterConfiguration).append('\'');
+        }
+        if (adaptiveConcurrencyConfiguration != null) {
+            stringBuilder.append(", adaptiveConcurrency='").append(adaptiveConcurrencyConfiguration).append('\'');
+        }
+        if (hedgingConfiguration != null) {
+            stringBuilder.append(", hedging='").append(hedgingConfiguration).append('\'');
+        }
+        if (bulkheadConfiguration != null) {
+            stringBuilder.append(", bulkheads='").append(bulkheadConfiguration).append('\'');
+        }
+        if (metricsConfiguration != null) {
+            stringBuilder.append(", metrics='").append(metricsConfiguration).append('\'');
+        }
+        if (tracingConfiguration != null) {
+            stringBuilder.append(", tracing='").append(tracingConfiguration).append('\'');
+        }
+        if (flightRecorderEventsEnabled) {
+            stringBuilder.append(", flightRecorderEvents='enabled'");
+        }
         stringBuilder.append(", ignoreInvalidSslCertificates='").append(ignoreInvalidSslCertificates).append('\'');
         if (trustStoreFile != null) {
             stringBuilder.append(", sslTrustStoreFile='").append(trustStoreFile).append('\'');
@@ -0,0 +1,169 @@
+/**
+ * Copyright 2019 SourceLab.org https://github.com/SourceLabOrg/http-client-wrapper
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit
+ * persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.sourcelab.http.rest.configuration;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.regex.Pattern;
+
+/**
+ * Defines bulkheads, partitioning concurrent requests by endpoint so one slow endpoint cannot occupy every pooled
+ * connection and calling thread.
+ */
+public class BulkheadConfiguration {
+
+    // Bulkheads for endpoints matching a pattern.
+    private final List<EndpointBulkhead> endpointBulkheads;
+
+    /**
+     * Constructor.
+     * @param endpointBulkheads bulkheads for endpoints matching a pattern.  The first matching pattern applies, and
+     *                          requests to endpoints matching no pattern are not limited.
+     */
+    public BulkheadConfiguration(final List<EndpointBulkhead> endpointBulkheads) {
+        this.endpointBulkheads = Collections.unmodifiableList(new ArrayList<>(Objects.requireNonNull(endpointBulkheads)));
+    }
+
+    public List<EndpointBulkhead> getEndpointBulkheads() {
+        return endpointBulkheads;
+    }
+
+    /**
+     * Builder instance for BulkheadConfiguration.
+     * @return builder instance.
+     */
+    public static Builder newBuilder() {
+        return new Builder();
+    }
+
+    @Override
+    public String toString() {
+        return "BulkheadConfiguration{"
+            + "endpointBulkheads=" + endpointBulkheads
+            + '}';
+    }
+
+    /**
+     * A bulkhead applied to endpoints matching a pattern.
+     */
+    public static class EndpointBulkhead {
+        private final Pattern endpointPattern;
+        private final int maxConcurrentRequests;
+        private final int maxQueueSize;
+        private final long maxWaitInMilliseconds;
+
+        /**
+         * Constructor.
+         * @param endpointPattern regular expression matched against the full endpoint.
+         * @param maxConcurrentRequests number of requests which may be in flight at once.
+         * @param maxQueueSize number of requests which may wait for a slot, 0 to fail fast.
+         * @param maxWaitInMilliseconds how long a queued request may wait for a slot.
+         */
+        public EndpointBulkhead(
+            final Pattern endpointPattern,
+            final int maxConcurrentRequests,
+            final int maxQueueSize,
+            final long maxWaitInMilliseconds) {
+            if (maxConcurrentRequests <= 0) {
+                throw new IllegalArgumentException("maxConcurrentRequests must be greater than 0");
+            }
+            if (maxQueueSize < 0 || maxWaitInMilliseconds < 0) {
+                throw new IllegalArgumentException("maxQueueSize and maxWaitInMilliseconds must not be negative");
+            }
+            this.endpointPattern = Objects.requireNonNull(endpointPattern);
+            this.maxConcurrentRequests = maxConcurrentRequests;
+            this.maxQueueSize = maxQueueSize;
+            this.maxWaitInMilliseconds = maxWaitInMilliseconds;
+        }
+
+        public Pattern getEndpointPattern() {
+            return endpointPattern;
+        }
+
+        public int getMaxConcurrentRequests() {
+            return maxConcurrentRequests;
+        }
+
+        public int getMaxQueueSize() {
+            return maxQueueSize;
+        }
+
+        public long getMaxWaitInMilliseconds() {
+            return maxWaitInMilliseconds;
+        }
+
+        @Override
+        public String toString() {
+            return endpointPattern + " concurrent " + maxConcurrentRequests
+                + " queue " + maxQueueSize + " wait " + maxWaitInMilliseconds + "ms";
+        }
+    }
+
+    /**
+     * BulkheadConfiguration Builder.
+     */
+    public static final class Builder {
+        private final List<EndpointBulkhead> endpointBulkheads = new ArrayList<>();
+
+        private Builder() {
+        }
+
+        /**
+         * Limit concurrent requests to endpoints matching a pattern, failing fast once the limit is reached.
+         *
+         * @param endpointPattern regular expression matched against the full endpoint, for example "/export/.*".
+         * @param maxConcurrentRequests number of requests which may be in flight at once.
+         * @return Builder instance.
+         */
+        public Builder withBulkhead(final String endpointPattern, final int maxConcurrentRequests) {
+            return withBulkhead(endpointPattern, maxConcurrentRequests, 0, 0);
+        }
+
+        /**
+         * Limit concurrent requests to endpoints matching a pattern.  All endpoints matching the pattern share the
+         * bulkhead, and the first matching pattern applies.  Once the limit is reached, up to maxQueueSize requests
+         * wait for a slot for up to maxWaitInMilliseconds, any others fail with a BulkheadFullException.
+         *
+         * @param endpointPattern regular expression matched against the full endpoint, for example "/export/.*".
+         * @param maxConcurrentRequests number of requests which may be in flight at once.
+         * @param maxQueueSize number of requests which may wait for a slot, 0 to fail fast.
+         * @param maxWaitInMilliseconds how long a queued request may wait for a slot.
+         * @return Builder instance.
+         */
+        public Builder withBulkhead(
+            final String endpointPattern,
+            final int maxConcurrentRequests,
+            final int maxQueueSize,
+            final long maxWaitInMilliseconds) {
+            this.endpointBulkheads.add(
+                new EndpointBulkhead(Pattern.compile(endpointPattern), maxConcurrentRequests, maxQueueSize, maxWaitInMilliseconds)
+            );
+            return this;
+        }
+
+        /**
+         * Create a new BulkheadConfiguration instance.
+         * @return new BulkheadConfiguration instance.
+         */
+        public BulkheadConfiguration build() {
+            return new BulkheadConfiguration(endpointBulkheads);
+        }
+    }
+}
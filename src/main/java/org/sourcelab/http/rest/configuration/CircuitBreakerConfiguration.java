@@ -0,0 +1,295 @@
+/**
+ * Copyright 2019 SourceLab.org https://github.com/SourceLabOrg/http-client-wrapper
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit
+ * persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.sourcelab.http.rest.configuration;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.regex.Pattern;
+
+/**
+ * Defines when circuit breakers open to stop requests to a failing endpoint, and how they recover.
+ */
+public class CircuitBreakerConfiguration {
+
+    /**
+     * Name of the circuit breaker shared by endpoints beyond {@link #getMaxCircuitBreakers()}.
+     */
+    public static final String OTHER_ENDPOINTS = "other";
+
+    // Sliding window
+    private final int slidingWindowSize;
+    private final int minimumNumberOfCalls;
+
+    // Thresholds
+    private final double failureRateThreshold;
+    private final double slowCallRateThreshold;
+    private final long slowCallDurationThresholdInMilliseconds;
+
+    // Recovery
+    private final long waitDurationInOpenStateInMilliseconds;
+    private final int permittedCallsInHalfOpenState;
+
+    // Endpoints sharing a circuit breaker
+    private final List<Pattern> endpointPatterns;
+    private final int maxCircuitBreakers;
+
+    /**
+     * Constructor.
+     * @param slidingWindowSize number of most recent calls used to calculate failure and slow call rates.
+     * @param minimumNumberOfCalls number of calls required before rates are calculated.
+     * @param failureRateThreshold ratio of failed calls, between 0 and 1, at which the circuit breaker opens.
+     * @param slowCallRateThreshold ratio of slow calls, between 0 and 1, at which the circuit breaker opens.
+     * @param slowCallDurationThresholdInMilliseconds duration above which a call is considered slow.
+     * @param waitDurationInOpenStateInMilliseconds how long an open circuit breaker rejects calls before letting
+     *                                              trial calls through.
+     * @param permittedCallsInHalfOpenState number of trial calls which must succeed to close the circuit breaker.
+     * @param endpointPatterns endpoints matching one of these patterns share a single circuit breaker, named after
+     *                         the pattern.  Other endpoints each have their own circuit breaker.
+     * @param maxCircuitBreakers maximum number of distinct endpoints, or endpoint patterns, with their own circuit
+     *                           breaker.  Further endpoints share a circuit breaker named {@link #OTHER_ENDPOINTS}.
+     */
+    public CircuitBreakerConfiguration(
+        final int slidingWindowSize,
+        final int minimumNumberOfCalls,
+        final double failureRateThreshold,
+        final double slowCallRateThreshold,
+        final long slowCallDurationThresholdInMilliseconds,
+        final long waitDurationInOpenStateInMilliseconds,
+        final int permittedCallsInHalfOpenState,
+        final List<Pattern> endpointPatterns,
+        final int maxCircuitBreakers) {
+        if (slidingWindowSize <= 0) {
+            throw new IllegalArgumentException("slidingWindowSize must be greater than 0");
+        }
+        if (minimumNumberOfCalls <= 0 || minimumNumberOfCalls > slidingWindowSize) {
+            throw new IllegalArgumentException("minimumNumberOfCalls must be between 1 and slidingWindowSize");
+        }
+        if (failureRateThreshold <= 0 || failureRateThreshold > 1) {
+            throw new IllegalArgumentException("failureRateThreshold must be greater than 0 and at most 1");
+        }
+        if (slowCallRateThreshold <= 0 || slowCallRateThreshold > 1) {
+            throw new IllegalArgumentException("slowCallRateThreshold must be greater than 0 and at most 1");
+        }
+        if (permittedCallsInHalfOpenState <= 0) {
+            throw new IllegalArgumentException("permittedCallsInHalfOpenState must be greater than 0");
+        }
+        if (maxCircuitBreakers <= 0) {
+            throw new IllegalArgumentException("maxCircuitBreakers must be greater than 0");
+        }
+        this.slidingWindowSize = slidingWindowSize;
+        this.minimumNumberOfCalls = minimumNumberOfCalls;
+        this.failureRateThreshold = failureRateThreshold;
+        this.slowCallRateThreshold = slowCallRateThreshold;
+        this.slowCallDurationThresholdInMilliseconds = slowCallDurationThresholdInMilliseconds;
+        this.waitDurationInOpenStateInMilliseconds = waitDurationInOpenStateInMilliseconds;
+        this.permittedCallsInHalfOpenState = permittedCallsInHalfOpenState;
+        this.endpointPatterns = Collections.unmodifiableList(new ArrayList<>(Objects.requireNonNull(endpointPatterns)));
+        this.maxCircuitBreakers = maxCircuitBreakers;
+    }
+
+    public int getSlidingWindowSize() {
+        return slidingWindowSize;
+    }
+
+    public int getMinimumNumberOfCalls() {
+        return minimumNumberOfCalls;
+    }
+
+    public double getFailureRateThreshold() {
+        return failureRateThreshold;
+    }
+
+    public double getSlowCallRateThreshold() {
+        return slowCallRateThreshold;
+    }
+
+    public long getSlowCallDurationThresholdInMilliseconds() {
+        return slowCallDurationThresholdInMilliseconds;
+    }
+
+    public long getWaitDurationInOpenStateInMilliseconds() {
+        return waitDurationInOpenStateInMilliseconds;
+    }
+
+    public int getPermittedCallsInHalfOpenState() {
+        return permittedCallsInHalfOpenState;
+    }
+
+    public List<Pattern> getEndpointPatterns() {
+        return endpointPatterns;
+    }
+
+    public int getMaxCircuitBreakers() {
+        return maxCircuitBreakers;
+    }
+
+    /**
+     * Builder instance for CircuitBreakerConfiguration.
+     * @return builder instance.
+     */
+    public static Builder newBuilder() {
+        return new Builder();
+    }
+
+    @Override
+    public String toString() {
+        return "CircuitBreakerConfiguration{"
+            + "slidingWindowSize=" + slidingWindowSize
+            + ", minimumNumberOfCalls=" + minimumNumberOfCalls
+            + ", failureRateThreshold=" + failureRateThreshold
+            + ", slowCallRateThreshold=" + slowCallRateThreshold
+            + ", slowCallDurationThresholdInMilliseconds=" + slowCallDurationThresholdInMilliseconds
+            + ", waitDurationInOpenStateInMilliseconds=" + waitDurationInOpenStateInMilliseconds
+            + ", permittedCallsInHalfOpenState=" + permittedCallsInHalfOpenState
+            + ", endpointPatterns=" + endpointPatterns
+            + ", maxCircuitBreakers=" + maxCircuitBreakers
+            + '}';
+    }
+
+    /**
+     * CircuitBreakerConfiguration Builder.
+     */
+    public static final class Builder {
+        // Sliding window
+        private int slidingWindowSize = 100;
+        private int minimumNumberOfCalls = 20;
+
+        // Open once half of recent calls fail, or are slower than 10 seconds.
+        private double failureRateThreshold = 0.5;
+        private double slowCallRateThreshold = 0.5;
+        private long slowCallDurationThresholdInMilliseconds = 10_000;
+
+        // Recovery
+        private long waitDurationInOpenStateInMilliseconds = 30_000;
+        private int permittedCallsInHalfOpenState = 5;
+
+        private final List<Pattern> endpointPatterns = new ArrayList<>();
+        private int maxCircuitBreakers = 100;
+
+        private Builder() {
+        }
+
+        /**
+         * Set the sliding window used to calculate failure and slow call rates.
+         *
+         * @param slidingWindowSize number of most recent calls in the window.
+         * @param minimumNumberOfCalls number of calls required before rates are calculated.
+         * @return Builder instance.
+         */
+        public Builder withSlidingWindow(final int slidingWindowSize, final int minimumNumberOfCalls) {
+            this.slidingWindowSize = slidingWindowSize;
+            this.minimumNumberOfCalls = minimumNumberOfCalls;
+            return this;
+        }
+
+        /**
+         * Set the ratio of failed calls at which the circuit breaker opens.  Calls failing with an exception or a 5xx
+         * status are considered failed.
+         *
+         * @param failureRateThreshold ratio between 0 and 1.
+         * @return Builder instance.
+         */
+        public Builder withFailureRateThreshold(final double failureRateThreshold) {
+            this.failureRateThreshold = failureRateThreshold;
+            return this;
+        }
+
+        /**
+         * Set the ratio of slow calls at which the circuit breaker opens.
+         *
+         * @param slowCallRateThreshold ratio between 0 and 1.
+         * @param slowCallDurationThresholdInMilliseconds duration above which a call is considered slow.
+         * @return Builder instance.
+         */
+        public Builder withSlowCallRateThreshold(final double slowCallRateThreshold, final long slowCallDurationThresholdInMilliseconds) {
+            this.slowCallRateThreshold = slowCallRateThreshold;
+            this.slowCallDurationThresholdInMilliseconds = slowCallDurationThresholdInMilliseconds;
+            return this;
+        }
+
+        /**
+         * Set how long an open circuit breaker rejects calls before letting trial calls through.
+         *
+         * @param waitDurationInOpenStateInMilliseconds wait duration in milliseconds.
+         * @return Builder instance.
+         */
+        public Builder withWaitDurationInOpenStateInMilliseconds(final long waitDurationInOpenStateInMilliseconds) {
+            this.waitDurationInOpenStateInMilliseconds = waitDurationInOpenStateInMilliseconds;
+            return this;
+        }
+
+        /**
+         * Set the number of trial calls which must succeed to close a half open circuit breaker.
+         *
+         * @param permittedCallsInHalfOpenState number of trial calls.
+         * @return Builder instance.
+         */
+        public Builder withPermittedCallsInHalfOpenState(final int permittedCallsInHalfOpenState) {
+            this.permittedCallsInHalfOpenState = permittedCallsInHalfOpenState;
+            return this;
+        }
+
+        /**
+         * Endpoints matching one of these regular expressions share a single circuit breaker, for example
+         * "/users/[^/]+" to share one circuit breaker across all users rather than one per user id.
+         *
+         * @param endpointPatterns regular expressions matched against the full endpoint.
+         * @return Builder instance.
+         */
+        public Builder withEndpointPatterns(final String ... endpointPatterns) {
+            Arrays.stream(endpointPatterns)
+                .map(Pattern::compile)
+                .forEach(this.endpointPatterns::add);
+            return this;
+        }
+
+        /**
+         * Set the maximum number of distinct endpoints, or endpoint patterns, with their own circuit breaker.  Further
+         * endpoints share a single circuit breaker, so endpoints containing ids should be grouped via
+         * {@link #withEndpointPatterns(String...)}.  Defaults to 100.
+         *
+         * @param maxCircuitBreakers maximum number of circuit breakers.
+         * @return Builder instance.
+         */
+        public Builder withMaxCircuitBreakers(final int maxCircuitBreakers) {
+            this.maxCircuitBreakers = maxCircuitBreakers;
+            return this;
+        }
+
+        /**
+         * Create a new CircuitBreakerConfiguration instance.
+         * @return new CircuitBreakerConfiguration instance.
+         */
+        public CircuitBreakerConfiguration build() {
+            return new CircuitBreakerConfiguration(
+                slidingWindowSize,
+                minimumNumberOfCalls,
+                failureRateThreshold,
+                slowCallRateThreshold,
+                slowCallDurationThresholdInMilliseconds,
+                waitDurationInOpenStateInMilliseconds,
+                permittedCallsInHalfOpenState,
+                endpointPatterns,
+                maxCircuitBreakers
+            );
+        }
+    }
+}
@@ -0,0 +1,101 @@
+/**
+ * Copyright 2019 SourceLab.org https://github.com/SourceLabOrg/http-client-wrapper
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit
+ * persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.sourcelab.http.rest.configuration;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+
+/**
+ * Defines configuration for coalescing identical concurrent GET requests into a single upstream request.
+ */
+public class CoalescingConfiguration {
+
+    // Request headers, in addition to the method and url, which distinguish one request from another.
+    private final List<String> keyHeaders;
+
+    /**
+     * Constructor.
+     * @param keyHeaders names of request headers which, along with the method and final url, identify a request.
+     *                   Requests differing only in other headers are coalesced.
+     */
+    public CoalescingConfiguration(final List<String> keyHeaders) {
+        final List<String> names = new ArrayList<>();
+        for (final String keyHeader : Objects.requireNonNull(keyHeaders)) {
+            names.add(keyHeader.toLowerCase(Locale.ROOT));
+        }
+        this.keyHeaders = Collections.unmodifiableList(names);
+    }
+
+    /**
+     * Lower cased names of the request headers which, along with the method and final url, identify a request.
+     * @return Immutable list of header names.
+     */
+    public List<String> getKeyHeaders() {
+        return keyHeaders;
+    }
+
+    /**
+     * Builder instance for CoalescingConfiguration.
+     * @return builder instance.
+     */
+    public static Builder newBuilder() {
+        return new Builder();
+    }
+
+    @Override
+    public String toString() {
+        return "CoalescingConfiguration{"
+            + "keyHeaders=" + keyHeaders
+            + '}';
+    }
+
+    /**
+     * CoalescingConfiguration Builder.
+     */
+    public static final class Builder {
+        // By default requests made with different credentials or representations are never coalesced.
+        private List<String> keyHeaders = Arrays.asList("Authorization", "Accept");
+
+        private Builder() {
+        }
+
+        /**
+         * Set the names of the request headers which, along with the method and final url, identify a request.
+         * Replaces the defaults of Authorization and Accept.  Conditional and Range headers always identify a request.
+         *
+         * @param keyHeaders names of request headers.
+         * @return Builder instance.
+         */
+        public Builder withKeyHeaders(final String ... keyHeaders) {
+            this.keyHeaders = Arrays.asList(keyHeaders);
+            return this;
+        }
+
+        /**
+         * Create a new CoalescingConfiguration instance.
+         * @return new CoalescingConfiguration instance.
+         */
+        public CoalescingConfiguration build() {
+            return new CoalescingConfiguration(keyHeaders);
+        }
+    }
+}
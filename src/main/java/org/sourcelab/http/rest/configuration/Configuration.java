@@ -19,6 +19,9 @@ package org.sourcelab.http.rest.configuration;
 
 import org.sourcelab.http.rest.interceptor.RequestInterceptor;
 import org.sourcelab.http.rest.request.RequestHeader;
+import org.sourcelab.http.rest.transport.RequestEventListener;
+import org.sourcelab.http.rest.transport.RequestTimingListener;
+import org.sourcelab.http.rest.transport.TransportFactory;
 
 import java.io.File;
 import java.util.List;
@@ -34,6 +37,12 @@ public interface Configuration {
      */
     ProxyConfiguration getProxyConfiguration();
 
+    /**
+     * Connection pool configuration properties.
+     * @return Connection pool configuration properties, never NULL.
+     */
+    ConnectionPoolConfiguration getConnectionPoolConfiguration();
+
     /**
      * Hostname to make API requests against.
      * @return Hostname to make API requests against.
@@ -70,6 +79,24 @@ public interface Configuration {
      */
     int getRequestTimeoutInSeconds();
 
+    /**
+     * Get how long to wait while establishing a connection, in milliseconds.
+     * @return Connect timeout in milliseconds, 0 to wait indefinitely.
+     */
+    int getConnectTimeoutInMilliseconds();
+
+    /**
+     * Get the maximum period of inactivity between two consecutive data packets, in milliseconds.
+     * @return Socket read timeout in milliseconds, 0 to wait indefinitely.
+     */
+    int getSocketTimeoutInMilliseconds();
+
+    /**
+     * Get the maximum lifetime of a pooled persistent connection, in milliseconds.
+     * @return Connection time to live in milliseconds, 0 or less for no limit.
+     */
+    long getConnectionTimeToLiveInMilliseconds();
+
     /**
      * Path to a JKS key store to be used for client validation.  If your requesting host
      * is configured to only accept requests from clients with a valid client certificate.
@@ -101,9 +128,93 @@ public interface Configuration {
      */
     List<RequestInterceptor> getRequestInterceptors();
 
+    /**
+     * Listeners notified with the phase level timing of each request.
+     * @return instance.
+     */
+    List<RequestTimingListener> getRequestTimingListeners();
+
+    /**
+     * Listeners notified as each request moves through its lifecycle.
+     * @return instance.
+     */
+    List<RequestEventListener> getRequestEventListeners();
+
+    /**
+     * Whether to emit Java Flight Recorder events for each request.
+     * @return true if enabled.
+     */
+    boolean getFlightRecorderEventsEnabled();
+
     /**
      * Immutable list of request headers to be sent with every request.
      * @return Immutable list of request headers.
      */
     List<RequestHeader> getRequestHeaders();
+
+    /**
+     * Name of the transport to execute requests with, resolved via ServiceLoader.
+     * @return NULL to use the default transport, otherwise name of the transport.
+     */
+    String getTransport();
+
+    /**
+     * Factory for the transport to execute requests with.  Takes precedence over {@link #getTransport()}.
+     * @return NULL if not configured, otherwise factory for the transport.
+     */
+    TransportFactory getTransportFactory();
+
+    /**
+     * Coalescing of identical concurrent GET requests, if enabled.
+     * @return NULL if not enabled, otherwise coalescing configuration properties.
+     */
+    CoalescingConfiguration getCoalescingConfiguration();
+
+    /**
+     * Retrying of failed requests, if enabled.
+     * @return NULL if not enabled, otherwise retry configuration properties.
+     */
+    RetryConfiguration getRetryConfiguration();
+
+    /**
+     * Per endpoint circuit breakers, if enabled.
+     * @return NULL if not enabled, otherwise circuit breaker configuration properties.
+     */
+    CircuitBreakerConfiguration getCircuitBreakerConfiguration();
+
+    /**
+     * Client side rate limits, if enabled.
+     * @return NULL if not enabled, otherwise rate limiter configuration properties.
+     */
+    RateLimiterConfiguration getRateLimiterConfiguration();
+
+    /**
+     * Adaptive concurrency limiting, if enabled.
+     * @return NULL if not enabled, otherwise adaptive concurrency configuration properties.
+     */
+    AdaptiveConcurrencyConfiguration getAdaptiveConcurrencyConfiguration();
+
+    /**
+     * Request hedging, if enabled.
+     * @return NULL if not enabled, otherwise hedging configuration properties.
+     */
+    HedgingConfiguration getHedgingConfiguration();
+
+    /**
+     * Per endpoint bulkheads, if enabled.
+     * @return NULL if not enabled, otherwise bulkhead configuration properties.
+     */
+    BulkheadConfiguration getBulkheadConfiguration();
+
+    /**
+     * Request metrics, if enabled.
+     * @return NULL if not enabled, otherwise metrics configuration properties.
+     */
+    MetricsConfiguration getMetricsConfiguration();
+
+    /**
+     * W3C trace context propagation, if enabled.
+     * @return NULL if not enabled, otherwise tracing configuration properties.
+     */
+    TracingConfiguration getTracingConfiguration();
 }
@@ -0,0 +1,167 @@
+/**
+ * Copyright 2019 SourceLab.org https://github.com/SourceLabOrg/http-client-wrapper
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit
+ * persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.sourcelab.http.rest.configuration;
+
+/**
+ * Defines configuration for the pool of persistent connections held by the underlying http client.
+ */
+public class ConnectionPoolConfiguration {
+
+    // Pool sizing
+    private final int maxTotalConnections;
+    private final int maxConnectionsPerRoute;
+
+    // Connection validation and leasing
+    private final int validateAfterInactivityInMilliseconds;
+    private final int connectionRequestTimeoutInMilliseconds;
+
+    /**
+     * Constructor.
+     * @param maxTotalConnections maximum number of connections held open across all routes.
+     * @param maxConnectionsPerRoute maximum number of connections held open to a single route (host).
+     * @param validateAfterInactivityInMilliseconds period of inactivity after which a pooled connection is
+     *                                              re-validated before being leased.  A value of 0 or less
+     *                                              disables validation.
+     * @param connectionRequestTimeoutInMilliseconds how long to wait for a connection to be leased from the pool.
+     *                                               A value of -1 waits indefinitely.
+     */
+    public ConnectionPoolConfiguration(
+        final int maxTotalConnections,
+        final int maxConnectionsPerRoute,
+        final int validateAfterInactivityInMilliseconds,
+        final int connectionRequestTimeoutInMilliseconds) {
+        if (maxTotalConnections <= 0) {
+            throw new IllegalArgumentException("maxTotalConnections must be greater than 0");
+        }
+        if (maxConnectionsPerRoute <= 0) {
+            throw new IllegalArgumentException("maxConnectionsPerRoute must be greater than 0");
+        }
+        this.maxTotalConnections = maxTotalConnections;
+        this.maxConnectionsPerRoute = maxConnectionsPerRoute;
+        this.validateAfterInactivityInMilliseconds = validateAfterInactivityInMilliseconds;
+        this.connectionRequestTimeoutInMilliseconds = connectionRequestTimeoutInMilliseconds;
+    }
+
+    public int getMaxTotalConnections() {
+        return maxTotalConnections;
+    }
+
+    public int getMaxConnectionsPerRoute() {
+        return maxConnectionsPerRoute;
+    }
+
+    public int getValidateAfterInactivityInMilliseconds() {
+        return validateAfterInactivityInMilliseconds;
+    }
+
+    public int getConnectionRequestTimeoutInMilliseconds() {
+        return connectionRequestTimeoutInMilliseconds;
+    }
+
+    /**
+     * Builder instance for ConnectionPoolConfiguration.
+     * @return builder instance.
+     */
+    public static Builder newBuilder() {
+        return new Builder();
+    }
+
+    @Override
+    public String toString() {
+        return "ConnectionPoolConfiguration{"
+            + "maxTotalConnections=" + maxTotalConnections
+            + ", maxConnectionsPerRoute=" + maxConnectionsPerRoute
+            + ", validateAfterInactivityInMilliseconds=" + validateAfterInactivityInMilliseconds
+            + ", connectionRequestTimeoutInMilliseconds=" + connectionRequestTimeoutInMilliseconds
+            + '}';
+    }
+
+    /**
+     * ConnectionPoolConfiguration Builder.
+     */
+    public static final class Builder {
+        // Pool sizing, sized so a single client can service a large number of concurrent requests
+        // against a single API host.
+        private int maxTotalConnections = 200;
+        private int maxConnectionsPerRoute = 200;
+
+        // Connection validation and leasing
+        private int validateAfterInactivityInMilliseconds = 2000;
+        private int connectionRequestTimeoutInMilliseconds = -1;
+
+        private Builder() {
+        }
+
+        /**
+         * Set the maximum number of connections held open across all routes.
+         *
+         * @param maxTotalConnections maximum number of connections.
+         * @return Builder instance.
+         */
+        public Builder withMaxTotalConnections(final int maxTotalConnections) {
+            this.maxTotalConnections = maxTotalConnections;
+            return this;
+        }
+
+        /**
+         * Set the maximum number of connections held open to a single route (host).
+         *
+         * @param maxConnectionsPerRoute maximum number of connections per route.
+         * @return Builder instance.
+         */
+        public Builder withMaxConnectionsPerRoute(final int maxConnectionsPerRoute) {
+            this.maxConnectionsPerRoute = maxConnectionsPerRoute;
+            return this;
+        }
+
+        /**
+         * Set the period of inactivity after which a pooled connection is re-validated before being leased.
+         *
+         * @param validateAfterInactivityInMilliseconds inactivity period in milliseconds, 0 or less to disable.
+         * @return Builder instance.
+         */
+        public Builder withValidateAfterInactivityInMilliseconds(final int validateAfterInactivityInMilliseconds) {
+            this.validateAfterInactivityInMilliseconds = validateAfterInactivityInMilliseconds;
+            return this;
+        }
+
+        /**
+         * Set how long to wait for a connection to be leased from the pool.
+         *
+         * @param connectionRequestTimeoutInMilliseconds timeout in milliseconds, -1 to wait indefinitely.
+         * @return Builder instance.
+         */
+        public Builder withConnectionRequestTimeoutInMilliseconds(final int connectionRequestTimeoutInMilliseconds) {
+            this.connectionRequestTimeoutInMilliseconds = connectionRequestTimeoutInMilliseconds;
+            return this;
+        }
+
+        /**
+         * Create a new ConnectionPoolConfiguration instance.
+         * @return new ConnectionPoolConfiguration instance.
+         */
+        public ConnectionPoolConfiguration build() {
+            return new ConnectionPoolConfiguration(
+                maxTotalConnections,
+                maxConnectionsPerRoute,
+                validateAfterInactivityInMilliseconds,
+                connectionRequestTimeoutInMilliseconds
+            );
+        }
+    }
+}
@@ -0,0 +1,322 @@
+/**
+ * Copyright 2019 SourceLab.org https://github.com/SourceLabOrg/http-client-wrapper
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit
+ * persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.sourcelab.http.rest.configuration;
+
+import org.sourcelab.http.rest.request.RequestMethod;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.regex.Pattern;
+
+/**
+ * Defines when a duplicate, hedge, request is sent for a slow request.
+ */
+public class HedgingConfiguration {
+
+    /**
+     * Name of the latency tracker shared by endpoints beyond {@link #getMaxLatencyTrackers()}.
+     */
+    public static final String OTHER_ENDPOINTS = "other";
+
+    // Hedge delay
+    private final long hedgeDelayInMilliseconds;
+    private final double hedgeDelayPercentile;
+    private final List<Pattern> endpointPatterns;
+    private final int maxLatencyTrackers;
+
+    // What is hedged
+    private final Set<RequestMethod> hedgedMethods;
+
+    // Hedge budget
+    private final double hedgeBudgetRatio;
+    private final int maxHedgeBudget;
+
+    // Hedge execution
+    private final int maxConcurrentHedges;
+    private final Executor hedgeExecutor;
+
+    /**
+     * Constructor.
+     * @param hedgeDelayInMilliseconds how long to wait for a response before sending a hedge request.  When a
+     *                                 percentile is configured, used until enough latency has been measured.
+     * @param hedgeDelayPercentile latency percentile, between 0 and 1, measured per endpoint, after which a hedge
+     *                             request is sent.  0 to always use the fixed delay.
+     * @param endpointPatterns endpoints matching one of these patterns share a single latency percentile, named after
+     *                         the pattern.  Other endpoints each have their own latency percentile.
+     * @param maxLatencyTrackers maximum number of distinct endpoints, or endpoint patterns, with their own latency
+     *                           percentile.  Further endpoints share a latency percentile named {@link #OTHER_ENDPOINTS}.
+     * @param hedgedMethods request methods which may be hedged.  Only idempotent methods should be hedged.
+     * @param hedgeBudgetRatio hedge requests allowed per request, 0.05 allows hedging to add at most 5% to traffic.
+     * @param maxHedgeBudget maximum number of hedge requests which may be accumulated in the budget.
+     * @param maxConcurrentHedges maximum number of hedge requests in flight at once, ignored when a hedgeExecutor is
+     *                            supplied.  Further hedges are skipped.
+     * @param hedgeExecutor executor to send hedge requests on, or NULL to use a thread pool of maxConcurrentHedges
+     *                      threads owned by the transport.  Should reject, rather than queue, hedges it cannot start
+     *                      promptly.  Not shut down when the transport is closed.
+     */
+    public HedgingConfiguration(
+        final long hedgeDelayInMilliseconds,
+        final double hedgeDelayPercentile,
+        final List<Pattern> endpointPatterns,
+        final int maxLatencyTrackers,
+        final Set<RequestMethod> hedgedMethods,
+        final double hedgeBudgetRatio,
+        final int maxHedgeBudget,
+        final int maxConcurrentHedges,
+        final Executor hedgeExecutor) {
+        if (hedgeDelayInMilliseconds < 0) {
+            throw new IllegalArgumentException("hedgeDelayInMilliseconds must not be negative");
+        }
+        if (hedgeDelayPercentile < 0 || hedgeDelayPercentile >= 1) {
+            throw new IllegalArgumentException("hedgeDelayPercentile must be at least 0 and less than 1");
+        }
+        if (maxLatencyTrackers <= 0) {
+            throw new IllegalArgumentException("maxLatencyTrackers must be greater than 0");
+        }
+        if (hedgeBudgetRatio < 0 || maxHedgeBudget < 0) {
+            throw new IllegalArgumentException("hedgeBudgetRatio and maxHedgeBudget must not be negative");
+        }
+        if (maxConcurrentHedges < 1) {
+            throw new IllegalArgumentException("maxConcurrentHedges must be at least 1");
+        }
+        this.hedgeDelayInMilliseconds = hedgeDelayInMilliseconds;
+        this.hedgeDelayPercentile = hedgeDelayPercentile;
+        this.endpointPatterns = Collections.unmodifiableList(new ArrayList<>(Objects.requireNonNull(endpointPatterns)));
+        this.maxLatencyTrackers = maxLatencyTrackers;
+        final Set<RequestMethod> methods = EnumSet.noneOf(RequestMethod.class);
+        methods.addAll(Objects.requireNonNull(hedgedMethods));
+        this.hedgedMethods = Collections.unmodifiableSet(methods);
+        this.hedgeBudgetRatio = hedgeBudgetRatio;
+        this.maxHedgeBudget = maxHedgeBudget;
+        this.maxConcurrentHedges = maxConcurrentHedges;
+        this.hedgeExecutor = hedgeExecutor;
+    }
+
+    public long getHedgeDelayInMilliseconds() {
+        return hedgeDelayInMilliseconds;
+    }
+
+    public double getHedgeDelayPercentile() {
+        return hedgeDelayPercentile;
+    }
+
+    public List<Pattern> getEndpointPatterns() {
+        return endpointPatterns;
+    }
+
+    public int getMaxLatencyTrackers() {
+        return maxLatencyTrackers;
+    }
+
+    public Set<RequestMethod> getHedgedMethods() {
+        return hedgedMethods;
+    }
+
+    public double getHedgeBudgetRatio() {
+        return hedgeBudgetRatio;
+    }
+
+    public int getMaxHedgeBudget() {
+        return maxHedgeBudget;
+    }
+
+    public int getMaxConcurrentHedges() {
+        return maxConcurrentHedges;
+    }
+
+    public Executor getHedgeExecutor() {
+        return hedgeExecutor;
+    }
+
+    /**
+     * Builder instance for HedgingConfiguration.
+     * @return builder instance.
+     */
+    public static Builder newBuilder() {
+        return new Builder();
+    }
+
+    @Override
+    public String toString() {
+        return "HedgingConfiguration{"
+            + "hedgeDelayInMilliseconds=" + hedgeDelayInMilliseconds
+            + ", hedgeDelayPercentile=" + hedgeDelayPercentile
+            + ", endpointPatterns=" + endpointPatterns
+            + ", maxLatencyTrackers=" + maxLatencyTrackers
+            + ", hedgedMethods=" + hedgedMethods
+            + ", hedgeBudgetRatio=" + hedgeBudgetRatio
+            + ", maxHedgeBudget=" + maxHedgeBudget
+            + ", maxConcurrentHedges=" + maxConcurrentHedges
+            + ", hedgeExecutor=" + hedgeExecutor
+            + '}';
+    }
+
+    /**
+     * HedgingConfiguration Builder.
+     */
+    public static final class Builder {
+        // Hedge requests slower than the 95th percentile, or 100ms until enough latency has been measured.
+        private long hedgeDelayInMilliseconds = 100;
+        private double hedgeDelayPercentile = 0.95;
+
+        // Latency percentile measured for at most 100 endpoints, or endpoint patterns.
+        private final List<Pattern> endpointPatterns = new ArrayList<>();
+        private int maxLatencyTrackers = 100;
+
+        // Only GET requests are hedged by default.
+        private Set<RequestMethod> hedgedMethods = EnumSet.of(RequestMethod.GET);
+
+        // Hedging may add at most 5% to traffic, with bursts of up to 10 hedges.
+        private double hedgeBudgetRatio = 0.05;
+        private int maxHedgeBudget = 10;
+
+        // At most 16 hedges in flight, on threads owned by the transport.
+        private int maxConcurrentHedges = 16;
+        private Executor hedgeExecutor = null;
+
+        private Builder() {
+        }
+
+        /**
+         * Send hedge requests after a fixed delay, rather than a measured latency percentile.
+         *
+         * @param hedgeDelayInMilliseconds delay in milliseconds.
+         * @return Builder instance.
+         */
+        public Builder withHedgeDelayInMilliseconds(final long hedgeDelayInMilliseconds) {
+            this.hedgeDelayInMilliseconds = hedgeDelayInMilliseconds;
+            this.hedgeDelayPercentile = 0;
+            return this;
+        }
+
+        /**
+         * Send hedge requests once a request is slower than the given latency percentile, measured per endpoint.
+         *
+         * @param hedgeDelayPercentile percentile between 0 and 1, for example 0.95.
+         * @param initialHedgeDelayInMilliseconds delay used until enough latency has been measured.
+         * @return Builder instance.
+         */
+        public Builder withHedgeDelayPercentile(final double hedgeDelayPercentile, final long initialHedgeDelayInMilliseconds) {
+            this.hedgeDelayPercentile = hedgeDelayPercentile;
+            this.hedgeDelayInMilliseconds = initialHedgeDelayInMilliseconds;
+            return this;
+        }
+
+        /**
+         * Endpoints matching one of these regular expressions share a single latency percentile, for example
+         * "/users/[^/]+" to measure one percentile across all users rather than one per user id.
+         *
+         * @param endpointPatterns regular expressions matched against the full endpoint.
+         * @return Builder instance.
+         */
+        public Builder withEndpointPatterns(final String ... endpointPatterns) {
+            Arrays.stream(endpointPatterns)
+                .map(Pattern::compile)
+                .forEach(this.endpointPatterns::add);
+            return this;
+        }
+
+        /**
+         * Set the maximum number of distinct endpoints, or endpoint patterns, with their own latency percentile.
+         * Further endpoints share a single latency percentile, so endpoints containing ids should be grouped via
+         * {@link #withEndpointPatterns(String...)}.  Defaults to 100.
+         *
+         * @param maxLatencyTrackers maximum number of latency percentiles.
+         * @return Builder instance.
+         */
+        public Builder withMaxLatencyTrackers(final int maxLatencyTrackers) {
+            this.maxLatencyTrackers = maxLatencyTrackers;
+            return this;
+        }
+
+        /**
+         * Set the request methods which may be hedged.  Defaults to GET.
+         *
+         * @param hedgedMethods request methods, which must be idempotent.
+         * @return Builder instance.
+         */
+        public Builder withHedgedMethods(final RequestMethod ... hedgedMethods) {
+            this.hedgedMethods = EnumSet.noneOf(RequestMethod.class);
+            this.hedgedMethods.addAll(Arrays.asList(hedgedMethods));
+            return this;
+        }
+
+        /**
+         * Set the hedge budget.  Each request adds hedgeBudgetRatio to the budget, up to maxHedgeBudget, and each
+         * hedge request spends 1.  Once the budget is spent, slow requests are not hedged.
+         *
+         * @param hedgeBudgetRatio hedges allowed per request, 0.05 allows hedging to add at most 5% to traffic.
+         * @param maxHedgeBudget maximum number of hedges which may be accumulated.
+         * @return Builder instance.
+         */
+        public Builder withHedgeBudget(final double hedgeBudgetRatio, final int maxHedgeBudget) {
+            this.hedgeBudgetRatio = hedgeBudgetRatio;
+            this.maxHedgeBudget = maxHedgeBudget;
+            return this;
+        }
+
+        /**
+         * Set the maximum number of hedge requests in flight at once.  Slow requests are not hedged while every hedge
+         * thread is busy.  Defaults to 16.
+         *
+         * @param maxConcurrentHedges maximum number of concurrent hedges.
+         * @return Builder instance.
+         */
+        public Builder withMaxConcurrentHedges(final int maxConcurrentHedges) {
+            this.maxConcurrentHedges = maxConcurrentHedges;
+            return this;
+        }
+
+        /**
+         * Send hedge requests on the given executor, rather than a thread pool owned by the transport.  The executor
+         * should reject, rather than queue, hedges it cannot start promptly, and is not shut down when the transport
+         * is closed.
+         *
+         * @param hedgeExecutor executor to send hedge requests on.
+         * @return Builder instance.
+         */
+        public Builder withHedgeExecutor(final Executor hedgeExecutor) {
+            this.hedgeExecutor = Objects.requireNonNull(hedgeExecutor);
+            return this;
+        }
+
+        /**
+         * Create a new HedgingConfiguration instance.
+         * @return new HedgingConfiguration instance.
+         */
+        public HedgingConfiguration build() {
+            return new HedgingConfiguration(
+                hedgeDelayInMilliseconds,
+                hedgeDelayPercentile,
+                endpointPatterns,
+                maxLatencyTrackers,
+                hedgedMethods,
+                hedgeBudgetRatio,
+                maxHedgeBudget,
+                maxConcurrentHedges,
+                hedgeExecutor
+            );
+        }
+    }
+}
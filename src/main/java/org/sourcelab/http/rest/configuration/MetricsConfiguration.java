@@ -0,0 +1,173 @@
+/**
+ * Copyright 2019 SourceLab.org https://github.com/SourceLabOrg/http-client-wrapper
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit
+ * persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.sourcelab.http.rest.configuration;
+
+import org.sourcelab.http.rest.metrics.MetricsExporter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.regex.Pattern;
+
+/**
+ * Defines how request metrics are grouped, and where they are exported.
+ */
+public class MetricsConfiguration {
+
+    /**
+     * Name of the metrics shared by endpoints beyond {@link #getMaxEndpoints()}.
+     */
+    public static final String OTHER_ENDPOINTS = "other";
+
+    // Grouping
+    private final List<Pattern> endpointPatterns;
+    private final int maxEndpoints;
+
+    // Exporting
+    private final List<MetricsExporter> exporters;
+    private final long exportIntervalInSeconds;
+
+    /**
+     * Constructor.
+     * @param endpointPatterns endpoints matching one of these patterns share metrics, named after the pattern.
+     *                         Other endpoints each have their own metrics.
+     * @param maxEndpoints maximum number of distinct endpoints, or endpoint patterns, tracked.  Further endpoints share
+     *                     metrics named {@link #OTHER_ENDPOINTS}.
+     * @param exporters exporters called periodically with the current metrics.
+     * @param exportIntervalInSeconds how often exporters are called.
+     */
+    public MetricsConfiguration(
+        final List<Pattern> endpointPatterns,
+        final int maxEndpoints,
+        final List<MetricsExporter> exporters,
+        final long exportIntervalInSeconds) {
+        if (maxEndpoints <= 0) {
+            throw new IllegalArgumentException("maxEndpoints must be greater than 0");
+        }
+        if (exportIntervalInSeconds <= 0) {
+            throw new IllegalArgumentException("exportIntervalInSeconds must be greater than 0");
+        }
+        this.endpointPatterns = Collections.unmodifiableList(new ArrayList<>(Objects.requireNonNull(endpointPatterns)));
+        this.maxEndpoints = maxEndpoints;
+        this.exporters = Collections.unmodifiableList(new ArrayList<>(Objects.requireNonNull(exporters)));
+        this.exportIntervalInSeconds = exportIntervalInSeconds;
+    }
+
+    public List<Pattern> getEndpointPatterns() {
+        return endpointPatterns;
+    }
+
+    public int getMaxEndpoints() {
+        return maxEndpoints;
+    }
+
+    public List<MetricsExporter> getExporters() {
+        return exporters;
+    }
+
+    public long getExportIntervalInSeconds() {
+        return exportIntervalInSeconds;
+    }
+
+    /**
+     * Builder instance for MetricsConfiguration.
+     * @return builder instance.
+     */
+    public static Builder newBuilder() {
+        return new Builder();
+    }
+
+    @Override
+    public String toString() {
+        return "MetricsConfiguration{"
+            + "endpointPatterns=" + endpointPatterns
+            + ", maxEndpoints=" + maxEndpoints
+            + ", exporters=" + exporters
+            + ", exportIntervalInSeconds=" + exportIntervalInSeconds
+            + '}';
+    }
+
+    /**
+     * MetricsConfiguration Builder.
+     */
+    public static final class Builder {
+        private final List<Pattern> endpointPatterns = new ArrayList<>();
+        private int maxEndpoints = 200;
+        private final List<MetricsExporter> exporters = new ArrayList<>();
+        private long exportIntervalInSeconds = 60;
+
+        private Builder() {
+        }
+
+        /**
+         * Group endpoints containing ids, or other variable parts, under a pattern.  The first matching pattern applies.
+         *
+         * @param endpointPatterns regular expressions matched against the full endpoint, for example "/users/[^/]+".
+         * @return Builder instance.
+         */
+        public Builder withEndpointPatterns(final String ... endpointPatterns) {
+            Arrays.stream(endpointPatterns)
+                .map(Pattern::compile)
+                .forEach(this.endpointPatterns::add);
+            return this;
+        }
+
+        /**
+         * Set the maximum number of distinct endpoints, or endpoint patterns, tracked.  Defaults to 200.
+         *
+         * @param maxEndpoints maximum number of endpoints.
+         * @return Builder instance.
+         */
+        public Builder withMaxEndpoints(final int maxEndpoints) {
+            this.maxEndpoints = maxEndpoints;
+            return this;
+        }
+
+        /**
+         * Add an exporter, called periodically with the current metrics.
+         *
+         * @param exporter the exporter.
+         * @return Builder instance.
+         */
+        public Builder withExporter(final MetricsExporter exporter) {
+            this.exporters.add(Objects.requireNonNull(exporter));
+            return this;
+        }
+
+        /**
+         * Set how often exporters are called.  Defaults to 60 seconds.
+         *
+         * @param exportIntervalInSeconds interval in seconds.
+         * @return Builder instance.
+         */
+        public Builder withExportIntervalInSeconds(final long exportIntervalInSeconds) {
+            this.exportIntervalInSeconds = exportIntervalInSeconds;
+            return this;
+        }
+
+        /**
+         * Create a new MetricsConfiguration instance.
+         * @return new MetricsConfiguration instance.
+         */
+        public MetricsConfiguration build() {
+            return new MetricsConfiguration(endpointPatterns, maxEndpoints, exporters, exportIntervalInSeconds);
+        }
+    }
+}
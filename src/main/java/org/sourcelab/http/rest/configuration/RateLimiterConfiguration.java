@@ -0,0 +1,208 @@
+/**
+ * Copyright 2019 SourceLab.org https://github.com/SourceLabOrg/http-client-wrapper
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit
+ * persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.sourcelab.http.rest.configuration;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.regex.Pattern;
+
+/**
+ * Defines client side rate limits, applied to all requests against the API host and to individual endpoints.
+ */
+public class RateLimiterConfiguration {
+
+    // Limit across all requests, NULL if not limited.
+    private final RateLimit hostRateLimit;
+
+    // Limits for endpoints matching a pattern.
+    private final List<EndpointRateLimit> endpointRateLimits;
+
+    // How long a request may wait for a permit, 0 to fail fast.
+    private final long maxWaitInMilliseconds;
+
+    /**
+     * Constructor.
+     * @param hostRateLimit limit across all requests against the API host, or NULL for no limit.
+     * @param endpointRateLimits limits for endpoints matching a pattern.  The first matching pattern applies.
+     * @param maxWaitInMilliseconds how long a request may wait for a permit before failing, 0 to fail fast.
+     */
+    public RateLimiterConfiguration(
+        final RateLimit hostRateLimit,
+        final List<EndpointRateLimit> endpointRateLimits,
+        final long maxWaitInMilliseconds) {
+        if (maxWaitInMilliseconds < 0) {
+            throw new IllegalArgumentException("maxWaitInMilliseconds must not be negative");
+        }
+        this.hostRateLimit = hostRateLimit;
+        this.endpointRateLimits = Collections.unmodifiableList(new ArrayList<>(Objects.requireNonNull(endpointRateLimits)));
+        this.maxWaitInMilliseconds = maxWaitInMilliseconds;
+    }
+
+    public RateLimit getHostRateLimit() {
+        return hostRateLimit;
+    }
+
+    public List<EndpointRateLimit> getEndpointRateLimits() {
+        return endpointRateLimits;
+    }
+
+    public long getMaxWaitInMilliseconds() {
+        return maxWaitInMilliseconds;
+    }
+
+    /**
+     * Builder instance for RateLimiterConfiguration.
+     * @return builder instance.
+     */
+    public static Builder newBuilder() {
+        return new Builder();
+    }
+
+    @Override
+    public String toString() {
+        return "RateLimiterConfiguration{"
+            + "hostRateLimit=" + hostRateLimit
+            + ", endpointRateLimits=" + endpointRateLimits
+            + ", maxWaitInMilliseconds=" + maxWaitInMilliseconds
+            + '}';
+    }
+
+    /**
+     * A rate, with an allowed burst.
+     */
+    public static class RateLimit {
+        private final double permitsPerSecond;
+        private final int burst;
+
+        /**
+         * Constructor.
+         * @param permitsPerSecond sustained number of requests per second.
+         * @param burst number of requests which may be made at once, after a period of inactivity.
+         */
+        public RateLimit(final double permitsPerSecond, final int burst) {
+            if (permitsPerSecond <= 0) {
+                throw new IllegalArgumentException("permitsPerSecond must be greater than 0");
+            }
+            if (burst <= 0) {
+                throw new IllegalArgumentException("burst must be greater than 0");
+            }
+            this.permitsPerSecond = permitsPerSecond;
+            this.burst = burst;
+        }
+
+        public double getPermitsPerSecond() {
+            return permitsPerSecond;
+        }
+
+        public int getBurst() {
+            return burst;
+        }
+
+        @Override
+        public String toString() {
+            return permitsPerSecond + "/s burst " + burst;
+        }
+    }
+
+    /**
+     * A rate limit applied to endpoints matching a pattern.
+     */
+    public static class EndpointRateLimit extends RateLimit {
+        private final Pattern endpointPattern;
+
+        /**
+         * Constructor.
+         * @param endpointPattern regular expression matched against the full endpoint.
+         * @param permitsPerSecond sustained number of requests per second.
+         * @param burst number of requests which may be made at once, after a period of inactivity.
+         */
+        public EndpointRateLimit(final Pattern endpointPattern, final double permitsPerSecond, final int burst) {
+            super(permitsPerSecond, burst);
+            this.endpointPattern = Objects.requireNonNull(endpointPattern);
+        }
+
+        public Pattern getEndpointPattern() {
+            return endpointPattern;
+        }
+
+        @Override
+        public String toString() {
+            return endpointPattern + " " + super.toString();
+        }
+    }
+
+    /**
+     * RateLimiterConfiguration Builder.
+     */
+    public static final class Builder {
+        private RateLimit hostRateLimit = null;
+        private final List<EndpointRateLimit> endpointRateLimits = new ArrayList<>();
+        private long maxWaitInMilliseconds = 0;
+
+        private Builder() {
+        }
+
+        /**
+         * Limit all requests against the API host.
+         *
+         * @param permitsPerSecond sustained number of requests per second.
+         * @param burst number of requests which may be made at once, after a period of inactivity.
+         * @return Builder instance.
+         */
+        public Builder withHostRateLimit(final double permitsPerSecond, final int burst) {
+            this.hostRateLimit = new RateLimit(permitsPerSecond, burst);
+            return this;
+        }
+
+        /**
+         * Limit requests to endpoints matching a pattern, in addition to any host limit.  All endpoints matching the
+         * pattern share the limit, and the first matching pattern applies.
+         *
+         * @param endpointPattern regular expression matched against the full endpoint, for example "/search".
+         * @param permitsPerSecond sustained number of requests per second.
+         * @param burst number of requests which may be made at once, after a period of inactivity.
+         * @return Builder instance.
+         */
+        public Builder withEndpointRateLimit(final String endpointPattern, final double permitsPerSecond, final int burst) {
+            this.endpointRateLimits.add(new EndpointRateLimit(Pattern.compile(endpointPattern), permitsPerSecond, burst));
+            return this;
+        }
+
+        /**
+         * Set how long a request may wait for a permit before failing with a RateLimitExceededException.
+         * Defaults to 0, failing fast.
+         *
+         * @param maxWaitInMilliseconds maximum wait in milliseconds.
+         * @return Builder instance.
+         */
+        public Builder withMaxWaitInMilliseconds(final long maxWaitInMilliseconds) {
+            this.maxWaitInMilliseconds = maxWaitInMilliseconds;
+            return this;
+        }
+
+        /**
+         * Create a new RateLimiterConfiguration instance.
+         * @return new RateLimiterConfiguration instance.
+         */
+        public RateLimiterConfiguration build() {
+            return new RateLimiterConfiguration(hostRateLimit, endpointRateLimits, maxWaitInMilliseconds);
+        }
+    }
+}
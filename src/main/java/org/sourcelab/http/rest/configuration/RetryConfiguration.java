@@ -0,0 +1,257 @@
+/**
+ * Copyright 2019 SourceLab.org https://github.com/SourceLabOrg/http-client-wrapper
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit
+ * persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.sourcelab.http.rest.configuration;
+
+import org.sourcelab.http.rest.request.RequestMethod;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Defines when and how failed requests are retried.
+ */
+public class RetryConfiguration {
+
+    // Attempts and backoff
+    private final int maxAttempts;
+    private final long baseDelayInMilliseconds;
+    private final long maxDelayInMilliseconds;
+
+    // What is retried
+    private final Set<RequestMethod> retryableMethods;
+    private final Set<Integer> retryableStatusCodes;
+
+    // Retry budget
+    private final double retryBudgetRatio;
+    private final int maxRetryBudget;
+
+    /**
+     * Constructor.
+     * @param maxAttempts maximum number of attempts per request, including the first.
+     * @param baseDelayInMilliseconds minimum delay between attempts.
+     * @param maxDelayInMilliseconds maximum delay between attempts.  Requests whose Retry-After response header asks
+     *                               for a longer delay are not retried.
+     * @param retryableMethods request methods which are safe to retry.
+     * @param retryableStatusCodes response status codes which are retried.  Connection failures are always retried.
+     * @param retryBudgetRatio retries allowed per request, across all requests.  0.1 allows retries to add at most
+     *                         10% to the traffic sent to the API host.
+     * @param maxRetryBudget maximum number of retries which may be accumulated in the budget, allowing for bursts.
+     */
+    public RetryConfiguration(
+        final int maxAttempts,
+        final long baseDelayInMilliseconds,
+        final long maxDelayInMilliseconds,
+        final Set<RequestMethod> retryableMethods,
+        final Set<Integer> retryableStatusCodes,
+        final double retryBudgetRatio,
+        final int maxRetryBudget) {
+        if (maxAttempts <= 0) {
+            throw new IllegalArgumentException("maxAttempts must be greater than 0");
+        }
+        if (baseDelayInMilliseconds < 0 || maxDelayInMilliseconds < baseDelayInMilliseconds) {
+            throw new IllegalArgumentException("maxDelayInMilliseconds must be at least baseDelayInMilliseconds");
+        }
+        if (retryBudgetRatio < 0) {
+            throw new IllegalArgumentException("retryBudgetRatio must not be negative");
+        }
+        if (maxRetryBudget < 0) {
+            throw new IllegalArgumentException("maxRetryBudget must not be negative");
+        }
+        this.maxAttempts = maxAttempts;
+        this.baseDelayInMilliseconds = baseDelayInMilliseconds;
+        this.maxDelayInMilliseconds = maxDelayInMilliseconds;
+        final Set<RequestMethod> methods = EnumSet.noneOf(RequestMethod.class);
+        methods.addAll(Objects.requireNonNull(retryableMethods));
+        this.retryableMethods = Collections.unmodifiableSet(methods);
+        this.retryableStatusCodes = Collections.unmodifiableSet(new HashSet<>(Objects.requireNonNull(retryableStatusCodes)));
+        this.retryBudgetRatio = retryBudgetRatio;
+        this.maxRetryBudget = maxRetryBudget;
+    }
+
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    public long getBaseDelayInMilliseconds() {
+        return baseDelayInMilliseconds;
+    }
+
+    public long getMaxDelayInMilliseconds() {
+        return maxDelayInMilliseconds;
+    }
+
+    public Set<RequestMethod> getRetryableMethods() {
+        return retryableMethods;
+    }
+
+    public Set<Integer> getRetryableStatusCodes() {
+        return retryableStatusCodes;
+    }
+
+    public double getRetryBudgetRatio() {
+        return retryBudgetRatio;
+    }
+
+    public int getMaxRetryBudget() {
+        return maxRetryBudget;
+    }
+
+    /**
+     * Builder instance for RetryConfiguration.
+     * @return builder instance.
+     */
+    public static Builder newBuilder() {
+        return new Builder();
+    }
+
+    @Override
+    public String toString() {
+        return "RetryConfiguration{"
+            + "maxAttempts=" + maxAttempts
+            + ", baseDelayInMilliseconds=" + baseDelayInMilliseconds
+            + ", maxDelayInMilliseconds=" + maxDelayInMilliseconds
+            + ", retryableMethods=" + retryableMethods
+            + ", retryableStatusCodes=" + retryableStatusCodes
+            + ", retryBudgetRatio=" + retryBudgetRatio
+            + ", maxRetryBudget=" + maxRetryBudget
+            + '}';
+    }
+
+    /**
+     * RetryConfiguration Builder.
+     */
+    public static final class Builder {
+        // Attempts and backoff
+        private int maxAttempts = 3;
+        private long baseDelayInMilliseconds = 100;
+        private long maxDelayInMilliseconds = 10_000;
+
+        // Only idempotent methods are retried by default.
+        private Set<RequestMethod> retryableMethods = EnumSet.of(RequestMethod.GET, RequestMethod.PUT, RequestMethod.DELETE);
+        private Set<Integer> retryableStatusCodes = new HashSet<>(Arrays.asList(429, 502, 503, 504));
+
+        // Retries may add at most 10% to traffic, with bursts of up to 10 retries.
+        private double retryBudgetRatio = 0.1;
+        private int maxRetryBudget = 10;
+
+        private Builder() {
+        }
+
+        /**
+         * Set the maximum number of attempts per request, including the first.
+         *
+         * @param maxAttempts maximum number of attempts.
+         * @return Builder instance.
+         */
+        public Builder withMaxAttempts(final int maxAttempts) {
+            this.maxAttempts = maxAttempts;
+            return this;
+        }
+
+        /**
+         * Set the minimum delay between attempts.  Delays grow with decorrelated jitter from this value.
+         *
+         * @param baseDelayInMilliseconds minimum delay in milliseconds.
+         * @return Builder instance.
+         */
+        public Builder withBaseDelayInMilliseconds(final long baseDelayInMilliseconds) {
+            this.baseDelayInMilliseconds = baseDelayInMilliseconds;
+            return this;
+        }
+
+        /**
+         * Set the maximum delay between attempts.  Requests whose Retry-After response header asks for a longer
+         * delay are not retried.
+         *
+         * @param maxDelayInMilliseconds maximum delay in milliseconds.
+         * @return Builder instance.
+         */
+        public Builder withMaxDelayInMilliseconds(final long maxDelayInMilliseconds) {
+            this.maxDelayInMilliseconds = maxDelayInMilliseconds;
+            return this;
+        }
+
+        /**
+         * Set the request methods which are safe to retry.  Defaults to GET, PUT and DELETE.
+         *
+         * @param retryableMethods request methods.
+         * @return Builder instance.
+         */
+        public Builder withRetryableMethods(final RequestMethod ... retryableMethods) {
+            this.retryableMethods = EnumSet.noneOf(RequestMethod.class);
+            this.retryableMethods.addAll(Arrays.asList(retryableMethods));
+            return this;
+        }
+
+        /**
+         * Also retry POST requests.  Only enable this if the API host handles duplicate POST requests safely.
+         *
+         * @return Builder instance.
+         */
+        public Builder withRetryPostRequests() {
+            this.retryableMethods = EnumSet.copyOf(retryableMethods);
+            this.retryableMethods.add(RequestMethod.POST);
+            return this;
+        }
+
+        /**
+         * Set the response status codes which are retried.  Defaults to 429, 502, 503 and 504.
+         *
+         * @param retryableStatusCodes response status codes.
+         * @return Builder instance.
+         */
+        public Builder withRetryableStatusCodes(final Integer ... retryableStatusCodes) {
+            this.retryableStatusCodes = new HashSet<>(Arrays.asList(retryableStatusCodes));
+            return this;
+        }
+
+        /**
+         * Set the retry budget.  Each request adds retryBudgetRatio to the budget, up to maxRetryBudget, and each
+         * retry spends 1.  Once the budget is spent, failures are returned without being retried.
+         *
+         * @param retryBudgetRatio retries allowed per request, 0.1 allows retries to add at most 10% to traffic.
+         * @param maxRetryBudget maximum number of retries which may be accumulated.
+         * @return Builder instance.
+         */
+        public Builder withRetryBudget(final double retryBudgetRatio, final int maxRetryBudget) {
+            this.retryBudgetRatio = retryBudgetRatio;
+            this.maxRetryBudget = maxRetryBudget;
+            return this;
+        }
+
+        /**
+         * Create a new RetryConfiguration instance.
+         * @return new RetryConfiguration instance.
+         */
+        public RetryConfiguration build() {
+            return new RetryConfiguration(
+                maxAttempts,
+                baseDelayInMilliseconds,
+                maxDelayInMilliseconds,
+                retryableMethods,
+                retryableStatusCodes,
+                retryBudgetRatio,
+                maxRetryBudget
+            );
+        }
+    }
+}
@@ -0,0 +1,113 @@
+/**
+ * Copyright 2019 SourceLab.org https://github.com/SourceLabOrg/http-client-wrapper
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit
+ * persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.sourcelab.http.rest.configuration;
+
+import org.sourcelab.http.rest.tracing.SpanExporter;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Defines how W3C trace context is sampled, and where the spans of sampled requests are exported.
+ */
+public class TracingConfiguration {
+    private final double samplingRate;
+    private final List<SpanExporter> exporters;
+
+    /**
+     * Constructor.
+     * @param samplingRate fraction of new traces sampled, between 0 and 1.  Traces continued from a parent context
+     *                     follow the parent's sampling decision.
+     * @param exporters exporters handed the span of each sampled request.
+     */
+    public TracingConfiguration(final double samplingRate, final List<SpanExporter> exporters) {
+        if (samplingRate < 0 || samplingRate > 1) {
+            throw new IllegalArgumentException("samplingRate must be between 0 and 1");
+        }
+        this.samplingRate = samplingRate;
+        this.exporters = Collections.unmodifiableList(new ArrayList<>(Objects.requireNonNull(exporters)));
+    }
+
+    public double getSamplingRate() {
+        return samplingRate;
+    }
+
+    public List<SpanExporter> getExporters() {
+        return exporters;
+    }
+
+    /**
+     * Builder instance for TracingConfiguration.
+     * @return builder instance.
+     */
+    public static Builder newBuilder() {
+        return new Builder();
+    }
+
+    @Override
+    public String toString() {
+        return "TracingConfiguration{"
+            + "samplingRate=" + samplingRate
+            + ", exporters=" + exporters
+            + '}';
+    }
+
+    /**
+     * TracingConfiguration Builder.
+     */
+    public static final class Builder {
+        private double samplingRate = 0.01;
+        private final List<SpanExporter> exporters = new ArrayList<>();
+
+        private Builder() {
+        }
+
+        /**
+         * Set the fraction of new traces sampled.  Defaults to 0.01, or 1%.  Traces continued from a parent context
+         * follow the parent's sampling decision.
+         *
+         * @param samplingRate fraction between 0 and 1.
+         * @return Builder instance.
+         */
+        public Builder withSamplingRate(final double samplingRate) {
+            this.samplingRate = samplingRate;
+            return this;
+        }
+
+        /**
+         * Add an exporter, handed the span of each sampled request.
+         *
+         * @param exporter the exporter.
+         * @return Builder instance.
+         */
+        public Builder withExporter(final SpanExporter exporter) {
+            this.exporters.add(Objects.requireNonNull(exporter));
+            return this;
+        }
+
+        /**
+         * Create a new TracingConfiguration instance.
+         * @return new TracingConfiguration instance.
+         */
+        public TracingConfiguration build() {
+            return new TracingConfiguration(samplingRate, exporters);
+        }
+    }
+}
@@ -0,0 +1,46 @@
+/**
+ * Copyright 2019 SourceLab.org https://github.com/SourceLabOrg/http-client-wrapper
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit
+ * persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.sourcelab.http.rest.exceptions;
+
+import org.sourcelab.http.rest.RestException;
+
+/**
+ * Thrown without contacting the API host when a bulkhead has no free slot, and the request could not be queued or
+ * was not given a slot within the maximum wait.
+ */
+public class BulkheadFullException extends RestException {
+    private final String bulkheadName;
+
+    /**
+     * Constructor.
+     * @param message Error message.
+     * @param bulkheadName Name of the full bulkhead, its endpoint pattern.
+     */
+    public BulkheadFullException(final String message, final String bulkheadName) {
+        super(message);
+        this.bulkheadName = bulkheadName;
+    }
+
+    /**
+     * Name of the full bulkhead.
+     * @return the endpoint pattern the bulkhead applies to.
+     */
+    public String getBulkheadName() {
+        return bulkheadName;
+    }
+}
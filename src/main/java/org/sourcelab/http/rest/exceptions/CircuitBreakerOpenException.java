@@ -0,0 +1,45 @@
+/**
+ * Copyright 2019 SourceLab.org https://github.com/SourceLabOrg/http-client-wrapper
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit
+ * persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.sourcelab.http.rest.exceptions;
+
+import org.sourcelab.http.rest.RestException;
+
+/**
+ * Thrown without contacting the API host when the circuit breaker for the requested endpoint is open.
+ */
+public class CircuitBreakerOpenException extends RestException {
+    private final String circuitBreakerName;
+
+    /**
+     * Constructor.
+     * @param message Error message.
+     * @param circuitBreakerName Name of the open circuit breaker, the endpoint or endpoint pattern.
+     */
+    public CircuitBreakerOpenException(final String message, final String circuitBreakerName) {
+        super(message);
+        this.circuitBreakerName = circuitBreakerName;
+    }
+
+    /**
+     * Name of the open circuit breaker.
+     * @return the endpoint or endpoint pattern the circuit breaker applies to.
+     */
+    public String getCircuitBreakerName() {
+        return circuitBreakerName;
+    }
+}
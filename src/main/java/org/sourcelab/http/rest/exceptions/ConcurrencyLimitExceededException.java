@@ -0,0 +1,46 @@
+/**
+ * Copyright 2019 SourceLab.org https://github.com/SourceLabOrg/http-client-wrapper
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit
+ * persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.sourcelab.http.rest.exceptions;
+
+import org.sourcelab.http.rest.RestException;
+
+/**
+ * Thrown without contacting the API host when the adaptive concurrency limit has been reached and the request could
+ * not be queued, or was not admitted within the maximum queue wait.
+ */
+public class ConcurrencyLimitExceededException extends RestException {
+    private final int limit;
+
+    /**
+     * Constructor.
+     * @param message Error message.
+     * @param limit The concurrency limit at the time the request was rejected.
+     */
+    public ConcurrencyLimitExceededException(final String message, final int limit) {
+        super(message);
+        this.limit = limit;
+    }
+
+    /**
+     * The concurrency limit at the time the request was rejected.
+     * @return concurrency limit.
+     */
+    public int getLimit() {
+        return limit;
+    }
+}
@@ -17,39 +17,157 @@
 
 package org.sourcelab.http.rest.handlers;
 
+import org.apache.http.Header;
 import org.apache.http.HttpEntity;
 import org.apache.http.HttpResponse;
 import org.apache.http.client.ResponseHandler;
+import org.apache.http.entity.ContentType;
+import org.apache.http.util.ByteArrayBuffer;
 import org.apache.http.util.EntityUtils;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
+import org.sourcelab.http.rest.ResponseHeader;
 import org.sourcelab.http.rest.RestResponse;
+import org.sourcelab.http.rest.transport.RequestTiming;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Handles parsing a response to RestResponse object.
  */
 public final class RestResponseHandler implements ResponseHandler<RestResponse> {
-    private static final Logger logger = LoggerFactory.getLogger(RestResponseHandler.class);
+    /**
+     * Initial buffer size used when the response does not declare a Content-Length.
+     */
+    private static final int DEFAULT_BUFFER_SIZE = 4096;
 
+    /**
+     * Largest buffer allocated up front from the declared Content-Length, larger bodies grow as they are read.
+     */
+    static final int MAX_PRESIZED_BUFFER_SIZE = 4 * 1024 * 1024;
+
+    /**
+     * Timing attached to the response, NULL if not recorded.
+     */
+    private final RequestTiming timing;
+
+    /**
+     * Constructor.
+     */
+    public RestResponseHandler() {
+        this(null);
+    }
+
+    /**
+     * Constructor.
+     * @param timing Timing of the request, attached to the response.  NULL if not recorded.
+     */
+    public RestResponseHandler(final RequestTiming timing) {
+        this.timing = timing;
+    }
+
+    /**
+     * Read the response into a RestResponse.
+     * @param response The response.
+     * @return RestResponse instance.
+     * @throws IOException if the body cannot be read, or is shorter than its declared Content-Length.
+     */
     @Override
-    public RestResponse handleResponse(final HttpResponse response) {
+    public RestResponse handleResponse(final HttpResponse response) throws IOException {
         final int statusCode = response.getStatusLine().getStatusCode();
+        final HttpEntity entity = response.getEntity();
+        final byte[] body = entity != null ? readBody(entity) : null;
+
+        // Fully consume entity.
+        EntityUtils.consume(entity);
 
-        try {
-            final HttpEntity entity = response.getEntity();
-            final String responseStr = entity != null ? EntityUtils.toString(entity) : null;
+        // Construct return object, the body is decoded lazily.
+        return new RestResponse(body, getCharset(entity), statusCode, getHeaders(response), timing);
+    }
 
-            // Fully consume entity.
-            EntityUtils.consume(entity);
+    /**
+     * Copy the response headers.
+     * @param response The response.
+     * @return Response headers.
+     */
+    static List<ResponseHeader> getHeaders(final HttpResponse response) {
+        final Header[] allHeaders = response.getAllHeaders();
+        final List<ResponseHeader> headers = new ArrayList<>(allHeaders.length);
+        for (final Header header : allHeaders) {
+            headers.add(new ResponseHeader(header.getName(), header.getValue()));
+        }
+        return headers;
+    }
+
+    /**
+     * Read the entity into a byte array.  When the Content-Length is known and small enough the body is read directly
+     * into an exactly sized array, avoiding growing and copying the buffer.  Larger bodies start from a capped buffer,
+     * as the declared length is not trusted until the bytes arrive.
+     * @param entity The response entity.
+     * @return Raw response body.
+     * @throws IOException if the body cannot be read, or is shorter than its declared Content-Length.
+     */
+    static byte[] readBody(final HttpEntity entity) throws IOException {
+        final long contentLength = entity.getContentLength();
+        if (contentLength > Integer.MAX_VALUE) {
+            throw new IOException("Response entity too large to be buffered in memory: " + contentLength + " bytes");
+        }
+
+        try (final InputStream inputStream = entity.getContent()) {
+            if (inputStream == null) {
+                return null;
+            }
+
+            if (contentLength >= 0 && contentLength <= MAX_PRESIZED_BUFFER_SIZE) {
+                final byte[] body = new byte[(int) contentLength];
+                int offset = 0;
+                while (offset < body.length) {
+                    final int read = inputStream.read(body, offset, body.length - offset);
+                    if (read == -1) {
+                        throw truncated(offset, contentLength);
+                    }
+                    offset += read;
+                }
+                return body;
+            }
+
+            // Unknown or large length, grow as needed.
+            final ByteArrayBuffer buffer = new ByteArrayBuffer(contentLength < 0 ? DEFAULT_BUFFER_SIZE : MAX_PRESIZED_BUFFER_SIZE);
+            final byte[] chunk = new byte[DEFAULT_BUFFER_SIZE];
+            int read;
+            while ((read = inputStream.read(chunk)) != -1) {
+                buffer.append(chunk, 0, read);
+            }
+            if (contentLength >= 0 && buffer.length() < contentLength) {
+                throw truncated(buffer.length(), contentLength);
+            }
+            return buffer.toByteArray();
+        }
+    }
+
+    private static IOException truncated(final long read, final long contentLength) {
+        return new IOException("Response body truncated, read " + read + " of " + contentLength + " bytes");
+    }
 
-            // Construct return object
-            return new RestResponse(responseStr, statusCode);
-        } catch (final IOException exception) {
-            logger.error("Failed to read entity: {}", exception.getMessage(), exception);
-            // TODO throw exceptions
-            return null;
+    /**
+     * Determine the charset to decode the entity with, matching {@link EntityUtils#toString(HttpEntity)}.  Uses the
+     * declared charset, then the default for the declared mime type, and finally ISO-8859-1.
+     * @param entity The response entity.
+     * @return Charset to decode the entity with.
+     */
+    static Charset getCharset(final HttpEntity entity) {
+        Charset charset = null;
+        final ContentType contentType = entity == null ? null : ContentType.get(entity);
+        if (contentType != null) {
+            charset = contentType.getCharset();
+            if (charset == null) {
+                final ContentType defaultContentType = ContentType.getByMimeType(contentType.getMimeType());
+                charset = defaultContentType == null ? null : defaultContentType.getCharset();
+            }
         }
+        return charset == null ? StandardCharsets.ISO_8859_1 : charset;
     }
 }
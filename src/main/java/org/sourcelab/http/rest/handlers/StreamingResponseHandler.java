@@ -0,0 +1,95 @@
+/**
+ * Copyright 2019 SourceLab.org https://github.com/SourceLabOrg/http-client-wrapper
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit
+ * persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.sourcelab.http.rest.handlers;
+
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.ResponseHandler;
+import org.apache.http.entity.ContentType;
+import org.apache.http.util.EntityUtils;
+import org.sourcelab.http.rest.RestResponse;
+import org.sourcelab.http.rest.exceptions.ResultParsingException;
+import org.sourcelab.http.rest.request.ResponseMetadata;
+import org.sourcelab.http.rest.request.StreamingRequest;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Objects;
+
+/**
+ * Handles passing the response body stream directly to a {@link StreamingRequest}'s parser.
+ * @param <T> return type of the request.
+ */
+public final class StreamingResponseHandler<T> implements ResponseHandler<T> {
+    private final StreamingRequest<T> streamingRequest;
+
+    /**
+     * Constructor.
+     * @param streamingRequest Parses the response body.
+     */
+    public StreamingResponseHandler(final StreamingRequest<T> streamingRequest) {
+        this.streamingRequest = Objects.requireNonNull(streamingRequest);
+    }
+
+    @Override
+    public T handleResponse(final HttpResponse response) throws IOException {
+        final int statusCode = response.getStatusLine().getStatusCode();
+        final HttpEntity entity = response.getEntity();
+
+        // Responses without a body are parsed as an empty stream.
+        if (entity == null) {
+            try (final InputStream inputStream = new ByteArrayInputStream(new byte[0])) {
+                return streamingRequest.parseResponse(inputStream, new ResponseMetadata(statusCode, null, 0, null));
+            }
+        }
+
+        final ContentType contentType = ContentType.get(entity);
+        final ResponseMetadata responseMetadata = new ResponseMetadata(
+            statusCode,
+            entity.getContentType() == null ? null : entity.getContentType().getValue(),
+            entity.getContentLength(),
+            contentType == null ? null : contentType.getCharset()
+        );
+
+        try (final InputStream inputStream = entity.getContent()) {
+            return streamingRequest.parseResponse(inputStream, responseMetadata);
+        } finally {
+            // Fully consume entity, so the connection can be reused.
+            EntityUtils.consume(entity);
+        }
+    }
+
+    /**
+     * Parse an already buffered response, for clients and transports unable to stream the response body.
+     * @param streamingRequest Parses the response body.
+     * @param response The buffered response.
+     * @param <T> return type of the request.
+     * @return The parsed response.
+     * @throws ResultParsingException on parsing errors.
+     */
+    public static <T> T parseBufferedResponse(final StreamingRequest<T> streamingRequest, final RestResponse response) {
+        try (final InputStream inputStream = response.getBodyAsStream()) {
+            return streamingRequest.parseResponse(
+                inputStream, new ResponseMetadata(response.getHttpCode(), null, response.getBodyLength(), response.getCharset())
+            );
+        } catch (final IOException exception) {
+            throw new ResultParsingException(exception.getMessage(), exception);
+        }
+    }
+}
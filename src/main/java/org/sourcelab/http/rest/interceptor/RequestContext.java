@@ -18,6 +18,7 @@
 package org.sourcelab.http.rest.interceptor;
 
 import org.sourcelab.http.rest.request.RequestMethod;
+import org.sourcelab.http.rest.tracing.TraceContext;
 
 /**
  * Defines details about the request.
@@ -25,6 +26,7 @@ import org.sourcelab.http.rest.request.RequestMethod;
 public class RequestContext {
     private final String url;
     private final RequestMethod requestMethod;
+    private final TraceContext traceContext;
 
     /**
      * Constructor.
@@ -32,8 +34,19 @@ public class RequestContext {
      * @param requestMethod the type of request.
      */
     public RequestContext(final String url, final RequestMethod requestMethod) {
+        this(url, requestMethod, null);
+    }
+
+    /**
+     * Constructor.
+     * @param url The url to be requested.
+     * @param requestMethod the type of request.
+     * @param traceContext the trace context of the request, or NULL if tracing is not enabled.
+     */
+    public RequestContext(final String url, final RequestMethod requestMethod, final TraceContext traceContext) {
         this.url = url;
         this.requestMethod = requestMethod;
+        this.traceContext = traceContext;
     }
 
     public String getUrl() {
@@ -44,11 +57,20 @@ public class RequestContext {
         return requestMethod;
     }
 
+    /**
+     * The trace context sent with the request.
+     * @return NULL if tracing is not enabled, otherwise trace context.
+     */
+    public TraceContext getTraceContext() {
+        return traceContext;
+    }
+
     @Override
     public String toString() {
         return "RequestContext{"
             + "url='" + url + '\''
             + ", requestMethod=" + requestMethod
+            + ", traceContext=" + traceContext
             + '}';
     }
 }
@@ -0,0 +1,179 @@
+/**
+ * Copyright 2019 SourceLab.org https://github.com/SourceLabOrg/http-client-wrapper
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit
+ * persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.sourcelab.http.rest.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Log-bucketed latency histogram in microseconds, in the style of an HDR histogram.
+ *
+ * Values below 16 have a bucket each.  Above that, every power of two range is split into 16 linear sub-buckets, so a
+ * value is reported within 1/16th, about 6%, of its true value.  Values up to 2^37 microseconds, about 38 hours, are
+ * tracked, larger values are counted in the highest bucket.  Recording a value updates a fixed array of counters and
+ * does not allocate.
+ */
+public final class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 4;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int MAX_EXPONENT = 36;
+
+    /**
+     * Number of buckets.
+     */
+    public static final int BUCKET_COUNT = (MAX_EXPONENT - SUB_BUCKET_BITS + 2) * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder total = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    /**
+     * Constructor.
+     */
+    public LatencyHistogram() {
+    }
+
+    /**
+     * Record a latency.
+     * @param latencyInMicros the latency, negative values are recorded as 0.
+     */
+    public void record(final long latencyInMicros) {
+        final long value = Math.max(0, latencyInMicros);
+        counts.incrementAndGet(indexOf(value));
+        count.increment();
+        total.add(value);
+        max.accumulate(value);
+    }
+
+    /**
+     * Number of recorded latencies.
+     * @return count.
+     */
+    public long getCount() {
+        return count.sum();
+    }
+
+    /**
+     * Mean recorded latency.
+     * @return mean in microseconds, 0 if nothing has been recorded.
+     */
+    public double getMeanInMicros() {
+        final long recorded = count.sum();
+        return recorded == 0 ? 0 : (double) total.sum() / recorded;
+    }
+
+    /**
+     * Highest recorded latency.
+     * @return maximum in microseconds, 0 if nothing has been recorded.
+     */
+    public long getMaxInMicros() {
+        return max.get();
+    }
+
+    /**
+     * Latency at the given percentile, reported as the highest value in its bucket, capped at the maximum.
+     * @param percentile percentile between 0 and 1, for example 0.99.
+     * @return latency in microseconds, 0 if nothing has been recorded.
+     */
+    public long getValueAtPercentileInMicros(final double percentile) {
+        final long[] snapshot = getBucketCounts();
+        long recorded = 0;
+        for (final long bucketCount : snapshot) {
+            recorded += bucketCount;
+        }
+        if (recorded == 0) {
+            return 0;
+        }
+
+        final long target = Math.max(1, (long) Math.ceil(percentile * recorded));
+        long cumulative = 0;
+        for (int index = 0; index < snapshot.length; index++) {
+            cumulative += snapshot[index];
+            if (cumulative >= target) {
+                return Math.min(getBucketUpperBound(index), getMaxInMicros());
+            }
+        }
+        return getMaxInMicros();
+    }
+
+    /**
+     * Snapshot of the number of latencies recorded in each bucket, see {@link #getBucketLowerBound(int)}.
+     * @return counts indexed by bucket.
+     */
+    public long[] getBucketCounts() {
+        final long[] snapshot = new long[BUCKET_COUNT];
+        for (int index = 0; index < BUCKET_COUNT; index++) {
+            snapshot[index] = counts.get(index);
+        }
+        return snapshot;
+    }
+
+    /**
+     * Lowest latency counted in a bucket.
+     * @param index bucket index.
+     * @return latency in microseconds.
+     */
+    public static long getBucketLowerBound(final int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        final int exponent = index / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+        return (long) (SUB_BUCKETS + index % SUB_BUCKETS) << (exponent - SUB_BUCKET_BITS);
+    }
+
+    /**
+     * Highest latency counted in a bucket.
+     * @param index bucket index.
+     * @return latency in microseconds.
+     */
+    public static long getBucketUpperBound(final int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        if (index == BUCKET_COUNT - 1) {
+            return Long.MAX_VALUE;
+        }
+        final int exponent = index / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+        return getBucketLowerBound(index) + (1L << (exponent - SUB_BUCKET_BITS)) - 1;
+    }
+
+    static int indexOf(final long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        final int exponent = 63 - Long.numberOfLeadingZeros(value);
+        if (exponent > MAX_EXPONENT) {
+            return BUCKET_COUNT - 1;
+        }
+        final int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+    }
+
+    @Override
+    public String toString() {
+        return "LatencyHistogram{"
+            + "count=" + getCount()
+            + ", meanInMicros=" + getMeanInMicros()
+            + ", p50InMicros=" + getValueAtPercentileInMicros(0.5)
+            + ", p99InMicros=" + getValueAtPercentileInMicros(0.99)
+            + ", maxInMicros=" + getMaxInMicros()
+            + '}';
+    }
+}
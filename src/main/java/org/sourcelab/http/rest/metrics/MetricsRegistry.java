@@ -0,0 +1,187 @@
+/**
+ * Copyright 2019 SourceLab.org https://github.com/SourceLabOrg/http-client-wrapper
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit
+ * persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.sourcelab.http.rest.metrics;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.sourcelab.http.rest.configuration.MetricsConfiguration;
+import org.sourcelab.http.rest.request.RequestMethod;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.regex.Pattern;
+
+/**
+ * Holds {@link RequestMetrics} for each endpoint, or endpoint pattern, and request method, and periodically passes
+ * them to the configured {@link MetricsExporter}s.
+ *
+ * Once an endpoint has been seen, looking up its metrics is a single hash lookup, so recording does not allocate.
+ */
+public class MetricsRegistry {
+    private static final Logger logger = LoggerFactory.getLogger(MetricsRegistry.class);
+
+    // Bounds the endpoint lookup cache, beyond this endpoints are matched against the patterns on every request.
+    private static final int MAX_CACHED_ENDPOINTS = 10_000;
+
+    private final MetricsConfiguration metricsConfiguration;
+
+    /**
+     * Metrics by name, the endpoint or endpoint pattern.
+     */
+    private final ConcurrentMap<String, MetricsGroup> metricsByName = new ConcurrentHashMap<>();
+
+    /**
+     * Metrics by endpoint, caching the result of matching endpoints against the patterns.
+     */
+    private final ConcurrentMap<String, MetricsGroup> metricsByEndpoint = new ConcurrentHashMap<>();
+
+    /**
+     * Calls the exporters, NULL if there are none.
+     */
+    private final ScheduledExecutorService exportExecutor;
+
+    /**
+     * Constructor.
+     * @param metricsConfiguration Defines how metrics are grouped and exported.
+     */
+    public MetricsRegistry(final MetricsConfiguration metricsConfiguration) {
+        this.metricsConfiguration = Objects.requireNonNull(metricsConfiguration);
+        if (metricsConfiguration.getExporters().isEmpty()) {
+            exportExecutor = null;
+        } else {
+            exportExecutor = Executors.newSingleThreadScheduledExecutor((runnable) -> {
+                final Thread thread = new Thread(runnable, "rest-client-metrics-exporter");
+                thread.setDaemon(true);
+                return thread;
+            });
+            final long interval = metricsConfiguration.getExportIntervalInSeconds();
+            exportExecutor.scheduleAtFixedRate(this::export, interval, interval, TimeUnit.SECONDS);
+        }
+    }
+
+    /**
+     * Metrics recorded so far.
+     * @return Unmodifiable collection of metrics, one per endpoint, or endpoint pattern, and request method.
+     */
+    public Collection<RequestMetrics> getRequestMetrics() {
+        final List<RequestMetrics> requestMetrics = new ArrayList<>();
+        for (final MetricsGroup group : metricsByName.values()) {
+            for (int index = 0; index < group.byMethod.length(); index++) {
+                final RequestMetrics metrics = group.byMethod.get(index);
+                if (metrics != null) {
+                    requestMetrics.add(metrics);
+                }
+            }
+        }
+        return Collections.unmodifiableList(requestMetrics);
+    }
+
+    /**
+     * Metrics recorded so far for the given name and request method.
+     * @param name The endpoint, endpoint pattern, or {@link MetricsConfiguration#OTHER_ENDPOINTS}.
+     * @param requestMethod The request method.
+     * @return NULL if no requests have been recorded, otherwise metrics instance.
+     */
+    public RequestMetrics getRequestMetrics(final String name, final RequestMethod requestMethod) {
+        final MetricsGroup group = metricsByName.get(name);
+        return group == null ? null : group.byMethod.get(requestMethod.ordinal());
+    }
+
+    /**
+     * Pass the current metrics to each exporter.
+     */
+    public void export() {
+        final Collection<RequestMetrics> requestMetrics = getRequestMetrics();
+        for (final MetricsExporter exporter : metricsConfiguration.getExporters()) {
+            try {
+                exporter.export(requestMetrics);
+            } catch (final RuntimeException exception) {
+                logger.warn("Metrics exporter {} failed: {}", exporter, exception.getMessage(), exception);
+            }
+        }
+    }
+
+    /**
+     * Stop exporting periodically, exporting the final metrics.
+     */
+    public void close() {
+        if (exportExecutor != null) {
+            exportExecutor.shutdownNow();
+            export();
+        }
+    }
+
+    /**
+     * Get the metrics to record a request against, creating them if required.
+     * @param endpoint The request endpoint.
+     * @param requestMethod The request method.
+     * @return RequestMetrics instance.
+     */
+    RequestMetrics getRecorder(final String endpoint, final RequestMethod requestMethod) {
+        MetricsGroup group = metricsByEndpoint.get(endpoint);
+        if (group == null) {
+            group = resolve(endpoint);
+        }
+        final RequestMetrics metrics = group.byMethod.get(requestMethod.ordinal());
+        if (metrics != null) {
+            return metrics;
+        }
+        group.byMethod.compareAndSet(requestMethod.ordinal(), null, new RequestMetrics(group.name, requestMethod));
+        return group.byMethod.get(requestMethod.ordinal());
+    }
+
+    private MetricsGroup resolve(final String endpoint) {
+        String name = endpoint;
+        for (final Pattern pattern : metricsConfiguration.getEndpointPatterns()) {
+            if (pattern.matcher(endpoint).matches()) {
+                name = pattern.pattern();
+                break;
+            }
+        }
+        if (metricsByName.size() >= metricsConfiguration.getMaxEndpoints() && !metricsByName.containsKey(name)) {
+            name = MetricsConfiguration.OTHER_ENDPOINTS;
+        }
+
+        final MetricsGroup group = metricsByName.computeIfAbsent(name, MetricsGroup::new);
+        if (metricsByEndpoint.size() < MAX_CACHED_ENDPOINTS) {
+            metricsByEndpoint.putIfAbsent(endpoint, group);
+        }
+        return group;
+    }
+
+    /**
+     * Metrics sharing a name, indexed by request method.
+     */
+    private static class MetricsGroup {
+        private final String name;
+        private final AtomicReferenceArray<RequestMetrics> byMethod = new AtomicReferenceArray<>(RequestMethod.values().length);
+
+        MetricsGroup(final String name) {
+            this.name = name;
+        }
+    }
+}
@@ -0,0 +1,130 @@
+/**
+ * Copyright 2019 SourceLab.org https://github.com/SourceLabOrg/http-client-wrapper
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit
+ * persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.sourcelab.http.rest.metrics;
+
+import org.sourcelab.http.rest.RestException;
+import org.sourcelab.http.rest.RestResponse;
+import org.sourcelab.http.rest.configuration.Configuration;
+import org.sourcelab.http.rest.configuration.MetricsConfiguration;
+import org.sourcelab.http.rest.request.StreamingRequest;
+import org.sourcelab.http.rest.transport.PreparedRequest;
+import org.sourcelab.http.rest.transport.RequestTiming;
+import org.sourcelab.http.rest.transport.RequestTimingListener;
+import org.sourcelab.http.rest.transport.Transport;
+
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Transport decorator recording latency, response status, exceptions and body sizes of each request in a
+ * {@link MetricsRegistry}.
+ *
+ * Streamed responses are read by the request's parser, so only their latency, exceptions and request body size are
+ * recorded.
+ *
+ * As a {@link RequestTimingListener}, also records the latency of each phase of the requests, such as DNS resolution
+ * and TLS handshakes.
+ */
+public class MetricsTransport implements Transport, RequestTimingListener {
+    private final Transport delegate;
+    private final MetricsRegistry registry;
+    private final LongSupplier nanoClock;
+
+    /**
+     * Constructor.
+     * @param delegate Transport to execute requests with.
+     * @param metricsConfiguration Defines how metrics are grouped and exported.
+     */
+    public MetricsTransport(final Transport delegate, final MetricsConfiguration metricsConfiguration) {
+        this(delegate, metricsConfiguration, System::nanoTime);
+    }
+
+    /**
+     * Constructor.
+     * @param delegate Transport to execute requests with.
+     * @param metricsConfiguration Defines how metrics are grouped and exported.
+     * @param nanoClock Source of System.nanoTime() style timestamps.
+     */
+    MetricsTransport(final Transport delegate, final MetricsConfiguration metricsConfiguration, final LongSupplier nanoClock) {
+        this.delegate = Objects.requireNonNull(delegate);
+        this.registry = new MetricsRegistry(metricsConfiguration);
+        this.nanoClock = Objects.requireNonNull(nanoClock);
+    }
+
+    @Override
+    public void init(final Configuration configuration) {
+        delegate.init(configuration);
+    }
+
+    @Override
+    public RestResponse execute(final PreparedRequest request) throws RestException {
+        final RequestMetrics metrics = registry.getRecorder(request.getRequest().getApiEndpoint(), request.getRequestMethod());
+        final long requestBytes = request.getBody() == null ? 0 : request.getBody().length;
+        final long start = nanoClock.getAsLong();
+        try {
+            final RestResponse response = delegate.execute(request);
+            metrics.recordResponse(elapsedInMicros(start), response.getHttpCode(), requestBytes, response.getBodyLength());
+            return response;
+        } catch (final RuntimeException exception) {
+            metrics.recordException(elapsedInMicros(start), exception, requestBytes);
+            throw exception;
+        }
+    }
+
+    @Override
+    public <T> T executeStreaming(final PreparedRequest request, final StreamingRequest<T> streamingRequest) throws RestException {
+        final RequestMetrics metrics = registry.getRecorder(request.getRequest().getApiEndpoint(), request.getRequestMethod());
+        final long requestBytes = request.getBody() == null ? 0 : request.getBody().length;
+        final long start = nanoClock.getAsLong();
+        try {
+            final T result = delegate.executeStreaming(request, streamingRequest);
+            metrics.recordStreamedResponse(elapsedInMicros(start), requestBytes);
+            return result;
+        } catch (final RuntimeException exception) {
+            metrics.recordException(elapsedInMicros(start), exception, requestBytes);
+            throw exception;
+        }
+    }
+
+    @Override
+    public void onRequestTimed(final PreparedRequest request, final RequestTiming timing) {
+        registry.getRecorder(request.getRequest().getApiEndpoint(), request.getRequestMethod()).recordTiming(timing);
+    }
+
+    @Override
+    public void close() {
+        try {
+            delegate.close();
+        } finally {
+            registry.close();
+        }
+    }
+
+    /**
+     * The registry holding recorded metrics.
+     * @return registry instance.
+     */
+    public MetricsRegistry getRegistry() {
+        return registry;
+    }
+
+    private long elapsedInMicros(final long start) {
+        return TimeUnit.NANOSECONDS.toMicros(nanoClock.getAsLong() - start);
+    }
+}
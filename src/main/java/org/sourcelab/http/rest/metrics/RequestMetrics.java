@@ -0,0 +1,213 @@
+/**
+ * Copyright 2019 SourceLab.org https://github.com/SourceLabOrg/http-client-wrapper
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit
+ * persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.sourcelab.http.rest.metrics;
+
+import org.sourcelab.http.rest.request.RequestMethod;
+import org.sourcelab.http.rest.transport.RequestPhase;
+import org.sourcelab.http.rest.transport.RequestTiming;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Metrics for requests of one method against one endpoint, or endpoint pattern.  Counters are cumulative.
+ */
+public final class RequestMetrics {
+    // Cached, as values() copies the array on each call.
+    private static final RequestPhase[] PHASES = RequestPhase.values();
+
+    private final String name;
+    private final RequestMethod requestMethod;
+    private final LatencyHistogram latency = new LatencyHistogram();
+
+    // Responses by status class, 1xx through 5xx.
+    private final LongAdder[] statusClassCounts = new LongAdder[5];
+
+    // Exceptions by type.
+    private final ConcurrentMap<Class<?>, LongAdder> exceptionCounts = new ConcurrentHashMap<>();
+
+    private final LongAdder bytesSent = new LongAdder();
+    private final LongAdder bytesReceived = new LongAdder();
+
+    // Latency of each request phase, created when the phase is first recorded.
+    private final AtomicReferenceArray<LatencyHistogram> phaseLatencies = new AtomicReferenceArray<>(PHASES.length);
+
+    /**
+     * Constructor.
+     * @param name Name of the metrics, the endpoint or endpoint pattern.
+     * @param requestMethod The request method.
+     */
+    RequestMetrics(final String name, final RequestMethod requestMethod) {
+        this.name = Objects.requireNonNull(name);
+        this.requestMethod = Objects.requireNonNull(requestMethod);
+        for (int index = 0; index < statusClassCounts.length; index++) {
+            statusClassCounts[index] = new LongAdder();
+        }
+    }
+
+    void recordResponse(final long latencyInMicros, final int httpCode, final long requestBytes, final long responseBytes) {
+        latency.record(latencyInMicros);
+        final int statusClass = httpCode / 100;
+        if (statusClass >= 1 && statusClass <= statusClassCounts.length) {
+            statusClassCounts[statusClass - 1].increment();
+        }
+        bytesSent.add(requestBytes);
+        bytesReceived.add(responseBytes);
+    }
+
+    void recordStreamedResponse(final long latencyInMicros, final long requestBytes) {
+        latency.record(latencyInMicros);
+        bytesSent.add(requestBytes);
+    }
+
+    void recordException(final long latencyInMicros, final Throwable exception, final long requestBytes) {
+        latency.record(latencyInMicros);
+        LongAdder counter = exceptionCounts.get(exception.getClass());
+        if (counter == null) {
+            counter = exceptionCounts.computeIfAbsent(exception.getClass(), (key) -> new LongAdder());
+        }
+        counter.increment();
+        bytesSent.add(requestBytes);
+    }
+
+    void recordTiming(final RequestTiming timing) {
+        for (final RequestPhase phase : PHASES) {
+            final long phaseInMicros = timing.getPhaseInMicros(phase);
+            if (phaseInMicros < 0) {
+                continue;
+            }
+            LatencyHistogram histogram = phaseLatencies.get(phase.ordinal());
+            if (histogram == null) {
+                phaseLatencies.compareAndSet(phase.ordinal(), null, new LatencyHistogram());
+                histogram = phaseLatencies.get(phase.ordinal());
+            }
+            histogram.record(phaseInMicros);
+        }
+    }
+
+    /**
+     * Name of the metrics.
+     * @return the endpoint or endpoint pattern the metrics apply to.
+     */
+    public String getName() {
+        return name;
+    }
+
+    public RequestMethod getRequestMethod() {
+        return requestMethod;
+    }
+
+    /**
+     * Latency of all requests, whether they completed with a response or an exception.
+     * @return latency histogram.
+     */
+    public LatencyHistogram getLatency() {
+        return latency;
+    }
+
+    /**
+     * Latency of one phase of the requests, such as DNS resolution or waiting for the response.  Phases are only
+     * recorded by the HttpClient transport, and only when they occur, for example DNS and CONNECT are not recorded
+     * for requests sent over a pooled connection.
+     * @param phase The request phase.
+     * @return NULL if the phase has not been recorded, otherwise latency histogram.
+     */
+    public LatencyHistogram getPhaseLatency(final RequestPhase phase) {
+        return phaseLatencies.get(phase.ordinal());
+    }
+
+    /**
+     * Number of requests, whether they completed with a response or an exception.
+     * @return number of requests.
+     */
+    public long getRequestCount() {
+        return latency.getCount();
+    }
+
+    /**
+     * Number of responses within a status class.  Streamed responses are handled by the request's parser, and are
+     * not counted.
+     * @param statusClass status class between 1 and 5, for example 2 for 2xx responses.
+     * @return number of responses.
+     */
+    public long getStatusClassCount(final int statusClass) {
+        if (statusClass < 1 || statusClass > statusClassCounts.length) {
+            throw new IllegalArgumentException("statusClass must be between 1 and " + statusClassCounts.length);
+        }
+        return statusClassCounts[statusClass - 1].sum();
+    }
+
+    /**
+     * Number of requests which failed with the given exception type, for example ConnectionException.
+     * @param exceptionType exception type, subclasses are counted separately.
+     * @return number of exceptions.
+     */
+    public long getExceptionCount(final Class<? extends Throwable> exceptionType) {
+        final LongAdder counter = exceptionCounts.get(exceptionType);
+        return counter == null ? 0 : counter.sum();
+    }
+
+    /**
+     * Number of requests which failed, by exception type.
+     * @return Unmodifiable map of exception class name to count.
+     */
+    public Map<String, Long> getExceptionCounts() {
+        final Map<String, Long> counts = new TreeMap<>();
+        exceptionCounts.forEach((exceptionType, counter) -> counts.put(exceptionType.getName(), counter.sum()));
+        return Collections.unmodifiableMap(counts);
+    }
+
+    /**
+     * Number of request body bytes sent.
+     * @return bytes sent.
+     */
+    public long getBytesSent() {
+        return bytesSent.sum();
+    }
+
+    /**
+     * Number of response body bytes received.  Streamed responses are read by the request's parser, and are not counted.
+     * @return bytes received.
+     */
+    public long getBytesReceived() {
+        return bytesReceived.sum();
+    }
+
+    @Override
+    public String toString() {
+        return "RequestMetrics{"
+            + "name='" + name + '\''
+            + ", requestMethod=" + requestMethod
+            + ", latency=" + latency
+            + ", 1xx=" + getStatusClassCount(1)
+            + ", 2xx=" + getStatusClassCount(2)
+            + ", 3xx=" + getStatusClassCount(3)
+            + ", 4xx=" + getStatusClassCount(4)
+            + ", 5xx=" + getStatusClassCount(5)
+            + ", exceptions=" + getExceptionCounts()
+            + ", bytesSent=" + getBytesSent()
+            + ", bytesReceived=" + getBytesReceived()
+            + '}';
+    }
+}
@@ -18,8 +18,11 @@
 package org.sourcelab.http.rest.request;
 
 import org.sourcelab.http.rest.request.body.RequestBodyContent;
+import org.sourcelab.http.rest.tracing.TraceContext;
 
 import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
 
 /**
  * Interface for all Requests to implement.
@@ -48,6 +51,26 @@ public interface Request<T> {
      */
     RequestBodyContent getRequestBody();
 
+    /**
+     * Headers to be sent with this request, in addition to any headers defined on the configuration.
+     * These are passed through the configured request interceptors along with all other headers.
+     *
+     * @return Headers to send with this request, empty by default.
+     */
+    default List<RequestHeader> getRequestHeaders() {
+        return Collections.emptyList();
+    }
+
+    /**
+     * Trace context this request continues, when tracing is enabled.  Takes precedence over the context made current
+     * on the requesting thread.
+     *
+     * @return Parent trace context, NULL by default to use {@link TraceContext#current()}.
+     */
+    default TraceContext getTraceContext() {
+        return null;
+    }
+
     /**
      * Parse the rest service's response into a concrete object.
      * @param responseStr The servers response in string format.
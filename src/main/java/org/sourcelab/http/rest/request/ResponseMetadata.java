@@ -0,0 +1,79 @@
+/**
+ * Copyright 2019 SourceLab.org https://github.com/SourceLabOrg/http-client-wrapper
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit
+ * persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.sourcelab.http.rest.request;
+
+import java.nio.charset.Charset;
+
+/**
+ * Describes a response whose body is being streamed to a {@link StreamingRequest}.
+ */
+public final class ResponseMetadata {
+    private final int httpCode;
+    private final String contentType;
+    private final long contentLength;
+    private final Charset charset;
+
+    /**
+     * Constructor.
+     * @param httpCode The http status code from the response.
+     * @param contentType The Content-Type of the response, or NULL if not declared.
+     * @param contentLength The length of the response body in bytes, or -1 if unknown.
+     * @param charset The charset declared by the response, or NULL if not declared.
+     */
+    public ResponseMetadata(final int httpCode, final String contentType, final long contentLength, final Charset charset) {
+        this.httpCode = httpCode;
+        this.contentType = contentType;
+        this.contentLength = contentLength;
+        this.charset = charset;
+    }
+
+    public int getHttpCode() {
+        return httpCode;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public long getContentLength() {
+        return contentLength;
+    }
+
+    public Charset getCharset() {
+        return charset;
+    }
+
+    /**
+     * The charset declared by the response, falling back to the supplied default if not declared.
+     * @param defaultCharset Charset to use if the response does not declare one.
+     * @return Charset to decode the response body with.
+     */
+    public Charset getCharset(final Charset defaultCharset) {
+        return charset == null ? defaultCharset : charset;
+    }
+
+    @Override
+    public String toString() {
+        return "ResponseMetadata{"
+            + "httpCode=" + httpCode
+            + ", contentType='" + contentType + '\''
+            + ", contentLength=" + contentLength
+            + ", charset=" + charset
+            + '}';
+    }
+}
@@ -0,0 +1,59 @@
+/**
+ * Copyright 2019 SourceLab.org https://github.com/SourceLabOrg/http-client-wrapper
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit
+ * persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.sourcelab.http.rest.request;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A request whose response is parsed directly from the response body stream, rather than first being loaded
+ * into a String.  Submit via {@link org.sourcelab.http.rest.RestClient#submitStreamingRequest(StreamingRequest)}
+ * so peak memory is proportional to the parser's working set rather than the size of the response.
+ *
+ * @param <T> return type of request.
+ */
+public interface StreamingRequest<T> extends Request<T> {
+
+    /**
+     * Parse the rest service's response into a concrete object, reading from the response body stream.
+     * The stream is consumed and closed by the client after this method returns.
+     *
+     * @param responseStream The response body.
+     * @param responseMetadata Details about the response, such as status code and declared charset.
+     * @return A concrete object representing the result.
+     * @throws IOException on parsing errors.
+     */
+    T parseResponse(final InputStream responseStream, final ResponseMetadata responseMetadata) throws IOException;
+
+    /**
+     * Parse an already buffered response by streaming it through {@link #parseResponse(InputStream, ResponseMetadata)}.
+     * As the original status code is not known, the response is described as a UTF-8 encoded 200 response.
+     * @param responseStr The servers response in string format.
+     * @return A concrete object representing the result.
+     * @throws IOException on parsing errors.
+     */
+    @Override
+    default T parseResponse(final String responseStr) throws IOException {
+        final byte[] bytes = responseStr == null ? new byte[0] : responseStr.getBytes(StandardCharsets.UTF_8);
+        try (final InputStream inputStream = new ByteArrayInputStream(bytes)) {
+            return parseResponse(inputStream, new ResponseMetadata(200, null, bytes.length, StandardCharsets.UTF_8));
+        }
+    }
+}
@@ -0,0 +1,113 @@
+/**
+ * Copyright 2019 SourceLab.org https://github.com/SourceLabOrg/http-client-wrapper
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit
+ * persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.sourcelab.http.rest.tracing;
+
+import org.sourcelab.http.rest.request.RequestMethod;
+
+import java.util.Objects;
+
+/**
+ * A completed client span, timing one request made within a sampled trace.
+ */
+public final class Span {
+    private final TraceContext traceContext;
+    private final String endpoint;
+    private final RequestMethod requestMethod;
+    private final long startEpochMicros;
+    private final long durationNanos;
+    private final int httpCode;
+    private final Throwable exception;
+
+    /**
+     * Constructor.
+     * @param traceContext Context of the span.
+     * @param endpoint The endpoint requested.
+     * @param requestMethod The request method.
+     * @param startEpochMicros Wall clock time the span started, in microseconds since the epoch.
+     * @param durationNanos Duration of the span, measured with a monotonic clock.
+     * @param httpCode The http status code of the response, or 0 if none was received.
+     * @param exception The exception the request failed with, or NULL if successful.
+     */
+    public Span(
+        final TraceContext traceContext,
+        final String endpoint,
+        final RequestMethod requestMethod,
+        final long startEpochMicros,
+        final long durationNanos,
+        final int httpCode,
+        final Throwable exception) {
+        this.traceContext = Objects.requireNonNull(traceContext);
+        this.endpoint = Objects.requireNonNull(endpoint);
+        this.requestMethod = Objects.requireNonNull(requestMethod);
+        this.startEpochMicros = startEpochMicros;
+        this.durationNanos = durationNanos;
+        this.httpCode = httpCode;
+        this.exception = exception;
+    }
+
+    public TraceContext getTraceContext() {
+        return traceContext;
+    }
+
+    public String getEndpoint() {
+        return endpoint;
+    }
+
+    public RequestMethod getRequestMethod() {
+        return requestMethod;
+    }
+
+    public long getStartEpochMicros() {
+        return startEpochMicros;
+    }
+
+    public long getDurationNanos() {
+        return durationNanos;
+    }
+
+    /**
+     * The http status code of the response.
+     * @return status code, or 0 if no response was received or the response was streamed.
+     */
+    public int getHttpCode() {
+        return httpCode;
+    }
+
+    /**
+     * The exception the request failed with.
+     * @return NULL if the request did not fail with an exception.
+     */
+    public Throwable getException() {
+        return exception;
+    }
+
+    @Override
+    public String toString() {
+        return "Span{"
+            + "traceId='" + traceContext.getTraceId() + '\''
+            + ", spanId='" + traceContext.getSpanId() + '\''
+            + ", parentSpanId='" + traceContext.getParentSpanId() + '\''
+            + ", endpoint='" + endpoint + '\''
+            + ", requestMethod=" + requestMethod
+            + ", startEpochMicros=" + startEpochMicros
+            + ", durationNanos=" + durationNanos
+            + ", httpCode=" + httpCode
+            + ", exception=" + (exception == null ? null : exception.getClass().getName())
+            + '}';
+    }
+}
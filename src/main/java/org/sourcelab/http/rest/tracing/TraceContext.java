@@ -0,0 +1,265 @@
+/**
+ * Copyright 2019 SourceLab.org https://github.com/SourceLabOrg/http-client-wrapper
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit
+ * persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.sourcelab.http.rest.tracing;
+
+/**
+ * A W3C trace context, identifying a span within a distributed trace.  Sent with requests as the traceparent and
+ * tracestate headers, see https://www.w3.org/TR/trace-context/.
+ *
+ * A context received from upstream, for example parsed from an incoming request's headers, can be made current on
+ * the thread handling it, so requests made by that thread continue its trace:
+ * <pre>
+ * try (TraceContext.Scope scope = TraceContext.parse(traceparent, tracestate).makeCurrent()) {
+ *     restClient.submitRequest(request);
+ * }
+ * </pre>
+ */
+public final class TraceContext {
+    private static final ThreadLocal<TraceContext> CURRENT = new ThreadLocal<>();
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+    private static final int TRACEPARENT_LENGTH = 55;
+
+    private final long traceIdHigh;
+    private final long traceIdLow;
+    private final long spanId;
+    private final long parentSpanId;
+    private final boolean sampled;
+    private final String traceState;
+
+    /**
+     * Constructor.
+     * @param traceIdHigh High 64 bits of the trace id.
+     * @param traceIdLow Low 64 bits of the trace id.
+     * @param spanId Span id, not 0.
+     * @param parentSpanId Span id of the parent span, or 0 if none.
+     * @param sampled Whether the trace is sampled.
+     * @param traceState Vendor specific tracestate header value, or NULL if none.
+     */
+    TraceContext(
+        final long traceIdHigh,
+        final long traceIdLow,
+        final long spanId,
+        final long parentSpanId,
+        final boolean sampled,
+        final String traceState) {
+        if ((traceIdHigh == 0 && traceIdLow == 0) || spanId == 0) {
+            throw new IllegalArgumentException("Trace id and span id must not be zero");
+        }
+        this.traceIdHigh = traceIdHigh;
+        this.traceIdLow = traceIdLow;
+        this.spanId = spanId;
+        this.parentSpanId = parentSpanId;
+        this.sampled = sampled;
+        this.traceState = traceState;
+    }
+
+    /**
+     * Parse a traceparent header.
+     * @param traceparent traceparent header value.
+     * @return NULL if missing or invalid, otherwise context instance.
+     */
+    public static TraceContext parse(final String traceparent) {
+        return parse(traceparent, null);
+    }
+
+    /**
+     * Parse traceparent and tracestate headers.
+     * @param traceparent traceparent header value.
+     * @param traceState tracestate header value, may be NULL.
+     * @return NULL if the traceparent is missing or invalid, otherwise context instance.
+     */
+    public static TraceContext parse(final String traceparent, final String traceState) {
+        if (traceparent == null) {
+            return null;
+        }
+        final String value = traceparent.trim();
+
+        // Later versions may append fields, version 00 may not.
+        if (value.length() < TRACEPARENT_LENGTH
+            || (value.length() > TRACEPARENT_LENGTH && value.charAt(TRACEPARENT_LENGTH) != '-')
+            || value.charAt(2) != '-' || value.charAt(35) != '-' || value.charAt(52) != '-'
+            || !isLowerHex(value, 0, 2) || !isLowerHex(value, 3, 35) || !isLowerHex(value, 36, 52) || !isLowerHex(value, 53, 55)
+            || value.startsWith("ff")
+            || (value.startsWith("00") && value.length() != TRACEPARENT_LENGTH)) {
+            return null;
+        }
+
+        final long traceIdHigh = parseHex(value, 3, 19);
+        final long traceIdLow = parseHex(value, 19, 35);
+        final long spanId = parseHex(value, 36, 52);
+        if ((traceIdHigh == 0 && traceIdLow == 0) || spanId == 0) {
+            return null;
+        }
+        final boolean sampled = (parseHex(value, 53, 55) & 1) == 1;
+        final String state = traceState == null || traceState.trim().isEmpty() ? null : traceState.trim();
+        return new TraceContext(traceIdHigh, traceIdLow, spanId, 0, sampled, state);
+    }
+
+    /**
+     * The context made current on this thread.
+     * @return NULL if none, otherwise context instance.
+     */
+    public static TraceContext current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Make this the current context on this thread, until the returned scope is closed.  Requests made on this thread
+     * in the meantime, which do not define their own {@link org.sourcelab.http.rest.request.Request#getTraceContext()},
+     * are made as child spans of this context.
+     * @return Scope to close, restoring the previous context.
+     */
+    public Scope makeCurrent() {
+        final TraceContext previous = CURRENT.get();
+        CURRENT.set(this);
+        return new Scope(previous);
+    }
+
+    /**
+     * Trace id.
+     * @return 32 lowercase hex characters.
+     */
+    public String getTraceId() {
+        final char[] chars = new char[32];
+        writeHex(traceIdHigh, chars, 0);
+        writeHex(traceIdLow, chars, 16);
+        return new String(chars);
+    }
+
+    /**
+     * Span id.
+     * @return 16 lowercase hex characters.
+     */
+    public String getSpanId() {
+        final char[] chars = new char[16];
+        writeHex(spanId, chars, 0);
+        return new String(chars);
+    }
+
+    /**
+     * Span id of the parent span.
+     * @return NULL if this is a root span, or was parsed from a header, otherwise 16 lowercase hex characters.
+     */
+    public String getParentSpanId() {
+        if (parentSpanId == 0) {
+            return null;
+        }
+        final char[] chars = new char[16];
+        writeHex(parentSpanId, chars, 0);
+        return new String(chars);
+    }
+
+    /**
+     * Whether the trace is sampled, in which case spans are recorded.
+     * @return true if sampled.
+     */
+    public boolean isSampled() {
+        return sampled;
+    }
+
+    /**
+     * Vendor specific trace state, propagated unchanged.
+     * @return NULL if none, otherwise tracestate header value.
+     */
+    public String getTraceState() {
+        return traceState;
+    }
+
+    /**
+     * Format as a version 00 traceparent header value.
+     * @return traceparent header value.
+     */
+    public String toTraceparent() {
+        final char[] chars = new char[TRACEPARENT_LENGTH];
+        chars[0] = '0';
+        chars[1] = '0';
+        chars[2] = '-';
+        writeHex(traceIdHigh, chars, 3);
+        writeHex(traceIdLow, chars, 19);
+        chars[35] = '-';
+        writeHex(spanId, chars, 36);
+        chars[52] = '-';
+        chars[53] = '0';
+        chars[54] = sampled ? '1' : '0';
+        return new String(chars);
+    }
+
+    long getTraceIdHigh() {
+        return traceIdHigh;
+    }
+
+    long getTraceIdLow() {
+        return traceIdLow;
+    }
+
+    long getSpanIdValue() {
+        return spanId;
+    }
+
+    @Override
+    public String toString() {
+        return "TraceContext{"
+            + "traceparent='" + toTraceparent() + '\''
+            + ", traceState='" + traceState + '\''
+            + '}';
+    }
+
+    private static boolean isLowerHex(final String value, final int start, final int end) {
+        for (int index = start; index < end; index++) {
+            final char character = value.charAt(index);
+            if ((character < '0' || character > '9') && (character < 'a' || character > 'f')) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static long parseHex(final String value, final int start, final int end) {
+        long result = 0;
+        for (int index = start; index < end; index++) {
+            result = (result << 4) | Character.digit(value.charAt(index), 16);
+        }
+        return result;
+    }
+
+    private static void writeHex(final long value, final char[] chars, final int offset) {
+        for (int index = 0; index < 16; index++) {
+            chars[offset + index] = HEX_DIGITS[(int) (value >>> (60 - (index * 4))) & 0xF];
+        }
+    }
+
+    /**
+     * Restores the previously current context when closed.
+     */
+    public static final class Scope implements AutoCloseable {
+        private final TraceContext previous;
+
+        private Scope(final TraceContext previous) {
+            this.previous = previous;
+        }
+
+        @Override
+        public void close() {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        }
+    }
+}
@@ -0,0 +1,70 @@
+/**
+ * Copyright 2019 SourceLab.org https://github.com/SourceLabOrg/http-client-wrapper
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit
+ * persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.sourcelab.http.rest.tracing;
+
+import org.sourcelab.http.rest.configuration.TracingConfiguration;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Starts the span of each outgoing request, continuing the trace of a parent context or starting a new trace.
+ *
+ * Ids are generated by {@link ThreadLocalRandom}, which is fast and uncontended but not cryptographically secure,
+ * acceptable for trace ids which only need to be unique.  The sampling decision is made once, at the head of the
+ * trace, and followed by every span in it.  New traces are sampled based on the rightmost bits of their trace id, so the
+ * decision is consistent with any downstream service sampling at the same rate.
+ */
+public final class Tracer {
+    private final long samplingThreshold;
+
+    /**
+     * Constructor.
+     * @param tracingConfiguration Defines the sampling rate.
+     */
+    public Tracer(final TracingConfiguration tracingConfiguration) {
+        // Compare 53 bits of the trace id against the rate, as a double holds 53 bits of precision.
+        this.samplingThreshold = (long) (tracingConfiguration.getSamplingRate() * (1L << 53));
+    }
+
+    /**
+     * Start a new span.
+     * @param parent Context to continue, or NULL to start a new trace.
+     * @return Context of the new span.
+     */
+    public TraceContext startSpan(final TraceContext parent) {
+        final ThreadLocalRandom random = ThreadLocalRandom.current();
+        final long spanId = nextNonZero(random);
+        if (parent != null) {
+            return new TraceContext(
+                parent.getTraceIdHigh(), parent.getTraceIdLow(), spanId, parent.getSpanIdValue(), parent.isSampled(), parent.getTraceState()
+            );
+        }
+        final long traceIdHigh = random.nextLong();
+        final long traceIdLow = nextNonZero(random);
+        final boolean sampled = (traceIdLow >>> 11) < samplingThreshold;
+        return new TraceContext(traceIdHigh, traceIdLow, spanId, 0, sampled, null);
+    }
+
+    private static long nextNonZero(final ThreadLocalRandom random) {
+        long value = random.nextLong();
+        while (value == 0) {
+            value = random.nextLong();
+        }
+        return value;
+    }
+}
@@ -0,0 +1,128 @@
+/**
+ * Copyright 2019 SourceLab.org https://github.com/SourceLabOrg/http-client-wrapper
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit
+ * persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.sourcelab.http.rest.tracing;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.sourcelab.http.rest.RestException;
+import org.sourcelab.http.rest.RestResponse;
+import org.sourcelab.http.rest.configuration.Configuration;
+import org.sourcelab.http.rest.configuration.TracingConfiguration;
+import org.sourcelab.http.rest.request.StreamingRequest;
+import org.sourcelab.http.rest.transport.PreparedRequest;
+import org.sourcelab.http.rest.transport.Transport;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Transport decorator recording a {@link Span} for each request within a sampled trace, and handing it to the
+ * configured {@link SpanExporter}s.  Requests which are not sampled are passed straight through to the delegate.
+ *
+ * The trace context of each request, and its traceparent header, are created by the shared request pipeline.
+ */
+public class TracingTransport implements Transport {
+    private static final Logger logger = LoggerFactory.getLogger(TracingTransport.class);
+
+    private final Transport delegate;
+    private final List<SpanExporter> exporters;
+
+    /**
+     * Constructor.
+     * @param delegate Transport to execute requests with.
+     * @param tracingConfiguration Defines where spans are exported.
+     */
+    public TracingTransport(final Transport delegate, final TracingConfiguration tracingConfiguration) {
+        this.delegate = Objects.requireNonNull(delegate);
+        this.exporters = tracingConfiguration.getExporters();
+    }
+
+    @Override
+    public void init(final Configuration configuration) {
+        delegate.init(configuration);
+    }
+
+    @Override
+    public RestResponse execute(final PreparedRequest request) throws RestException {
+        final TraceContext traceContext = request.getTraceContext();
+        if (traceContext == null || !traceContext.isSampled()) {
+            return delegate.execute(request);
+        }
+
+        final long startEpochMicros = TimeUnit.MILLISECONDS.toMicros(System.currentTimeMillis());
+        final long start = System.nanoTime();
+        try {
+            final RestResponse response = delegate.execute(request);
+            export(request, traceContext, startEpochMicros, System.nanoTime() - start, response.getHttpCode(), null);
+            return response;
+        } catch (final RuntimeException exception) {
+            export(request, traceContext, startEpochMicros, System.nanoTime() - start, 0, exception);
+            throw exception;
+        }
+    }
+
+    @Override
+    public <T> T executeStreaming(final PreparedRequest request, final StreamingRequest<T> streamingRequest) throws RestException {
+        final TraceContext traceContext = request.getTraceContext();
+        if (traceContext == null || !traceContext.isSampled()) {
+            return delegate.executeStreaming(request, streamingRequest);
+        }
+
+        final long startEpochMicros = TimeUnit.MILLISECONDS.toMicros(System.currentTimeMillis());
+        final long start = System.nanoTime();
+        try {
+            final T result = delegate.executeStreaming(request, streamingRequest);
+            export(request, traceContext, startEpochMicros, System.nanoTime() - start, 0, null);
+            return result;
+        } catch (final RuntimeException exception) {
+            export(request, traceContext, startEpochMicros, System.nanoTime() - start, 0, exception);
+            throw exception;
+        }
+    }
+
+    @Override
+    public void close() {
+        delegate.close();
+    }
+
+    private void export(
+        final PreparedRequest request,
+        final TraceContext traceContext,
+        final long startEpochMicros,
+        final long durationNanos,
+        final int httpCode,
+        final Throwable exception) {
+        final Span span = new Span(
+            traceContext,
+            request.getRequest().getApiEndpoint(),
+            request.getRequestMethod(),
+            startEpochMicros,
+            durationNanos,
+            httpCode,
+            exception
+        );
+        for (final SpanExporter exporter : exporters) {
+            try {
+                exporter.export(span);
+            } catch (final RuntimeException exportException) {
+                logger.error("Error exporting span: {}", exportException.getMessage(), exportException);
+            }
+        }
+    }
+}
@@ -0,0 +1,294 @@
+/**
+ * Copyright 2019 SourceLab.org https://github.com/SourceLabOrg/http-client-wrapper
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit
+ * persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.sourcelab.http.rest.transport;
+
+import org.sourcelab.http.rest.configuration.AdaptiveConcurrencyConfiguration;
+
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Concurrency limiter whose limit adapts to the latency observed from the API host, using a gradient algorithm.
+ *
+ * Each completed request compares its round trip time against a long term average.  While latency stays within
+ * tolerance the limit grows, by roughly its square root per sample, and once latency rises the limit shrinks in
+ * proportion.  Requests failing with an exception shrink the limit multiplicatively.  The limit only grows while at
+ * least half of it is in use, so an idle client does not inflate it.
+ *
+ * Admission is a compare-and-set on the in flight count, and the limit is updated by compare-and-set of an immutable
+ * state.  Requests beyond the limit wait in a small bounded queue.
+ */
+public final class AdaptiveConcurrencyLimiter {
+    private final AdaptiveConcurrencyConfiguration configuration;
+
+    // Limit state, replaced on each sample.
+    private final AtomicReference<LimitState> state;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger queued = new AtomicInteger();
+
+    // Queued requests wait on this, one signalled on release and all when the limit grows.
+    private final ReentrantLock queueLock = new ReentrantLock();
+    private final Condition capacityAvailable = queueLock.newCondition();
+
+    // Metrics
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder samples = new LongAdder();
+
+    /**
+     * Constructor.
+     * @param configuration Defines the limit algorithm and queueing.
+     */
+    AdaptiveConcurrencyLimiter(final AdaptiveConcurrencyConfiguration configuration) {
+        this.configuration = Objects.requireNonNull(configuration);
+        this.state = new AtomicReference<>(new LimitState(configuration.getInitialLimit(), -1));
+    }
+
+    /**
+     * Acquire capacity for a request, queueing briefly if at the limit.
+     * @return true if acquired, false if rejected.
+     * @throws InterruptedException if interrupted while queued.
+     */
+    boolean acquire() throws InterruptedException {
+        if (tryAcquire()) {
+            return true;
+        }
+        if (configuration.getMaxQueueSize() == 0 || configuration.getMaxQueueWaitInMilliseconds() == 0) {
+            rejected.increment();
+            return false;
+        }
+        if (queued.incrementAndGet() > configuration.getMaxQueueSize()) {
+            queued.decrementAndGet();
+            rejected.increment();
+            return false;
+        }
+
+        try {
+            long remaining = TimeUnit.MILLISECONDS.toNanos(configuration.getMaxQueueWaitInMilliseconds());
+            queueLock.lock();
+            try {
+                while (!tryAcquire()) {
+                    if (remaining <= 0) {
+                        rejected.increment();
+                        return false;
+                    }
+                    remaining = capacityAvailable.awaitNanos(remaining);
+                }
+                return true;
+            } finally {
+                queueLock.unlock();
+            }
+        } finally {
+            queued.decrementAndGet();
+        }
+    }
+
+    private boolean tryAcquire() {
+        while (true) {
+            final int current = inFlight.get();
+            if (current >= state.get().limit) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Release capacity acquired via {@link #acquire()}, recording the outcome of the request.
+     * @param rttInNanos round trip time of the request.
+     * @param dropped true if the request failed with an exception, for example a timeout.
+     */
+    void release(final long rttInNanos, final boolean dropped) {
+        final int inFlightAtCompletion = inFlight.getAndDecrement();
+        if (!onSample(rttInNanos, inFlightAtCompletion, dropped)) {
+            signalQueued();
+        }
+    }
+
+    /**
+     * Release capacity acquired via {@link #acquire()} without recording a sample, for example when the request was
+     * cancelled by the client.
+     */
+    void release() {
+        inFlight.decrementAndGet();
+        signalQueued();
+    }
+
+    private void signalQueued() {
+        if (queued.get() > 0) {
+            // A single slot was freed, wake a single queued request.
+            queueLock.lock();
+            try {
+                capacityAvailable.signal();
+            } finally {
+                queueLock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Update the limit from a completed request.
+     * @param rttInNanos round trip time of the request.
+     * @param inFlightAtCompletion number of requests in flight, including this one, when it completed.
+     * @param dropped true if the request failed with an exception.
+     * @return true if the limit grew, and all queued requests were signalled.
+     */
+    boolean onSample(final long rttInNanos, final int inFlightAtCompletion, final boolean dropped) {
+        samples.increment();
+        while (true) {
+            final LimitState current = state.get();
+            final LimitState next = nextState(current, rttInNanos, inFlightAtCompletion, dropped);
+            if (state.compareAndSet(current, next)) {
+                if (next.limit > current.limit) {
+                    signalAllQueued();
+                    return true;
+                }
+                return false;
+            }
+        }
+    }
+
+    private LimitState nextState(final LimitState current, final long rttInNanos, final int inFlightAtCompletion, final boolean dropped) {
+        if (dropped) {
+            return limited(current.estimatedLimit * configuration.getBackoffRatio(), current.longRttInNanos);
+        }
+
+        final double shortRtt = Math.max(1, rttInNanos);
+        double longRttInNanos = current.longRttInNanos;
+        if (longRttInNanos < 0) {
+            longRttInNanos = shortRtt;
+        } else {
+            longRttInNanos += (shortRtt - longRttInNanos) / configuration.getLongRttWindow();
+
+            // Recover quickly once a latency spike is over, rather than waiting for the average to decay.
+            if (longRttInNanos > shortRtt * 2) {
+                longRttInNanos *= 0.95;
+            }
+        }
+
+        // Don't grow the limit unless we're using it.
+        final double estimatedLimit = current.estimatedLimit;
+        if (inFlightAtCompletion < estimatedLimit / 2) {
+            return new LimitState(estimatedLimit, longRttInNanos);
+        }
+
+        final double gradient = Math.max(0.5, Math.min(1.0, configuration.getRttTolerance() * longRttInNanos / shortRtt));
+        double newLimit = estimatedLimit * gradient + Math.sqrt(estimatedLimit);
+        newLimit = estimatedLimit * (1 - configuration.getSmoothing()) + newLimit * configuration.getSmoothing();
+        return limited(newLimit, longRttInNanos);
+    }
+
+    private LimitState limited(final double newLimit, final double longRttInNanos) {
+        return new LimitState(Math.max(configuration.getMinLimit(), Math.min(configuration.getMaxLimit(), newLimit)), longRttInNanos);
+    }
+
+    private void signalAllQueued() {
+        if (queued.get() > 0) {
+            queueLock.lock();
+            try {
+                capacityAvailable.signalAll();
+            } finally {
+                queueLock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Current concurrency limit.
+     * @return concurrency limit.
+     */
+    public int getLimit() {
+        return state.get().limit;
+    }
+
+    /**
+     * Number of requests currently in flight.
+     * @return number of requests.
+     */
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    /**
+     * Number of requests currently queued waiting for capacity.
+     * @return number of requests.
+     */
+    public int getQueued() {
+        return queued.get();
+    }
+
+    /**
+     * Long term average round trip time the limit is measured against.
+     * @return round trip time in milliseconds, or -1 if no requests have completed.
+     */
+    public double getLongRttInMilliseconds() {
+        final double longRttInNanos = state.get().longRttInNanos;
+        return longRttInNanos < 0 ? -1 : longRttInNanos / TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    /**
+     * Number of requests rejected as the limit was reached.
+     * @return number of rejected requests.
+     */
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+
+    /**
+     * Number of completed requests the limit has been updated from.
+     * @return number of samples.
+     */
+    public long getSampleCount() {
+        return samples.sum();
+    }
+
+    @Override
+    public String toString() {
+        return "AdaptiveConcurrencyLimiter{"
+            + "limit=" + getLimit()
+            + ", inFlight=" + getInFlight()
+            + ", queued=" + getQueued()
+            + ", longRtt=" + getLongRttInMilliseconds() + "ms"
+            + ", rejected=" + getRejectedCount()
+            + '}';
+    }
+
+    /**
+     * Immutable limit state.
+     */
+    private static final class LimitState {
+        private final double estimatedLimit;
+        private final double longRttInNanos;
+
+        // Published limit, read on every admission.
+        private final int limit;
+
+        private LimitState(final double estimatedLimit, final double longRttInNanos) {
+            this.estimatedLimit = estimatedLimit;
+            this.longRttInNanos = longRttInNanos;
+            this.limit = (int) estimatedLimit;
+        }
+    }
+}
@@ -0,0 +1,140 @@
+/**
+ * Copyright 2019 SourceLab.org https://github.com/SourceLabOrg/http-client-wrapper
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit
+ * persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.sourcelab.http.rest.transport;
+
+import org.sourcelab.http.rest.RestException;
+import org.sourcelab.http.rest.RestResponse;
+import org.sourcelab.http.rest.configuration.AdaptiveConcurrencyConfiguration;
+import org.sourcelab.http.rest.configuration.Configuration;
+import org.sourcelab.http.rest.exceptions.ConcurrencyLimitExceededException;
+import org.sourcelab.http.rest.request.StreamingRequest;
+
+import java.util.Objects;
+import java.util.function.LongSupplier;
+
+/**
+ * Transport decorator limiting the number of concurrent requests to an {@link AdaptiveConcurrencyLimiter}, whose
+ * limit follows the latency observed from the API host.  Requests which cannot be admitted fail with a
+ * {@link ConcurrencyLimitExceededException}.
+ */
+public class AdaptiveConcurrencyTransport implements Transport {
+    private final Transport delegate;
+    private final AdaptiveConcurrencyLimiter limiter;
+    private final LongSupplier nanoClock;
+
+    /**
+     * Constructor.
+     * @param delegate Transport to execute requests with.
+     * @param adaptiveConcurrencyConfiguration Defines the limit algorithm and queueing.
+     */
+    public AdaptiveConcurrencyTransport(final Transport delegate, final AdaptiveConcurrencyConfiguration adaptiveConcurrencyConfiguration) {
+        this(delegate, adaptiveConcurrencyConfiguration, System::nanoTime);
+    }
+
+    /**
+     * Constructor.
+     * @param delegate Transport to execute requests with.
+     * @param adaptiveConcurrencyConfiguration Defines the limit algorithm and queueing.
+     * @param nanoClock Source of System.nanoTime() style timestamps.
+     */
+    AdaptiveConcurrencyTransport(
+        final Transport delegate,
+        final AdaptiveConcurrencyConfiguration adaptiveConcurrencyConfiguration,
+        final LongSupplier nanoClock) {
+        this.delegate = Objects.requireNonNull(delegate);
+        this.limiter = new AdaptiveConcurrencyLimiter(adaptiveConcurrencyConfiguration);
+        this.nanoClock = Objects.requireNonNull(nanoClock);
+    }
+
+    @Override
+    public void init(final Configuration configuration) {
+        delegate.init(configuration);
+    }
+
+    @Override
+    public RestResponse execute(final PreparedRequest request) throws RestException {
+        acquire(request);
+        final long start = nanoClock.getAsLong();
+        boolean dropped = true;
+        try {
+            final RestResponse response = delegate.execute(request);
+            dropped = false;
+            return response;
+        } finally {
+            release(request, nanoClock.getAsLong() - start, dropped);
+        }
+    }
+
+    @Override
+    public <T> T executeStreaming(final PreparedRequest request, final StreamingRequest<T> streamingRequest) throws RestException {
+        acquire(request);
+        final long start = nanoClock.getAsLong();
+        boolean dropped = true;
+        try {
+            final T result = delegate.executeStreaming(request, streamingRequest);
+            dropped = false;
+            return result;
+        } finally {
+            release(request, nanoClock.getAsLong() - start, dropped);
+        }
+    }
+
+    @Override
+    public void close() {
+        delegate.close();
+    }
+
+    /**
+     * The limiter, exposing the live limit and related metrics.
+     * @return limiter instance.
+     */
+    public AdaptiveConcurrencyLimiter getLimiter() {
+        return limiter;
+    }
+
+    private void release(final PreparedRequest request, final long rttInNanos, final boolean dropped) {
+        if (dropped && RequestCancellation.isCancelled(request)) {
+            // Cancelled by the client, the round trip time says nothing about the API host.
+            limiter.release();
+        } else {
+            limiter.release(rttInNanos, dropped);
+        }
+    }
+
+    private void acquire(final PreparedRequest request) {
+        boolean acquired = false;
+        try {
+            acquired = RequestCancellation.await(request, limiter::acquire);
+        } catch (final InterruptedException exception) {
+            if (!RequestCancellation.isCancelled(request)) {
+                Thread.currentThread().interrupt();
+                throw new RestException("Interrupted while waiting for concurrency limit", exception);
+            }
+        }
+        if (RequestCancellation.isCancelled(request)) {
+            // Hand the capacity straight to the next request.
+            if (acquired) {
+                limiter.release();
+            }
+            throw RequestCancellation.cancelled(request);
+        }
+        if (!acquired) {
+            throw new ConcurrencyLimitExceededException("Concurrency limit of " + limiter.getLimit() + " reached", limiter.getLimit());
+        }
+    }
+}
@@ -0,0 +1,61 @@
+/**
+ * Copyright 2019 SourceLab.org https://github.com/SourceLabOrg/http-client-wrapper
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit
+ * persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.sourcelab.http.rest.transport;
+
+import org.sourcelab.http.rest.RestException;
+import org.sourcelab.http.rest.RestResponse;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * A {@link Transport} able to execute requests without blocking the calling thread.
+ */
+public interface AsyncTransport extends Transport {
+    /**
+     * Execute the request without blocking the calling thread.
+     * @param request The request to execute.
+     * @return Future completed with the response, or exceptionally with a {@link RestException}.
+     */
+    CompletableFuture<RestResponse> executeAsync(final PreparedRequest request);
+
+    /**
+     * Execute the request, blocking until the response is available.
+     * @param request The request to execute.
+     * @return The response.
+     * @throws RestException if something goes wrong.
+     */
+    @Override
+    default RestResponse execute(final PreparedRequest request) throws RestException {
+        final CompletableFuture<RestResponse> response = executeAsync(request);
+        if (request.getCancellation() != null) {
+            request.getCancellation().onCancel(() -> response.cancel(true));
+        }
+        try {
+            return response.get();
+        } catch (final InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            throw new RestException(exception.getMessage(), exception);
+        } catch (final ExecutionException exception) {
+            if (exception.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) exception.getCause();
+            }
+            throw new RestException(exception.getMessage(), exception.getCause());
+        }
+    }
+}
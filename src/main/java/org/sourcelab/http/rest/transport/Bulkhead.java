@@ -0,0 +1,155 @@
+/**
+ * Copyright 2019 SourceLab.org https://github.com/SourceLabOrg/http-client-wrapper
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit
+ * persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.sourcelab.http.rest.transport;
+
+import java.util.Objects;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bulkhead limiting the number of concurrent requests to a partition of endpoints, backed by a semaphore.  Requests
+ * beyond the limit wait in a bounded queue for a slot, or are rejected.
+ */
+public final class Bulkhead {
+    private final String name;
+    private final int maxConcurrentRequests;
+    private final int maxQueueSize;
+    private final long maxWaitInNanos;
+    private final Semaphore slots;
+    private final AtomicInteger queued = new AtomicInteger();
+
+    // Metrics
+    private final LongAdder permitted = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+
+    /**
+     * Constructor.
+     * @param name Name of the bulkhead, its endpoint pattern.
+     * @param maxConcurrentRequests number of requests which may be in flight at once.
+     * @param maxQueueSize number of requests which may wait for a slot.
+     * @param maxWaitInMilliseconds how long a queued request may wait for a slot.
+     */
+    Bulkhead(final String name, final int maxConcurrentRequests, final int maxQueueSize, final long maxWaitInMilliseconds) {
+        this.name = Objects.requireNonNull(name);
+        this.maxConcurrentRequests = maxConcurrentRequests;
+        this.maxQueueSize = maxQueueSize;
+        this.maxWaitInNanos = TimeUnit.MILLISECONDS.toNanos(maxWaitInMilliseconds);
+        this.slots = new Semaphore(maxConcurrentRequests, true);
+    }
+
+    /**
+     * Acquire a slot, waiting in the queue if there is room.
+     * @return true if a slot was acquired, and must be released via {@link #release()}.
+     * @throws InterruptedException if interrupted while queued.
+     */
+    boolean acquire() throws InterruptedException {
+        if (slots.tryAcquire()) {
+            permitted.increment();
+            return true;
+        }
+        if (maxQueueSize == 0 || maxWaitInNanos == 0) {
+            rejected.increment();
+            return false;
+        }
+        if (queued.incrementAndGet() > maxQueueSize) {
+            queued.decrementAndGet();
+            rejected.increment();
+            return false;
+        }
+        try {
+            if (slots.tryAcquire(maxWaitInNanos, TimeUnit.NANOSECONDS)) {
+                permitted.increment();
+                return true;
+            }
+            rejected.increment();
+            return false;
+        } finally {
+            queued.decrementAndGet();
+        }
+    }
+
+    /**
+     * Release a slot acquired via {@link #acquire()}.
+     */
+    void release() {
+        slots.release();
+    }
+
+    /**
+     * Name of the bulkhead.
+     * @return the endpoint pattern the bulkhead applies to.
+     */
+    public String getName() {
+        return name;
+    }
+
+    public int getMaxConcurrentRequests() {
+        return maxConcurrentRequests;
+    }
+
+    public int getMaxQueueSize() {
+        return maxQueueSize;
+    }
+
+    /**
+     * Number of requests currently holding a slot.
+     * @return requests in flight.
+     */
+    public int getInFlight() {
+        return maxConcurrentRequests - slots.availablePermits();
+    }
+
+    /**
+     * Number of requests currently waiting for a slot.
+     * @return queued requests.
+     */
+    public int getQueued() {
+        return queued.get();
+    }
+
+    /**
+     * Number of requests given a slot, whether immediately or after queueing.
+     * @return number of permitted requests.
+     */
+    public long getPermittedCount() {
+        return permitted.sum();
+    }
+
+    /**
+     * Number of requests rejected as no slot was available.
+     * @return number of rejected requests.
+     */
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+
+    @Override
+    public String toString() {
+        return "Bulkhead{"
+            + "name='" + name + '\''
+            + ", maxConcurrentRequests=" + maxConcurrentRequests
+            + ", maxQueueSize=" + maxQueueSize
+            + ", inFlight=" + getInFlight()
+            + ", queued=" + getQueued()
+            + ", permitted=" + getPermittedCount()
+            + ", rejected=" + getRejectedCount()
+            + '}';
+    }
+}
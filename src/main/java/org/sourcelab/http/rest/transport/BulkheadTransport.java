@@ -0,0 +1,153 @@
+/**
+ * Copyright 2019 SourceLab.org https://github.com/SourceLabOrg/http-client-wrapper
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit
+ * persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.sourcelab.http.rest.transport;
+
+import org.sourcelab.http.rest.RestException;
+import org.sourcelab.http.rest.RestResponse;
+import org.sourcelab.http.rest.configuration.BulkheadConfiguration;
+import org.sourcelab.http.rest.configuration.Configuration;
+import org.sourcelab.http.rest.exceptions.BulkheadFullException;
+import org.sourcelab.http.rest.exceptions.RequestCancelledException;
+import org.sourcelab.http.rest.request.StreamingRequest;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Transport decorator isolating endpoints behind bulkheads.  Each request holds a slot in the {@link Bulkhead} of the
+ * first endpoint pattern it matches for as long as it executes, so a slow endpoint can only occupy its own slots.
+ * Requests to endpoints matching no pattern are not limited.
+ *
+ * A request which cannot get a slot within the bulkhead's maximum wait fails with a {@link BulkheadFullException}.
+ */
+public class BulkheadTransport implements Transport {
+    private final Transport delegate;
+    private final List<BulkheadConfiguration.EndpointBulkhead> endpointBulkheads;
+    private final List<Bulkhead> bulkheads;
+
+    /**
+     * Constructor.
+     * @param delegate Transport to execute requests with.
+     * @param bulkheadConfiguration Defines the bulkheads.
+     */
+    public BulkheadTransport(final Transport delegate, final BulkheadConfiguration bulkheadConfiguration) {
+        this.delegate = Objects.requireNonNull(delegate);
+        this.endpointBulkheads = bulkheadConfiguration.getEndpointBulkheads();
+
+        final List<Bulkhead> bulkheads = new ArrayList<>();
+        for (final BulkheadConfiguration.EndpointBulkhead endpointBulkhead : endpointBulkheads) {
+            bulkheads.add(new Bulkhead(
+                endpointBulkhead.getEndpointPattern().pattern(),
+                endpointBulkhead.getMaxConcurrentRequests(),
+                endpointBulkhead.getMaxQueueSize(),
+                endpointBulkhead.getMaxWaitInMilliseconds()
+            ));
+        }
+        this.bulkheads = Collections.unmodifiableList(bulkheads);
+    }
+
+    @Override
+    public void init(final Configuration configuration) {
+        delegate.init(configuration);
+    }
+
+    @Override
+    public RestResponse execute(final PreparedRequest request) throws RestException {
+        final Bulkhead bulkhead = acquire(request);
+        if (bulkhead == null) {
+            return delegate.execute(request);
+        }
+        try {
+            return delegate.execute(request);
+        } finally {
+            bulkhead.release();
+        }
+    }
+
+    @Override
+    public <T> T executeStreaming(final PreparedRequest request, final StreamingRequest<T> streamingRequest) throws RestException {
+        final Bulkhead bulkhead = acquire(request);
+        if (bulkhead == null) {
+            return delegate.executeStreaming(request, streamingRequest);
+        }
+        try {
+            return delegate.executeStreaming(request, streamingRequest);
+        } finally {
+            bulkhead.release();
+        }
+    }
+
+    @Override
+    public void close() {
+        delegate.close();
+    }
+
+    /**
+     * The endpoint bulkheads.
+     * @return Unmodifiable collection of bulkheads.
+     */
+    public Collection<Bulkhead> getBulkheads() {
+        return bulkheads;
+    }
+
+    /**
+     * Acquire a slot in the request's bulkhead, waiting if allowed.
+     * @return the bulkhead holding a slot for the request, or NULL if the request matches no bulkhead.
+     * @throws BulkheadFullException if no slot was available within the maximum wait.
+     * @throws RequestCancelledException if the request was cancelled while waiting.
+     */
+    private Bulkhead acquire(final PreparedRequest request) {
+        final Bulkhead bulkhead = findBulkhead(request.getRequest().getApiEndpoint());
+        if (bulkhead == null) {
+            return null;
+        }
+
+        boolean acquired = false;
+        try {
+            acquired = RequestCancellation.await(request, bulkhead::acquire);
+        } catch (final InterruptedException exception) {
+            if (!RequestCancellation.isCancelled(request)) {
+                Thread.currentThread().interrupt();
+                throw new RestException("Interrupted while waiting for bulkhead", exception);
+            }
+        }
+        if (RequestCancellation.isCancelled(request)) {
+            // Hand the slot straight to the next request.
+            if (acquired) {
+                bulkhead.release();
+            }
+            throw RequestCancellation.cancelled(request);
+        }
+        if (!acquired) {
+            throw new BulkheadFullException("Bulkhead '" + bulkhead.getName() + "' is full", bulkhead.getName());
+        }
+        return bulkhead;
+    }
+
+    private Bulkhead findBulkhead(final String endpoint) {
+        for (int index = 0; index < endpointBulkheads.size(); index++) {
+            if (endpointBulkheads.get(index).getEndpointPattern().matcher(endpoint).matches()) {
+                return bulkheads.get(index);
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,344 @@
+/**
+ * Copyright 2019 SourceLab.org https://github.com/SourceLabOrg/http-client-wrapper
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit
+ * persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.sourcelab.http.rest.transport;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.sourcelab.http.rest.configuration.CircuitBreakerConfiguration;
+
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Circuit breaker guarding a single endpoint, or group of endpoints.
+ *
+ * While CLOSED, the outcome of each call is recorded in a sliding window of the most recent calls.  Once the failure or
+ * slow call rate reaches its threshold the circuit breaker OPENs, rejecting calls until the wait duration has elapsed.
+ * It then becomes HALF_OPEN, permitting a limited number of trial calls which close it again if they all succeed, or
+ * re-open it on the first failure.
+ *
+ * All state is held in atomics, state transitions are made via compare-and-set.
+ */
+public final class CircuitBreaker {
+    private static final Logger logger = LoggerFactory.getLogger(CircuitBreaker.class);
+
+    /**
+     * Circuit breaker states.
+     */
+    public enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    // Outcome flags recorded in the sliding window, 0 marks an empty slot.
+    private static final int RECORDED = 1;
+    private static final int FAILED = 2;
+    private static final int SLOW = 4;
+
+    private final String name;
+    private final CircuitBreakerConfiguration configuration;
+    private final LongSupplier nanoClock;
+    private final long slowCallDurationInNanos;
+    private final long waitDurationInNanos;
+
+    /**
+     * Current phase, replaced on each state transition.
+     */
+    private final AtomicReference<Phase> phase;
+
+    // Metrics
+    private final LongAdder successfulCalls = new LongAdder();
+    private final LongAdder failedCalls = new LongAdder();
+    private final LongAdder slowCalls = new LongAdder();
+    private final LongAdder notPermittedCalls = new LongAdder();
+    private final LongAdder openedCount = new LongAdder();
+
+    /**
+     * Constructor.
+     * @param name Name of the circuit breaker, the endpoint or endpoint pattern.
+     * @param configuration Defines thresholds and recovery.
+     * @param nanoClock Source of System.nanoTime() style timestamps.
+     */
+    CircuitBreaker(final String name, final CircuitBreakerConfiguration configuration, final LongSupplier nanoClock) {
+        this.name = Objects.requireNonNull(name);
+        this.configuration = Objects.requireNonNull(configuration);
+        this.nanoClock = Objects.requireNonNull(nanoClock);
+        this.slowCallDurationInNanos = TimeUnit.MILLISECONDS.toNanos(configuration.getSlowCallDurationThresholdInMilliseconds());
+        this.waitDurationInNanos = TimeUnit.MILLISECONDS.toNanos(configuration.getWaitDurationInOpenStateInMilliseconds());
+        this.phase = new AtomicReference<>(closed());
+    }
+
+    /**
+     * Attempt to acquire permission for a call.
+     * @return Phase the call was permitted in, to be passed to {@link #onResult(Phase, long, boolean)},
+     *         or NULL if the call is not permitted.
+     */
+    Phase tryAcquirePermission() {
+        while (true) {
+            final Phase current = phase.get();
+            switch (current.state) {
+                case CLOSED:
+                    return current;
+                case OPEN:
+                    if (nanoClock.getAsLong() - current.enteredAtNanos < waitDurationInNanos) {
+                        notPermittedCalls.increment();
+                        return null;
+                    }
+                    transition(current, halfOpen());
+                    break;
+                case HALF_OPEN:
+                    if (current.halfOpenPermits.getAndDecrement() > 0) {
+                        return current;
+                    }
+                    notPermittedCalls.increment();
+                    return null;
+                default:
+                    throw new IllegalStateException("Unknown state " + current.state);
+            }
+        }
+    }
+
+    /**
+     * Record the outcome of a permitted call.
+     * @param permittedIn Phase returned by {@link #tryAcquirePermission()}.
+     * @param durationInNanos Duration of the call.
+     * @param failed true if the call failed.
+     */
+    void onResult(final Phase permittedIn, final long durationInNanos, final boolean failed) {
+        final boolean slow = durationInNanos >= slowCallDurationInNanos;
+        if (failed) {
+            failedCalls.increment();
+        } else {
+            successfulCalls.increment();
+        }
+        if (slow) {
+            slowCalls.increment();
+        }
+
+        if (permittedIn.state == State.CLOSED) {
+            final Window window = permittedIn.window;
+            window.record(RECORDED | (failed ? FAILED : 0) | (slow ? SLOW : 0));
+            if (window.calls.get() >= configuration.getMinimumNumberOfCalls()
+                && (window.getFailureRate() >= configuration.getFailureRateThreshold()
+                || window.getSlowCallRate() >= configuration.getSlowCallRateThreshold())) {
+                transition(permittedIn, open());
+            }
+        } else if (permittedIn.state == State.HALF_OPEN) {
+            if (failed || slow) {
+                transition(permittedIn, open());
+            } else if (permittedIn.halfOpenSuccesses.incrementAndGet() >= configuration.getPermittedCallsInHalfOpenState()) {
+                transition(permittedIn, closed());
+            }
+        }
+        // Results of calls which were permitted before the circuit breaker changed state are ignored.
+    }
+
+    /**
+     * Release a permitted call without recording an outcome, for calls rejected locally before reaching the API host.
+     * @param permittedIn Phase returned by {@link #tryAcquirePermission()}.
+     */
+    void releasePermission(final Phase permittedIn) {
+        if (permittedIn.state == State.HALF_OPEN) {
+            // Return the trial call, so it may be made by another request.
+            permittedIn.halfOpenPermits.incrementAndGet();
+        }
+    }
+
+    private void transition(final Phase from, final Phase to) {
+        if (phase.compareAndSet(from, to)) {
+            if (to.state == State.OPEN) {
+                openedCount.increment();
+                logger.warn("Circuit breaker '{}' changed from {} to {}", name, from.state, to.state);
+            } else {
+                logger.info("Circuit breaker '{}' changed from {} to {}", name, from.state, to.state);
+            }
+        }
+    }
+
+    private Phase closed() {
+        return new Phase(State.CLOSED, nanoClock.getAsLong(), new Window(configuration.getSlidingWindowSize()), 0);
+    }
+
+    private Phase open() {
+        return new Phase(State.OPEN, nanoClock.getAsLong(), null, 0);
+    }
+
+    private Phase halfOpen() {
+        return new Phase(State.HALF_OPEN, nanoClock.getAsLong(), null, configuration.getPermittedCallsInHalfOpenState());
+    }
+
+    /**
+     * Name of the circuit breaker.
+     * @return the endpoint or endpoint pattern the circuit breaker applies to.
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Current state.  An OPEN circuit breaker becomes HALF_OPEN on the first call after the wait duration.
+     * @return current state.
+     */
+    public State getState() {
+        return phase.get().state;
+    }
+
+    /**
+     * Ratio of failed calls in the sliding window.
+     * @return ratio between 0 and 1, or -1 if not CLOSED or fewer than the minimum number of calls were recorded.
+     */
+    public double getFailureRate() {
+        final Phase current = phase.get();
+        if (current.window == null || current.window.calls.get() < configuration.getMinimumNumberOfCalls()) {
+            return -1;
+        }
+        return current.window.getFailureRate();
+    }
+
+    /**
+     * Ratio of slow calls in the sliding window.
+     * @return ratio between 0 and 1, or -1 if not CLOSED or fewer than the minimum number of calls were recorded.
+     */
+    public double getSlowCallRate() {
+        final Phase current = phase.get();
+        if (current.window == null || current.window.calls.get() < configuration.getMinimumNumberOfCalls()) {
+            return -1;
+        }
+        return current.window.getSlowCallRate();
+    }
+
+    /**
+     * Total number of successful calls.
+     * @return number of successful calls.
+     */
+    public long getSuccessfulCallCount() {
+        return successfulCalls.sum();
+    }
+
+    /**
+     * Total number of failed calls.
+     * @return number of failed calls.
+     */
+    public long getFailedCallCount() {
+        return failedCalls.sum();
+    }
+
+    /**
+     * Total number of slow calls, whether successful or not.
+     * @return number of slow calls.
+     */
+    public long getSlowCallCount() {
+        return slowCalls.sum();
+    }
+
+    /**
+     * Total number of calls rejected without contacting the API host.
+     * @return number of rejected calls.
+     */
+    public long getNotPermittedCallCount() {
+        return notPermittedCalls.sum();
+    }
+
+    /**
+     * Number of times the circuit breaker has opened.
+     * @return number of transitions to OPEN.
+     */
+    public long getOpenedCount() {
+        return openedCount.sum();
+    }
+
+    @Override
+    public String toString() {
+        return "CircuitBreaker{"
+            + "name='" + name + '\''
+            + ", state=" + getState()
+            + ", failureRate=" + getFailureRate()
+            + ", slowCallRate=" + getSlowCallRate()
+            + ", notPermittedCalls=" + getNotPermittedCallCount()
+            + ", openedCount=" + getOpenedCount()
+            + '}';
+    }
+
+    /**
+     * A period spent in a single state.
+     */
+    static final class Phase {
+        private final State state;
+        private final long enteredAtNanos;
+
+        // Sliding window, only while CLOSED.
+        private final Window window;
+
+        // Trial calls, only while HALF_OPEN.
+        private final AtomicInteger halfOpenPermits;
+        private final AtomicInteger halfOpenSuccesses = new AtomicInteger();
+
+        private Phase(final State state, final long enteredAtNanos, final Window window, final int halfOpenPermits) {
+            this.state = state;
+            this.enteredAtNanos = enteredAtNanos;
+            this.window = window;
+            this.halfOpenPermits = new AtomicInteger(halfOpenPermits);
+        }
+    }
+
+    /**
+     * Fixed size ring of call outcomes, with running totals maintained as outcomes are replaced.
+     */
+    private static final class Window {
+        private final AtomicIntegerArray outcomes;
+        private final AtomicLong cursor = new AtomicLong();
+        private final AtomicInteger calls = new AtomicInteger();
+        private final AtomicInteger failures = new AtomicInteger();
+        private final AtomicInteger slowCalls = new AtomicInteger();
+
+        private Window(final int size) {
+            this.outcomes = new AtomicIntegerArray(size);
+        }
+
+        void record(final int outcome) {
+            final int index = (int) (cursor.getAndIncrement() % outcomes.length());
+            final int previous = outcomes.getAndSet(index, outcome);
+            if (previous == 0) {
+                calls.incrementAndGet();
+            }
+            failures.addAndGet(flag(outcome, FAILED) - flag(previous, FAILED));
+            slowCalls.addAndGet(flag(outcome, SLOW) - flag(previous, SLOW));
+        }
+
+        double getFailureRate() {
+            final int callCount = calls.get();
+            return callCount == 0 ? 0 : (double) failures.get() / callCount;
+        }
+
+        double getSlowCallRate() {
+            final int callCount = calls.get();
+            return callCount == 0 ? 0 : (double) slowCalls.get() / callCount;
+        }
+
+        private static int flag(final int outcome, final int flag) {
+            return (outcome & flag) == 0 ? 0 : 1;
+        }
+    }
+}
@@ -0,0 +1,169 @@
+/**
+ * Copyright 2019 SourceLab.org https://github.com/SourceLabOrg/http-client-wrapper
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit
+ * persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.sourcelab.http.rest.transport;
+
+import org.sourcelab.http.rest.RestException;
+import org.sourcelab.http.rest.RestResponse;
+import org.sourcelab.http.rest.configuration.CircuitBreakerConfiguration;
+import org.sourcelab.http.rest.configuration.Configuration;
+import org.sourcelab.http.rest.exceptions.CircuitBreakerOpenException;
+import org.sourcelab.http.rest.exceptions.ConcurrencyLimitExceededException;
+import org.sourcelab.http.rest.request.StreamingRequest;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.LongSupplier;
+import java.util.regex.Pattern;
+
+/**
+ * Transport decorator guarding each endpoint with a {@link CircuitBreaker}.  Calls to an endpoint whose circuit
+ * breaker is open fail immediately with a {@link CircuitBreakerOpenException}, without tying up a connection.
+ *
+ * Calls failing with an exception or a 5xx status are recorded as failures, other than those rejected by an
+ * {@link AdaptiveConcurrencyTransport} closer to the wire.  Endpoints matching one of
+ * {@link CircuitBreakerConfiguration#getEndpointPatterns()} share a circuit breaker, other endpoints each have their own
+ * until {@link CircuitBreakerConfiguration#getMaxCircuitBreakers()} is reached, after which further endpoints share
+ * the {@link CircuitBreakerConfiguration#OTHER_ENDPOINTS} circuit breaker.
+ */
+public class CircuitBreakerTransport implements Transport {
+    private final Transport delegate;
+    private final CircuitBreakerConfiguration circuitBreakerConfiguration;
+    private final LongSupplier nanoClock;
+    private final ConcurrentMap<String, CircuitBreaker> circuitBreakers = new ConcurrentHashMap<>();
+
+    /**
+     * Constructor.
+     * @param delegate Transport to execute requests with.
+     * @param circuitBreakerConfiguration Defines circuit breaker thresholds and recovery.
+     */
+    public CircuitBreakerTransport(final Transport delegate, final CircuitBreakerConfiguration circuitBreakerConfiguration) {
+        this(delegate, circuitBreakerConfiguration, System::nanoTime);
+    }
+
+    /**
+     * Constructor.
+     * @param delegate Transport to execute requests with.
+     * @param circuitBreakerConfiguration Defines circuit breaker thresholds and recovery.
+     * @param nanoClock Source of System.nanoTime() style timestamps.
+     */
+    CircuitBreakerTransport(final Transport delegate, final CircuitBreakerConfiguration circuitBreakerConfiguration, final LongSupplier nanoClock) {
+        this.delegate = Objects.requireNonNull(delegate);
+        this.circuitBreakerConfiguration = Objects.requireNonNull(circuitBreakerConfiguration);
+        this.nanoClock = Objects.requireNonNull(nanoClock);
+    }
+
+    @Override
+    public void init(final Configuration configuration) {
+        delegate.init(configuration);
+    }
+
+    @Override
+    public RestResponse execute(final PreparedRequest request) throws RestException {
+        final CircuitBreaker circuitBreaker = getCircuitBreaker(request.getRequest().getApiEndpoint());
+        final CircuitBreaker.Phase permit = acquirePermission(circuitBreaker);
+
+        final long start = nanoClock.getAsLong();
+        try {
+            final RestResponse response = delegate.execute(request);
+            circuitBreaker.onResult(permit, nanoClock.getAsLong() - start, response.getHttpCode() >= 500);
+            return response;
+        } catch (final RuntimeException exception) {
+            onException(circuitBreaker, permit, request, nanoClock.getAsLong() - start, exception);
+            throw exception;
+        }
+    }
+
+    @Override
+    public <T> T executeStreaming(final PreparedRequest request, final StreamingRequest<T> streamingRequest) throws RestException {
+        final CircuitBreaker circuitBreaker = getCircuitBreaker(request.getRequest().getApiEndpoint());
+        final CircuitBreaker.Phase permit = acquirePermission(circuitBreaker);
+
+        // The response status is handled by the request's parser, so only exceptions are recorded as failures.
+        final long start = nanoClock.getAsLong();
+        try {
+            final T result = delegate.executeStreaming(request, streamingRequest);
+            circuitBreaker.onResult(permit, nanoClock.getAsLong() - start, false);
+            return result;
+        } catch (final RuntimeException exception) {
+            onException(circuitBreaker, permit, request, nanoClock.getAsLong() - start, exception);
+            throw exception;
+        }
+    }
+
+    @Override
+    public void close() {
+        delegate.close();
+    }
+
+    /**
+     * Circuit breakers created so far, one per endpoint or endpoint pattern.
+     * @return Unmodifiable view of circuit breakers.
+     */
+    public Collection<CircuitBreaker> getCircuitBreakers() {
+        return Collections.unmodifiableCollection(circuitBreakers.values());
+    }
+
+    /**
+     * Get the circuit breaker guarding the given endpoint, creating it if required.
+     * @param endpoint The request endpoint.
+     * @return CircuitBreaker instance.
+     */
+    CircuitBreaker getCircuitBreaker(final String endpoint) {
+        String name = endpoint;
+        for (final Pattern pattern : circuitBreakerConfiguration.getEndpointPatterns()) {
+            if (pattern.matcher(endpoint).matches()) {
+                name = pattern.pattern();
+                break;
+            }
+        }
+        if (circuitBreakers.size() >= circuitBreakerConfiguration.getMaxCircuitBreakers() && !circuitBreakers.containsKey(name)) {
+            name = CircuitBreakerConfiguration.OTHER_ENDPOINTS;
+        }
+        return circuitBreakers.computeIfAbsent(name, key -> new CircuitBreaker(key, circuitBreakerConfiguration, nanoClock));
+    }
+
+    /**
+     * Record a call failing with an exception.  Calls rejected locally, before reaching the API host, and calls
+     * cancelled by the client, say what the client is doing rather than the health of the endpoint, so are not recorded.
+     */
+    private static void onException(
+        final CircuitBreaker circuitBreaker,
+        final CircuitBreaker.Phase permit,
+        final PreparedRequest request,
+        final long durationInNanos,
+        final RuntimeException exception) {
+        if (exception instanceof ConcurrencyLimitExceededException || RequestCancellation.isCancelled(request)) {
+            circuitBreaker.releasePermission(permit);
+        } else {
+            circuitBreaker.onResult(permit, durationInNanos, true);
+        }
+    }
+
+    private static CircuitBreaker.Phase acquirePermission(final CircuitBreaker circuitBreaker) {
+        final CircuitBreaker.Phase permit = circuitBreaker.tryAcquirePermission();
+        if (permit == null) {
+            throw new CircuitBreakerOpenException(
+                "Circuit breaker '" + circuitBreaker.getName() + "' is " + circuitBreaker.getState(), circuitBreaker.getName()
+            );
+        }
+        return permit;
+    }
+}
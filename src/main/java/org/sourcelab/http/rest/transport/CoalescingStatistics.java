@@ -0,0 +1,71 @@
+/**
+ * Copyright 2019 SourceLab.org https://github.com/SourceLabOrg/http-client-wrapper
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit
+ * persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.sourcelab.http.rest.transport;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters describing how effective a {@link CoalescingTransport} is.
+ */
+public final class CoalescingStatistics {
+    private final LongAdder executions = new LongAdder();
+    private final LongAdder collapsed = new LongAdder();
+
+    void recordExecution() {
+        executions.increment();
+    }
+
+    void recordCollapsed() {
+        collapsed.increment();
+    }
+
+    /**
+     * Number of coalescable requests sent to the API host.
+     * @return number of executions.
+     */
+    public long getExecutionCount() {
+        return executions.sum();
+    }
+
+    /**
+     * Number of requests which shared the response of an identical request already in flight, rather than
+     * being sent to the API host.
+     * @return number of collapsed requests.
+     */
+    public long getCollapsedCount() {
+        return collapsed.sum();
+    }
+
+    /**
+     * Ratio of coalescable requests which were collapsed.
+     * @return ratio between 0 and 1.
+     */
+    public double getCollapsedRatio() {
+        final long collapsedCount = getCollapsedCount();
+        final long total = collapsedCount + getExecutionCount();
+        return total == 0 ? 0 : (double) collapsedCount / total;
+    }
+
+    @Override
+    public String toString() {
+        return "CoalescingStatistics{"
+            + "executions=" + getExecutionCount()
+            + ", collapsed=" + getCollapsedCount()
+            + '}';
+    }
+}
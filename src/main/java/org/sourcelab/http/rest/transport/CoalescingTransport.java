@@ -0,0 +1,168 @@
+/**
+ * Copyright 2019 SourceLab.org https://github.com/SourceLabOrg/http-client-wrapper
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit
+ * persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.sourcelab.http.rest.transport;
+
+import org.sourcelab.http.rest.RestException;
+import org.sourcelab.http.rest.RestResponse;
+import org.sourcelab.http.rest.configuration.CoalescingConfiguration;
+import org.sourcelab.http.rest.configuration.Configuration;
+import org.sourcelab.http.rest.request.RequestHeader;
+import org.sourcelab.http.rest.request.RequestMethod;
+import org.sourcelab.http.rest.request.StreamingRequest;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Transport decorator which coalesces identical concurrent GET requests.  While a request is in flight, identical
+ * requests wait for and share its {@link RestResponse}, or its exception, rather than each being sent to the API host.
+ *
+ * Requests are identified by their final url, after request interceptors have been applied, plus the request headers
+ * named by {@link CoalescingConfiguration#getKeyHeaders()}.  Conditional and Range headers are always part of the
+ * identity, so a plain request never shares a 304 or 206 response with a revalidation or range request.  Streaming
+ * requests are never coalesced, as the response body stream can only be consumed once.
+ */
+public class CoalescingTransport implements Transport {
+    /**
+     * Request headers which change the response status and body, always distinguishing one request from another.
+     */
+    private static final List<String> CONDITIONAL_HEADERS = Arrays.asList(
+        "if-none-match", "if-modified-since", "if-range", "range"
+    );
+
+    private final Transport delegate;
+    private final List<String> keyHeaders;
+    private final CoalescingStatistics statistics = new CoalescingStatistics();
+
+    /**
+     * Requests currently in flight, keyed by request identity.
+     */
+    private final ConcurrentMap<String, CompletableFuture<RestResponse>> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * Constructor.
+     * @param delegate Transport to execute requests with.
+     * @param coalescingConfiguration Defines how requests are identified.
+     */
+    public CoalescingTransport(final Transport delegate, final CoalescingConfiguration coalescingConfiguration) {
+        this.delegate = Objects.requireNonNull(delegate);
+        final List<String> keyHeaders = new ArrayList<>(coalescingConfiguration.getKeyHeaders());
+        for (final String conditionalHeader : CONDITIONAL_HEADERS) {
+            if (!keyHeaders.contains(conditionalHeader)) {
+                keyHeaders.add(conditionalHeader);
+            }
+        }
+        this.keyHeaders = keyHeaders;
+    }
+
+    @Override
+    public void init(final Configuration configuration) {
+        delegate.init(configuration);
+    }
+
+    @Override
+    public RestResponse execute(final PreparedRequest request) throws RestException {
+        if (request.getRequestMethod() != RequestMethod.GET) {
+            return delegate.execute(request);
+        }
+
+        final String key = buildKey(request);
+        final CompletableFuture<RestResponse> future = new CompletableFuture<>();
+        final CompletableFuture<RestResponse> existing = inFlight.putIfAbsent(key, future);
+        if (existing != null) {
+            statistics.recordCollapsed();
+            return await(existing);
+        }
+
+        // We're the leader, execute on the calling thread and publish the outcome to any followers.
+        statistics.recordExecution();
+        try {
+            final RestResponse response = delegate.execute(request);
+            inFlight.remove(key, future);
+            future.complete(response);
+            return response;
+        } catch (final RuntimeException | Error exception) {
+            inFlight.remove(key, future);
+            future.completeExceptionally(exception);
+            throw exception;
+        }
+    }
+
+    @Override
+    public <T> T executeStreaming(final PreparedRequest request, final StreamingRequest<T> streamingRequest) throws RestException {
+        return delegate.executeStreaming(request, streamingRequest);
+    }
+
+    @Override
+    public void close() {
+        delegate.close();
+    }
+
+    /**
+     * Counters describing how many requests were coalesced.
+     * @return statistics instance.
+     */
+    public CoalescingStatistics getStatistics() {
+        return statistics;
+    }
+
+    /**
+     * Number of distinct requests currently in flight.
+     * @return number of in flight requests.
+     */
+    public int getInFlightCount() {
+        return inFlight.size();
+    }
+
+    private String buildKey(final PreparedRequest request) {
+        final StringBuilder key = new StringBuilder(request.getRequestMethod().name())
+            .append(' ')
+            .append(request.getUrl());
+
+        for (final String keyHeader : keyHeaders) {
+            for (final RequestHeader header : request.getHeaders()) {
+                if (header.getName().toLowerCase(Locale.ROOT).equals(keyHeader)) {
+                    key.append('\n').append(keyHeader).append(": ").append(header.getValue());
+                }
+            }
+        }
+        return key.toString();
+    }
+
+    private static RestResponse await(final CompletableFuture<RestResponse> future) {
+        try {
+            return future.join();
+        } catch (final CompletionException exception) {
+            // Rethrow the leader's exception as is.
+            if (exception.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) exception.getCause();
+            }
+            if (exception.getCause() instanceof Error) {
+                throw (Error) exception.getCause();
+            }
+            throw new RestException(exception.getCause().getMessage(), exception.getCause());
+        }
+    }
+}
@@ -0,0 +1,93 @@
+/**
+ * Copyright 2019 SourceLab.org https://github.com/SourceLabOrg/http-client-wrapper
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit
+ * persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.sourcelab.http.rest.transport;
+
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.pool.PoolStats;
+import org.sourcelab.http.rest.metrics.LatencyHistogram;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Live view of the connection pool used by an {@link HttpClientTransport}.  Use it to tell whether slow requests are
+ * waiting on the API host, or on a free connection.
+ */
+public final class ConnectionPoolMetrics {
+    private final InstrumentedConnectionManager connectionManager;
+
+    /**
+     * Constructor.
+     * @param connectionManager The instrumented connection manager.
+     */
+    ConnectionPoolMetrics(final InstrumentedConnectionManager connectionManager) {
+        this.connectionManager = Objects.requireNonNull(connectionManager);
+    }
+
+    /**
+     * Current usage of the whole pool.
+     * @return pool stats.
+     */
+    public ConnectionPoolStats getTotalStats() {
+        return toStats(null, connectionManager.getTotalStats());
+    }
+
+    /**
+     * Current usage of each route the pool holds connections for.
+     * @return Unmodifiable list of route stats.
+     */
+    public List<ConnectionPoolStats> getRouteStats() {
+        final List<ConnectionPoolStats> routeStats = new ArrayList<>();
+        for (final HttpRoute route : connectionManager.getRoutes()) {
+            routeStats.add(toStats(route.getTargetHost().toURI(), connectionManager.getStats(route)));
+        }
+        return Collections.unmodifiableList(routeStats);
+    }
+
+    /**
+     * Time requests spent waiting to lease a connection, before being sent.
+     * @return lease wait histogram.
+     */
+    public LatencyHistogram getLeaseWait() {
+        return connectionManager.getLeaseWait();
+    }
+
+    /**
+     * Number of requests which gave up waiting for a connection, as the pool lease timeout expired.
+     * @return number of lease timeouts.
+     */
+    public long getLeaseTimeoutCount() {
+        return connectionManager.getLeaseTimeoutCount();
+    }
+
+    private static ConnectionPoolStats toStats(final String route, final PoolStats poolStats) {
+        return new ConnectionPoolStats(route, poolStats.getLeased(), poolStats.getAvailable(), poolStats.getPending(), poolStats.getMax());
+    }
+
+    @Override
+    public String toString() {
+        return "ConnectionPoolMetrics{"
+            + "total=" + getTotalStats()
+            + ", routes=" + getRouteStats()
+            + ", leaseWait=" + getLeaseWait()
+            + ", leaseTimeouts=" + getLeaseTimeoutCount()
+            + '}';
+    }
+}
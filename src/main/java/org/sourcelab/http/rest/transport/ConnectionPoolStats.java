@@ -0,0 +1,96 @@
+/**
+ * Copyright 2019 SourceLab.org https://github.com/SourceLabOrg/http-client-wrapper
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit
+ * persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.sourcelab.http.rest.transport;
+
+/**
+ * Point in time usage of a connection pool, either in total or for a single route.
+ */
+public final class ConnectionPoolStats {
+    private final String route;
+    private final int leased;
+    private final int available;
+    private final int pending;
+    private final int max;
+
+    /**
+     * Constructor.
+     * @param route The route, or NULL for the pool total.
+     * @param leased Number of connections in use.
+     * @param available Number of idle connections.
+     * @param pending Number of requests waiting for a connection.
+     * @param max Maximum number of connections.
+     */
+    ConnectionPoolStats(final String route, final int leased, final int available, final int pending, final int max) {
+        this.route = route;
+        this.leased = leased;
+        this.available = available;
+        this.pending = pending;
+        this.max = max;
+    }
+
+    /**
+     * The route these stats apply to.
+     * @return the target host, or NULL for the pool total.
+     */
+    public String getRoute() {
+        return route;
+    }
+
+    /**
+     * Number of connections in use by requests.
+     * @return leased connections.
+     */
+    public int getLeased() {
+        return leased;
+    }
+
+    /**
+     * Number of idle connections ready to be leased.
+     * @return available connections.
+     */
+    public int getAvailable() {
+        return available;
+    }
+
+    /**
+     * Number of requests waiting for a connection.
+     * @return pending requests.
+     */
+    public int getPending() {
+        return pending;
+    }
+
+    /**
+     * Maximum number of connections.
+     * @return connection limit.
+     */
+    public int getMax() {
+        return max;
+    }
+
+    @Override
+    public String toString() {
+        return "ConnectionPoolStats{"
+            + (route == null ? "" : "route='" + route + "', ")
+            + "leased=" + leased
+            + ", available=" + available
+            + ", pending=" + pending
+            + ", max=" + max
+            + '}';
+    }
+}
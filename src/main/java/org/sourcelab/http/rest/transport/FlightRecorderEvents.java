@@ -0,0 +1,156 @@
+/**
+ * Copyright 2019 SourceLab.org https://github.com/SourceLabOrg/http-client-wrapper
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit
+ * persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.sourcelab.http.rest.transport;
+
+import org.apache.http.conn.routing.HttpRoute;
+
+import java.lang.reflect.InvocationTargetException;
+import java.net.Socket;
+
+/**
+ * Emits Java Flight Recorder events for request execution, connection leases, TLS handshakes and response parsing,
+ * so slow requests line up with GC pauses and lock contention in the same recording.
+ *
+ * Each begin method returns a handle to pass to the matching end method, or NULL when the event is not being
+ * recorded, in which case nothing is allocated.  Events are only emitted once opted in via
+ * {@link org.sourcelab.http.rest.configuration.BasicConfiguration#useFlightRecorderEvents()}, and only on JVMs
+ * providing the jdk.jfr module, the event classes are loaded reflectively so this library continues to run on JDK 8.
+ */
+abstract class FlightRecorderEvents {
+
+    /**
+     * Emits no events.
+     */
+    static final FlightRecorderEvents NONE = new FlightRecorderEvents() {
+        @Override
+        Object beginRequest() {
+            return null;
+        }
+
+        @Override
+        void endRequest(final Object handle, final PreparedRequest request, final RuntimeException failure) {
+        }
+
+        @Override
+        Object beginConnectionLease() {
+            return null;
+        }
+
+        @Override
+        void endConnectionLease(final Object handle, final HttpRoute route, final boolean reused) {
+        }
+
+        @Override
+        Object beginTlsHandshake() {
+            return null;
+        }
+
+        @Override
+        void endTlsHandshake(final Object handle, final String host, final int port, final Socket socket) {
+        }
+
+        @Override
+        Object beginResponseParse() {
+            return null;
+        }
+
+        @Override
+        void endResponseParse(final Object handle, final Object requestHandle, final int httpCode, final long bytesReceived) {
+        }
+    };
+
+    /**
+     * Create an instance emitting events if enabled and supported by the running JVM.
+     * @param enabled Whether events were opted in to.
+     * @return instance, {@link #NONE} if not enabled or supported.
+     */
+    static FlightRecorderEvents create(final boolean enabled) {
+        if (!enabled) {
+            return NONE;
+        }
+        try {
+            Class.forName("jdk.jfr.Event");
+            return (FlightRecorderEvents) Class.forName(FlightRecorderEvents.class.getPackage().getName() + ".JfrFlightRecorderEvents")
+                .getDeclaredConstructor()
+                .newInstance();
+        } catch (final ClassNotFoundException | NoSuchMethodException | InstantiationException | IllegalAccessException
+            | InvocationTargetException exception) {
+            throw new UnsupportedOperationException(
+                "Flight recorder events require the jdk.jfr module, running " + System.getProperty("java.version"), exception
+            );
+        }
+    }
+
+    /**
+     * Begin timing the execution of a request, from leasing a connection until the response has been handled.
+     * @return handle, or NULL if not recording.
+     */
+    abstract Object beginRequest();
+
+    /**
+     * Commit the request event.
+     * @param handle handle returned by {@link #beginRequest()}.
+     * @param request The request.
+     * @param failure The exception the request failed with, or NULL if successful.
+     */
+    abstract void endRequest(Object handle, PreparedRequest request, RuntimeException failure);
+
+    /**
+     * Begin timing leasing a connection from the pool.
+     * @return handle, or NULL if not recording.
+     */
+    abstract Object beginConnectionLease();
+
+    /**
+     * Commit the connection lease event.
+     * @param handle handle returned by {@link #beginConnectionLease()}.
+     * @param route The route a connection was leased for.
+     * @param reused Whether the leased connection is already open, false if the lease failed.
+     */
+    abstract void endConnectionLease(Object handle, HttpRoute route, boolean reused);
+
+    /**
+     * Begin timing a TLS handshake.
+     * @return handle, or NULL if not recording.
+     */
+    abstract Object beginTlsHandshake();
+
+    /**
+     * Commit the TLS handshake event.
+     * @param handle handle returned by {@link #beginTlsHandshake()}.
+     * @param host The host connected to.
+     * @param port The port connected to.
+     * @param socket The TLS socket, or NULL if the handshake failed.
+     */
+    abstract void endTlsHandshake(Object handle, String host, int port, Socket socket);
+
+    /**
+     * Begin timing reading and parsing the response body.
+     * @return handle, or NULL if not recording.
+     */
+    abstract Object beginResponseParse();
+
+    /**
+     * Commit the response parse event, also recording the response status and size on the request event.
+     * @param handle handle returned by {@link #beginResponseParse()}.
+     * @param requestHandle handle returned by {@link #beginRequest()}.
+     * @param httpCode The http status code of the response.
+     * @param bytesReceived Size of the response body, or -1 if unknown.
+     */
+    abstract void endResponseParse(Object handle, Object requestHandle, int httpCode, long bytesReceived);
+}
@@ -0,0 +1,331 @@
+/**
+ * Copyright 2019 SourceLab.org https://github.com/SourceLabOrg/http-client-wrapper
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit
+ * persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.sourcelab.http.rest.transport;
+
+import org.sourcelab.http.rest.RestException;
+import org.sourcelab.http.rest.RestResponse;
+import org.sourcelab.http.rest.configuration.Configuration;
+import org.sourcelab.http.rest.configuration.HedgingConfiguration;
+import org.sourcelab.http.rest.request.StreamingRequest;
+
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.regex.Pattern;
+
+/**
+ * Transport decorator which hedges slow requests.  If no response has arrived within the hedge delay, a duplicate
+ * request is sent and whichever response arrives first is returned.  The other attempt is aborted via its
+ * {@link RequestCancellation}, releasing its connection, and is not recorded as a failure by circuit breakers or the
+ * adaptive concurrency limit.
+ *
+ * The original request is sent on the calling thread.  Only hedges are sent on the hedge executor, which is bounded by
+ * {@link HedgingConfiguration#getMaxConcurrentHedges()} unless supplied via {@link HedgingConfiguration#getHedgeExecutor()}.
+ * A slow request is not hedged while the hedge executor is busy.
+ *
+ * The hedge delay is either fixed, or a latency percentile measured per endpoint or endpoint pattern, see
+ * {@link HedgingConfiguration#getHedgeDelayPercentile()}.  Percentiles are measured for at most
+ * {@link HedgingConfiguration#getMaxLatencyTrackers()} endpoints, further endpoints share a single percentile.  Only request methods nominated by
+ * {@link HedgingConfiguration#getHedgedMethods()} are hedged, and hedges are limited by a {@link RequestBudget} shared
+ * by all requests.  Streaming requests are never hedged, as the response body stream is consumed by the request's parser.
+ */
+public class HedgingTransport implements Transport {
+    private static final AtomicInteger TRANSPORT_COUNTER = new AtomicInteger();
+
+    private final Transport delegate;
+    private final HedgingConfiguration hedgingConfiguration;
+    private final RequestBudget hedgeBudget;
+    private final HedgingStatistics statistics = new HedgingStatistics();
+
+    /**
+     * Latency trackers, keyed by endpoint or endpoint pattern.  Only populated when hedging after a latency percentile.
+     */
+    private final ConcurrentMap<String, LatencyTracker> latencyTrackers = new ConcurrentHashMap<>();
+
+    /**
+     * Sends hedges once the hedge delay has passed without a response.  Only hands hedges to the hedge executor, so a
+     * single thread suffices.
+     */
+    private final ScheduledThreadPoolExecutor hedgeTimer;
+
+    /**
+     * Executes hedge requests.  Either supplied via the configuration, or owned by this transport and shut down on close.
+     */
+    private final Executor hedgeExecutor;
+    private final ExecutorService ownedHedgeExecutor;
+
+    /**
+     * Constructor.
+     * @param delegate Transport to execute requests with.
+     * @param hedgingConfiguration Defines when requests are hedged.
+     */
+    public HedgingTransport(final Transport delegate, final HedgingConfiguration hedgingConfiguration) {
+        this.delegate = Objects.requireNonNull(delegate);
+        this.hedgingConfiguration = Objects.requireNonNull(hedgingConfiguration);
+        this.hedgeBudget = new RequestBudget(hedgingConfiguration.getHedgeBudgetRatio(), hedgingConfiguration.getMaxHedgeBudget());
+
+        final int transportId = TRANSPORT_COUNTER.incrementAndGet();
+        this.hedgeTimer = new ScheduledThreadPoolExecutor(1, new HedgeThreadFactory("rest-client-hedge-timer-" + transportId));
+        this.hedgeTimer.setRemoveOnCancelPolicy(true);
+
+        if (hedgingConfiguration.getHedgeExecutor() != null) {
+            this.ownedHedgeExecutor = null;
+            this.hedgeExecutor = hedgingConfiguration.getHedgeExecutor();
+        } else {
+            // Hand off without queueing, rejecting hedges while every thread is busy.
+            this.ownedHedgeExecutor = new ThreadPoolExecutor(
+                0, hedgingConfiguration.getMaxConcurrentHedges(),
+                60, TimeUnit.SECONDS,
+                new SynchronousQueue<>(),
+                new HedgeThreadFactory("rest-client-hedge-" + transportId)
+            );
+            this.hedgeExecutor = ownedHedgeExecutor;
+        }
+    }
+
+    @Override
+    public void init(final Configuration configuration) {
+        delegate.init(configuration);
+    }
+
+    @Override
+    public RestResponse execute(final PreparedRequest request) throws RestException {
+        if (!hedgingConfiguration.getHedgedMethods().contains(request.getRequestMethod())) {
+            return delegate.execute(request);
+        }
+        hedgeBudget.deposit();
+
+        final LatencyTracker latencyTracker = getLatencyTracker(request.getRequest().getApiEndpoint());
+        final HedgedRequest hedgedRequest = new HedgedRequest(request, latencyTracker);
+        final ScheduledFuture<?> hedgeTimeout = hedgeTimer.schedule(
+            hedgedRequest::sendHedge, getHedgeDelayInNanos(latencyTracker), TimeUnit.NANOSECONDS
+        );
+        try {
+            hedgedRequest.executeOriginal();
+        } finally {
+            hedgeTimeout.cancel(false);
+        }
+        return hedgedRequest.awaitResult();
+    }
+
+    @Override
+    public <T> T executeStreaming(final PreparedRequest request, final StreamingRequest<T> streamingRequest) throws RestException {
+        return delegate.executeStreaming(request, streamingRequest);
+    }
+
+    @Override
+    public void close() {
+        hedgeTimer.shutdownNow();
+        if (ownedHedgeExecutor != null) {
+            ownedHedgeExecutor.shutdownNow();
+        }
+        delegate.close();
+    }
+
+    /**
+     * Counters describing how often requests were hedged.
+     * @return statistics instance.
+     */
+    public HedgingStatistics getStatistics() {
+        return statistics;
+    }
+
+    /**
+     * Number of hedges currently available in the hedge budget.
+     * @return available hedges.
+     */
+    public double getAvailableHedgeBudget() {
+        return hedgeBudget.getAvailable();
+    }
+
+    /**
+     * Get the latency tracker for the given endpoint, creating it if required.
+     * @param endpoint The request endpoint.
+     * @return LatencyTracker instance, or NULL if hedging after a fixed delay.
+     */
+    LatencyTracker getLatencyTracker(final String endpoint) {
+        if (hedgingConfiguration.getHedgeDelayPercentile() <= 0) {
+            return null;
+        }
+        String name = endpoint;
+        for (final Pattern pattern : hedgingConfiguration.getEndpointPatterns()) {
+            if (pattern.matcher(endpoint).matches()) {
+                name = pattern.pattern();
+                break;
+            }
+        }
+        if (latencyTrackers.size() >= hedgingConfiguration.getMaxLatencyTrackers() && !latencyTrackers.containsKey(name)) {
+            name = HedgingConfiguration.OTHER_ENDPOINTS;
+        }
+        return latencyTrackers.computeIfAbsent(name, (key) -> new LatencyTracker(hedgingConfiguration.getHedgeDelayPercentile()));
+    }
+
+    private long getHedgeDelayInNanos(final LatencyTracker latencyTracker) {
+        if (latencyTracker != null) {
+            final long percentileInNanos = latencyTracker.getPercentileInNanos();
+            if (percentileInNanos >= 0) {
+                return percentileInNanos;
+            }
+        }
+        return TimeUnit.MILLISECONDS.toNanos(hedgingConfiguration.getHedgeDelayInMilliseconds());
+    }
+
+    /**
+     * The original and hedge attempts of a single request.  The first success completes the result and aborts the other
+     * attempt, while a failure only completes the result once no other attempt is outstanding.
+     *
+     * The latency recorded is the latency seen by the caller, from sending the original to the first success.  Recording
+     * the winning attempt's own latency would leave out slow originals aborted by a hedge, dragging the percentile, and
+     * so the hedge delay, ever lower.
+     */
+    private final class HedgedRequest {
+        private final PreparedRequest request;
+        private final LatencyTracker latencyTracker;
+        private final long start = System.nanoTime();
+        private final CompletableFuture<RestResponse> result = new CompletableFuture<>();
+        private final RequestCancellation originalCancellation = new RequestCancellation();
+        private final RequestCancellation hedgeCancellation = new RequestCancellation();
+        private final AtomicInteger outstandingAttempts = new AtomicInteger(1);
+        private final AtomicReference<RuntimeException> firstFailure = new AtomicReference<>();
+
+        private HedgedRequest(final PreparedRequest request, final LatencyTracker latencyTracker) {
+            this.request = request;
+            this.latencyTracker = latencyTracker;
+        }
+
+        void executeOriginal() {
+            executeAttempt(originalCancellation, hedgeCancellation, false);
+        }
+
+        /**
+         * Called by the hedge timer, sends the hedge unless the original attempt has already completed.
+         */
+        void sendHedge() {
+            // Only hedge while the original attempt is outstanding.
+            int outstanding = outstandingAttempts.get();
+            while (outstanding > 0 && !outstandingAttempts.compareAndSet(outstanding, outstanding + 1)) {
+                outstanding = outstandingAttempts.get();
+            }
+            if (outstanding == 0) {
+                return;
+            }
+
+            if (!hedgeBudget.tryWithdraw()) {
+                statistics.recordBudgetExhausted();
+                onAttemptCompleted();
+                return;
+            }
+            try {
+                hedgeExecutor.execute(() -> executeAttempt(hedgeCancellation, originalCancellation, true));
+            } catch (final RejectedExecutionException exception) {
+                statistics.recordRejected();
+                onAttemptCompleted();
+            }
+        }
+
+        RestResponse awaitResult() {
+            try {
+                return result.get();
+            } catch (final InterruptedException exception) {
+                hedgeCancellation.cancel();
+                Thread.currentThread().interrupt();
+                throw new RestException("Interrupted while waiting for response", exception);
+            } catch (final ExecutionException exception) {
+                throw unwrap(exception);
+            }
+        }
+
+        private void executeAttempt(final RequestCancellation cancellation, final RequestCancellation other, final boolean hedge) {
+            try {
+                // Aborted by the other attempt before starting.
+                if (cancellation.isCancelled()) {
+                    return;
+                }
+                if (hedge) {
+                    statistics.recordHedge();
+                }
+                final RestResponse response = delegate.execute(request.withCancellation(cancellation));
+                if (result.complete(response)) {
+                    if (latencyTracker != null) {
+                        latencyTracker.record(System.nanoTime() - start);
+                    }
+                    if (hedge) {
+                        statistics.recordHedgeWin();
+                    }
+                    other.cancel();
+                }
+            } catch (final RuntimeException exception) {
+                firstFailure.compareAndSet(null, exception);
+            } finally {
+                onAttemptCompleted();
+            }
+        }
+
+        private void onAttemptCompleted() {
+            // Fail only once every attempt has failed, a no-op if an attempt succeeded.
+            if (outstandingAttempts.decrementAndGet() == 0) {
+                final RuntimeException failure = firstFailure.get();
+                result.completeExceptionally(failure != null ? failure : new RestException("Hedged request failed"));
+            }
+        }
+    }
+
+    private static RuntimeException unwrap(final ExecutionException exception) {
+        // Rethrow the attempt's exception as is.
+        final Throwable cause = exception.getCause();
+        if (cause instanceof RuntimeException) {
+            return (RuntimeException) cause;
+        }
+        if (cause instanceof Error) {
+            throw (Error) cause;
+        }
+        return new RestException(cause.getMessage(), cause);
+    }
+
+    /**
+     * Names hedge threads, and marks them as daemon threads so an unclosed transport cannot hold the JVM open.
+     */
+    private static class HedgeThreadFactory implements ThreadFactory {
+        private final String namePrefix;
+        private final AtomicInteger threadCounter = new AtomicInteger();
+
+        HedgeThreadFactory(final String namePrefix) {
+            this.namePrefix = namePrefix;
+        }
+
+        @Override
+        public Thread newThread(final Runnable runnable) {
+            final Thread thread = new Thread(runnable, namePrefix + "-" + threadCounter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
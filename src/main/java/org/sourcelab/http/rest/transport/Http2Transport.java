@@ -0,0 +1,307 @@
+/**
+ * Copyright 2019 SourceLab.org https://github.com/SourceLabOrg/http-client-wrapper
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit
+ * persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.sourcelab.http.rest.transport;
+
+import org.apache.hc.client5.http.ConnectTimeoutException;
+import org.apache.hc.client5.http.async.methods.SimpleHttpRequest;
+import org.apache.hc.client5.http.async.methods.SimpleHttpResponse;
+import org.apache.hc.client5.http.auth.AuthScope;
+import org.apache.hc.client5.http.auth.UsernamePasswordCredentials;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.async.CloseableHttpAsyncClient;
+import org.apache.hc.client5.http.impl.async.H2AsyncClientBuilder;
+import org.apache.hc.client5.http.impl.auth.BasicAuthCache;
+import org.apache.hc.client5.http.impl.auth.BasicCredentialsProvider;
+import org.apache.hc.client5.http.impl.auth.BasicScheme;
+import org.apache.hc.client5.http.protocol.HttpClientContext;
+import org.apache.hc.client5.http.ssl.ClientTlsStrategyBuilder;
+import org.apache.hc.core5.concurrent.FutureCallback;
+import org.apache.hc.core5.http.ConnectionClosedException;
+import org.apache.hc.core5.http.ContentType;
+import org.apache.hc.core5.http.Header;
+import org.apache.hc.core5.http.HttpHost;
+import org.apache.hc.core5.io.CloseMode;
+import org.apache.hc.core5.reactor.IOReactorConfig;
+import org.apache.hc.core5.util.Timeout;
+import org.sourcelab.http.rest.ResponseHeader;
+import org.sourcelab.http.rest.RestException;
+import org.sourcelab.http.rest.RestResponse;
+import org.sourcelab.http.rest.configuration.Configuration;
+import org.sourcelab.http.rest.exceptions.ConnectionException;
+import org.sourcelab.http.rest.exceptions.ResultParsingException;
+import org.sourcelab.http.rest.request.RequestHeader;
+
+import javax.net.ssl.SSLException;
+import java.io.IOException;
+import java.net.MalformedURLException;
+import java.net.SocketException;
+import java.net.SocketTimeoutException;
+import java.net.URI;
+import java.net.URL;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Non-blocking Transport implementation speaking HTTP/2 using HttpClient 5.  Concurrent requests to the API host
+ * are multiplexed as streams over a single connection, rather than requiring a connection per in-flight request.
+ *
+ * The API host must support HTTP/2, negotiated via ALPN for https, or with prior knowledge (h2c) for http.
+ * Proxies are not supported.
+ *
+ * Requires the optional org.apache.httpcomponents.client5:httpclient5 dependency.
+ */
+public class Http2Transport implements AsyncTransport {
+    /**
+     * Name used to select this transport.
+     */
+    public static final String NAME = "http2";
+
+    /**
+     * Our underlying Http Client.
+     */
+    private CloseableHttpAsyncClient httpClient;
+
+    /**
+     * Credentials for the API host, if configured.
+     */
+    private BasicCredentialsProvider credentialsProvider;
+
+    /**
+     * Used to preemptively send authentication.
+     */
+    private BasicAuthCache authCache;
+
+    /**
+     * Constructor.
+     */
+    public Http2Transport() {
+    }
+
+    /**
+     * Initialization method.  This takes in the configuration and sets up the underlying
+     * http client appropriately.
+     * @param configuration The user defined configuration.
+     */
+    @Override
+    public void init(final Configuration configuration) {
+        if (configuration.getProxyConfiguration() != null) {
+            throw new IllegalArgumentException("Proxy configuration is not supported by " + getClass().getSimpleName());
+        }
+
+        // Create https context builder utility.
+        final HttpsContextBuilder httpsContextBuilder = new HttpsContextBuilder(configuration);
+
+        // Define authentication
+        credentialsProvider = new BasicCredentialsProvider();
+        authCache = new BasicAuthCache();
+        if (configuration.getBasicAuthUsername() != null) {
+            try {
+                // parse ApiHost for Hostname and port.
+                final URL apiUrl = new URL(configuration.getApiHost());
+                final UsernamePasswordCredentials credentials = new UsernamePasswordCredentials(
+                    configuration.getBasicAuthUsername(),
+                    configuration.getBasicAuthPassword() == null ? new char[0] : configuration.getBasicAuthPassword().toCharArray()
+                );
+
+                // Add credentials
+                credentialsProvider.setCredentials(new AuthScope(apiUrl.getHost(), apiUrl.getPort()), credentials);
+
+                // Preemptive load context with authentication.
+                final BasicScheme basicScheme = new BasicScheme();
+                basicScheme.initPreemptive(credentials);
+                authCache.put(new HttpHost(apiUrl.getProtocol(), apiUrl.getHost(), apiUrl.getPort()), basicScheme);
+            } catch (final MalformedURLException exception) {
+                throw new RuntimeException(exception.getMessage(), exception);
+            }
+        }
+
+        // build http client
+        httpClient = H2AsyncClientBuilder.create()
+            // Define TLS using our configured SSL Context, HTTP/2 is negotiated via ALPN.
+            .setTlsStrategy(ClientTlsStrategyBuilder.create()
+                .setSslContext(httpsContextBuilder.getSslContext())
+                .setTlsVersions(httpsContextBuilder.getSslProtocols())
+                .setHostnameVerifier(httpsContextBuilder.getHostnameVerifier())
+                .build()
+            )
+
+            // Define I/O reactor.
+            .setIOReactorConfig(IOReactorConfig.custom()
+                .setSoTimeout(Timeout.ofMilliseconds(configuration.getSocketTimeoutInMilliseconds()))
+                .build()
+            )
+
+            // Attach Credentials provider to client builder.
+            .setDefaultCredentialsProvider(credentialsProvider)
+
+            // Attach default request config
+            .setDefaultRequestConfig(RequestConfig.custom()
+                .setConnectTimeout(Timeout.ofMilliseconds(configuration.getConnectTimeoutInMilliseconds()))
+                .setResponseTimeout(Timeout.ofMilliseconds(configuration.getSocketTimeoutInMilliseconds()))
+                .build()
+            )
+            .build();
+
+        // Start I/O dispatch threads.
+        httpClient.start();
+    }
+
+    @Override
+    public void close() {
+        if (httpClient != null) {
+            httpClient.close(CloseMode.GRACEFUL);
+        }
+        httpClient = null;
+    }
+
+    /**
+     * Execute the request without blocking the calling thread.
+     * @param request The request to execute.
+     * @return Future completed with the response.
+     */
+    @Override
+    public CompletableFuture<RestResponse> executeAsync(final PreparedRequest request) {
+        final CompletableFuture<RestResponse> result = new CompletableFuture<>();
+
+        // Define our context
+        final HttpClientContext httpClientContext = HttpClientContext.create();
+        httpClientContext.setAuthCache(authCache);
+        httpClientContext.setCredentialsProvider(credentialsProvider);
+
+        // Execute
+        final Future<SimpleHttpResponse> responseFuture = httpClient.execute(
+            buildHttpRequest(request),
+            httpClientContext,
+            new FutureCallback<SimpleHttpResponse>() {
+                @Override
+                public void completed(final SimpleHttpResponse response) {
+                    result.complete(new RestResponse(response.getBodyBytes(), getCharset(response), response.getCode(), getHeaders(response)));
+                }
+
+                @Override
+                public void failed(final Exception exception) {
+                    result.completeExceptionally(translateException(exception));
+                }
+
+                @Override
+                public void cancelled() {
+                    result.cancel(false);
+                }
+            }
+        );
+
+        // Abort the underlying request if the caller cancels.
+        result.whenComplete((response, throwable) -> {
+            if (result.isCancelled()) {
+                responseFuture.cancel(true);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Translate a prepared request into an HttpClient 5 request.
+     * @param request The prepared request.
+     * @return SimpleHttpRequest instance.
+     */
+    private SimpleHttpRequest buildHttpRequest(final PreparedRequest request) {
+        final SimpleHttpRequest httpRequest = new SimpleHttpRequest(request.getRequestMethod().name(), URI.create(request.getUrl()));
+
+        // Add headers
+        for (final RequestHeader header : request.getHeaders()) {
+            httpRequest.addHeader(header.getName(), header.getValue());
+        }
+
+        // Attach request body
+        if (request.getBody() != null) {
+            final ContentType contentType = request.getContentType() == null
+                ? ContentType.APPLICATION_OCTET_STREAM
+                : ContentType.parse(request.getContentType());
+            httpRequest.setBody(request.getBody(), contentType);
+        }
+        return httpRequest;
+    }
+
+    /**
+     * Determine the charset of the response body, defaulting to ISO-8859-1 when no charset is declared to match the
+     * other HttpComponents based transports.
+     * @param response The response.
+     * @return Charset to decode the response body with.
+     */
+    private Charset getCharset(final SimpleHttpResponse response) {
+        if (response.getContentType() != null && response.getContentType().getCharset() != null) {
+            return response.getContentType().getCharset();
+        }
+        return StandardCharsets.ISO_8859_1;
+    }
+
+    /**
+     * Copy the response headers.
+     * @param response The response.
+     * @return Response headers.
+     */
+    private List<ResponseHeader> getHeaders(final SimpleHttpResponse response) {
+        final Header[] allHeaders = response.getHeaders();
+        final List<ResponseHeader> headers = new ArrayList<>(allHeaders.length);
+        for (final Header header : allHeaders) {
+            headers.add(new ResponseHeader(header.getName(), header.getValue()));
+        }
+        return headers;
+    }
+
+    /**
+     * Translate a failure from the underlying client into the appropriate exception.
+     * @param exception The failure.
+     * @return Appropriate Exception instance.
+     */
+    private RuntimeException translateException(final Exception exception) {
+        if (exception instanceof ConnectionClosedException
+            || exception instanceof SocketException
+            || exception instanceof SocketTimeoutException
+            || exception instanceof ConnectTimeoutException
+            || exception instanceof SSLException
+            || exception instanceof TimeoutException) {
+            // Typically this is a connection or certificate issue.
+            return new ConnectionException(exception.getMessage(), exception);
+        } else if (exception instanceof IOException) {
+            // Typically this is a parse error.
+            return new ResultParsingException(exception.getMessage(), exception);
+        }
+        return new RestException(exception.getMessage(), exception);
+    }
+
+    /**
+     * Factory registered via ServiceLoader.
+     */
+    public static class Factory implements TransportFactory {
+        @Override
+        public String getName() {
+            return NAME;
+        }
+
+        @Override
+        public Transport create() {
+            return new Http2Transport();
+        }
+    }
+}
@@ -0,0 +1,244 @@
+/**
+ * Copyright 2019 SourceLab.org https://github.com/SourceLabOrg/http-client-wrapper
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit
+ * persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.sourcelab.http.rest.transport;
+
+import org.apache.http.HttpResponse;
+import org.apache.http.client.ClientProtocolException;
+import org.apache.http.concurrent.FutureCallback;
+import org.apache.http.config.Registry;
+import org.apache.http.config.RegistryBuilder;
+import org.apache.http.conn.ConnectTimeoutException;
+import org.apache.http.impl.nio.client.CloseableHttpAsyncClient;
+import org.apache.http.impl.nio.client.HttpAsyncClients;
+import org.apache.http.impl.nio.conn.PoolingNHttpClientConnectionManager;
+import org.apache.http.impl.nio.reactor.DefaultConnectingIOReactor;
+import org.apache.http.impl.nio.reactor.IOReactorConfig;
+import org.apache.http.nio.conn.NoopIOSessionStrategy;
+import org.apache.http.nio.conn.SchemeIOSessionStrategy;
+import org.apache.http.nio.conn.ssl.SSLIOSessionStrategy;
+import org.apache.http.nio.reactor.IOReactorException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.sourcelab.http.rest.RestException;
+import org.sourcelab.http.rest.RestResponse;
+import org.sourcelab.http.rest.configuration.Configuration;
+import org.sourcelab.http.rest.configuration.ConnectionPoolConfiguration;
+import org.sourcelab.http.rest.exceptions.ConnectionException;
+import org.sourcelab.http.rest.exceptions.ResultParsingException;
+import org.sourcelab.http.rest.handlers.RestResponseHandler;
+
+import javax.net.ssl.SSLException;
+import java.io.IOException;
+import java.net.SocketException;
+import java.net.SocketTimeoutException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Non-blocking Transport implementation using HttpAsyncClient.  Requests are multiplexed over a small number
+ * of I/O dispatch threads, allowing a large number of concurrent in-flight requests without a thread per request.
+ *
+ * Requires the optional org.apache.httpcomponents:httpasyncclient dependency.
+ */
+public class HttpAsyncClientTransport implements AsyncTransport {
+    private static final Logger logger = LoggerFactory.getLogger(HttpAsyncClientTransport.class);
+
+    /**
+     * Name used to select this transport.
+     */
+    public static final String NAME = "httpasyncclient";
+
+    /**
+     * Our underlying Http Client.
+     */
+    private CloseableHttpAsyncClient httpClient;
+
+    /**
+     * Creates per-request contexts with our configured authentication.
+     */
+    private HttpClientContextBuilder httpClientContextBuilder;
+
+    /**
+     * Constructor.
+     */
+    public HttpAsyncClientTransport() {
+    }
+
+    /**
+     * Initialization method.  This takes in the configuration and sets up the underlying
+     * http client appropriately.
+     * @param configuration The user defined configuration.
+     */
+    @Override
+    public void init(final Configuration configuration) {
+        // Create https context builder utility.
+        final HttpsContextBuilder httpsContextBuilder = new HttpsContextBuilder(configuration);
+
+        // Define session strategies, using our configured SSL Context for https.
+        final Registry<SchemeIOSessionStrategy> sessionStrategyRegistry = RegistryBuilder.<SchemeIOSessionStrategy>create()
+            .register("http", NoopIOSessionStrategy.INSTANCE)
+            .register("https", new SSLIOSessionStrategy(
+                httpsContextBuilder.getSslContext(),
+                httpsContextBuilder.getSslProtocols(),
+                null,
+                httpsContextBuilder.getHostnameVerifier()
+            ))
+            .build();
+
+        // Define our I/O reactor, one dispatch thread per core.
+        final IOReactorConfig ioReactorConfig = IOReactorConfig.custom()
+            .setIoThreadCount(Runtime.getRuntime().availableProcessors())
+            .setConnectTimeout(configuration.getConnectTimeoutInMilliseconds())
+            .setSoTimeout(configuration.getSocketTimeoutInMilliseconds())
+            .build();
+
+        // Define our pooled connection manager.
+        final ConnectionPoolConfiguration poolConfiguration = configuration.getConnectionPoolConfiguration();
+        final PoolingNHttpClientConnectionManager connectionManager;
+        try {
+            connectionManager = new PoolingNHttpClientConnectionManager(
+                new DefaultConnectingIOReactor(ioReactorConfig),
+                null,
+                sessionStrategyRegistry,
+                null,
+                null,
+                configuration.getConnectionTimeToLiveInMilliseconds(),
+                TimeUnit.MILLISECONDS
+            );
+        } catch (final IOReactorException exception) {
+            throw new RuntimeException(exception.getMessage(), exception);
+        }
+        connectionManager.setMaxTotal(poolConfiguration.getMaxTotalConnections());
+        connectionManager.setDefaultMaxPerRoute(poolConfiguration.getMaxConnectionsPerRoute());
+
+        // Define timeouts, proxy and authentication.
+        httpClientContextBuilder = new HttpClientContextBuilder(configuration);
+
+        // build http client
+        httpClient = HttpAsyncClients.custom()
+            // Define connection manager, this takes ownership of the SSL session strategy and connection TTL.
+            .setConnectionManager(connectionManager)
+
+            // Attach Credentials provider to client builder.
+            .setDefaultCredentialsProvider(httpClientContextBuilder.getCredentialsProvider())
+
+            // Attach default request config
+            .setDefaultRequestConfig(httpClientContextBuilder.getRequestConfig())
+            .build();
+
+        // Start I/O dispatch threads.
+        httpClient.start();
+    }
+
+    @Override
+    public void close() {
+        if (httpClient != null) {
+            try {
+                httpClient.close();
+            } catch (final IOException e) {
+                logger.error("Error closing: {}", e.getMessage(), e);
+            }
+        }
+        httpClient = null;
+    }
+
+    /**
+     * Execute the request without blocking the calling thread.
+     * @param request The request to execute.
+     * @return Future completed with the response.
+     */
+    @Override
+    public CompletableFuture<RestResponse> executeAsync(final PreparedRequest request) {
+        final CompletableFuture<RestResponse> result = new CompletableFuture<>();
+
+        // Execute
+        final Future<HttpResponse> responseFuture = httpClient.execute(
+            HttpClientTransport.buildHttpRequest(request),
+            httpClientContextBuilder.createContext(),
+            new FutureCallback<HttpResponse>() {
+                @Override
+                public void completed(final HttpResponse response) {
+                    // Response entity is fully buffered by this point.
+                    try {
+                        result.complete(new RestResponseHandler().handleResponse(response));
+                    } catch (final IOException exception) {
+                        result.completeExceptionally(translateException(exception));
+                    } catch (final RuntimeException exception) {
+                        result.completeExceptionally(exception);
+                    }
+                }
+
+                @Override
+                public void failed(final Exception exception) {
+                    result.completeExceptionally(translateException(exception));
+                }
+
+                @Override
+                public void cancelled() {
+                    result.cancel(false);
+                }
+            }
+        );
+
+        // Abort the underlying request if the caller cancels.
+        result.whenComplete((response, throwable) -> {
+            if (result.isCancelled()) {
+                responseFuture.cancel(true);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Translate a failure from the underlying client into the appropriate exception.
+     * @param exception The failure.
+     * @return Appropriate Exception instance.
+     */
+    private RuntimeException translateException(final Exception exception) {
+        if (exception instanceof ClientProtocolException
+            || exception instanceof SocketException
+            || exception instanceof SocketTimeoutException
+            || exception instanceof ConnectTimeoutException
+            || exception instanceof SSLException
+            || exception instanceof TimeoutException) {
+            // Typically this is a connection or certificate issue.
+            return new ConnectionException(exception.getMessage(), exception);
+        } else if (exception instanceof IOException) {
+            // Typically this is a parse error.
+            return new ResultParsingException(exception.getMessage(), exception);
+        }
+        return new RestException(exception.getMessage(), exception);
+    }
+
+    /**
+     * Factory registered via ServiceLoader.
+     */
+    public static class Factory implements TransportFactory {
+        @Override
+        public String getName() {
+            return NAME;
+        }
+
+        @Override
+        public Transport create() {
+            return new HttpAsyncClientTransport();
+        }
+    }
+}
@@ -0,0 +1,167 @@
+/**
+ * Copyright 2019 SourceLab.org https://github.com/SourceLabOrg/http-client-wrapper
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit
+ * persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.sourcelab.http.rest.transport;
+
+import org.apache.http.HttpHost;
+import org.apache.http.auth.AuthScope;
+import org.apache.http.auth.UsernamePasswordCredentials;
+import org.apache.http.client.AuthCache;
+import org.apache.http.client.CredentialsProvider;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.protocol.HttpClientContext;
+import org.apache.http.impl.auth.BasicScheme;
+import org.apache.http.impl.client.BasicAuthCache;
+import org.apache.http.impl.client.BasicCredentialsProvider;
+import org.sourcelab.http.rest.configuration.Configuration;
+import org.sourcelab.http.rest.configuration.ProxyConfiguration;
+
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.util.Objects;
+
+/**
+ * Utility for configuring timeouts, proxy and authentication details shared by the HttpComponents
+ * based client implementations, based on client configuration settings.
+ */
+class HttpClientContextBuilder {
+    /**
+     * Client configuration.
+     */
+    private final Configuration configuration;
+
+    /**
+     * Credentials for the API host and proxy, if configured.
+     */
+    private final CredentialsProvider credentialsProvider = new BasicCredentialsProvider();
+
+    /**
+     * Used to preemptively send authentication.
+     */
+    private final AuthCache authCache = new BasicAuthCache();
+
+    /**
+     * Default config applied to every request.
+     */
+    private final RequestConfig requestConfig;
+
+    /**
+     * Constructor.
+     * @param configuration client configuration instance.
+     */
+    public HttpClientContextBuilder(final Configuration configuration) {
+        this.configuration = Objects.requireNonNull(configuration);
+
+        // Define our RequestConfigBuilder
+        final RequestConfig.Builder requestConfigBuilder = RequestConfig.custom()
+            // Define how long to wait for a connection from the pool.
+            .setConnectionRequestTimeout(configuration.getConnectionPoolConfiguration().getConnectionRequestTimeoutInMilliseconds())
+
+            // Define how long to wait establishing a connection.
+            .setConnectTimeout(configuration.getConnectTimeoutInMilliseconds())
+
+            // Define how long to wait on a stalled read.
+            .setSocketTimeout(configuration.getSocketTimeoutInMilliseconds());
+
+        // If we have a configured proxy host
+        if (configuration.getProxyConfiguration() != null) {
+            final ProxyConfiguration proxyConfiguration = configuration.getProxyConfiguration();
+
+            // Define proxy host
+            final HttpHost proxyHost = new HttpHost(
+                proxyConfiguration.getProxyHost(),
+                proxyConfiguration.getProxyPort(),
+                proxyConfiguration.getProxyScheme()
+            );
+
+            // If we have proxy auth enabled
+            if (proxyConfiguration.isProxyAuthenticationEnabled()) {
+                // Add proxy credentials
+                credentialsProvider.setCredentials(
+                    new AuthScope(proxyConfiguration.getProxyHost(), proxyConfiguration.getProxyPort()),
+                    new UsernamePasswordCredentials(proxyConfiguration.getProxyUsername(), proxyConfiguration.getProxyPassword())
+                );
+
+                // Preemptive load context with authentication.
+                authCache.put(
+                    new HttpHost(
+                        proxyConfiguration.getProxyHost(),
+                        proxyConfiguration.getProxyPort(),
+                        proxyConfiguration.getProxyScheme()
+                    ), new BasicScheme()
+                );
+            }
+
+            // Attach Proxy to request config builder
+            requestConfigBuilder.setProxy(proxyHost);
+        }
+
+        // If BasicAuth credentials are configured.
+        if (configuration.getBasicAuthUsername() != null) {
+            try {
+                // parse ApiHost for Hostname and port.
+                final URL apiUrl = new URL(configuration.getApiHost());
+
+                // Add credentials
+                credentialsProvider.setCredentials(
+                    new AuthScope(apiUrl.getHost(), apiUrl.getPort()),
+                    new UsernamePasswordCredentials(
+                        configuration.getBasicAuthUsername(),
+                        configuration.getBasicAuthPassword()
+                    )
+                );
+
+                // Preemptive load context with authentication.
+                authCache.put(
+                    new HttpHost(apiUrl.getHost(), apiUrl.getPort(), apiUrl.getProtocol()), new BasicScheme()
+                );
+            } catch (final MalformedURLException exception) {
+                throw new RuntimeException(exception.getMessage(), exception);
+            }
+        }
+
+        this.requestConfig = requestConfigBuilder.build();
+    }
+
+    /**
+     * Credentials provider to attach to the client.
+     * @return CredentialsProvider instance.
+     */
+    public CredentialsProvider getCredentialsProvider() {
+        return credentialsProvider;
+    }
+
+    /**
+     * Default request config to attach to the client.
+     * @return RequestConfig instance.
+     */
+    public RequestConfig getRequestConfig() {
+        return requestConfig;
+    }
+
+    /**
+     * Create a new context to execute a single request with.  Each in-flight request requires its own context,
+     * while the credentials and preemptive authentication cache are shared.
+     * @return HttpClientContext instance.
+     */
+    public HttpClientContext createContext() {
+        final HttpClientContext httpClientContext = HttpClientContext.create();
+        httpClientContext.setAuthCache(authCache);
+        httpClientContext.setCredentialsProvider(credentialsProvider);
+        return httpClientContext;
+    }
+}
@@ -0,0 +1,349 @@
+/**
+ * Copyright 2019 SourceLab.org https://github.com/SourceLabOrg/http-client-wrapper
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit
+ * persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.sourcelab.http.rest.transport;
+
+import org.apache.http.client.ClientProtocolException;
+import org.apache.http.client.ResponseHandler;
+import org.apache.http.client.methods.HttpDelete;
+import org.apache.http.client.methods.HttpEntityEnclosingRequestBase;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.client.methods.HttpPost;
+import org.apache.http.client.methods.HttpPut;
+import org.apache.http.client.methods.HttpRequestBase;
+import org.apache.http.config.Registry;
+import org.apache.http.config.RegistryBuilder;
+import org.apache.http.conn.ConnectTimeoutException;
+import org.apache.http.conn.socket.ConnectionSocketFactory;
+import org.apache.http.conn.socket.PlainConnectionSocketFactory;
+import org.apache.http.entity.ByteArrayEntity;
+import org.apache.http.entity.ContentType;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClientBuilder;
+import org.apache.http.impl.execchain.RequestAbortedException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.sourcelab.http.rest.RestException;
+import org.sourcelab.http.rest.RestResponse;
+import org.sourcelab.http.rest.configuration.Configuration;
+import org.sourcelab.http.rest.configuration.ConnectionPoolConfiguration;
+import org.sourcelab.http.rest.exceptions.ConnectionException;
+import org.sourcelab.http.rest.exceptions.ResultParsingException;
+import org.sourcelab.http.rest.handlers.RestResponseHandler;
+import org.sourcelab.http.rest.handlers.StreamingResponseHandler;
+import org.sourcelab.http.rest.request.RequestHeader;
+import org.sourcelab.http.rest.request.StreamingRequest;
+
+import javax.net.ssl.SSLHandshakeException;
+import java.io.IOException;
+import java.net.SocketException;
+import java.net.SocketTimeoutException;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Blocking Transport implementation using HttpClient.
+ */
+public class HttpClientTransport implements Transport {
+    private static final Logger logger = LoggerFactory.getLogger(HttpClientTransport.class);
+
+    /**
+     * Name used to select this transport.
+     */
+    public static final String NAME = "httpclient";
+
+    /**
+     * Our underlying Http Client.
+     */
+    private CloseableHttpClient httpClient;
+
+    /**
+     * Live view of our connection pool.
+     */
+    private ConnectionPoolMetrics connectionPoolMetrics;
+
+    /**
+     * Creates per-request contexts with our configured authentication.
+     */
+    private HttpClientContextBuilder httpClientContextBuilder;
+
+    /**
+     * Notified with the phase level timing of each request.
+     */
+    private final List<RequestTimingListener> requestTimingListeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * Dispatches request lifecycle events to the configured listeners.
+     */
+    private RequestEvents events = RequestEvents.NONE;
+
+    /**
+     * Emits Java Flight Recorder events, if enabled.
+     */
+    private FlightRecorderEvents flightRecorderEvents = FlightRecorderEvents.NONE;
+
+    /**
+     * Constructor.
+     */
+    public HttpClientTransport() {
+    }
+
+    /**
+     * Initialization method.  This takes in the configuration and sets up the underlying
+     * http client appropriately.
+     * @param configuration The user defined configuration.
+     */
+    @Override
+    public void init(final Configuration configuration) {
+        events = RequestEvents.of(configuration.getRequestEventListeners());
+        flightRecorderEvents = FlightRecorderEvents.create(configuration.getFlightRecorderEventsEnabled());
+
+        // Create https context builder utility.
+        final HttpsContextBuilder httpsContextBuilder = new HttpsContextBuilder(configuration);
+
+        // Define socket factories, using our configured SSL Socket Factory instance for https.  Both are timed.
+        final Registry<ConnectionSocketFactory> socketFactoryRegistry = RegistryBuilder.<ConnectionSocketFactory>create()
+            .register("http", new PhaseTimers.TimingSocketFactory(PlainConnectionSocketFactory.getSocketFactory()))
+            .register("https", new PhaseTimers.TimingLayeredSocketFactory(httpsContextBuilder.createSslSocketFactory(), flightRecorderEvents))
+            .build();
+
+        // Define our pooled connection manager, instrumented to record how long requests wait for a connection.
+        final ConnectionPoolConfiguration poolConfiguration = configuration.getConnectionPoolConfiguration();
+        final InstrumentedConnectionManager connectionManager = new InstrumentedConnectionManager(
+            socketFactoryRegistry,
+            configuration.getConnectionTimeToLiveInMilliseconds(),
+            TimeUnit.MILLISECONDS,
+            events,
+            flightRecorderEvents
+        );
+        connectionManager.setMaxTotal(poolConfiguration.getMaxTotalConnections());
+        connectionManager.setDefaultMaxPerRoute(poolConfiguration.getMaxConnectionsPerRoute());
+        connectionManager.setValidateAfterInactivity(poolConfiguration.getValidateAfterInactivityInMilliseconds());
+        connectionPoolMetrics = new ConnectionPoolMetrics(connectionManager);
+
+        // Define timeouts, proxy and authentication.
+        httpClientContextBuilder = new HttpClientContextBuilder(configuration);
+
+        // Setup client builder
+        final HttpClientBuilder clientBuilder = HttpClientBuilder.create();
+        clientBuilder
+            // Define connection manager, this takes ownership of the SSL Socket Factory and connection TTL.
+            .setConnectionManager(connectionManager)
+
+            // Attach Credentials provider to client builder.
+            .setDefaultCredentialsProvider(httpClientContextBuilder.getCredentialsProvider())
+
+            // Attach default request config
+            .setDefaultRequestConfig(httpClientContextBuilder.getRequestConfig())
+
+            // Time sending the request and waiting for the response.
+            .setRequestExecutor(new PhaseTimers.TimingRequestExecutor(events));
+
+        requestTimingListeners.addAll(configuration.getRequestTimingListeners());
+
+        // build http client
+        httpClient = clientBuilder.build();
+    }
+
+    @Override
+    public void close() {
+        if (httpClient != null) {
+            try {
+                httpClient.close();
+            } catch (final IOException e) {
+                logger.error("Error closing: {}", e.getMessage(), e);
+            }
+        }
+        httpClient = null;
+        connectionPoolMetrics = null;
+    }
+
+    /**
+     * Live view of the connection pool, including how long requests wait to lease a connection.
+     * @return NULL if not initialized, otherwise metrics instance.
+     */
+    public ConnectionPoolMetrics getConnectionPoolMetrics() {
+        return connectionPoolMetrics;
+    }
+
+    /**
+     * Add a listener notified with the phase level timing of each request, after the response has been handled.
+     * @param requestTimingListener instance.
+     */
+    public void addRequestTimingListener(final RequestTimingListener requestTimingListener) {
+        requestTimingListeners.add(Objects.requireNonNull(requestTimingListener));
+    }
+
+    /**
+     * Execute the request, blocking until the response is available.
+     * @param request The request to execute.
+     * @return The response.
+     * @throws RestException if something goes wrong.
+     */
+    @Override
+    public RestResponse execute(final PreparedRequest request) throws RestException {
+        final RequestTiming timing = new RequestTiming();
+        return executeWithHandler(request, new RestResponseHandler(timing), timing);
+    }
+
+    /**
+     * Execute the request, passing the response body stream directly to the request's parser.
+     * @param request The request to execute.
+     * @param streamingRequest Parses the response body.
+     * @param <T> return type of the request.
+     * @return The parsed response.
+     * @throws RestException if something goes wrong.
+     */
+    @Override
+    public <T> T executeStreaming(final PreparedRequest request, final StreamingRequest<T> streamingRequest) throws RestException {
+        return executeWithHandler(request, new StreamingResponseHandler<>(streamingRequest), new RequestTiming());
+    }
+
+    /**
+     * Execute the request, handling the response with the given handler.
+     * @param request The request to execute.
+     * @param responseHandler Handles the response.
+     * @param timing Records the time spent in each phase of the request.
+     * @param <T> return type of the handler.
+     * @return The handled response.
+     * @throws RestException if something goes wrong.
+     */
+    private <T> T executeWithHandler(
+        final PreparedRequest request,
+        final ResponseHandler<T> responseHandler,
+        final RequestTiming timing) throws RestException {
+
+        final Object requestEvent = flightRecorderEvents.beginRequest();
+
+        // Reading the response body is timed as the time spent within the handler.
+        final ResponseHandler<T> timedResponseHandler = response -> {
+            final Object parseEvent = flightRecorderEvents.beginResponseParse();
+            final long start = System.nanoTime();
+            T result = null;
+            try {
+                result = responseHandler.handleResponse(response);
+            } finally {
+                timing.record(RequestPhase.RECEIVE, System.nanoTime() - start);
+                final long bytesReceived = result instanceof RestResponse
+                    ? ((RestResponse) result).getBodyLength()
+                    : (response.getEntity() == null ? 0 : response.getEntity().getContentLength());
+                flightRecorderEvents.endResponseParse(parseEvent, requestEvent, response.getStatusLine().getStatusCode(), bytesReceived);
+            }
+            events.responseBodyConsumed(request);
+            return result;
+        };
+
+        final long start = System.nanoTime();
+        PhaseTimers.start(request, timing);
+        events.requestStart(request);
+        RuntimeException failure = null;
+        try {
+            final HttpRequestBase httpRequest = buildHttpRequest(request);
+            if (request.getCancellation() != null) {
+                // Aborting releases the connection, rather than waiting for the response or a socket timeout.
+                request.getCancellation().onCancel(httpRequest::abort);
+            }
+            return httpClient.execute(httpRequest, timedResponseHandler, httpClientContextBuilder.createContext());
+        } catch (final ClientProtocolException | SocketException | SocketTimeoutException | ConnectTimeoutException
+            | SSLHandshakeException | RequestAbortedException connectionException) {
+            // Typically this is a connection or certificate issue.
+            failure = new ConnectionException(connectionException.getMessage(), connectionException);
+            throw failure;
+        } catch (final IOException ioException) {
+            // Typically this is a parse error.
+            failure = new ResultParsingException(ioException.getMessage(), ioException);
+            throw failure;
+        } catch (final RuntimeException exception) {
+            failure = exception;
+            throw exception;
+        } finally {
+            PhaseTimers.stop();
+            timing.recordTotal(System.nanoTime() - start);
+            if (failure != null) {
+                events.requestFailed(request, failure);
+            }
+            flightRecorderEvents.endRequest(requestEvent, request, failure);
+            notifyRequestTimingListeners(request, timing);
+        }
+    }
+
+    private void notifyRequestTimingListeners(final PreparedRequest request, final RequestTiming timing) {
+        for (final RequestTimingListener requestTimingListener : requestTimingListeners) {
+            try {
+                requestTimingListener.onRequestTimed(request, timing);
+            } catch (final RuntimeException exception) {
+                logger.error("Error notifying request timing listener: {}", exception.getMessage(), exception);
+            }
+        }
+    }
+
+    /**
+     * Translate a prepared request into an HttpComponents 4.x request.
+     * @param request The prepared request.
+     * @return HttpRequestBase instance ready to be executed.
+     */
+    static HttpRequestBase buildHttpRequest(final PreparedRequest request) {
+        final HttpRequestBase requestBase;
+        switch (request.getRequestMethod()) {
+            case GET:
+                requestBase = new HttpGet(request.getUrl());
+                break;
+            case POST:
+                requestBase = new HttpPost(request.getUrl());
+                break;
+            case PUT:
+                requestBase = new HttpPut(request.getUrl());
+                break;
+            case DELETE:
+                requestBase = new HttpDelete(request.getUrl());
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown Request Method: " + request.getRequestMethod());
+        }
+
+        // Add headers to the request instance.
+        for (final RequestHeader header : request.getHeaders()) {
+            requestBase.addHeader(header.getName(), header.getValue());
+        }
+
+        // Attach request entity
+        if (request.getBody() != null && requestBase instanceof HttpEntityEnclosingRequestBase) {
+            final ContentType contentType = request.getContentType() == null
+                ? ContentType.APPLICATION_OCTET_STREAM
+                : ContentType.parse(request.getContentType());
+            ((HttpEntityEnclosingRequestBase) requestBase).setEntity(new ByteArrayEntity(request.getBody(), contentType));
+        }
+        return requestBase;
+    }
+
+    /**
+     * Factory registered via ServiceLoader.
+     */
+    public static class Factory implements TransportFactory {
+        @Override
+        public String getName() {
+            return NAME;
+        }
+
+        @Override
+        public Transport create() {
+            return new HttpClientTransport();
+        }
+    }
+}
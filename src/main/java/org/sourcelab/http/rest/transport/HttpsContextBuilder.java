@@ -15,7 +15,7 @@
  * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
  */
 
-package org.sourcelab.http.rest;
+package org.sourcelab.http.rest.transport;
 
 import org.apache.http.conn.socket.LayeredConnectionSocketFactory;
 import org.apache.http.conn.ssl.NoopHostnameVerifier;
@@ -205,7 +205,7 @@ class HttpsContextBuilder {
      * Get allowed SSL Protocols.
      * @return allowed SslProtocols.
      */
-    private String[] getSslProtocols() {
+    String[] getSslProtocols() {
         return sslProtocols;
     }
 }
@@ -0,0 +1,114 @@
+/**
+ * Copyright 2019 SourceLab.org https://github.com/SourceLabOrg/http-client-wrapper
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit
+ * persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.sourcelab.http.rest.transport;
+
+import org.apache.http.HttpClientConnection;
+import org.apache.http.config.Registry;
+import org.apache.http.conn.ConnectionPoolTimeoutException;
+import org.apache.http.conn.ConnectionRequest;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.conn.socket.ConnectionSocketFactory;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.sourcelab.http.rest.metrics.LatencyHistogram;
+
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Pooled connection manager recording how long requests wait to lease a connection, separately from the time spent
+ * executing them.  Lease waits and DNS resolution are also recorded as phases of the current request, and connection
+ * leases and releases dispatched as its events, see {@link PhaseTimers}.
+ */
+class InstrumentedConnectionManager extends PoolingHttpClientConnectionManager {
+    private final LatencyHistogram leaseWait = new LatencyHistogram();
+    private final LongAdder leaseTimeouts = new LongAdder();
+    private final RequestEvents events;
+    private final FlightRecorderEvents flightRecorderEvents;
+
+    /**
+     * Constructor.
+     * @param socketFactoryRegistry Socket factories by scheme.
+     * @param timeToLive Maximum lifetime of pooled connections.
+     * @param timeUnit Unit of timeToLive.
+     * @param events Dispatches connection lease and release events.
+     * @param flightRecorderEvents Emits connection lease flight recorder events.
+     */
+    InstrumentedConnectionManager(
+        final Registry<ConnectionSocketFactory> socketFactoryRegistry,
+        final long timeToLive,
+        final TimeUnit timeUnit,
+        final RequestEvents events,
+        final FlightRecorderEvents flightRecorderEvents) {
+        super(socketFactoryRegistry, null, null, new PhaseTimers.TimingDnsResolver(), timeToLive, timeUnit);
+        this.events = Objects.requireNonNull(events);
+        this.flightRecorderEvents = Objects.requireNonNull(flightRecorderEvents);
+    }
+
+    @Override
+    public ConnectionRequest requestConnection(final HttpRoute route, final Object state) {
+        final ConnectionRequest connectionRequest = super.requestConnection(route, state);
+        return new ConnectionRequest() {
+            @Override
+            public HttpClientConnection get(final long timeout, final TimeUnit timeUnit)
+                throws InterruptedException, ExecutionException, ConnectionPoolTimeoutException {
+                final Object leaseEvent = flightRecorderEvents.beginConnectionLease();
+                final long start = System.nanoTime();
+                HttpClientConnection connection = null;
+                try {
+                    connection = connectionRequest.get(timeout, timeUnit);
+                    events.connectionAcquired(PhaseTimers.currentRequest(), connection.isOpen());
+                    return connection;
+                } catch (final ConnectionPoolTimeoutException exception) {
+                    leaseTimeouts.increment();
+                    throw exception;
+                } finally {
+                    leaseWait.record(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start));
+                    PhaseTimers.record(RequestPhase.LEASE, start);
+                    flightRecorderEvents.endConnectionLease(leaseEvent, route, connection != null && connection.isOpen());
+                }
+            }
+
+            @Override
+            public boolean cancel() {
+                return connectionRequest.cancel();
+            }
+        };
+    }
+
+    @Override
+    public void releaseConnection(
+        final HttpClientConnection managedConn,
+        final Object state,
+        final long keepAlive,
+        final TimeUnit timeUnit) {
+        // Connections which cannot be reused are shut down before being released.
+        final boolean reusable = managedConn.isOpen();
+        super.releaseConnection(managedConn, state, keepAlive, timeUnit);
+        events.connectionReleased(PhaseTimers.currentRequest(), reusable);
+    }
+
+    LatencyHistogram getLeaseWait() {
+        return leaseWait;
+    }
+
+    long getLeaseTimeoutCount() {
+        return leaseTimeouts.sum();
+    }
+}
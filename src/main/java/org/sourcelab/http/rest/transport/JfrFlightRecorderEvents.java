@@ -0,0 +1,259 @@
+/**
+ * Copyright 2019 SourceLab.org https://github.com/SourceLabOrg/http-client-wrapper
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit
+ * persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.sourcelab.http.rest.transport;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import org.apache.http.conn.routing.HttpRoute;
+
+import javax.net.ssl.SSLSession;
+import javax.net.ssl.SSLSocket;
+import java.net.Socket;
+
+/**
+ * Emits events via the jdk.jfr API.  Only loaded reflectively by {@link FlightRecorderEvents#create(boolean)}, as this
+ * class cannot be loaded on JVMs without the jdk.jfr module.
+ */
+final class JfrFlightRecorderEvents extends FlightRecorderEvents {
+    private static final String CATEGORY = "HTTP Client Wrapper";
+
+    private final EventType requestEventType = EventType.getEventType(RequestEvent.class);
+    private final EventType connectionLeaseEventType = EventType.getEventType(ConnectionLeaseEvent.class);
+    private final EventType tlsHandshakeEventType = EventType.getEventType(TlsHandshakeEvent.class);
+    private final EventType responseParseEventType = EventType.getEventType(ResponseParseEvent.class);
+
+    @Override
+    Object beginRequest() {
+        if (!requestEventType.isEnabled()) {
+            return null;
+        }
+        final RequestEvent event = new RequestEvent();
+        event.begin();
+        return event;
+    }
+
+    @Override
+    void endRequest(final Object handle, final PreparedRequest request, final RuntimeException failure) {
+        if (handle == null) {
+            return;
+        }
+        final RequestEvent event = (RequestEvent) handle;
+        event.end();
+        if (event.shouldCommit()) {
+            event.endpoint = request.getRequest().getApiEndpoint();
+            event.method = request.getRequestMethod().name();
+            event.bytesSent = request.getBody() == null ? 0 : request.getBody().length;
+            event.failure = failure == null ? null : failure.getClass().getName();
+            event.commit();
+        }
+    }
+
+    @Override
+    Object beginConnectionLease() {
+        if (!connectionLeaseEventType.isEnabled()) {
+            return null;
+        }
+        final ConnectionLeaseEvent event = new ConnectionLeaseEvent();
+        event.begin();
+        return event;
+    }
+
+    @Override
+    void endConnectionLease(final Object handle, final HttpRoute route, final boolean reused) {
+        if (handle == null) {
+            return;
+        }
+        final ConnectionLeaseEvent event = (ConnectionLeaseEvent) handle;
+        event.end();
+        if (event.shouldCommit()) {
+            event.route = route.toString();
+            event.reused = reused;
+            final PreparedRequest request = PhaseTimers.currentRequest();
+            if (request != null) {
+                event.endpoint = request.getRequest().getApiEndpoint();
+                event.method = request.getRequestMethod().name();
+            }
+            event.commit();
+        }
+    }
+
+    @Override
+    Object beginTlsHandshake() {
+        if (!tlsHandshakeEventType.isEnabled()) {
+            return null;
+        }
+        final TlsHandshakeEvent event = new TlsHandshakeEvent();
+        event.begin();
+        return event;
+    }
+
+    @Override
+    void endTlsHandshake(final Object handle, final String host, final int port, final Socket socket) {
+        if (handle == null) {
+            return;
+        }
+        final TlsHandshakeEvent event = (TlsHandshakeEvent) handle;
+        event.end();
+        if (event.shouldCommit()) {
+            event.host = host;
+            event.port = port;
+            if (socket instanceof SSLSocket) {
+                final SSLSession session = ((SSLSocket) socket).getSession();
+                event.protocol = session.getProtocol();
+                event.cipherSuite = session.getCipherSuite();
+            }
+            final PreparedRequest request = PhaseTimers.currentRequest();
+            if (request != null) {
+                event.endpoint = request.getRequest().getApiEndpoint();
+                event.method = request.getRequestMethod().name();
+            }
+            event.commit();
+        }
+    }
+
+    @Override
+    Object beginResponseParse() {
+        if (!responseParseEventType.isEnabled()) {
+            return null;
+        }
+        final ResponseParseEvent event = new ResponseParseEvent();
+        event.begin();
+        return event;
+    }
+
+    @Override
+    void endResponseParse(final Object handle, final Object requestHandle, final int httpCode, final long bytesReceived) {
+        if (requestHandle != null) {
+            final RequestEvent requestEvent = (RequestEvent) requestHandle;
+            requestEvent.status = httpCode;
+            requestEvent.bytesReceived = bytesReceived;
+        }
+        if (handle == null) {
+            return;
+        }
+        final ResponseParseEvent event = (ResponseParseEvent) handle;
+        event.end();
+        if (event.shouldCommit()) {
+            event.status = httpCode;
+            event.bytesReceived = bytesReceived;
+            final PreparedRequest request = PhaseTimers.currentRequest();
+            if (request != null) {
+                event.endpoint = request.getRequest().getApiEndpoint();
+                event.method = request.getRequestMethod().name();
+            }
+            event.commit();
+        }
+    }
+
+    @Name("org.sourcelab.http.Request")
+    @Label("HTTP Request")
+    @Category(CATEGORY)
+    @Description("Execution of a request, from leasing a connection until the response has been handled")
+    static final class RequestEvent extends Event {
+        @Label("Endpoint")
+        String endpoint;
+
+        @Label("Method")
+        String method;
+
+        @Label("Status")
+        @Description("Http status code of the response, or 0 if no response was received")
+        int status;
+
+        @Label("Bytes Sent")
+        @DataAmount
+        long bytesSent;
+
+        @Label("Bytes Received")
+        @Description("Size of the response body, or -1 if unknown")
+        @DataAmount
+        long bytesReceived = -1;
+
+        @Label("Failure")
+        @Description("Type of exception the request failed with")
+        String failure;
+    }
+
+    @Name("org.sourcelab.http.ConnectionLease")
+    @Label("HTTP Connection Lease")
+    @Category(CATEGORY)
+    @Description("Waiting to lease a connection from the connection pool")
+    static final class ConnectionLeaseEvent extends Event {
+        @Label("Endpoint")
+        String endpoint;
+
+        @Label("Method")
+        String method;
+
+        @Label("Route")
+        String route;
+
+        @Label("Reused")
+        @Description("Whether the leased connection was already open")
+        boolean reused;
+    }
+
+    @Name("org.sourcelab.http.TlsHandshake")
+    @Label("HTTP TLS Handshake")
+    @Category(CATEGORY)
+    @Description("TLS handshake and hostname verification of a new connection")
+    static final class TlsHandshakeEvent extends Event {
+        @Label("Endpoint")
+        String endpoint;
+
+        @Label("Method")
+        String method;
+
+        @Label("Host")
+        String host;
+
+        @Label("Port")
+        int port;
+
+        @Label("Protocol")
+        String protocol;
+
+        @Label("Cipher Suite")
+        String cipherSuite;
+    }
+
+    @Name("org.sourcelab.http.ResponseParse")
+    @Label("HTTP Response Parse")
+    @Category(CATEGORY)
+    @Description("Reading and parsing the response body")
+    static final class ResponseParseEvent extends Event {
+        @Label("Endpoint")
+        String endpoint;
+
+        @Label("Method")
+        String method;
+
+        @Label("Status")
+        int status;
+
+        @Label("Bytes Received")
+        @Description("Size of the response body, or -1 if unknown")
+        @DataAmount
+        long bytesReceived;
+    }
+}
@@ -0,0 +1,75 @@
+/**
+ * Copyright 2019 SourceLab.org https://github.com/SourceLabOrg/http-client-wrapper
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit
+ * persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.sourcelab.http.rest.transport;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Tracks a latency percentile over a ring of the most recent samples.  The percentile is recalculated every
+ * {@link #RECALCULATE_INTERVAL} samples, so recording a sample is a couple of atomic writes.
+ */
+class LatencyTracker {
+    static final int SAMPLE_SIZE = 256;
+    static final int RECALCULATE_INTERVAL = 32;
+
+    private final double percentile;
+    private final AtomicLongArray samples = new AtomicLongArray(SAMPLE_SIZE);
+    private final AtomicLong count = new AtomicLong();
+
+    // -1 until enough samples have been recorded.
+    private volatile long percentileInNanos = -1;
+
+    /**
+     * Constructor.
+     * @param percentile percentile to track, between 0 and 1.
+     */
+    LatencyTracker(final double percentile) {
+        this.percentile = percentile;
+    }
+
+    /**
+     * Record a latency sample.
+     * @param latencyInNanos the latency.
+     */
+    void record(final long latencyInNanos) {
+        final long sampleNumber = count.getAndIncrement();
+        samples.set((int) (sampleNumber % SAMPLE_SIZE), latencyInNanos);
+        if ((sampleNumber + 1) % RECALCULATE_INTERVAL == 0) {
+            recalculate(Math.min(sampleNumber + 1, SAMPLE_SIZE));
+        }
+    }
+
+    private void recalculate(final long sampleCount) {
+        final long[] sorted = new long[(int) sampleCount];
+        for (int index = 0; index < sorted.length; index++) {
+            sorted[index] = samples.get(index);
+        }
+        Arrays.sort(sorted);
+        percentileInNanos = sorted[(int) Math.min(sorted.length - 1, Math.ceil(percentile * sorted.length) - 1)];
+    }
+
+    /**
+     * The tracked percentile.
+     * @return latency in nanoseconds, or -1 if not enough samples have been recorded.
+     */
+    long getPercentileInNanos() {
+        return percentileInNanos;
+    }
+}
@@ -15,7 +15,7 @@
  * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
  */
 
-package org.sourcelab.http.rest;
+package org.sourcelab.http.rest.transport;
 
 import javax.net.ssl.X509TrustManager;
 import java.security.cert.X509Certificate;
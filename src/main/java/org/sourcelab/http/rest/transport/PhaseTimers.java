@@ -0,0 +1,238 @@
+/**
+ * Copyright 2019 SourceLab.org https://github.com/SourceLabOrg/http-client-wrapper
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit
+ * persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.sourcelab.http.rest.transport;
+
+import org.apache.http.HttpClientConnection;
+import org.apache.http.HttpException;
+import org.apache.http.HttpHost;
+import org.apache.http.HttpRequest;
+import org.apache.http.HttpResponse;
+import org.apache.http.conn.DnsResolver;
+import org.apache.http.conn.socket.ConnectionSocketFactory;
+import org.apache.http.conn.socket.LayeredConnectionSocketFactory;
+import org.apache.http.conn.socket.PlainConnectionSocketFactory;
+import org.apache.http.impl.conn.SystemDefaultDnsResolver;
+import org.apache.http.protocol.HttpContext;
+import org.apache.http.protocol.HttpRequestExecutor;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.UnknownHostException;
+import java.util.Objects;
+
+/**
+ * HttpClient hooks recording the time spent in each {@link RequestPhase} into the {@link RequestTiming} of the
+ * request being executed, and dispatching its {@link RequestEvents}.
+ *
+ * The blocking HttpClient leases, connects and executes on the requesting thread, so the current request and its
+ * timing are held in thread locals for the duration of the request.  Not every hook is given the request's HttpContext, the
+ * DNS resolver in particular is not.
+ */
+final class PhaseTimers {
+    private static final ThreadLocal<RequestTiming> CURRENT = new ThreadLocal<>();
+    private static final ThreadLocal<PreparedRequest> CURRENT_REQUEST = new ThreadLocal<>();
+
+    private PhaseTimers() {
+    }
+
+    /**
+     * Record phases on this thread into the given timing, until {@link #stop()} is called.
+     * @param request The request about to be executed.
+     * @param timing The timing of the request.
+     */
+    static void start(final PreparedRequest request, final RequestTiming timing) {
+        CURRENT_REQUEST.set(request);
+        CURRENT.set(timing);
+    }
+
+    /**
+     * Stop recording phases on this thread.
+     */
+    static void stop() {
+        CURRENT_REQUEST.remove();
+        CURRENT.remove();
+    }
+
+    /**
+     * The request being executed on this thread.
+     * @return NULL if no request is being executed, otherwise request instance.
+     */
+    static PreparedRequest currentRequest() {
+        return CURRENT_REQUEST.get();
+    }
+
+    /**
+     * Record a phase of the current request, if any.
+     * @param phase The phase.
+     * @param startNanos System.nanoTime() at the start of the phase.
+     */
+    static void record(final RequestPhase phase, final long startNanos) {
+        final RequestTiming timing = CURRENT.get();
+        if (timing != null) {
+            timing.record(phase, System.nanoTime() - startNanos);
+        }
+    }
+
+    /**
+     * Times DNS resolution.
+     */
+    static class TimingDnsResolver implements DnsResolver {
+        @Override
+        public InetAddress[] resolve(final String host) throws UnknownHostException {
+            final long start = System.nanoTime();
+            try {
+                return SystemDefaultDnsResolver.INSTANCE.resolve(host);
+            } finally {
+                record(RequestPhase.DNS, start);
+            }
+        }
+    }
+
+    /**
+     * Times establishing plain TCP connections.
+     */
+    static class TimingSocketFactory implements ConnectionSocketFactory {
+        private final ConnectionSocketFactory delegate;
+
+        TimingSocketFactory(final ConnectionSocketFactory delegate) {
+            this.delegate = Objects.requireNonNull(delegate);
+        }
+
+        @Override
+        public Socket createSocket(final HttpContext context) throws IOException {
+            return delegate.createSocket(context);
+        }
+
+        @Override
+        public Socket connectSocket(
+            final int connectTimeout,
+            final Socket socket,
+            final HttpHost host,
+            final InetSocketAddress remoteAddress,
+            final InetSocketAddress localAddress,
+            final HttpContext context) throws IOException {
+            final long start = System.nanoTime();
+            try {
+                return delegate.connectSocket(connectTimeout, socket, host, remoteAddress, localAddress, context);
+            } finally {
+                record(RequestPhase.CONNECT, start);
+            }
+        }
+    }
+
+    /**
+     * Times establishing TLS connections, separating the TCP connect from the TLS handshake.  The TCP connection is
+     * established directly, and then layered by the delegate, which performs the handshake and hostname verification.
+     */
+    static class TimingLayeredSocketFactory implements LayeredConnectionSocketFactory {
+        private final LayeredConnectionSocketFactory delegate;
+        private final FlightRecorderEvents flightRecorderEvents;
+
+        TimingLayeredSocketFactory(final LayeredConnectionSocketFactory delegate, final FlightRecorderEvents flightRecorderEvents) {
+            this.delegate = Objects.requireNonNull(delegate);
+            this.flightRecorderEvents = Objects.requireNonNull(flightRecorderEvents);
+        }
+
+        @Override
+        public Socket createSocket(final HttpContext context) throws IOException {
+            return delegate.createSocket(context);
+        }
+
+        @Override
+        public Socket connectSocket(
+            final int connectTimeout,
+            final Socket socket,
+            final HttpHost host,
+            final InetSocketAddress remoteAddress,
+            final InetSocketAddress localAddress,
+            final HttpContext context) throws IOException {
+            final Socket plainSocket = socket != null ? socket : createSocket(context);
+
+            // Bound the handshake by the connect timeout, as the delegate would.
+            if (connectTimeout > 0 && plainSocket.getSoTimeout() == 0) {
+                plainSocket.setSoTimeout(connectTimeout);
+            }
+
+            final long start = System.nanoTime();
+            final Socket connectedSocket;
+            try {
+                connectedSocket = PlainConnectionSocketFactory.getSocketFactory()
+                    .connectSocket(connectTimeout, plainSocket, host, remoteAddress, localAddress, context);
+            } finally {
+                record(RequestPhase.CONNECT, start);
+            }
+            return createLayeredSocket(connectedSocket, host.getHostName(), remoteAddress.getPort(), context);
+        }
+
+        @Override
+        public Socket createLayeredSocket(final Socket socket, final String target, final int port, final HttpContext context)
+            throws IOException {
+            final Object handshakeEvent = flightRecorderEvents.beginTlsHandshake();
+            final long start = System.nanoTime();
+            Socket layeredSocket = null;
+            try {
+                layeredSocket = delegate.createLayeredSocket(socket, target, port, context);
+                return layeredSocket;
+            } finally {
+                record(RequestPhase.TLS, start);
+                flightRecorderEvents.endTlsHandshake(handshakeEvent, target, port, layeredSocket);
+            }
+        }
+    }
+
+    /**
+     * Times sending the request, and waiting for the response status line and headers.
+     */
+    static class TimingRequestExecutor extends HttpRequestExecutor {
+        private final RequestEvents events;
+
+        TimingRequestExecutor(final RequestEvents events) {
+            this.events = Objects.requireNonNull(events);
+        }
+
+        @Override
+        protected HttpResponse doSendRequest(final HttpRequest request, final HttpClientConnection conn, final HttpContext context)
+            throws IOException, HttpException {
+            final long start = System.nanoTime();
+            final HttpResponse response;
+            try {
+                response = super.doSendRequest(request, conn, context);
+            } finally {
+                record(RequestPhase.SEND, start);
+            }
+            events.requestSent(currentRequest());
+            return response;
+        }
+
+        @Override
+        protected HttpResponse doReceiveResponse(final HttpRequest request, final HttpClientConnection conn, final HttpContext context)
+            throws HttpException, IOException {
+            final long start = System.nanoTime();
+            final HttpResponse response;
+            try {
+                response = super.doReceiveResponse(request, conn, context);
+            } finally {
+                record(RequestPhase.WAIT, start);
+            }
+            events.responseHeadersReceived(currentRequest(), response.getStatusLine().getStatusCode());
+            return response;
+        }
+    }
+}
@@ -0,0 +1,165 @@
+/**
+ * Copyright 2019 SourceLab.org https://github.com/SourceLabOrg/http-client-wrapper
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit
+ * persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.sourcelab.http.rest.transport;
+
+import org.sourcelab.http.rest.request.Request;
+import org.sourcelab.http.rest.request.RequestHeader;
+import org.sourcelab.http.rest.request.RequestMethod;
+import org.sourcelab.http.rest.tracing.TraceContext;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * A request that has been passed through the shared request pipeline.  Request interceptors have been applied,
+ * the url has been constructed and the body has been encoded, leaving the {@link Transport} only to move bytes.
+ */
+public final class PreparedRequest {
+    private final Request request;
+    private final RequestMethod requestMethod;
+    private final String url;
+    private final List<RequestHeader> headers;
+    private final byte[] body;
+    private final String contentType;
+    private final TraceContext traceContext;
+    private final RequestCancellation cancellation;
+
+    /**
+     * Constructor.
+     * @param request The original request.
+     * @param requestMethod The http method.
+     * @param url Fully constructed url, including any query parameters.
+     * @param headers Headers to send with the request.
+     * @param body Encoded request body, or NULL if the request has no body.
+     * @param contentType Content-Type of the body, or NULL if the request has no body.
+     */
+    public PreparedRequest(
+        final Request request,
+        final RequestMethod requestMethod,
+        final String url,
+        final List<RequestHeader> headers,
+        final byte[] body,
+        final String contentType) {
+        this(request, requestMethod, url, headers, body, contentType, null);
+    }
+
+    /**
+     * Constructor.
+     * @param request The original request.
+     * @param requestMethod The http method.
+     * @param url Fully constructed url, including any query parameters.
+     * @param headers Headers to send with the request.
+     * @param body Encoded request body, or NULL if the request has no body.
+     * @param contentType Content-Type of the body, or NULL if the request has no body.
+     * @param traceContext Trace context sent with the request, or NULL if tracing is not enabled.
+     */
+    public PreparedRequest(
+        final Request request,
+        final RequestMethod requestMethod,
+        final String url,
+        final List<RequestHeader> headers,
+        final byte[] body,
+        final String contentType,
+        final TraceContext traceContext) {
+        this(request, requestMethod, url, headers, body, contentType, traceContext, null);
+    }
+
+    private PreparedRequest(
+        final Request request,
+        final RequestMethod requestMethod,
+        final String url,
+        final List<RequestHeader> headers,
+        final byte[] body,
+        final String contentType,
+        final TraceContext traceContext,
+        final RequestCancellation cancellation) {
+        this.request = Objects.requireNonNull(request);
+        this.requestMethod = Objects.requireNonNull(requestMethod);
+        this.url = Objects.requireNonNull(url);
+        this.headers = Collections.unmodifiableList(Objects.requireNonNull(headers));
+        this.body = body;
+        this.contentType = contentType;
+        this.traceContext = traceContext;
+        this.cancellation = cancellation;
+    }
+
+    /**
+     * Copy of this request which may be cancelled via the given cancellation.
+     * @param cancellation Cancels the copy.
+     * @return New PreparedRequest instance.
+     */
+    public PreparedRequest withCancellation(final RequestCancellation cancellation) {
+        return new PreparedRequest(request, requestMethod, url, headers, body, contentType, traceContext, Objects.requireNonNull(cancellation));
+    }
+
+    public Request getRequest() {
+        return request;
+    }
+
+    public RequestMethod getRequestMethod() {
+        return requestMethod;
+    }
+
+    public String getUrl() {
+        return url;
+    }
+
+    public List<RequestHeader> getHeaders() {
+        return headers;
+    }
+
+    /**
+     * Encoded request body.  The returned array is shared and must not be modified.
+     * @return Encoded request body, or NULL if the request has no body.
+     */
+    public byte[] getBody() {
+        return body;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    /**
+     * Trace context sent with the request.
+     * @return NULL if tracing is not enabled, otherwise trace context.
+     */
+    public TraceContext getTraceContext() {
+        return traceContext;
+    }
+
+    /**
+     * Cancellation which transports should honor by aborting the request.
+     * @return NULL if the request may not be cancelled, otherwise its cancellation.
+     */
+    public RequestCancellation getCancellation() {
+        return cancellation;
+    }
+
+    @Override
+    public String toString() {
+        return "PreparedRequest{"
+            + "requestMethod=" + requestMethod
+            + ", url='" + url + '\''
+            + ", headers=" + headers
+            + ", contentType='" + contentType + '\''
+            + ", bodyLength=" + (body == null ? 0 : body.length)
+            + '}';
+    }
+}
@@ -0,0 +1,151 @@
+/**
+ * Copyright 2019 SourceLab.org https://github.com/SourceLabOrg/http-client-wrapper
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit
+ * persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.sourcelab.http.rest.transport;
+
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Token bucket rate limiter, implemented as a generic cell rate algorithm (GCRA).
+ *
+ * Rather than tracking a token count and refill time, the bucket is held as a single theoretical arrival time,
+ * advanced by one emission interval for each permit.  A permit is available immediately while that time is no
+ * further ahead of now than the burst allows, otherwise the caller must wait out the difference.  Permits are
+ * reserved with a single compare-and-set.
+ */
+public final class RateLimiter {
+    private final String name;
+    private final double permitsPerSecond;
+    private final int burst;
+    private final long emissionIntervalInNanos;
+    private final long burstToleranceInNanos;
+
+    /**
+     * Theoretical arrival time of the next permit, in System.nanoTime() terms.
+     */
+    private final AtomicLong theoreticalArrivalTime;
+
+    // Metrics
+    private final LongAdder permitted = new LongAdder();
+    private final LongAdder delayed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+
+    /**
+     * Constructor.
+     * @param name Name of the rate limiter, the API host or endpoint pattern.
+     * @param permitsPerSecond sustained number of permits per second.
+     * @param burst number of permits which may be acquired at once, after a period of inactivity.
+     * @param nowInNanos current System.nanoTime() style timestamp.
+     */
+    RateLimiter(final String name, final double permitsPerSecond, final int burst, final long nowInNanos) {
+        this.name = Objects.requireNonNull(name);
+        this.permitsPerSecond = permitsPerSecond;
+        this.burst = burst;
+        this.emissionIntervalInNanos = Math.max(1, Math.round(TimeUnit.SECONDS.toNanos(1) / permitsPerSecond));
+        this.burstToleranceInNanos = emissionIntervalInNanos * (burst - 1);
+        this.theoreticalArrivalTime = new AtomicLong(nowInNanos);
+    }
+
+    /**
+     * Reserve a permit, provided it is available within the given wait.
+     * @param nowInNanos current System.nanoTime() style timestamp.
+     * @param maxWaitInNanos longest the caller is willing to wait for the permit.
+     * @return how long the caller must wait before using the permit, or -1 if not reserved.
+     */
+    long tryReserve(final long nowInNanos, final long maxWaitInNanos) {
+        while (true) {
+            final long current = theoreticalArrivalTime.get();
+            final long base = Math.max(current, nowInNanos);
+            final long wait = base - burstToleranceInNanos - nowInNanos;
+            if (wait > maxWaitInNanos) {
+                rejected.increment();
+                return -1;
+            }
+            if (theoreticalArrivalTime.compareAndSet(current, base + emissionIntervalInNanos)) {
+                permitted.increment();
+                if (wait > 0) {
+                    delayed.increment();
+                    return wait;
+                }
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * Return a reserved permit which will not be used.
+     */
+    void cancelReservation() {
+        theoreticalArrivalTime.addAndGet(-emissionIntervalInNanos);
+        permitted.decrement();
+    }
+
+    /**
+     * Name of the rate limiter.
+     * @return the API host or endpoint pattern the rate limit applies to.
+     */
+    public String getName() {
+        return name;
+    }
+
+    public double getPermitsPerSecond() {
+        return permitsPerSecond;
+    }
+
+    public int getBurst() {
+        return burst;
+    }
+
+    /**
+     * Number of permits granted, whether immediately or after waiting.
+     * @return number of permits.
+     */
+    public long getPermittedCount() {
+        return permitted.sum();
+    }
+
+    /**
+     * Number of permits granted only after waiting.
+     * @return number of delayed permits.
+     */
+    public long getDelayedCount() {
+        return delayed.sum();
+    }
+
+    /**
+     * Number of requests rejected as no permit was available within the maximum wait.
+     * @return number of rejected requests.
+     */
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+
+    @Override
+    public String toString() {
+        return "RateLimiter{"
+            + "name='" + name + '\''
+            + ", permitsPerSecond=" + permitsPerSecond
+            + ", burst=" + burst
+            + ", permitted=" + getPermittedCount()
+            + ", delayed=" + getDelayedCount()
+            + ", rejected=" + getRejectedCount()
+            + '}';
+    }
+}
@@ -0,0 +1,196 @@
+/**
+ * Copyright 2019 SourceLab.org https://github.com/SourceLabOrg/http-client-wrapper
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit
+ * persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.sourcelab.http.rest.transport;
+
+import org.sourcelab.http.rest.RestException;
+import org.sourcelab.http.rest.RestResponse;
+import org.sourcelab.http.rest.configuration.Configuration;
+import org.sourcelab.http.rest.configuration.RateLimiterConfiguration;
+import org.sourcelab.http.rest.exceptions.RateLimitExceededException;
+import org.sourcelab.http.rest.exceptions.RequestCancelledException;
+import org.sourcelab.http.rest.request.StreamingRequest;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Transport decorator enforcing client side rate limits.  Each request acquires a permit from the API host's
+ * {@link RateLimiter}, if configured, and from the rate limiter of the first endpoint pattern it matches.
+ *
+ * Requests wait for permits up to {@link RateLimiterConfiguration#getMaxWaitInMilliseconds()}.  If a permit is not
+ * available within that period, the request fails immediately with a {@link RateLimitExceededException}.
+ */
+public class RateLimitingTransport implements Transport {
+    private final Transport delegate;
+    private final RateLimiterConfiguration rateLimiterConfiguration;
+    private final LongSupplier nanoClock;
+    private final Sleeper sleeper;
+    private final long maxWaitInNanos;
+
+    // Created on init.
+    private RateLimiter hostRateLimiter;
+    private List<RateLimiter> endpointRateLimiters = Collections.emptyList();
+
+    /**
+     * Constructor.
+     * @param delegate Transport to execute requests with.
+     * @param rateLimiterConfiguration Defines rate limits.
+     */
+    public RateLimitingTransport(final Transport delegate, final RateLimiterConfiguration rateLimiterConfiguration) {
+        this(delegate, rateLimiterConfiguration, System::nanoTime, TimeUnit.NANOSECONDS::sleep);
+    }
+
+    /**
+     * Constructor.
+     * @param delegate Transport to execute requests with.
+     * @param rateLimiterConfiguration Defines rate limits.
+     * @param nanoClock Source of System.nanoTime() style timestamps.
+     * @param sleeper Waits for reserved permits.
+     */
+    RateLimitingTransport(
+        final Transport delegate,
+        final RateLimiterConfiguration rateLimiterConfiguration,
+        final LongSupplier nanoClock,
+        final Sleeper sleeper) {
+        this.delegate = Objects.requireNonNull(delegate);
+        this.rateLimiterConfiguration = Objects.requireNonNull(rateLimiterConfiguration);
+        this.nanoClock = Objects.requireNonNull(nanoClock);
+        this.sleeper = Objects.requireNonNull(sleeper);
+        this.maxWaitInNanos = TimeUnit.MILLISECONDS.toNanos(rateLimiterConfiguration.getMaxWaitInMilliseconds());
+    }
+
+    @Override
+    public void init(final Configuration configuration) {
+        final long now = nanoClock.getAsLong();
+        final RateLimiterConfiguration.RateLimit hostRateLimit = rateLimiterConfiguration.getHostRateLimit();
+        if (hostRateLimit != null) {
+            hostRateLimiter = new RateLimiter(configuration.getApiHost(), hostRateLimit.getPermitsPerSecond(), hostRateLimit.getBurst(), now);
+        }
+
+        final List<RateLimiter> rateLimiters = new ArrayList<>();
+        for (final RateLimiterConfiguration.EndpointRateLimit endpointRateLimit : rateLimiterConfiguration.getEndpointRateLimits()) {
+            rateLimiters.add(new RateLimiter(
+                endpointRateLimit.getEndpointPattern().pattern(), endpointRateLimit.getPermitsPerSecond(), endpointRateLimit.getBurst(), now
+            ));
+        }
+        endpointRateLimiters = Collections.unmodifiableList(rateLimiters);
+
+        delegate.init(configuration);
+    }
+
+    @Override
+    public RestResponse execute(final PreparedRequest request) throws RestException {
+        acquire(request);
+        return delegate.execute(request);
+    }
+
+    @Override
+    public <T> T executeStreaming(final PreparedRequest request, final StreamingRequest<T> streamingRequest) throws RestException {
+        acquire(request);
+        return delegate.executeStreaming(request, streamingRequest);
+    }
+
+    @Override
+    public void close() {
+        delegate.close();
+    }
+
+    /**
+     * The API host and endpoint rate limiters.
+     * @return Unmodifiable collection of rate limiters.
+     */
+    public Collection<RateLimiter> getRateLimiters() {
+        final List<RateLimiter> rateLimiters = new ArrayList<>();
+        if (hostRateLimiter != null) {
+            rateLimiters.add(hostRateLimiter);
+        }
+        rateLimiters.addAll(endpointRateLimiters);
+        return Collections.unmodifiableList(rateLimiters);
+    }
+
+    /**
+     * Acquire permits for the request, waiting if required.
+     * @throws RateLimitExceededException if permits are not available within the maximum wait.
+     * @throws RequestCancelledException if the request was cancelled while waiting.
+     */
+    private void acquire(final PreparedRequest request) {
+        final long now = nanoClock.getAsLong();
+
+        // Reserve from the endpoint first, it's typically the tighter limit.
+        final RateLimiter endpointRateLimiter = findEndpointRateLimiter(request.getRequest().getApiEndpoint());
+        long wait = 0;
+        if (endpointRateLimiter != null) {
+            wait = reserve(endpointRateLimiter, now, null);
+        }
+        if (hostRateLimiter != null) {
+            // Waits overlap, so the request waits for whichever permit is available last.
+            wait = Math.max(wait, reserve(hostRateLimiter, now, endpointRateLimiter));
+        }
+
+        if (wait > 0) {
+            final long waitInNanos = wait;
+            try {
+                RequestCancellation.await(request, () -> {
+                    sleeper.sleep(waitInNanos);
+                    return null;
+                });
+            } catch (final InterruptedException exception) {
+                if (!RequestCancellation.isCancelled(request)) {
+                    Thread.currentThread().interrupt();
+                    throw new RestException("Interrupted while waiting for rate limit permit", exception);
+                }
+            }
+        }
+        if (RequestCancellation.isCancelled(request)) {
+            // Return the unused permits to other requests.
+            if (endpointRateLimiter != null) {
+                endpointRateLimiter.cancelReservation();
+            }
+            if (hostRateLimiter != null) {
+                hostRateLimiter.cancelReservation();
+            }
+            throw RequestCancellation.cancelled(request);
+        }
+    }
+
+    private long reserve(final RateLimiter rateLimiter, final long now, final RateLimiter reservedRateLimiter) {
+        final long wait = rateLimiter.tryReserve(now, maxWaitInNanos);
+        if (wait < 0) {
+            if (reservedRateLimiter != null) {
+                reservedRateLimiter.cancelReservation();
+            }
+            throw new RateLimitExceededException("Rate limit '" + rateLimiter.getName() + "' exceeded", rateLimiter.getName());
+        }
+        return wait;
+    }
+
+    private RateLimiter findEndpointRateLimiter(final String endpoint) {
+        final List<RateLimiterConfiguration.EndpointRateLimit> endpointRateLimits = rateLimiterConfiguration.getEndpointRateLimits();
+        for (int index = 0; index < endpointRateLimits.size(); index++) {
+            if (endpointRateLimits.get(index).getEndpointPattern().matcher(endpoint).matches()) {
+                return endpointRateLimiters.get(index);
+            }
+        }
+        return null;
+    }
+}
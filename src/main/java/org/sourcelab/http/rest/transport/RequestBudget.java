@@ -0,0 +1,81 @@
+/**
+ * Copyright 2019 SourceLab.org https://github.com/SourceLabOrg/http-client-wrapper
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit
+ * persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.sourcelab.http.rest.transport;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token bucket limiting additional requests, such as retries or hedges, to a fraction of requests.  Each request
+ * deposits a fraction of a token, each additional request withdraws a whole token, so additional requests cannot
+ * multiply the traffic sent to the API host.
+ */
+class RequestBudget {
+    // Tokens are held as thousandths, allowing fractional deposits without locking.
+    private static final long TOKEN = 1000;
+
+    private final long depositPerRequest;
+    private final long maxBalance;
+    private final AtomicLong balance;
+
+    /**
+     * Constructor.  The budget starts full.
+     * @param ratio tokens deposited per request.
+     * @param maxTokens maximum number of tokens held.
+     */
+    RequestBudget(final double ratio, final int maxTokens) {
+        this.depositPerRequest = Math.round(ratio * TOKEN);
+        this.maxBalance = maxTokens * TOKEN;
+        this.balance = new AtomicLong(maxBalance);
+    }
+
+    /**
+     * Record a request.
+     */
+    void deposit() {
+        while (true) {
+            final long current = balance.get();
+            if (current >= maxBalance || balance.compareAndSet(current, Math.min(maxBalance, current + depositPerRequest))) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Attempt to spend a token for an additional request.
+     * @return true if the additional request may proceed.
+     */
+    boolean tryWithdraw() {
+        while (true) {
+            final long current = balance.get();
+            if (current < TOKEN) {
+                return false;
+            }
+            if (balance.compareAndSet(current, current - TOKEN)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Number of additional requests currently available.
+     * @return available tokens.
+     */
+    double getAvailable() {
+        return (double) balance.get() / TOKEN;
+    }
+}
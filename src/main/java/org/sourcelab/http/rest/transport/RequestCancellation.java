@@ -0,0 +1,161 @@
+/**
+ * Copyright 2019 SourceLab.org https://github.com/SourceLabOrg/http-client-wrapper
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit
+ * persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.sourcelab.http.rest.transport;
+
+import org.sourcelab.http.rest.exceptions.RequestCancelledException;
+
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Allows an in flight request to be cancelled, for example the losing attempt of a hedged request.  Transports
+ * register an action aborting the underlying request via {@link #onCancel(Runnable)}, which releases its connection
+ * rather than waiting for the response or a socket timeout.
+ *
+ * A cancelled request is expected to fail.  Decorators closer to the wire should not record that failure against the
+ * API host, see {@link #isCancelled(PreparedRequest)}.  Decorators waiting on behalf of a request, for example for a
+ * bulkhead slot, are woken when it is cancelled, see {@link #await(PreparedRequest, Wait)}.
+ */
+public final class RequestCancellation {
+    private volatile boolean cancelled = false;
+    private final AtomicReference<Runnable> abortAction = new AtomicReference<>();
+
+    /**
+     * Register the action aborting the underlying request, replacing any previous action.  Run immediately if the
+     * request has already been cancelled.
+     * @param abortAction Aborts the underlying request, must be safe to call from any thread.
+     */
+    public void onCancel(final Runnable abortAction) {
+        this.abortAction.set(Objects.requireNonNull(abortAction));
+        if (cancelled) {
+            runAbortAction();
+        }
+    }
+
+    /**
+     * Cancel the request, aborting it if in flight.
+     */
+    public void cancel() {
+        cancelled = true;
+        runAbortAction();
+    }
+
+    /**
+     * Whether the request has been cancelled.
+     * @return true if cancelled.
+     */
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * Whether the given request has been cancelled.
+     * @param request The request.
+     * @return true if the request has a cancellation, and was cancelled.
+     */
+    public static boolean isCancelled(final PreparedRequest request) {
+        return request.getCancellation() != null && request.getCancellation().isCancelled();
+    }
+
+    /**
+     * Wait on behalf of the given request, interrupting the wait if the request is cancelled.  Once the wait returns,
+     * callers should check {@link #isCancelled(PreparedRequest)}, and give back anything acquired if so.
+     * @param request The request being waited for.
+     * @param wait The wait.
+     * @param <T> result of the wait.
+     * @return result of the wait.
+     * @throws InterruptedException if interrupted, or the request was cancelled, while waiting.
+     */
+    static <T> T await(final PreparedRequest request, final Wait<T> wait) throws InterruptedException {
+        final RequestCancellation cancellation = request.getCancellation();
+        if (cancellation == null) {
+            return wait.await();
+        }
+        final WaitInterrupter interrupter = new WaitInterrupter(Thread.currentThread());
+        cancellation.onCancel(interrupter);
+        try {
+            return wait.await();
+        } finally {
+            if (interrupter.finish()) {
+                // Clear an interrupt the wait did not consume, so it cannot leak into the rest of the request.
+                Thread.interrupted();
+            }
+        }
+    }
+
+    /**
+     * Exception thrown in place of continuing a cancelled request.
+     * @param request The cancelled request.
+     * @return RequestCancelledException instance.
+     */
+    static RequestCancelledException cancelled(final PreparedRequest request) {
+        return new RequestCancelledException("Request to " + request.getUrl() + " was cancelled");
+    }
+
+    private void runAbortAction() {
+        // Run the action at most once.
+        final Runnable action = abortAction.getAndSet(null);
+        if (action != null) {
+            action.run();
+        }
+    }
+
+    /**
+     * A blocking wait, for example for a slot or permit.
+     * @param <T> result of the wait.
+     */
+    @FunctionalInterface
+    interface Wait<T> {
+        /**
+         * Wait.
+         * @return result of the wait.
+         * @throws InterruptedException if interrupted while waiting.
+         */
+        T await() throws InterruptedException;
+    }
+
+    /**
+     * Interrupts a waiting thread, but only while it is still waiting.
+     */
+    private static final class WaitInterrupter implements Runnable {
+        private final Thread waiter;
+        private boolean waiting = true;
+        private boolean interrupted = false;
+
+        private WaitInterrupter(final Thread waiter) {
+            this.waiter = waiter;
+        }
+
+        @Override
+        public synchronized void run() {
+            if (waiting) {
+                interrupted = true;
+                waiter.interrupt();
+            }
+        }
+
+        /**
+         * Stop interrupting the waiter.
+         * @return true if the waiter was interrupted.
+         */
+        synchronized boolean finish() {
+            waiting = false;
+            return interrupted;
+        }
+    }
+}
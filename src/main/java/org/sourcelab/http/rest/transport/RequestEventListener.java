@@ -0,0 +1,101 @@
+/**
+ * Copyright 2019 SourceLab.org https://github.com/SourceLabOrg/http-client-wrapper
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit
+ * persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.sourcelab.http.rest.transport;
+
+/**
+ * Notified as each request executed by the {@link HttpClientTransport} moves through its lifecycle, for building
+ * custom latency and connection reuse telemetry.  All methods default to doing nothing, so implementations only need
+ * to override the events they are interested in.
+ *
+ * Callbacks are made on the requesting thread and should return quickly.  Each is passed a System.nanoTime()
+ * timestamp, which is monotonic and only meaningful relative to other timestamps.  Retried and hedged requests are
+ * notified once per attempt, and exceptions thrown by a listener are logged and otherwise ignored.
+ */
+public interface RequestEventListener {
+
+    /**
+     * Called before an attempt at the request is executed.
+     * @param request The request.
+     * @param nanoTime System.nanoTime() timestamp of the event.
+     */
+    default void onRequestStart(final PreparedRequest request, final long nanoTime) {
+    }
+
+    /**
+     * Called once a connection has been leased from the connection pool.
+     * @param request The request.
+     * @param reused true if the connection is already open, false if a new connection will be established.
+     * @param nanoTime System.nanoTime() timestamp of the event.
+     */
+    default void onConnectionAcquired(final PreparedRequest request, final boolean reused, final long nanoTime) {
+    }
+
+    /**
+     * Called once the request line, headers and body have been written to the connection.
+     * @param request The request.
+     * @param nanoTime System.nanoTime() timestamp of the event.
+     */
+    default void onRequestSent(final PreparedRequest request, final long nanoTime) {
+    }
+
+    /**
+     * Called once the response status line and headers have been received.  Redirects and authentication challenges
+     * are followed within a single attempt, so may be notified more than once.
+     * @param request The request.
+     * @param httpCode The http status code of the response.
+     * @param nanoTime System.nanoTime() timestamp of the event.
+     */
+    default void onResponseHeadersReceived(final PreparedRequest request, final int httpCode, final long nanoTime) {
+    }
+
+    /**
+     * Called once the response body has been consumed, by the transport or a streaming request's parser.
+     * @param request The request.
+     * @param nanoTime System.nanoTime() timestamp of the event.
+     */
+    default void onResponseBodyConsumed(final PreparedRequest request, final long nanoTime) {
+    }
+
+    /**
+     * Called once the connection has been released back to the connection pool.
+     * @param request The request.
+     * @param reusable true if the connection was kept alive for reuse, false if it was closed.
+     * @param nanoTime System.nanoTime() timestamp of the event.
+     */
+    default void onConnectionReleased(final PreparedRequest request, final boolean reusable, final long nanoTime) {
+    }
+
+    /**
+     * Called when an attempt at the request has failed with an exception.
+     * @param request The request.
+     * @param exception The exception thrown to the caller.
+     * @param nanoTime System.nanoTime() timestamp of the event.
+     */
+    default void onRequestFailed(final PreparedRequest request, final RuntimeException exception, final long nanoTime) {
+    }
+
+    /**
+     * Called when the request is about to be retried by the {@link RetryingTransport}, before waiting out the delay.
+     * @param request The request.
+     * @param attemptNumber The attempt about to be made, starting from 2 for the first retry.
+     * @param delayInMilliseconds Delay before the attempt is made.
+     * @param nanoTime System.nanoTime() timestamp of the event.
+     */
+    default void onRetry(final PreparedRequest request, final int attemptNumber, final long delayInMilliseconds, final long nanoTime) {
+    }
+}
@@ -0,0 +1,169 @@
+/**
+ * Copyright 2019 SourceLab.org https://github.com/SourceLabOrg/http-client-wrapper
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit
+ * persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.sourcelab.http.rest.transport;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+
+/**
+ * Dispatches request lifecycle events to the configured {@link RequestEventListener}s.
+ *
+ * When no listeners are configured every method returns immediately, without reading the clock or allocating.
+ * Events for a NULL request, such as a connection leased outside of a request, are ignored.
+ */
+final class RequestEvents {
+    private static final Logger logger = LoggerFactory.getLogger(RequestEvents.class);
+
+    /**
+     * Dispatches to no listeners.
+     */
+    static final RequestEvents NONE = new RequestEvents(new RequestEventListener[0]);
+
+    private final RequestEventListener[] listeners;
+
+    private RequestEvents(final RequestEventListener[] listeners) {
+        this.listeners = listeners;
+    }
+
+    /**
+     * Create a dispatcher for the given listeners.
+     * @param listeners The listeners, may be empty.
+     * @return dispatcher instance.
+     */
+    static RequestEvents of(final List<RequestEventListener> listeners) {
+        return listeners.isEmpty() ? NONE : new RequestEvents(listeners.toArray(new RequestEventListener[0]));
+    }
+
+    void requestStart(final PreparedRequest request) {
+        if (listeners.length == 0 || request == null) {
+            return;
+        }
+        final long nanoTime = System.nanoTime();
+        for (final RequestEventListener listener : listeners) {
+            try {
+                listener.onRequestStart(request, nanoTime);
+            } catch (final RuntimeException exception) {
+                logListenerError(exception);
+            }
+        }
+    }
+
+    void connectionAcquired(final PreparedRequest request, final boolean reused) {
+        if (listeners.length == 0 || request == null) {
+            return;
+        }
+        final long nanoTime = System.nanoTime();
+        for (final RequestEventListener listener : listeners) {
+            try {
+                listener.onConnectionAcquired(request, reused, nanoTime);
+            } catch (final RuntimeException exception) {
+                logListenerError(exception);
+            }
+        }
+    }
+
+    void requestSent(final PreparedRequest request) {
+        if (listeners.length == 0 || request == null) {
+            return;
+        }
+        final long nanoTime = System.nanoTime();
+        for (final RequestEventListener listener : listeners) {
+            try {
+                listener.onRequestSent(request, nanoTime);
+            } catch (final RuntimeException exception) {
+                logListenerError(exception);
+            }
+        }
+    }
+
+    void responseHeadersReceived(final PreparedRequest request, final int httpCode) {
+        if (listeners.length == 0 || request == null) {
+            return;
+        }
+        final long nanoTime = System.nanoTime();
+        for (final RequestEventListener listener : listeners) {
+            try {
+                listener.onResponseHeadersReceived(request, httpCode, nanoTime);
+            } catch (final RuntimeException exception) {
+                logListenerError(exception);
+            }
+        }
+    }
+
+    void responseBodyConsumed(final PreparedRequest request) {
+        if (listeners.length == 0 || request == null) {
+            return;
+        }
+        final long nanoTime = System.nanoTime();
+        for (final RequestEventListener listener : listeners) {
+            try {
+                listener.onResponseBodyConsumed(request, nanoTime);
+            } catch (final RuntimeException exception) {
+                logListenerError(exception);
+            }
+        }
+    }
+
+    void connectionReleased(final PreparedRequest request, final boolean reusable) {
+        if (listeners.length == 0 || request == null) {
+            return;
+        }
+        final long nanoTime = System.nanoTime();
+        for (final RequestEventListener listener : listeners) {
+            try {
+                listener.onConnectionReleased(request, reusable, nanoTime);
+            } catch (final RuntimeException exception) {
+                logListenerError(exception);
+            }
+        }
+    }
+
+    void requestFailed(final PreparedRequest request, final RuntimeException failure) {
+        if (listeners.length == 0 || request == null) {
+            return;
+        }
+        final long nanoTime = System.nanoTime();
+        for (final RequestEventListener listener : listeners) {
+            try {
+                listener.onRequestFailed(request, failure, nanoTime);
+            } catch (final RuntimeException exception) {
+                logListenerError(exception);
+            }
+        }
+    }
+
+    void retry(final PreparedRequest request, final int attemptNumber, final long delayInMilliseconds) {
+        if (listeners.length == 0 || request == null) {
+            return;
+        }
+        final long nanoTime = System.nanoTime();
+        for (final RequestEventListener listener : listeners) {
+            try {
+                listener.onRetry(request, attemptNumber, delayInMilliseconds, nanoTime);
+            } catch (final RuntimeException exception) {
+                logListenerError(exception);
+            }
+        }
+    }
+
+    private static void logListenerError(final RuntimeException exception) {
+        logger.error("Error notifying request event listener: {}", exception.getMessage(), exception);
+    }
+}
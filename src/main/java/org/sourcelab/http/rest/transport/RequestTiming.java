@@ -0,0 +1,96 @@
+/**
+ * Copyright 2019 SourceLab.org https://github.com/SourceLabOrg/http-client-wrapper
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit
+ * persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.sourcelab.http.rest.transport;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time spent in each {@link RequestPhase} of a single request.  Phases which did not occur, for example DNS, CONNECT
+ * and TLS when a pooled connection was reused, are reported as -1.
+ */
+public final class RequestTiming {
+    private final long[] phaseNanos = new long[RequestPhase.values().length];
+    private long totalNanos = -1;
+
+    /**
+     * Constructor.
+     */
+    RequestTiming() {
+        Arrays.fill(phaseNanos, -1);
+    }
+
+    void record(final RequestPhase phase, final long nanos) {
+        final int index = phase.ordinal();
+        phaseNanos[index] = Math.max(0, phaseNanos[index]) + nanos;
+    }
+
+    void recordTotal(final long nanos) {
+        totalNanos = nanos;
+    }
+
+    /**
+     * Time spent in a phase.
+     * @param phase The phase.
+     * @return time in microseconds, or -1 if the phase did not occur.
+     */
+    public long getPhaseInMicros(final RequestPhase phase) {
+        final long nanos = phaseNanos[phase.ordinal()];
+        return nanos < 0 ? -1 : TimeUnit.NANOSECONDS.toMicros(nanos);
+    }
+
+    /**
+     * Whether a new connection was opened for the request, rather than reusing a pooled connection.
+     * @return true if a new connection was opened.
+     */
+    public boolean isNewConnection() {
+        return phaseNanos[RequestPhase.CONNECT.ordinal()] >= 0;
+    }
+
+    /**
+     * Time from starting the request until the response status line and headers were received.
+     * @return time in microseconds.
+     */
+    public long getTimeToFirstByteInMicros() {
+        long nanos = 0;
+        for (final RequestPhase phase : RequestPhase.values()) {
+            if (phase != RequestPhase.RECEIVE) {
+                nanos += Math.max(0, phaseNanos[phase.ordinal()]);
+            }
+        }
+        return TimeUnit.NANOSECONDS.toMicros(nanos);
+    }
+
+    /**
+     * Time from starting the request until it completed, including time not attributed to a phase.
+     * @return time in microseconds, or -1 if the request has not completed.
+     */
+    public long getTotalInMicros() {
+        final long nanos = totalNanos;
+        return nanos < 0 ? -1 : TimeUnit.NANOSECONDS.toMicros(nanos);
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder stringBuilder = new StringBuilder("RequestTiming{");
+        for (final RequestPhase phase : RequestPhase.values()) {
+            stringBuilder.append(phase.name().toLowerCase()).append("InMicros=").append(getPhaseInMicros(phase)).append(", ");
+        }
+        return stringBuilder.append("totalInMicros=").append(getTotalInMicros()).append('}').toString();
+    }
+}
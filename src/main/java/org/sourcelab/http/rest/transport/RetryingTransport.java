@@ -0,0 +1,212 @@
+/**
+ * Copyright 2019 SourceLab.org https://github.com/SourceLabOrg/http-client-wrapper
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit
+ * persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.sourcelab.http.rest.transport;
+
+import org.apache.http.client.utils.DateUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.sourcelab.http.rest.RestException;
+import org.sourcelab.http.rest.RestResponse;
+import org.sourcelab.http.rest.configuration.Configuration;
+import org.sourcelab.http.rest.configuration.RetryConfiguration;
+import org.sourcelab.http.rest.exceptions.ConnectionException;
+import org.sourcelab.http.rest.request.StreamingRequest;
+
+import java.util.Date;
+import java.util.Objects;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Transport decorator which retries requests failing with a {@link ConnectionException} or a retryable status code.
+ *
+ * Only request methods nominated by {@link RetryConfiguration#getRetryableMethods()} are retried.  Delays between
+ * attempts use decorrelated jitter, and a Retry-After response header is honored as a minimum delay.  Retries are
+ * limited by a {@link RequestBudget} shared by all requests.  Streaming requests are only retried on connection failures,
+ * as their response status is handled by the request's parser.
+ */
+public class RetryingTransport implements Transport {
+    private static final Logger logger = LoggerFactory.getLogger(RetryingTransport.class);
+
+    private final Transport delegate;
+    private final RetryConfiguration retryConfiguration;
+    private final Sleeper sleeper;
+    private final RequestBudget retryBudget;
+    private final RetryStatistics statistics = new RetryStatistics();
+    private RequestEvents events = RequestEvents.NONE;
+
+    /**
+     * Constructor.
+     * @param delegate Transport to execute requests with.
+     * @param retryConfiguration Defines when and how requests are retried.
+     */
+    public RetryingTransport(final Transport delegate, final RetryConfiguration retryConfiguration) {
+        this(delegate, retryConfiguration, TimeUnit.NANOSECONDS::sleep);
+    }
+
+    /**
+     * Constructor.
+     * @param delegate Transport to execute requests with.
+     * @param retryConfiguration Defines when and how requests are retried.
+     * @param sleeper Waits between attempts.
+     */
+    RetryingTransport(final Transport delegate, final RetryConfiguration retryConfiguration, final Sleeper sleeper) {
+        this.delegate = Objects.requireNonNull(delegate);
+        this.retryConfiguration = Objects.requireNonNull(retryConfiguration);
+        this.sleeper = Objects.requireNonNull(sleeper);
+        this.retryBudget = new RequestBudget(retryConfiguration.getRetryBudgetRatio(), retryConfiguration.getMaxRetryBudget());
+    }
+
+    @Override
+    public void init(final Configuration configuration) {
+        events = RequestEvents.of(configuration.getRequestEventListeners());
+        delegate.init(configuration);
+    }
+
+    @Override
+    public RestResponse execute(final PreparedRequest request) throws RestException {
+        return executeWithRetries(request, () -> delegate.execute(request), true);
+    }
+
+    @Override
+    public <T> T executeStreaming(final PreparedRequest request, final StreamingRequest<T> streamingRequest) throws RestException {
+        return executeWithRetries(request, () -> delegate.executeStreaming(request, streamingRequest), false);
+    }
+
+    @Override
+    public void close() {
+        delegate.close();
+    }
+
+    /**
+     * Counters describing how often requests were retried.
+     * @return statistics instance.
+     */
+    public RetryStatistics getStatistics() {
+        return statistics;
+    }
+
+    /**
+     * Number of retries currently available in the retry budget.
+     * @return available retries.
+     */
+    public double getAvailableRetryBudget() {
+        return retryBudget.getAvailable();
+    }
+
+    private <T> T executeWithRetries(final PreparedRequest request, final Attempt<T> attempt, final boolean retryStatusCodes) {
+        retryBudget.deposit();
+        if (!retryConfiguration.getRetryableMethods().contains(request.getRequestMethod())) {
+            return attempt.execute();
+        }
+
+        long delay = retryConfiguration.getBaseDelayInMilliseconds();
+        for (int attemptNumber = 1; ; attemptNumber++) {
+            final T result;
+            try {
+                result = attempt.execute();
+            } catch (final ConnectionException exception) {
+                if (attemptNumber >= retryConfiguration.getMaxAttempts()) {
+                    throw exception;
+                }
+                delay = nextDelay(delay);
+                if (!awaitRetry(request, attemptNumber + 1, delay, exception.getMessage())) {
+                    throw exception;
+                }
+                continue;
+            }
+
+            if (!retryStatusCodes || attemptNumber >= retryConfiguration.getMaxAttempts()) {
+                return result;
+            }
+            final RestResponse response = (RestResponse) result;
+            if (!retryConfiguration.getRetryableStatusCodes().contains(response.getHttpCode())) {
+                return result;
+            }
+
+            // Honor Retry-After as a minimum, unless the API host asks us to wait longer than we're willing to.
+            final long retryAfter = getRetryAfterInMilliseconds(response);
+            if (retryAfter > retryConfiguration.getMaxDelayInMilliseconds()) {
+                return result;
+            }
+            delay = Math.max(nextDelay(delay), retryAfter);
+            if (!awaitRetry(request, attemptNumber + 1, delay, "status " + response.getHttpCode())) {
+                return result;
+            }
+        }
+    }
+
+    /**
+     * Decorrelated jitter, a random delay between the base delay and three times the previous delay.
+     * @param previousDelay previous delay in milliseconds.
+     * @return next delay in milliseconds.
+     */
+    long nextDelay(final long previousDelay) {
+        final long base = retryConfiguration.getBaseDelayInMilliseconds();
+        final long upper = Math.max(base, previousDelay * 3);
+        final long delay = base + (upper > base ? ThreadLocalRandom.current().nextLong(upper - base + 1) : 0);
+        return Math.min(retryConfiguration.getMaxDelayInMilliseconds(), delay);
+    }
+
+    /**
+     * Spend from the retry budget and wait out the delay.
+     * @return true if the request should be retried.
+     */
+    private boolean awaitRetry(final PreparedRequest request, final int attemptNumber, final long delay, final String reason) {
+        if (!retryBudget.tryWithdraw()) {
+            statistics.recordBudgetExhausted();
+            logger.debug("Not retrying {} after {}, retry budget exhausted", request, reason);
+            return false;
+        }
+        logger.debug("Retrying {} in {}ms after {}", request, delay, reason);
+        statistics.recordRetry();
+        events.retry(request, attemptNumber, delay);
+        try {
+            sleeper.sleep(TimeUnit.MILLISECONDS.toNanos(delay));
+            return true;
+        } catch (final InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * Parse the Retry-After response header, either delay seconds or an http date.
+     * @return delay in milliseconds, or 0 if not present or invalid.
+     */
+    static long getRetryAfterInMilliseconds(final RestResponse response) {
+        final String retryAfter = response.getHeader("Retry-After");
+        if (retryAfter == null || retryAfter.trim().isEmpty()) {
+            return 0;
+        }
+        final String value = retryAfter.trim();
+        try {
+            return Math.max(0, Long.parseLong(value) * 1000);
+        } catch (final NumberFormatException exception) {
+            final Date date = DateUtils.parseDate(value);
+            return date == null ? 0 : Math.max(0, date.getTime() - System.currentTimeMillis());
+        }
+    }
+
+    /**
+     * A single attempt at executing the request.
+     */
+    private interface Attempt<T> {
+        T execute();
+    }
+}
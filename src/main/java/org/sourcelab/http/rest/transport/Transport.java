@@ -0,0 +1,69 @@
+/**
+ * Copyright 2019 SourceLab.org https://github.com/SourceLabOrg/http-client-wrapper
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit
+ * persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.sourcelab.http.rest.transport;
+
+import org.sourcelab.http.rest.RestException;
+import org.sourcelab.http.rest.RestResponse;
+import org.sourcelab.http.rest.configuration.Configuration;
+import org.sourcelab.http.rest.handlers.StreamingResponseHandler;
+import org.sourcelab.http.rest.request.StreamingRequest;
+
+/**
+ * Moves a {@link PreparedRequest} over the wire and returns the response.  Interceptors, url construction and
+ * body encoding are handled before a request reaches the transport, allowing the underlying http library to
+ * be swapped without changing behavior.
+ *
+ * Implementations are created via a {@link TransportFactory}, selected by {@link Transports}.
+ */
+public interface Transport {
+    /**
+     * Initialization method.  This takes in the configuration and sets up the underlying
+     * http client appropriately.
+     * @param configuration The user defined configuration.
+     */
+    void init(final Configuration configuration);
+
+    /**
+     * Execute the request, blocking until the response is available.
+     * @param request The request to execute.
+     * @return The response.
+     * @throws RestException if something goes wrong.
+     */
+    RestResponse execute(final PreparedRequest request) throws RestException;
+
+    /**
+     * Execute the request, passing the response body stream directly to the request's parser.
+     *
+     * The default implementation buffers the response via {@link #execute(PreparedRequest)}, transports able to
+     * stream the response body should override this.
+     *
+     * @param request The request to execute.
+     * @param streamingRequest Parses the response body.
+     * @param <T> return type of the request.
+     * @return The parsed response.
+     * @throws RestException if something goes wrong.
+     */
+    default <T> T executeStreaming(final PreparedRequest request, final StreamingRequest<T> streamingRequest) throws RestException {
+        return StreamingResponseHandler.parseBufferedResponse(streamingRequest, execute(request));
+    }
+
+    /**
+     * Release any resources held by the transport.
+     */
+    void close();
+}
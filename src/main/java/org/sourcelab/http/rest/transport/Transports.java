@@ -0,0 +1,79 @@
+/**
+ * Copyright 2019 SourceLab.org https://github.com/SourceLabOrg/http-client-wrapper
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit
+ * persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package org.sourcelab.http.rest.transport;
+
+import org.sourcelab.http.rest.configuration.Configuration;
+
+import java.util.ServiceLoader;
+
+/**
+ * Resolves which {@link Transport} implementation to use for a given configuration.
+ *
+ * Resolution order is:
+ *   1. A TransportFactory instance explicitly defined on the configuration.
+ *   2. A TransportFactory registered via {@link ServiceLoader} matching the transport name defined on the configuration.
+ *   3. The default HttpClient based transport.
+ */
+public final class Transports {
+    /**
+     * Name of the default transport, backed by HttpClient.
+     */
+    public static final String DEFAULT_TRANSPORT = HttpClientTransport.NAME;
+
+    private Transports() {
+    }
+
+    /**
+     * Create a new, uninitialized, transport instance for the given configuration.
+     * @param configuration The user defined configuration.
+     * @return new Transport instance.
+     * @throws IllegalArgumentException if the configured transport name cannot be found.
+     */
+    public static Transport create(final Configuration configuration) {
+        if (configuration.getTransportFactory() != null) {
+            return configuration.getTransportFactory().create();
+        }
+        final String name = configuration.getTransport() == null ? DEFAULT_TRANSPORT : configuration.getTransport();
+        return findFactory(name).create();
+    }
+
+    /**
+     * Find the registered TransportFactory with the given name.
+     * @param name Name of the transport.
+     * @return TransportFactory instance.
+     * @throws IllegalArgumentException if no transport is registered with the given name.
+     */
+    public static TransportFactory findFactory(final String name) {
+        for (final TransportFactory factory : ServiceLoader.load(TransportFactory.class, Transports.class.getClassLoader())) {
+            if (factory.getName().equals(name)) {
+                return factory;
+            }
+        }
+
+        // Fall back to the context class loader for transports not visible to our own class loader.
+        final ClassLoader contextClassLoader = Thread.currentThread().getContextClassLoader();
+        if (contextClassLoader != null && contextClassLoader != Transports.class.getClassLoader()) {
+            for (final TransportFactory factory : ServiceLoader.load(TransportFactory.class, contextClassLoader)) {
+                if (factory.getName().equals(name)) {
+                    return factory;
+                }
+            }
+        }
+        throw new IllegalArgumentException("No transport registered with name '" + name + "'");
+    }
+}
@@ -0,0 +1,172 @@
+/**
+ * Copyright 2019 SourceLab.org https://github.com/SourceLabOrg/http-client-wrapper
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit
+ * persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.sourcelab.http.rest;
+
+import org.junit.jupiter.api.Test;
+import org.sourcelab.http.rest.configuration.Configuration;
+import org.sourcelab.http.rest.exceptions.ConnectionException;
+import org.sourcelab.http.rest.request.GetRequest;
+import org.sourcelab.http.rest.request.Request;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BatchSubmitterTest {
+
+    /**
+     * Results should be returned in input order, with failures captured per request.
+     */
+    @Test
+    void testSubmitAll_resultsInInputOrder() {
+        final StubRestClient restClient = new StubRestClient();
+        final List<Request> requests = createRequests(100);
+
+        final List<BatchResult> results = restClient.submitAll(requests, 8);
+
+        assertEquals(100, results.size());
+        for (int index = 0; index < results.size(); index++) {
+            final BatchResult result = results.get(index);
+            assertEquals(index, result.getIndex());
+            assertEquals(requests.get(index), result.getRequest());
+
+            // Every 10th request fails.
+            if (index % 10 == 0) {
+                assertFalse(result.isSuccess());
+                assertTrue(result.getException() instanceof ConnectionException);
+                assertNull(result.getResponse());
+            } else {
+                assertTrue(result.isSuccess());
+                assertEquals("/endpoint/" + index, result.getResponse().getResponseStr());
+            }
+        }
+    }
+
+    /**
+     * No more than the requested number of requests should be in flight at once.
+     */
+    @Test
+    void testSubmitAll_boundedParallelism() {
+        final StubRestClient restClient = new StubRestClient();
+        restClient.submitAll(createRequests(200), 4);
+
+        assertTrue(restClient.maxInFlight.get() <= 4, "Max in flight was " + restClient.maxInFlight.get());
+        assertEquals(200, restClient.submitted.get());
+    }
+
+    /**
+     * Streaming results should hand back every result on the calling thread.
+     */
+    @Test
+    void testSubmitAll_streamingResults() {
+        final StubRestClient restClient = new StubRestClient();
+        final Thread callingThread = Thread.currentThread();
+        final Set<Integer> indexes = Collections.synchronizedSet(new HashSet<>());
+
+        restClient.submitAll(createRequests(50), 5, (result) -> {
+            assertEquals(callingThread, Thread.currentThread());
+            indexes.add(result.getIndex());
+        });
+
+        assertEquals(50, indexes.size());
+    }
+
+    /**
+     * Empty batches complete immediately, and invalid parallelism is rejected.
+     */
+    @Test
+    void testSubmitAll_edgeCases() {
+        final StubRestClient restClient = new StubRestClient();
+        assertTrue(restClient.submitAll(Collections.emptyList(), 4).isEmpty());
+        assertThrows(IllegalArgumentException.class, () -> restClient.submitAll(createRequests(1), 0));
+    }
+
+    private List<Request> createRequests(final int numberOfRequests) {
+        final List<Request> requests = new ArrayList<>();
+        for (int index = 0; index < numberOfRequests; index++) {
+            requests.add(new DummyRequest("/endpoint/" + index, index % 10 == 0));
+        }
+        return requests;
+    }
+
+    /**
+     * RestClient echoing the requested endpoint, tracking concurrency.
+     */
+    private static class StubRestClient implements RestClient {
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private final AtomicInteger maxInFlight = new AtomicInteger();
+        private final AtomicInteger submitted = new AtomicInteger();
+
+        @Override
+        public void init(final Configuration configuration) {
+        }
+
+        @Override
+        public RestResponse submitRequest(final Request request) throws RestException {
+            final int current = inFlight.incrementAndGet();
+            maxInFlight.accumulateAndGet(current, Math::max);
+            submitted.incrementAndGet();
+            try {
+                Thread.sleep(1);
+                if (((DummyRequest) request).fail) {
+                    throw new ConnectionException("Connection refused", null);
+                }
+                return new RestResponse(request.getApiEndpoint(), 200);
+            } catch (final InterruptedException exception) {
+                throw new RestException(exception);
+            } finally {
+                inFlight.decrementAndGet();
+            }
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    /**
+     * Represents a dummy request.
+     */
+    private static class DummyRequest implements GetRequest<String> {
+        private final String endpoint;
+        private final boolean fail;
+
+        DummyRequest(final String endpoint, final boolean fail) {
+            this.endpoint = endpoint;
+            this.fail = fail;
+        }
+
+        @Override
+        public String getApiEndpoint() {
+            return endpoint;
+        }
+
+        @Override
+        public String parseResponse(final String responseStr) {
+            return responseStr;
+        }
+    }
+}
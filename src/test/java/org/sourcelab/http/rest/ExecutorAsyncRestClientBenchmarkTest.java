@@ -0,0 +1,122 @@
+/**
+ * Copyright 2019 SourceLab.org https://github.com/SourceLabOrg/http-client-wrapper
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit
+ * persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.sourcelab.http.rest;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.sourcelab.http.rest.configuration.BasicConfiguration;
+import org.sourcelab.http.rest.configuration.ConnectionPoolConfiguration;
+import org.sourcelab.http.rest.configuration.Configuration;
+import org.sourcelab.http.rest.request.GetRequest;
+import testserver.TestHttpServer;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Compares running blocking requests on a fixed pool of platform threads against a virtual thread per request,
+ * at increasing levels of concurrency against a local Jetty server with a simulated 20ms server think time.
+ *
+ * Disabled by default, run with:
+ * mvn test -Dtest=ExecutorAsyncRestClientBenchmarkTest -DrunBenchmarks=true
+ */
+@EnabledIfSystemProperty(named = "runBenchmarks", matches = "true")
+class ExecutorAsyncRestClientBenchmarkTest {
+    private static final Logger logger = LoggerFactory.getLogger(ExecutorAsyncRestClientBenchmarkTest.class);
+
+    private static final int HTTP_PORT = 10880;
+    private static final int[] CONCURRENCY_LEVELS = new int[] { 1_000, 2_500, 5_000, 10_000 };
+    private static final int FIXED_POOL_THREADS = 200;
+    private static final int MAX_CONNECTIONS = 500;
+
+    @Test
+    public void compareFixedPoolToVirtualThreads() throws Exception {
+        assumeTrue(ExecutorAsyncRestClient.isVirtualThreadSupported(), "Virtual threads require JDK 21 or newer");
+
+        try (final TestHttpServer httpServer = new TestHttpServer()
+            .withHttp(HTTP_PORT)
+            .withMaxThreads(MAX_CONNECTIONS + 50)
+            .withMockData("{}")
+            .withResponseDelay(20)
+            .start()
+        ) {
+            for (final int concurrency : CONCURRENCY_LEVELS) {
+                final double fixed = run(concurrency, (restClient) -> ExecutorAsyncRestClient.newFixedThreadPoolClient(restClient, FIXED_POOL_THREADS));
+                final double virtual = run(concurrency, (restClient) -> ExecutorAsyncRestClient.newVirtualThreadClient(restClient, MAX_CONNECTIONS));
+                logger.info(
+                    "concurrency={} fixedPool({} threads)={} req/s virtualThreads={} req/s",
+                    concurrency, FIXED_POOL_THREADS, String.format("%.0f", fixed), String.format("%.0f", virtual)
+                );
+            }
+        }
+    }
+
+    /**
+     * Submit the given number of requests at once, and wait for all of them to complete.
+     * @return requests per second.
+     */
+    private double run(final int concurrency, final Function<RestClient, ExecutorAsyncRestClient> factory) throws Exception {
+        final Configuration configuration = new BasicConfiguration("http://localhost:" + HTTP_PORT)
+            .useConnectionPool(ConnectionPoolConfiguration.newBuilder()
+                .withMaxTotalConnections(MAX_CONNECTIONS)
+                .withMaxConnectionsPerRoute(MAX_CONNECTIONS)
+                .build()
+            );
+        final ExecutorAsyncRestClient restClient = factory.apply(new HttpClientRestClient());
+        restClient.init(configuration);
+
+        try {
+            // Warm up connections.
+            submitAll(restClient, MAX_CONNECTIONS);
+
+            final long start = System.nanoTime();
+            submitAll(restClient, concurrency);
+            final long elapsedNanos = System.nanoTime() - start;
+            return concurrency / (elapsedNanos / (double) TimeUnit.SECONDS.toNanos(1));
+        } finally {
+            restClient.close();
+        }
+    }
+
+    private void submitAll(final AsyncRestClient restClient, final int numberOfRequests) {
+        final CompletableFuture<?>[] futures = new CompletableFuture<?>[numberOfRequests];
+        for (int index = 0; index < numberOfRequests; index++) {
+            futures[index] = restClient.submitRequestAsync(new DummyRequest());
+        }
+        CompletableFuture.allOf(futures).join();
+    }
+
+    /**
+     * Represents a dummy request.
+     */
+    private static class DummyRequest implements GetRequest<String> {
+        @Override
+        public String getApiEndpoint() {
+            return "/";
+        }
+
+        @Override
+        public String parseResponse(final String responseStr) {
+            return responseStr;
+        }
+    }
+}
@@ -0,0 +1,146 @@
+/**
+ * Copyright 2019 SourceLab.org https://github.com/SourceLabOrg/http-client-wrapper
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit
+ * persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.sourcelab.http.rest;
+
+import org.junit.jupiter.api.Test;
+import org.sourcelab.http.rest.configuration.BasicConfiguration;
+import org.sourcelab.http.rest.configuration.Configuration;
+import org.sourcelab.http.rest.exceptions.ConnectionException;
+import org.sourcelab.http.rest.request.GetRequest;
+import testserver.TestHttpServer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class ExecutorAsyncRestClientTest {
+
+    private static final int HTTP_PORT = 10880;
+    private static final String RESPONSE_DATA = "My Test Response";
+
+    /**
+     * Test submitting requests through a fixed thread pool.
+     */
+    @Test
+    public void testFixedThreadPool() throws Exception {
+        try (final TestHttpServer httpServer = new TestHttpServer()
+            .withHttp(HTTP_PORT)
+            .withMockData(RESPONSE_DATA)
+            .start()
+        ) {
+            final ExecutorAsyncRestClient restClient = ExecutorAsyncRestClient.newFixedThreadPoolClient(new HttpClientRestClient(), 8);
+            restClient.init(new BasicConfiguration("http://localhost:" + HTTP_PORT));
+
+            try {
+                submitAndValidate(restClient, 64);
+            } finally {
+                restClient.close();
+            }
+        }
+    }
+
+    /**
+     * Test submitting requests on virtual threads, when running on a JDK that supports them.
+     */
+    @Test
+    public void testVirtualThreads() throws Exception {
+        assumeTrue(ExecutorAsyncRestClient.isVirtualThreadSupported(), "Virtual threads not supported by this JVM");
+
+        try (final TestHttpServer httpServer = new TestHttpServer()
+            .withHttp(HTTP_PORT)
+            .withMockData(RESPONSE_DATA)
+            .start()
+        ) {
+            final ExecutorAsyncRestClient restClient = ExecutorAsyncRestClient.newVirtualThreadClient(new HttpClientRestClient(), 16);
+            restClient.init(new BasicConfiguration("http://localhost:" + HTTP_PORT));
+
+            try {
+                submitAndValidate(restClient, 256);
+            } finally {
+                restClient.close();
+            }
+        }
+    }
+
+    /**
+     * When virtual threads are not supported, requesting them should fail loudly.
+     */
+    @Test
+    public void testVirtualThreadsNotSupported() {
+        assumeTrue(!ExecutorAsyncRestClient.isVirtualThreadSupported(), "Virtual threads are supported by this JVM");
+        assertFalse(ExecutorAsyncRestClient.isVirtualThreadSupported());
+        assertThrows(
+            UnsupportedOperationException.class,
+            () -> ExecutorAsyncRestClient.newVirtualThreadClient(new HttpClientRestClient(), 16)
+        );
+    }
+
+    /**
+     * Failures from the underlying client should complete the future exceptionally.
+     */
+    @Test
+    public void testConnectionFailure() {
+        // Nothing is listening on this port.
+        final Configuration configuration = new BasicConfiguration("http://localhost:" + HTTP_PORT);
+        final ExecutorAsyncRestClient restClient = ExecutorAsyncRestClient.newFixedThreadPoolClient(new HttpClientRestClient(), 2);
+        restClient.init(configuration);
+
+        try {
+            final ExecutionException exception = assertThrows(
+                ExecutionException.class,
+                () -> restClient.submitRequestAsync(new DummyRequest()).get(10, TimeUnit.SECONDS)
+            );
+            assertTrue(exception.getCause() instanceof ConnectionException, "Unexpected " + exception.getCause());
+            assertThrows(ConnectionException.class, () -> restClient.submitRequest(new DummyRequest()));
+        } finally {
+            restClient.close();
+        }
+    }
+
+    private void submitAndValidate(final AsyncRestClient restClient, final int numberOfRequests) throws Exception {
+        final List<CompletableFuture<RestResponse>> futures = new ArrayList<>();
+        for (int index = 0; index < numberOfRequests; index++) {
+            futures.add(restClient.submitRequestAsync(new DummyRequest()));
+        }
+        for (final CompletableFuture<RestResponse> future : futures) {
+            assertEquals(RESPONSE_DATA, future.get(30, TimeUnit.SECONDS).getResponseStr());
+        }
+    }
+
+    /**
+     * Represents a dummy request.
+     */
+    private static class DummyRequest implements GetRequest<String> {
+        @Override
+        public String getApiEndpoint() {
+            return "/";
+        }
+
+        @Override
+        public String parseResponse(final String responseStr) {
+            return responseStr;
+        }
+    }
+}
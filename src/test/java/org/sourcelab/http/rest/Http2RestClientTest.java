@@ -0,0 +1,245 @@
+/**
+ * Copyright 2019 SourceLab.org https://github.com/SourceLabOrg/http-client-wrapper
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit
+ * persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.sourcelab.http.rest;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.sourcelab.http.rest.configuration.BasicConfiguration;
+import org.sourcelab.http.rest.configuration.Configuration;
+import org.sourcelab.http.rest.configuration.ProxyConfiguration;
+import org.sourcelab.http.rest.interceptor.RequestContext;
+import org.sourcelab.http.rest.interceptor.RequestInterceptor;
+import org.sourcelab.http.rest.request.GetRequest;
+import org.sourcelab.http.rest.request.PostRequest;
+import org.sourcelab.http.rest.request.RequestParameter;
+import org.sourcelab.http.rest.request.body.RequestBodyContent;
+import org.sourcelab.http.rest.request.body.UrlEncodedFormBodyContent;
+import testserver.TestHttpServer;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class Http2RestClientTest {
+
+    private static final int HTTP_PORT = 10880;
+    private static final int HTTPS_PORT = 10881;
+    private static final String RESPONSE_DATA = "My Test Response";
+
+    private static String KEYSTORE_PATH;
+    private static String TRUSTSTORE_PATH;
+
+    private static final String DUMMY_PASSWORD = "password";
+
+    @BeforeAll
+    public static void setup() {
+        KEYSTORE_PATH = Http2RestClientTest.class
+            .getClassLoader()
+            .getResource("certificates/server.keystore.jks")
+            .getFile();
+
+        TRUSTSTORE_PATH = Http2RestClientTest.class
+            .getClassLoader()
+            .getResource("certificates/server.truststore.jks")
+            .getFile();
+    }
+
+    /**
+     * Test against Http server using HTTP/2 with prior knowledge.
+     */
+    @Test
+    public void doH2cTest() throws Exception {
+
+        try (final TestHttpServer httpServer = new TestHttpServer()
+            .withHttp(HTTP_PORT)
+            .withHttp2()
+            .withMockData(RESPONSE_DATA)
+            .start()
+        ) {
+
+            // Create client
+            final Configuration configuration = new BasicConfiguration("http://localhost:" + HTTP_PORT);
+            final Http2RestClient restClient = new Http2RestClient();
+            restClient.init(configuration);
+
+            try {
+                // Make request
+                final RestResponse result = restClient.submitRequest(new DummyGetRequest());
+
+                // Validate response.
+                assertEquals(RESPONSE_DATA, result.getResponseStr());
+                assertEquals(200, result.getHttpCode());
+                assertEquals("HTTP/2.0", httpServer.getLastRequest().getProtocol());
+            } finally {
+                restClient.close();
+            }
+        }
+    }
+
+    /**
+     * Test against Https server with server certificate and client validation, negotiating HTTP/2 via ALPN.
+     */
+    @Test
+    public void doH2_withClientValidation_withCertificateValidation_Test() throws Exception {
+
+        try (final TestHttpServer httpServer = new TestHttpServer()
+            .withHttps(KEYSTORE_PATH, DUMMY_PASSWORD, HTTPS_PORT)
+            .withValidateClientCertificate(TRUSTSTORE_PATH, DUMMY_PASSWORD)
+            .withHttp2()
+            .withMockData(RESPONSE_DATA)
+            .start()
+        ) {
+
+            final Configuration configuration = new BasicConfiguration("https://localhost:" + HTTPS_PORT)
+                .useTrustStore(new File(TRUSTSTORE_PATH), DUMMY_PASSWORD)
+                .useKeyStore(new File(KEYSTORE_PATH), DUMMY_PASSWORD);
+
+            final Http2RestClient restClient = new Http2RestClient();
+            restClient.init(configuration);
+
+            try {
+                final RestResponse result = restClient.submitRequestAsync(new DummyGetRequest()).get(10, TimeUnit.SECONDS);
+                assertEquals(RESPONSE_DATA, result.getResponseStr());
+                assertEquals("HTTP/2.0", httpServer.getLastRequest().getProtocol());
+            } finally {
+                restClient.close();
+            }
+        }
+    }
+
+    /**
+     * Request interceptors and request bodies should be applied the same as the HTTP/1.1 clients.
+     */
+    @Test
+    public void testPostWithInterceptor() throws Exception {
+
+        try (final TestHttpServer httpServer = new TestHttpServer()
+            .withHttp(HTTP_PORT)
+            .withHttp2()
+            .withMockData(RESPONSE_DATA)
+            .start()
+        ) {
+
+            final Configuration configuration = new BasicConfiguration("http://localhost:" + HTTP_PORT)
+                .useRequestInteceptor(new RequestInterceptor() {
+                    @Override
+                    public List<RequestParameter> modifyRequestParameters(
+                        final List<RequestParameter> requestParameters,
+                        final RequestContext requestContext
+                    ) {
+                        requestParameters.add(new RequestParameter("intercepted", "true"));
+                        return requestParameters;
+                    }
+                });
+
+            final Http2RestClient restClient = new Http2RestClient();
+            restClient.init(configuration);
+
+            try {
+                final RestResponse result = restClient.submitRequest(new DummyPostRequest());
+                assertEquals(RESPONSE_DATA, result.getResponseStr());
+                assertEquals("POST", httpServer.getLastRequest().getRequestMethod());
+                assertEquals("/post", httpServer.getLastRequest().getUrl());
+                assertEquals("name=value&intercepted=true", httpServer.getLastRequest().getRequestBody());
+            } finally {
+                restClient.close();
+            }
+        }
+    }
+
+    /**
+     * Many concurrent requests multiplexed over HTTP/2 streams.
+     */
+    @Test
+    public void testConcurrentRequests() throws Exception {
+
+        try (final TestHttpServer httpServer = new TestHttpServer()
+            .withHttp(HTTP_PORT)
+            .withHttp2()
+            .withMockData(RESPONSE_DATA)
+            .withResponseDelay(50)
+            .start()
+        ) {
+
+            final Configuration configuration = new BasicConfiguration("http://localhost:" + HTTP_PORT);
+            final Http2RestClient restClient = new Http2RestClient();
+            restClient.init(configuration);
+
+            try {
+                final List<CompletableFuture<RestResponse>> futures = new ArrayList<>();
+                for (int index = 0; index < 100; index++) {
+                    futures.add(restClient.submitRequestAsync(new DummyGetRequest()));
+                }
+                for (final CompletableFuture<RestResponse> future : futures) {
+                    assertEquals(RESPONSE_DATA, future.get(30, TimeUnit.SECONDS).getResponseStr());
+                }
+            } finally {
+                restClient.close();
+            }
+        }
+    }
+
+    /**
+     * Proxies are not supported.
+     */
+    @Test
+    public void testProxyNotSupported() {
+        final Configuration configuration = new BasicConfiguration("http://localhost:" + HTTP_PORT)
+            .useProxy(new ProxyConfiguration("localhost", 3128, "http"));
+        assertThrows(IllegalArgumentException.class, () -> new Http2RestClient().init(configuration));
+    }
+
+    /**
+     * Represents a dummy GET request.
+     */
+    private static class DummyGetRequest implements GetRequest<String> {
+        @Override
+        public String getApiEndpoint() {
+            return "/";
+        }
+
+        @Override
+        public String parseResponse(final String responseStr) {
+            return responseStr;
+        }
+    }
+
+    /**
+     * Represents a dummy POST request.
+     */
+    private static class DummyPostRequest implements PostRequest<String> {
+        @Override
+        public String getApiEndpoint() {
+            return "/post";
+        }
+
+        @Override
+        public RequestBodyContent getRequestBody() {
+            return new UrlEncodedFormBodyContent().addParameter("name", "value");
+        }
+
+        @Override
+        public String parseResponse(final String responseStr) {
+            return responseStr;
+        }
+    }
+}
@@ -0,0 +1,195 @@
+/**
+ * Copyright 2019 SourceLab.org https://github.com/SourceLabOrg/http-client-wrapper
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit
+ * persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.sourcelab.http.rest;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.sourcelab.http.rest.configuration.BasicConfiguration;
+import org.sourcelab.http.rest.configuration.Configuration;
+import org.sourcelab.http.rest.exceptions.ConnectionException;
+import org.sourcelab.http.rest.request.GetRequest;
+import org.sourcelab.http.rest.request.Request;
+import testserver.TestHttpServer;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HttpAsyncClientRestClientTest {
+
+    private static final int HTTP_PORT = 10880;
+    private static final int HTTPS_PORT = 10881;
+    private static final String RESPONSE_DATA = "My Test Response";
+
+    private static String KEYSTORE_PATH;
+    private static String TRUSTSTORE_PATH;
+
+    private static final String DUMMY_PASSWORD = "password";
+
+    @BeforeAll
+    public static void setup() {
+        KEYSTORE_PATH = HttpAsyncClientRestClientTest.class
+            .getClassLoader()
+            .getResource("certificates/server.keystore.jks")
+            .getFile();
+
+        TRUSTSTORE_PATH = HttpAsyncClientRestClientTest.class
+            .getClassLoader()
+            .getResource("certificates/server.truststore.jks")
+            .getFile();
+    }
+
+    /**
+     * Test against Http server.
+     */
+    @Test
+    public void doHttpTest() throws Exception {
+
+        try (final TestHttpServer httpServer = new TestHttpServer()
+            .withHttp(HTTP_PORT)
+            .withMockData(RESPONSE_DATA)
+            .start()
+        ) {
+
+            // Create client
+            final Configuration configuration = new BasicConfiguration("http://localhost:" + HTTP_PORT);
+            final HttpAsyncClientRestClient restClient = new HttpAsyncClientRestClient();
+            restClient.init(configuration);
+
+            try {
+                // Make request
+                final RestResponse result = restClient.submitRequestAsync(new DummyRequest()).get(10, TimeUnit.SECONDS);
+
+                // Validate response.
+                assertEquals(RESPONSE_DATA, result.getResponseStr());
+                assertEquals(200, result.getHttpCode());
+            } finally {
+                restClient.close();
+            }
+        }
+    }
+
+    /**
+     * Test against Https server with server certificate and client validation.
+     */
+    @Test
+    public void doHttps_withClientValidation_withCertificateValidation_Test() throws Exception {
+
+        try (final TestHttpServer httpServer = new TestHttpServer()
+            .withHttps(KEYSTORE_PATH, DUMMY_PASSWORD, HTTPS_PORT)
+            .withValidateClientCertificate(TRUSTSTORE_PATH, DUMMY_PASSWORD)
+            .withMockData(RESPONSE_DATA)
+            .start()
+        ) {
+
+            final Configuration configuration = new BasicConfiguration("https://localhost:" + HTTPS_PORT)
+                .useTrustStore(new File(TRUSTSTORE_PATH), DUMMY_PASSWORD)
+                .useKeyStore(new File(KEYSTORE_PATH), DUMMY_PASSWORD);
+
+            final HttpAsyncClientRestClient restClient = new HttpAsyncClientRestClient();
+            restClient.init(configuration);
+
+            try {
+                final RestResponse result = restClient.submitRequestAsync(new DummyRequest()).get(10, TimeUnit.SECONDS);
+                assertEquals(RESPONSE_DATA, result.getResponseStr());
+            } finally {
+                restClient.close();
+            }
+        }
+    }
+
+    /**
+     * Test many concurrent in-flight requests against a slow server.
+     */
+    @Test
+    public void testConcurrentRequests() throws Exception {
+
+        try (final TestHttpServer httpServer = new TestHttpServer()
+            .withHttp(HTTP_PORT)
+            .withMockData(RESPONSE_DATA)
+            .withResponseDelay(100)
+            .start()
+        ) {
+
+            final Configuration configuration = new BasicConfiguration("http://localhost:" + HTTP_PORT);
+            final HttpAsyncClientRestClient restClient = new HttpAsyncClientRestClient();
+            restClient.init(configuration);
+
+            try {
+                // Submit all requests from a single thread.
+                final List<CompletableFuture<RestResponse>> futures = new ArrayList<>();
+                for (int index = 0; index < 150; index++) {
+                    futures.add(restClient.submitRequestAsync(new DummyRequest()));
+                }
+
+                // Validate responses.
+                CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).get(30, TimeUnit.SECONDS);
+                for (final CompletableFuture<RestResponse> future : futures) {
+                    assertEquals(RESPONSE_DATA, future.get().getResponseStr());
+                }
+            } finally {
+                restClient.close();
+            }
+        }
+    }
+
+    /**
+     * Connection failures should complete the future exceptionally with a ConnectionException.
+     */
+    @Test
+    public void testConnectionFailure() {
+        // Nothing is listening on this port.
+        final Configuration configuration = new BasicConfiguration("http://localhost:" + HTTP_PORT);
+        final HttpAsyncClientRestClient restClient = new HttpAsyncClientRestClient();
+        restClient.init(configuration);
+
+        try {
+            final ExecutionException exception = assertThrows(
+                ExecutionException.class,
+                () -> restClient.submitRequestAsync(new DummyRequest()).get(10, TimeUnit.SECONDS)
+            );
+            assertTrue(exception.getCause() instanceof ConnectionException, "Unexpected " + exception.getCause());
+
+            // Blocking variant should throw directly.
+            assertThrows(ConnectionException.class, () -> restClient.submitRequest(new DummyRequest()));
+        } finally {
+            restClient.close();
+        }
+    }
+
+    /**
+     * Represents a dummy request.
+     */
+    private static class DummyRequest implements GetRequest<String> {
+        @Override
+        public String getApiEndpoint() {
+            return "/";
+        }
+
+        @Override
+        public String parseResponse(final String responseStr) {
+            return responseStr;
+        }
+    }
+}
@@ -17,22 +17,58 @@
 
 package org.sourcelab.http.rest;
 
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
 import org.sourcelab.http.rest.configuration.BasicConfiguration;
+import org.sourcelab.http.rest.configuration.CircuitBreakerConfiguration;
 import org.sourcelab.http.rest.configuration.Configuration;
+import org.sourcelab.http.rest.configuration.ConnectionPoolConfiguration;
+import org.sourcelab.http.rest.configuration.RateLimiterConfiguration;
+import org.sourcelab.http.rest.exceptions.ConnectionException;
+import org.sourcelab.http.rest.exceptions.RateLimitExceededException;
+import org.sourcelab.http.rest.exceptions.ResultParsingException;
+import org.sourcelab.http.rest.metrics.RequestMetrics;
 import org.sourcelab.http.rest.request.PostRequest;
 import org.sourcelab.http.rest.request.Request;
 import org.sourcelab.http.rest.request.RequestMethod;
+import org.sourcelab.http.rest.request.ResponseMetadata;
+import org.sourcelab.http.rest.request.StreamingRequest;
 import org.sourcelab.http.rest.request.body.NoBodyContent;
 import org.sourcelab.http.rest.request.body.RequestBodyContent;
 import org.sourcelab.http.rest.request.body.StringBodyContent;
+import org.sourcelab.http.rest.transport.CircuitBreaker;
+import org.sourcelab.http.rest.transport.ConnectionPoolMetrics;
+import org.sourcelab.http.rest.transport.PreparedRequest;
+import org.sourcelab.http.rest.transport.RequestEventListener;
+import org.sourcelab.http.rest.transport.RequestPhase;
+import org.sourcelab.http.rest.transport.RequestTiming;
+import org.sourcelab.http.rest.transport.Transport;
+import org.sourcelab.http.rest.transport.TransportFactory;
 import testserver.TestHttpServer;
 
 import java.io.File;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class HttpClientRestClientTest {
 
@@ -195,6 +231,485 @@ class HttpClientRestClientTest {
         }
     }
 
+    /**
+     * Test submitting more concurrent requests than the configured connection pool size.
+     */
+    @Test
+    public void testConcurrentRequestsWithConnectionPool() throws Exception {
+
+        try (final TestHttpServer httpServer = new TestHttpServer()
+            .withHttp(HTTP_PORT)
+            .withMockData(RESPONSE_DATA)
+            .start()
+        ) {
+
+            // Create client with a small pool.
+            final Configuration configuration = new BasicConfiguration("http://localhost:" + HTTP_PORT)
+                .useConnectionPool(ConnectionPoolConfiguration.newBuilder()
+                    .withMaxTotalConnections(4)
+                    .withMaxConnectionsPerRoute(4)
+                    .withConnectionRequestTimeoutInMilliseconds(10_000)
+                    .build()
+                );
+            final HttpClientRestClient restClient = new HttpClientRestClient();
+            restClient.init(configuration);
+
+            final ExecutorService executorService = Executors.newFixedThreadPool(16);
+            try {
+                final List<Future<RestResponse>> futures = new ArrayList<>();
+                for (int index = 0; index < 64; index++) {
+                    futures.add(executorService.submit(() -> restClient.submitRequest(new DummyRequest())));
+                }
+
+                // Validate responses.
+                for (final Future<RestResponse> future : futures) {
+                    assertEquals(RESPONSE_DATA, future.get().getResponseStr());
+                }
+
+                // Every request leased a connection, and all have been returned to the pool.
+                final ConnectionPoolMetrics poolMetrics = restClient.getConnectionPoolMetrics();
+                assertEquals(64, poolMetrics.getLeaseWait().getCount());
+                assertEquals(0, poolMetrics.getLeaseTimeoutCount());
+                assertEquals(0, poolMetrics.getTotalStats().getLeased());
+                assertEquals(0, poolMetrics.getTotalStats().getPending());
+                assertEquals(4, poolMetrics.getTotalStats().getMax());
+                assertEquals(1, poolMetrics.getRouteStats().size());
+                assertEquals("http://localhost:" + HTTP_PORT, poolMetrics.getRouteStats().get(0).getRoute());
+                assertTrue(poolMetrics.getRouteStats().get(0).getAvailable() <= 4);
+            } finally {
+                executorService.shutdownNow();
+                restClient.close();
+            }
+        }
+    }
+
+    /**
+     * Test that a stalled read fails fast once the socket timeout elapses.
+     */
+    @Test
+    public void testSocketTimeout() throws Exception {
+
+        try (final TestHttpServer httpServer = new TestHttpServer()
+            .withHttp(HTTP_PORT)
+            .withMockData(RESPONSE_DATA)
+            .withResponseDelay(2_000)
+            .start()
+        ) {
+
+            // Create client with a short socket timeout.
+            final Configuration configuration = new BasicConfiguration("http://localhost:" + HTTP_PORT)
+                .useConnectTimeoutInMilliseconds(1_000)
+                .useSocketTimeoutInMilliseconds(250);
+            final HttpClientRestClient restClient = new HttpClientRestClient();
+            restClient.init(configuration);
+
+            try {
+                assertThrows(ConnectionException.class, () -> restClient.submitRequest(new DummyRequest()));
+            } finally {
+                restClient.close();
+            }
+        }
+    }
+
+    /**
+     * Test that a response body shorter than its declared Content-Length fails, rather than returning NULL.
+     */
+    @Test
+    public void testTruncatedResponseBody() throws Exception {
+
+        try (final TestHttpServer httpServer = new TestHttpServer()
+            .withHttp(HTTP_PORT)
+            .withMockData(RESPONSE_DATA)
+            .withDeclaredContentLength(RESPONSE_DATA.length() + 100)
+            .start()
+        ) {
+
+            final Configuration configuration = new BasicConfiguration("http://localhost:" + HTTP_PORT);
+            final HttpClientRestClient restClient = new HttpClientRestClient();
+            restClient.init(configuration);
+
+            try {
+                assertThrows(ResultParsingException.class, () -> restClient.submitRequest(new DummyRequest()));
+            } finally {
+                restClient.close();
+            }
+        }
+    }
+
+    /**
+     * Test that streaming requests are handed the response body stream and metadata.
+     */
+    @Test
+    public void testStreamingRequest() throws Exception {
+
+        try (final TestHttpServer httpServer = new TestHttpServer()
+            .withHttp(HTTP_PORT)
+            .withMockData(RESPONSE_DATA)
+            .start()
+        ) {
+
+            // Create client with a single connection, so each request must release it.
+            final Configuration configuration = new BasicConfiguration("http://localhost:" + HTTP_PORT)
+                .useConnectionPool(ConnectionPoolConfiguration.newBuilder()
+                    .withMaxTotalConnections(1)
+                    .withMaxConnectionsPerRoute(1)
+                    .withConnectionRequestTimeoutInMilliseconds(5_000)
+                    .build()
+                );
+            final HttpClientRestClient restClient = new HttpClientRestClient();
+            restClient.init(configuration);
+
+            try {
+                final AtomicReference<ResponseMetadata> metadata = new AtomicReference<>();
+                final StreamingRequest<String> request = new StreamingRequest<String>() {
+                    @Override
+                    public String getApiEndpoint() {
+                        return "/";
+                    }
+
+                    @Override
+                    public RequestMethod getRequestMethod() {
+                        return RequestMethod.GET;
+                    }
+
+                    @Override
+                    public RequestBodyContent getRequestBody() {
+                        return NoBodyContent.INSTANCE;
+                    }
+
+                    @Override
+                    public String parseResponse(final InputStream responseStream, final ResponseMetadata responseMetadata)
+                        throws IOException {
+                        metadata.set(responseMetadata);
+                        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+                        final byte[] buffer = new byte[4];
+                        int read;
+                        while ((read = responseStream.read(buffer)) != -1) {
+                            outputStream.write(buffer, 0, read);
+                        }
+                        return new String(outputStream.toByteArray(), responseMetadata.getCharset(StandardCharsets.ISO_8859_1));
+                    }
+                };
+
+                // Submit more requests than connections to validate the entity is consumed.
+                for (int index = 0; index < 3; index++) {
+                    assertEquals(RESPONSE_DATA, restClient.submitStreamingRequest(request));
+                }
+
+                // Validate metadata.
+                assertEquals(200, metadata.get().getHttpCode());
+                assertEquals(StandardCharsets.UTF_8, metadata.get().getCharset());
+                assertTrue(metadata.get().getContentType().startsWith("text/json"));
+            } finally {
+                restClient.close();
+            }
+        }
+    }
+
+    /**
+     * Test that the time spent in each phase is recorded, exposed on the response, and aggregated into metrics.
+     */
+    @Test
+    public void testRequestTiming() throws Exception {
+
+        try (final TestHttpServer httpServer = new TestHttpServer()
+            .withHttps(KEYSTORE_PATH, DUMMY_PASSWORD, HTTPS_PORT)
+            .withMockData(RESPONSE_DATA)
+            .start()
+        ) {
+
+            // Create client with a listener and metrics.
+            final List<RequestTiming> timings = new CopyOnWriteArrayList<>();
+            final Configuration configuration = new BasicConfiguration("https://localhost:" + HTTPS_PORT)
+                .useInsecureSslCertificates()
+                .useRequestTimingListener((request, timing) -> timings.add(timing))
+                .useMetrics();
+            final HttpClientRestClient restClient = new HttpClientRestClient();
+            restClient.init(configuration);
+
+            try {
+                // The first request opens a new connection.
+                final RequestTiming first = restClient.submitRequest(new DummyRequest()).getTiming();
+                assertTrue(first.isNewConnection());
+                for (final RequestPhase phase : RequestPhase.values()) {
+                    assertTrue(first.getPhaseInMicros(phase) >= 0, phase.name());
+                }
+                assertTrue(first.getTotalInMicros() >= first.getTimeToFirstByteInMicros());
+
+                // The second request reuses the pooled connection.
+                final RequestTiming second = restClient.submitRequest(new DummyRequest()).getTiming();
+                assertFalse(second.isNewConnection());
+                assertEquals(-1, second.getPhaseInMicros(RequestPhase.DNS));
+                assertEquals(-1, second.getPhaseInMicros(RequestPhase.TLS));
+                assertTrue(second.getPhaseInMicros(RequestPhase.WAIT) >= 0);
+
+                // Validate listener and metrics.
+                assertEquals(2, timings.size());
+                final RequestMetrics metrics = restClient.getMetrics().getRequestMetrics("/", RequestMethod.GET);
+                assertEquals(1, metrics.getPhaseLatency(RequestPhase.TLS).getCount());
+                assertEquals(2, metrics.getPhaseLatency(RequestPhase.WAIT).getCount());
+            } finally {
+                restClient.close();
+            }
+        }
+    }
+
+    /**
+     * Test that request lifecycle events are dispatched in order, reporting connection reuse and failures.
+     */
+    @Test
+    public void testRequestEvents() throws Exception {
+
+        try (final TestHttpServer httpServer = new TestHttpServer()
+            .withHttp(HTTP_PORT)
+            .withMockData(RESPONSE_DATA)
+            .start()
+        ) {
+
+            // Create client with a listener recording each event.
+            final List<String> events = new CopyOnWriteArrayList<>();
+            final RequestEventListener listener = new RequestEventListener() {
+                @Override
+                public void onRequestStart(final PreparedRequest request, final long nanoTime) {
+                    events.add("start");
+                }
+
+                @Override
+                public void onConnectionAcquired(final PreparedRequest request, final boolean reused, final long nanoTime) {
+                    events.add("acquired reused=" + reused);
+                }
+
+                @Override
+                public void onRequestSent(final PreparedRequest request, final long nanoTime) {
+                    events.add("sent");
+                }
+
+                @Override
+                public void onResponseHeadersReceived(final PreparedRequest request, final int httpCode, final long nanoTime) {
+                    events.add("headers " + httpCode);
+                }
+
+                @Override
+                public void onResponseBodyConsumed(final PreparedRequest request, final long nanoTime) {
+                    events.add("body");
+                }
+
+                @Override
+                public void onConnectionReleased(final PreparedRequest request, final boolean reusable, final long nanoTime) {
+                    events.add("released reusable=" + reusable);
+                }
+
+                @Override
+                public void onRequestFailed(final PreparedRequest request, final RuntimeException exception, final long nanoTime) {
+                    events.add("failed " + exception.getClass().getSimpleName());
+                }
+            };
+            final Configuration configuration = new BasicConfiguration("http://localhost:" + HTTP_PORT)
+                .useRequestEventListener(listener);
+            final HttpClientRestClient restClient = new HttpClientRestClient();
+            restClient.init(configuration);
+
+            try {
+                // The first request opens a new connection, which is reused by the second.
+                restClient.submitRequest(new DummyRequest());
+                restClient.submitRequest(new DummyRequest());
+
+                // The connection is released as soon as the body has been read, before the handler returns.
+                final List<String> expected = new ArrayList<>();
+                for (final boolean reused : new boolean[] {false, true}) {
+                    expected.add("start");
+                    expected.add("acquired reused=" + reused);
+                    expected.add("sent");
+                    expected.add("headers 200");
+                    expected.add("released reusable=true");
+                    expected.add("body");
+                }
+                assertEquals(expected, events);
+            } finally {
+                restClient.close();
+            }
+
+            // Requests to a closed port should fail, discarding the connection.
+            events.clear();
+            final HttpClientRestClient failingClient = new HttpClientRestClient();
+            failingClient.init(new BasicConfiguration("http://localhost:" + (HTTP_PORT + 9)).useRequestEventListener(listener));
+            try {
+                assertThrows(ConnectionException.class, () -> failingClient.submitRequest(new DummyRequest()));
+                assertEquals("start", events.get(0));
+                assertTrue(events.contains("released reusable=false"));
+                assertEquals("failed ConnectionException", events.get(events.size() - 1));
+            } finally {
+                failingClient.close();
+            }
+        }
+    }
+
+    /**
+     * Test that flight recorder events are emitted for each request while recording.
+     */
+    @Test
+    public void testFlightRecorderEvents() throws Exception {
+
+        try (final TestHttpServer httpServer = new TestHttpServer()
+            .withHttps(KEYSTORE_PATH, DUMMY_PASSWORD, HTTPS_PORT)
+            .withMockData(RESPONSE_DATA)
+            .start()
+        ) {
+
+            final Configuration configuration = new BasicConfiguration("https://localhost:" + HTTPS_PORT)
+                .useInsecureSslCertificates()
+                .useFlightRecorderEvents();
+            final HttpClientRestClient restClient = new HttpClientRestClient();
+            restClient.init(configuration);
+
+            final Path recordingFile = Files.createTempFile("http-client-wrapper", ".jfr");
+            try (final Recording recording = new Recording()) {
+                recording.enable("org.sourcelab.http.Request");
+                recording.enable("org.sourcelab.http.ConnectionLease");
+                recording.enable("org.sourcelab.http.TlsHandshake");
+                recording.enable("org.sourcelab.http.ResponseParse");
+                recording.start();
+
+                restClient.submitRequest(new DummyRequest("/", RequestMethod.POST, "body"));
+                recording.stop();
+                recording.dump(recordingFile);
+
+                final List<RecordedEvent> events = RecordingFile.readAllEvents(recordingFile);
+                final RecordedEvent requestEvent = findEvent(events, "org.sourcelab.http.Request");
+                assertEquals("/", requestEvent.getString("endpoint"));
+                assertEquals("POST", requestEvent.getString("method"));
+                assertEquals(200, requestEvent.getInt("status"));
+                assertEquals(4, requestEvent.getLong("bytesSent"));
+                assertEquals(RESPONSE_DATA.length(), requestEvent.getLong("bytesReceived"));
+                assertEquals(null, requestEvent.getString("failure"));
+
+                assertFalse(findEvent(events, "org.sourcelab.http.ConnectionLease").getBoolean("reused"));
+                assertEquals("localhost", findEvent(events, "org.sourcelab.http.TlsHandshake").getString("host"));
+                assertEquals(200, findEvent(events, "org.sourcelab.http.ResponseParse").getInt("status"));
+                assertEquals(4, events.size());
+            } finally {
+                restClient.close();
+                Files.deleteIfExists(recordingFile);
+            }
+        }
+    }
+
+    private static RecordedEvent findEvent(final List<RecordedEvent> events, final String name) {
+        return events.stream()
+            .filter((event) -> event.getEventType().getName().equals(name))
+            .findFirst()
+            .orElseThrow(() -> new AssertionError("No " + name + " event recorded"));
+    }
+
+    /**
+     * Test that requests are passed through the shared pipeline before being handed to a configured transport.
+     */
+    @Test
+    public void testCustomTransport() {
+        // Define an in-memory transport which captures the request it was handed.
+        final AtomicReference<PreparedRequest> captured = new AtomicReference<>();
+        final TransportFactory transportFactory = new TransportFactory() {
+            @Override
+            public String getName() {
+                return "in-memory";
+            }
+
+            @Override
+            public Transport create() {
+                return new Transport() {
+                    @Override
+                    public void init(final Configuration configuration) {
+                    }
+
+                    @Override
+                    public RestResponse execute(final PreparedRequest request) {
+                        captured.set(request);
+                        return new RestResponse(RESPONSE_DATA, 200);
+                    }
+
+                    @Override
+                    public void close() {
+                    }
+                };
+            }
+        };
+
+        // Create client
+        final Configuration configuration = new BasicConfiguration("http://localhost:" + HTTP_PORT)
+            .withRequestHeader("X-Test", "value")
+            .useTransport(transportFactory);
+        final HttpClientRestClient restClient = new HttpClientRestClient();
+        restClient.init(configuration);
+
+        // Make request
+        final RestResponse result = restClient.submitRequest(new DummyRequest("/my/endpoint", RequestMethod.POST, "My Body"));
+        restClient.close();
+
+        // Validate response and prepared request.
+        assertEquals(RESPONSE_DATA, result.getResponseStr());
+        final PreparedRequest preparedRequest = captured.get();
+        assertEquals(RequestMethod.POST, preparedRequest.getRequestMethod());
+        assertEquals("http://localhost:" + HTTP_PORT + "/my/endpoint", preparedRequest.getUrl());
+        assertTrue(preparedRequest.getHeaders().stream()
+            .anyMatch((header) -> header.getName().equals("X-Test") && header.getValue().equals("value"))
+        );
+        assertEquals("My Body", new String(preparedRequest.getBody(), StandardCharsets.UTF_8));
+        assertEquals("text/plain; charset=UTF-8", preparedRequest.getContentType());
+    }
+
+    /**
+     * Requests rejected by the client side rate limiter should not be recorded as failures by the circuit breaker.
+     */
+    @Test
+    public void testRateLimitRejectionsDoNotOpenCircuitBreaker() {
+        final Configuration configuration = new BasicConfiguration<>("http://localhost:" + HTTP_PORT)
+            .useTransport(inMemoryTransport(() -> new RestResponse(RESPONSE_DATA, 200)))
+            .useRateLimiter(RateLimiterConfiguration.newBuilder().withHostRateLimit(1, 1).build())
+            .useCircuitBreakers(CircuitBreakerConfiguration.newBuilder().withSlidingWindow(10, 4).build());
+        final HttpClientRestClient restClient = new HttpClientRestClient();
+        restClient.init(configuration);
+
+        assertEquals(200, restClient.submitRequest(new DummyRequest()).getHttpCode());
+        for (int index = 0; index < 10; index++) {
+            assertThrows(RateLimitExceededException.class, () -> restClient.submitRequest(new DummyRequest()));
+        }
+
+        final CircuitBreaker circuitBreaker = restClient.getCircuitBreakers().iterator().next();
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+        assertEquals(0, circuitBreaker.getFailedCallCount());
+        restClient.close();
+    }
+
+    /**
+     * Transport factory for an in-memory transport, returning responses from the given supplier.
+     */
+    private static TransportFactory inMemoryTransport(final Supplier<RestResponse> responseSupplier) {
+        return new TransportFactory() {
+            @Override
+            public String getName() {
+                return "in-memory";
+            }
+
+            @Override
+            public Transport create() {
+                return new Transport() {
+                    @Override
+                    public void init(final Configuration configuration) {
+                    }
+
+                    @Override
+                    public RestResponse execute(final PreparedRequest request) {
+                        return responseSupplier.get();
+                    }
+
+                    @Override
+                    public void close() {
+                    }
+                };
+            }
+        };
+    }
+
     /**
      * Represents a dummy request.
      */
@@ -0,0 +1,83 @@
+/**
+ * Copyright 2019 SourceLab.org https://github.com/SourceLabOrg/http-client-wrapper
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit
+ * persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.sourcelab.http.rest;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ReadOnlyBufferException;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RestResponseTest {
+    /**
+     * Byte backed responses should decode once, using the supplied charset, and cache the result.
+     */
+    @Test
+    void testByteBackedResponseDecodesLazily() {
+        final byte[] body = "Café".getBytes(StandardCharsets.UTF_8);
+        final RestResponse response = new RestResponse(body, StandardCharsets.UTF_8, 200);
+
+        assertEquals("Café", response.getResponseStr());
+        assertSame(response.getResponseStr(), response.getResponseStr());
+        assertEquals(body.length, response.getBodyLength());
+        assertEquals(200, response.getHttpCode());
+    }
+
+    /**
+     * The body should be exposed as a read-only view.
+     */
+    @Test
+    void testBodyIsReadOnly() {
+        final RestResponse response = new RestResponse(new byte[] {1, 2, 3}, StandardCharsets.ISO_8859_1, 200);
+
+        final ByteBuffer body = response.getBody();
+        assertTrue(body.isReadOnly());
+        assertEquals(3, body.remaining());
+        assertEquals(1, body.get(0));
+        assertThrows(ReadOnlyBufferException.class, () -> body.put(0, (byte) 5));
+    }
+
+    /**
+     * String backed responses should expose their body encoded as UTF-8.
+     */
+    @Test
+    void testStringBackedResponse() {
+        final RestResponse response = new RestResponse("Café", 201);
+
+        assertEquals("Café", response.getResponseStr());
+        assertEquals(StandardCharsets.UTF_8, response.getCharset());
+        assertEquals(ByteBuffer.wrap("Café".getBytes(StandardCharsets.UTF_8)), response.getBody());
+    }
+
+    /**
+     * Responses without a body.
+     */
+    @Test
+    void testNoBody() {
+        final RestResponse response = new RestResponse(null, StandardCharsets.UTF_8, 204);
+
+        assertNull(response.getResponseStr());
+        assertNull(response.getBody());
+        assertEquals(0, response.getBodyLength());
+    }
+}
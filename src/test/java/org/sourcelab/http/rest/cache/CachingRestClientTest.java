@@ -0,0 +1,302 @@
+/**
+ * Copyright 2019 SourceLab.org https://github.com/SourceLabOrg/http-client-wrapper
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit
+ * persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.sourcelab.http.rest.cache;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.sourcelab.http.rest.ResponseHeader;
+import org.sourcelab.http.rest.RestClient;
+import org.sourcelab.http.rest.RestException;
+import org.sourcelab.http.rest.RestResponse;
+import org.sourcelab.http.rest.configuration.BasicConfiguration;
+import org.sourcelab.http.rest.configuration.Configuration;
+import org.sourcelab.http.rest.request.GetRequest;
+import org.sourcelab.http.rest.request.PostRequest;
+import org.sourcelab.http.rest.request.Request;
+import org.sourcelab.http.rest.request.RequestHeader;
+import org.sourcelab.http.rest.request.body.RequestBodyContent;
+import org.sourcelab.http.rest.request.body.StringBodyContent;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CachingRestClientTest {
+
+    private StubRestClient stubRestClient;
+    private MutableClock clock;
+    private CachingRestClient cachingRestClient;
+
+    @BeforeEach
+    void setup() {
+        stubRestClient = new StubRestClient();
+        clock = new MutableClock();
+        cachingRestClient = new CachingRestClient(stubRestClient, new InMemoryCacheStore(1024 * 1024), clock);
+        cachingRestClient.init(new BasicConfiguration<>("http://localhost"));
+    }
+
+    /**
+     * Fresh responses should be served from the cache, and stale responses revalidated using their ETag.
+     */
+    @Test
+    void testFreshHitThenRevalidation() {
+        stubRestClient.respond(response(200, "body", "Cache-Control", "max-age=60", "ETag", "\"v1\""));
+
+        // Miss, then hit while fresh.
+        assertEquals("body", cachingRestClient.submitRequest(new DummyGetRequest()).getResponseStr());
+        clock.advance(30_000);
+        assertEquals("body", cachingRestClient.submitRequest(new DummyGetRequest()).getResponseStr());
+        assertEquals(1, stubRestClient.requests.size());
+
+        // Stale, revalidated with a 304.
+        clock.advance(31_000);
+        stubRestClient.respond(response(304, null, "Cache-Control", "max-age=60"));
+        final RestResponse revalidated = cachingRestClient.submitRequest(new DummyGetRequest());
+        assertEquals(200, revalidated.getHttpCode());
+        assertEquals("body", revalidated.getResponseStr());
+        assertEquals(2, stubRestClient.requests.size());
+        assertEquals("\"v1\"", getHeader(stubRestClient.requests.get(1), "If-None-Match"));
+
+        // Fresh again after revalidation.
+        assertEquals("body", cachingRestClient.submitRequest(new DummyGetRequest()).getResponseStr());
+        assertEquals(2, stubRestClient.requests.size());
+
+        final CacheStatistics statistics = cachingRestClient.getStatistics();
+        assertEquals(2, statistics.getHitCount());
+        assertEquals(1, statistics.getMissCount());
+        assertEquals(1, statistics.getRevalidationCount());
+    }
+
+    /**
+     * Responses with Last-Modified but no freshness should always be revalidated with If-Modified-Since.
+     */
+    @Test
+    void testLastModifiedRevalidation() {
+        final String lastModified = "Tue, 15 Nov 1994 12:45:26 GMT";
+        stubRestClient.respond(response(200, "body", "Last-Modified", lastModified));
+        cachingRestClient.submitRequest(new DummyGetRequest());
+
+        stubRestClient.respond(response(304, null));
+        assertEquals("body", cachingRestClient.submitRequest(new DummyGetRequest()).getResponseStr());
+        assertEquals(lastModified, getHeader(stubRestClient.requests.get(1), "If-Modified-Since"));
+    }
+
+    /**
+     * Responses forbidding storage should not be cached.
+     */
+    @Test
+    void testNoStore() {
+        stubRestClient.respond(response(200, "one", "Cache-Control", "no-store, max-age=60"));
+        stubRestClient.respond(response(200, "two", "Cache-Control", "no-store, max-age=60"));
+
+        assertEquals("one", cachingRestClient.submitRequest(new DummyGetRequest()).getResponseStr());
+        assertEquals("two", cachingRestClient.submitRequest(new DummyGetRequest()).getResponseStr());
+        assertEquals(2, cachingRestClient.getStatistics().getMissCount());
+    }
+
+    /**
+     * Expires should be evaluated relative to the response's Date header.
+     */
+    @Test
+    void testExpires() {
+        stubRestClient.respond(response(
+            200, "body", "Date", "Thu, 01 Jan 1970 00:00:00 GMT", "Expires", "Thu, 01 Jan 1970 00:00:10 GMT"
+        ));
+        cachingRestClient.submitRequest(new DummyGetRequest());
+
+        clock.advance(5_000);
+        cachingRestClient.submitRequest(new DummyGetRequest());
+        assertEquals(1, stubRestClient.requests.size());
+
+        clock.advance(6_000);
+        stubRestClient.respond(response(200, "new body"));
+        assertEquals("new body", cachingRestClient.submitRequest(new DummyGetRequest()).getResponseStr());
+    }
+
+    /**
+     * Responses should only be reused for requests sending the same values for headers nominated by Vary.
+     */
+    @Test
+    void testVary() {
+        stubRestClient.respond(response(200, "json", "Cache-Control", "max-age=60", "Vary", "Accept"));
+        stubRestClient.respond(response(200, "xml", "Cache-Control", "max-age=60", "Vary", "Accept"));
+
+        assertEquals("json", cachingRestClient.submitRequest(new DummyGetRequest("Accept", "application/json")).getResponseStr());
+        assertEquals("json", cachingRestClient.submitRequest(new DummyGetRequest("Accept", "application/json")).getResponseStr());
+        assertEquals("xml", cachingRestClient.submitRequest(new DummyGetRequest("Accept", "application/xml")).getResponseStr());
+        assertEquals(2, stubRestClient.requests.size());
+    }
+
+    /**
+     * Successful unsafe requests should invalidate the cached response for the same url.
+     */
+    @Test
+    void testPostInvalidates() {
+        stubRestClient.respond(response(200, "one", "Cache-Control", "max-age=60"));
+        stubRestClient.respond(response(201, null));
+        stubRestClient.respond(response(200, "two", "Cache-Control", "max-age=60"));
+
+        assertEquals("one", cachingRestClient.submitRequest(new DummyGetRequest()).getResponseStr());
+        cachingRestClient.submitRequest(new DummyPostRequest());
+        assertEquals("two", cachingRestClient.submitRequest(new DummyGetRequest()).getResponseStr());
+    }
+
+    /**
+     * The in-memory store should evict least recently used entries to stay within its size limit.
+     */
+    @Test
+    void testInMemoryStoreEviction() {
+        final InMemoryCacheStore store = new InMemoryCacheStore(1000);
+        final CacheEntry entry = new CacheEntry(
+            200, StandardCharsets.UTF_8, Collections.emptyList(), new byte[300], 0, 0, Collections.emptyMap()
+        );
+        store.put("a", entry);
+        store.put("b", entry);
+        store.get("a");
+        store.put("c", entry);
+
+        assertEquals(2, store.size());
+        assertNull(store.get("b"));
+        assertEquals(entry, store.get("a"));
+        assertEquals(1, store.getEvictionCount());
+        assertTrue(store.getSizeInBytes() <= 1000);
+    }
+
+    private static RestResponse response(final int httpCode, final String body, final String... headers) {
+        final List<ResponseHeader> responseHeaders = new ArrayList<>();
+        for (int index = 0; index < headers.length; index += 2) {
+            responseHeaders.add(new ResponseHeader(headers[index], headers[index + 1]));
+        }
+        return new RestResponse(body == null ? null : body.getBytes(StandardCharsets.UTF_8), StandardCharsets.UTF_8, httpCode, responseHeaders);
+    }
+
+    private static String getHeader(final Request request, final String name) {
+        for (final Object header : request.getRequestHeaders()) {
+            if (((RequestHeader) header).getName().equals(name)) {
+                return ((RequestHeader) header).getValue();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns queued responses, recording submitted requests.
+     */
+    private static class StubRestClient implements RestClient {
+        private final Deque<RestResponse> responses = new ArrayDeque<>();
+        private final List<Request> requests = new ArrayList<>();
+
+        void respond(final RestResponse response) {
+            responses.add(response);
+        }
+
+        @Override
+        public void init(final Configuration configuration) {
+        }
+
+        @Override
+        public RestResponse submitRequest(final Request request) throws RestException {
+            requests.add(request);
+            return responses.remove();
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    /**
+     * Clock which only moves when told to.
+     */
+    private static class MutableClock extends Clock {
+        private long millis = 0;
+
+        void advance(final long amount) {
+            millis += amount;
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(final ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return Instant.ofEpochMilli(millis);
+        }
+    }
+
+    private static class DummyGetRequest implements GetRequest<String> {
+        private final List<RequestHeader> headers;
+
+        DummyGetRequest(final String... headers) {
+            this.headers = new ArrayList<>();
+            for (int index = 0; index < headers.length; index += 2) {
+                this.headers.add(new RequestHeader(headers[index], headers[index + 1]));
+            }
+        }
+
+        @Override
+        public String getApiEndpoint() {
+            return "/resource";
+        }
+
+        @Override
+        public List<RequestHeader> getRequestHeaders() {
+            return headers;
+        }
+
+        @Override
+        public String parseResponse(final String responseStr) {
+            return responseStr;
+        }
+    }
+
+    private static class DummyPostRequest implements PostRequest<String> {
+        @Override
+        public String getApiEndpoint() {
+            return "/resource";
+        }
+
+        @Override
+        public RequestBodyContent getRequestBody() {
+            return new StringBodyContent("body");
+        }
+
+        @Override
+        public String parseResponse(final String responseStr) {
+            return responseStr;
+        }
+    }
+}
@@ -0,0 +1,208 @@
+/**
+ * Copyright 2019 SourceLab.org https://github.com/SourceLabOrg/http-client-wrapper
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit
+ * persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.sourcelab.http.rest.cache;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.sourcelab.http.rest.ResponseHeader;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DiskCacheStoreTest {
+
+    @TempDir
+    Path directory;
+
+    /**
+     * Entries and removals should survive the store being closed and re-opened.
+     */
+    @Test
+    void testReloadAfterRestart() {
+        final CacheEntry entry = new CacheEntry(
+            200,
+            StandardCharsets.ISO_8859_1,
+            Arrays.asList(new ResponseHeader("ETag", "\"v1\""), new ResponseHeader("Cache-Control", "max-age=60")),
+            "body".getBytes(StandardCharsets.ISO_8859_1),
+            1000L,
+            2000L,
+            Collections.singletonMap("accept", null)
+        );
+
+        DiskCacheStore store = new DiskCacheStore(directory.toFile(), 1024 * 1024, 64 * 1024);
+        store.put("GET /a", entry);
+        store.put("GET /b", entry);
+        store.put("GET /c", entry);
+        store.remove("GET /b");
+        store.close();
+
+        store = new DiskCacheStore(directory.toFile(), 1024 * 1024, 64 * 1024);
+        assertEquals(2, store.size());
+        assertNull(store.get("GET /b"));
+
+        final CacheEntry loaded = store.get("GET /a");
+        assertNotNull(loaded);
+        assertEquals(200, loaded.getHttpCode());
+        assertEquals(StandardCharsets.ISO_8859_1, loaded.getCharset());
+        assertEquals("\"v1\"", loaded.getHeader("etag"));
+        assertEquals(2, loaded.getHeaders().size());
+        assertArrayEquals("body".getBytes(StandardCharsets.ISO_8859_1), loaded.getBody());
+        assertEquals(1000L, loaded.getRequestTimeInMilliseconds());
+        assertEquals(2000L, loaded.getResponseTimeInMilliseconds());
+        final Map<String, String> varyHeaders = loaded.getVaryHeaders();
+        assertTrue(varyHeaders.containsKey("accept"));
+        assertNull(varyHeaders.get("accept"));
+        store.close();
+    }
+
+    /**
+     * A torn write at the tail of a segment should be skipped, keeping earlier entries.
+     */
+    @Test
+    void testCorruptRecordIgnored() throws Exception {
+        DiskCacheStore store = new DiskCacheStore(directory.toFile(), 1024 * 1024, 64 * 1024);
+        store.put("GET /a", entry("a"));
+        store.put("GET /b", entry("b"));
+        store.close();
+
+        // Flip the last byte of the second record's body.
+        final int firstRecordLength = DiskCacheStore.encodeRecord((byte) 1, "GET /a", entry("a")).length;
+        final int secondRecordLength = DiskCacheStore.encodeRecord((byte) 1, "GET /b", entry("b")).length;
+        try (RandomAccessFile file = new RandomAccessFile(new File(directory.toFile(), "segment-0000000001.dat"), "rw")) {
+            file.seek(firstRecordLength + secondRecordLength - 1);
+            file.write('x');
+        }
+
+        store = new DiskCacheStore(directory.toFile(), 1024 * 1024, 64 * 1024);
+        assertEquals(1, store.size());
+        assertEquals(1, store.getCorruptRecordCount());
+        assertArrayEquals("a".getBytes(StandardCharsets.UTF_8), store.get("GET /a").getBody());
+        assertNull(store.get("GET /b"));
+
+        // New writes replace the corrupt tail.
+        store.put("GET /c", entry("c"));
+        store.close();
+        store = new DiskCacheStore(directory.toFile(), 1024 * 1024, 64 * 1024);
+        assertEquals(2, store.size());
+        assertArrayEquals("c".getBytes(StandardCharsets.UTF_8), store.get("GET /c").getBody());
+        store.close();
+    }
+
+    /**
+     * Overwritten entries should be compacted away, keeping the store within its size limit.
+     */
+    @Test
+    void testCompaction() {
+        final int segmentSize = 4096;
+        final DiskCacheStore store = new DiskCacheStore(directory.toFile(), 4 * segmentSize, segmentSize);
+
+        // Repeatedly overwrite a small set of keys, generating plenty of dead records.
+        final byte[] body = new byte[200];
+        for (int iteration = 0; iteration < 500; iteration++) {
+            store.put("GET /" + (iteration % 5), new CacheEntry(
+                200, StandardCharsets.UTF_8, Collections.emptyList(), body, iteration, iteration, Collections.emptyMap()
+            ));
+        }
+
+        assertTrue(store.getSizeInBytes() <= 4 * segmentSize);
+        assertEquals(5, store.size());
+        assertEquals(0, store.getEvictionCount());
+        for (int key = 0; key < 5; key++) {
+            assertEquals(495 + key, store.get("GET /" + key).getRequestTimeInMilliseconds());
+        }
+        assertEquals(0, store.getCorruptRecordCount());
+        store.close();
+    }
+
+    /**
+     * Removed entries should stay removed after a restart, when the segment holding the removal is too large to be
+     * compacted.
+     */
+    @Test
+    void testRemovalSurvivesDroppedSegment() {
+        final int segmentSize = 4096;
+        DiskCacheStore store = new DiskCacheStore(directory.toFile(), 2 * segmentSize, segmentSize);
+
+        // Fill the first segment with small entries, the last rolling into the second segment.
+        int keys = 0;
+        while (store.getSizeInBytes() < 2 * segmentSize) {
+            store.put("GET /" + keys++, entry(repeat('a', 60)));
+        }
+
+        // Remove an entry held by the first segment, leaving its tombstone in the second, the smaller of the two.
+        store.remove("GET /0");
+        store.put("GET /medium", entry(repeat('b', 1500)));
+
+        // Roll to a third segment with too little room to compact either of the others into it.
+        store.put("GET /large", entry(repeat('c', 3500)));
+        assertEquals(2 * segmentSize, store.getSizeInBytes());
+        assertEquals(keys - 2, store.getEvictionCount());
+        store.close();
+
+        store = new DiskCacheStore(directory.toFile(), 2 * segmentSize, segmentSize);
+        assertNull(store.get("GET /0"));
+        assertNull(store.get("GET /1"));
+        assertNotNull(store.get("GET /" + (keys - 1)));
+        assertNotNull(store.get("GET /medium"));
+        assertNotNull(store.get("GET /large"));
+        assertEquals(3, store.size());
+        store.close();
+    }
+
+    /**
+     * Records too short to hold their header or key should be rejected, even with a valid CRC.
+     */
+    @Test
+    void testDecodeRejectsShortRecords() {
+        final byte[] record = DiskCacheStore.encodeRecord((byte) 2, "GET /a", null);
+        assertNotNull(DiskCacheStore.decodeRecord(record));
+        assertNull(DiskCacheStore.decodeRecord(Arrays.copyOf(record, 12)));
+
+        // Claim a key longer than the record.
+        final ByteBuffer buffer = ByteBuffer.wrap(record);
+        buffer.putInt(13, record.length);
+        final CRC32 crc = new CRC32();
+        crc.update(record, 12, record.length - 12);
+        buffer.putInt(8, (int) crc.getValue());
+        assertNull(DiskCacheStore.decodeRecord(record));
+    }
+
+    private static String repeat(final char character, final int count) {
+        final char[] chars = new char[count];
+        Arrays.fill(chars, character);
+        return new String(chars);
+    }
+
+    private static CacheEntry entry(final String body) {
+        return new CacheEntry(
+            200, StandardCharsets.UTF_8, Collections.emptyList(), body.getBytes(StandardCharsets.UTF_8), 0L, 0L, Collections.emptyMap()
+        );
+    }
+}
@@ -0,0 +1,95 @@
+/**
+ * Copyright 2019 SourceLab.org https://github.com/SourceLabOrg/http-client-wrapper
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit
+ * persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.sourcelab.http.rest.handlers;
+
+import org.apache.http.HttpVersion;
+import org.apache.http.entity.BasicHttpEntity;
+import org.apache.http.entity.ContentType;
+import org.apache.http.entity.StringEntity;
+import org.apache.http.message.BasicHttpResponse;
+import org.junit.jupiter.api.Test;
+import org.sourcelab.http.rest.RestResponse;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class RestResponseHandlerTest {
+    /**
+     * Bodies with a known Content-Length should be read fully.
+     */
+    @Test
+    void testReadBodyWithContentLength() throws IOException {
+        final BasicHttpResponse httpResponse = new BasicHttpResponse(HttpVersion.HTTP_1_1, 200, "OK");
+        httpResponse.setEntity(new StringEntity("{\"name\":\"Café\"}", ContentType.APPLICATION_JSON));
+
+        final RestResponse response = new RestResponseHandler().handleResponse(httpResponse);
+        assertEquals(200, response.getHttpCode());
+        assertEquals(StandardCharsets.UTF_8, response.getCharset());
+        assertEquals("{\"name\":\"Café\"}", response.getResponseStr());
+    }
+
+    /**
+     * Bodies without a Content-Length should be read fully, growing the buffer as needed.
+     */
+    @Test
+    void testReadBodyWithoutContentLength() throws IOException {
+        final StringBuilder expected = new StringBuilder();
+        for (int index = 0; index < 2000; index++) {
+            expected.append("chunk").append(index);
+        }
+        final BasicHttpEntity entity = new BasicHttpEntity();
+        entity.setContent(new ByteArrayInputStream(expected.toString().getBytes(StandardCharsets.ISO_8859_1)));
+        entity.setContentLength(-1);
+
+        final BasicHttpResponse httpResponse = new BasicHttpResponse(HttpVersion.HTTP_1_1, 200, "OK");
+        httpResponse.setEntity(entity);
+
+        final RestResponse response = new RestResponseHandler().handleResponse(httpResponse);
+        assertEquals(StandardCharsets.ISO_8859_1, response.getCharset());
+        assertEquals(expected.toString(), response.getResponseStr());
+    }
+
+    /**
+     * A body shorter than its declared Content-Length should fail, rather than return a truncated body.
+     */
+    @Test
+    void testReadBodyTruncated() {
+        final BasicHttpEntity entity = new BasicHttpEntity();
+        entity.setContent(new ByteArrayInputStream("short".getBytes(StandardCharsets.UTF_8)));
+        entity.setContentLength(100);
+
+        final IOException exception = assertThrows(IOException.class, () -> RestResponseHandler.readBody(entity));
+        assertEquals("Response body truncated, read 5 of 100 bytes", exception.getMessage());
+    }
+
+    /**
+     * A huge declared Content-Length should not be allocated up front.
+     */
+    @Test
+    void testReadBodyWithHugeContentLength() {
+        final BasicHttpEntity entity = new BasicHttpEntity();
+        entity.setContent(new ByteArrayInputStream("short".getBytes(StandardCharsets.UTF_8)));
+        entity.setContentLength(Integer.MAX_VALUE - 8);
+
+        final IOException exception = assertThrows(IOException.class, () -> RestResponseHandler.readBody(entity));
+        assertEquals("Response body truncated, read 5 of " + (Integer.MAX_VALUE - 8) + " bytes", exception.getMessage());
+    }
+}
@@ -0,0 +1,242 @@
+/**
+ * Copyright 2019 SourceLab.org https://github.com/SourceLabOrg/http-client-wrapper
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit
+ * persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.sourcelab.http.rest.metrics;
+
+import org.junit.jupiter.api.Test;
+import org.sourcelab.http.rest.RestResponse;
+import org.sourcelab.http.rest.configuration.Configuration;
+import org.sourcelab.http.rest.configuration.MetricsConfiguration;
+import org.sourcelab.http.rest.exceptions.ConnectionException;
+import org.sourcelab.http.rest.exceptions.ResultParsingException;
+import org.sourcelab.http.rest.request.GetRequest;
+import org.sourcelab.http.rest.request.RequestMethod;
+import org.sourcelab.http.rest.transport.PreparedRequest;
+import org.sourcelab.http.rest.transport.Transport;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MetricsTransportTest {
+
+    private long now = 0;
+
+    /**
+     * Responses should be recorded by status class, with their latency and body sizes.
+     */
+    @Test
+    void testResponsesRecorded() {
+        final ScriptedTransport delegate = new ScriptedTransport();
+        final MetricsTransport transport = create(delegate, MetricsConfiguration.newBuilder().build());
+
+        delegate.respond(new RestResponse("response", 200), 10);
+        delegate.respond(new RestResponse("missing", 404), 20);
+        transport.execute(request("/resource", RequestMethod.POST, "body"));
+        transport.execute(request("/resource", RequestMethod.POST, "body"));
+
+        final RequestMetrics metrics = transport.getRegistry().getRequestMetrics("/resource", RequestMethod.POST);
+        assertEquals(2, metrics.getRequestCount());
+        assertEquals(1, metrics.getStatusClassCount(2));
+        assertEquals(1, metrics.getStatusClassCount(4));
+        assertEquals(8, metrics.getBytesSent());
+        assertEquals(15, metrics.getBytesReceived());
+        assertEquals(20_000, metrics.getLatency().getMaxInMicros());
+        assertNull(transport.getRegistry().getRequestMetrics("/resource", RequestMethod.GET));
+    }
+
+    /**
+     * Exceptions should be counted by type and rethrown.
+     */
+    @Test
+    void testExceptionsRecorded() {
+        final ScriptedTransport delegate = new ScriptedTransport();
+        final MetricsTransport transport = create(delegate, MetricsConfiguration.newBuilder().build());
+
+        delegate.fail(new ConnectionException("Connection refused", new ConnectException("Connection refused")));
+        delegate.fail(new ResultParsingException("Truncated", new IOException("Truncated")));
+        delegate.fail(new ConnectionException("Connection refused", new ConnectException("Connection refused")));
+        for (int index = 0; index < 3; index++) {
+            assertThrows(RuntimeException.class, () -> transport.execute(request("/resource", RequestMethod.GET, null)));
+        }
+
+        final RequestMetrics metrics = transport.getRegistry().getRequestMetrics("/resource", RequestMethod.GET);
+        assertEquals(3, metrics.getRequestCount());
+        assertEquals(2, metrics.getExceptionCount(ConnectionException.class));
+        assertEquals(1, metrics.getExceptionCount(ResultParsingException.class));
+        assertEquals(Long.valueOf(2), metrics.getExceptionCounts().get(ConnectionException.class.getName()));
+    }
+
+    /**
+     * Endpoints should be grouped by pattern, and endpoints beyond the maximum share the other metrics.
+     */
+    @Test
+    void testEndpointGrouping() {
+        final ScriptedTransport delegate = new ScriptedTransport();
+        final MetricsTransport transport = create(
+            delegate, MetricsConfiguration.newBuilder().withEndpointPatterns("/users/[^/]+").withMaxEndpoints(2).build()
+        );
+
+        for (final String endpoint : new String[] {"/users/1", "/users/2", "/orders", "/items", "/invoices"}) {
+            delegate.respond(new RestResponse("response", 200), 1);
+            transport.execute(request(endpoint, RequestMethod.GET, null));
+        }
+
+        final MetricsRegistry registry = transport.getRegistry();
+        assertEquals(2, registry.getRequestMetrics("/users/[^/]+", RequestMethod.GET).getRequestCount());
+        assertEquals(1, registry.getRequestMetrics("/orders", RequestMethod.GET).getRequestCount());
+        assertEquals(2, registry.getRequestMetrics(MetricsConfiguration.OTHER_ENDPOINTS, RequestMethod.GET).getRequestCount());
+        assertEquals(3, registry.getRequestMetrics().size());
+    }
+
+    /**
+     * Exporters should receive the final metrics when the transport is closed, and a failing exporter should not
+     * prevent others from exporting.
+     */
+    @Test
+    void testExportedOnClose() {
+        final List<Collection<RequestMetrics>> exports = new ArrayList<>();
+        final ScriptedTransport delegate = new ScriptedTransport();
+        final MetricsTransport transport = create(delegate, MetricsConfiguration.newBuilder()
+            .withExporter((requestMetrics) -> {
+                throw new IllegalStateException("Monitoring unavailable");
+            })
+            .withExporter(exports::add)
+            .build()
+        );
+
+        delegate.respond(new RestResponse("response", 200), 1);
+        transport.execute(request("/resource", RequestMethod.GET, null));
+        transport.close();
+
+        assertEquals(1, exports.size());
+        assertEquals(1, exports.get(0).iterator().next().getRequestCount());
+    }
+
+    /**
+     * Values should fall in a bucket whose bounds contain them, within 1/16th of the value.
+     */
+    @Test
+    void testHistogramBuckets() {
+        for (long value = 0; value < 1_000_000; value += 7) {
+            final int index = LatencyHistogram.indexOf(value);
+            assertTrue(LatencyHistogram.getBucketLowerBound(index) <= value);
+            assertTrue(LatencyHistogram.getBucketUpperBound(index) >= value);
+            assertTrue(LatencyHistogram.getBucketUpperBound(index) - LatencyHistogram.getBucketLowerBound(index) <= Math.max(0, value / 16));
+        }
+        assertEquals(LatencyHistogram.BUCKET_COUNT - 1, LatencyHistogram.indexOf(Long.MAX_VALUE));
+    }
+
+    /**
+     * Percentiles should be reported within the precision of the histogram.
+     */
+    @Test
+    void testHistogramPercentiles() {
+        final LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals(0, histogram.getValueAtPercentileInMicros(0.99));
+
+        for (long value = 1; value <= 10_000; value++) {
+            histogram.record(value);
+        }
+        assertEquals(10_000, histogram.getCount());
+        assertEquals(5000.5, histogram.getMeanInMicros());
+        assertEquals(10_000, histogram.getMaxInMicros());
+        assertEquals(5000, histogram.getValueAtPercentileInMicros(0.5), 5000 / 16.0);
+        assertEquals(9900, histogram.getValueAtPercentileInMicros(0.99), 9900 / 16.0);
+        assertEquals(10_000, histogram.getValueAtPercentileInMicros(1));
+    }
+
+    private MetricsTransport create(final ScriptedTransport delegate, final MetricsConfiguration metricsConfiguration) {
+        delegate.clock = this;
+        return new MetricsTransport(delegate, metricsConfiguration, () -> now);
+    }
+
+    private static PreparedRequest request(final String endpoint, final RequestMethod requestMethod, final String body) {
+        return new PreparedRequest(
+            new DummyGetRequest(endpoint),
+            requestMethod,
+            "http://localhost" + endpoint,
+            Collections.emptyList(),
+            body == null ? null : body.getBytes(StandardCharsets.UTF_8),
+            null
+        );
+    }
+
+    /**
+     * Transport returning scripted outcomes in order, advancing the test clock by each outcome's latency.
+     */
+    private static class ScriptedTransport implements Transport {
+        private final List<Object> outcomes = new ArrayList<>();
+        private final List<Long> latencies = new ArrayList<>();
+        private MetricsTransportTest clock;
+
+        void respond(final RestResponse response, final long latencyInMilliseconds) {
+            outcomes.add(response);
+            latencies.add(latencyInMilliseconds);
+        }
+
+        void fail(final RuntimeException exception) {
+            outcomes.add(exception);
+            latencies.add(1L);
+        }
+
+        @Override
+        public void init(final Configuration configuration) {
+        }
+
+        @Override
+        public RestResponse execute(final PreparedRequest request) {
+            clock.now += TimeUnit.MILLISECONDS.toNanos(latencies.remove(0));
+            final Object outcome = outcomes.remove(0);
+            if (outcome instanceof RuntimeException) {
+                throw (RuntimeException) outcome;
+            }
+            return (RestResponse) outcome;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    private static class DummyGetRequest implements GetRequest<String> {
+        private final String endpoint;
+
+        DummyGetRequest(final String endpoint) {
+            this.endpoint = endpoint;
+        }
+
+        @Override
+        public String getApiEndpoint() {
+            return endpoint;
+        }
+
+        @Override
+        public String parseResponse(final String responseStr) {
+            return responseStr;
+        }
+    }
+}
@@ -0,0 +1,216 @@
+/**
+ * Copyright 2019 SourceLab.org https://github.com/SourceLabOrg/http-client-wrapper
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit
+ * persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.sourcelab.http.rest.tracing;
+
+import org.junit.jupiter.api.Test;
+import org.sourcelab.http.rest.HttpClientRestClient;
+import org.sourcelab.http.rest.RestResponse;
+import org.sourcelab.http.rest.configuration.BasicConfiguration;
+import org.sourcelab.http.rest.configuration.Configuration;
+import org.sourcelab.http.rest.configuration.TracingConfiguration;
+import org.sourcelab.http.rest.request.GetRequest;
+import org.sourcelab.http.rest.request.RequestHeader;
+import org.sourcelab.http.rest.transport.PreparedRequest;
+import org.sourcelab.http.rest.transport.Transport;
+import org.sourcelab.http.rest.transport.TransportFactory;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TracingTransportTest {
+
+    private static final String TRACEPARENT = "00-4bf92f3577b34da6a3ce929d0e0e4736-00f067aa0ba902b7-01";
+
+    private final List<PreparedRequest> sent = new CopyOnWriteArrayList<>();
+    private final List<Span> spans = new CopyOnWriteArrayList<>();
+
+    /**
+     * Valid traceparent headers should round trip, and invalid ones be rejected.
+     */
+    @Test
+    void testParseTraceparent() {
+        final TraceContext traceContext = TraceContext.parse(TRACEPARENT, "vendor=value");
+        assertEquals("4bf92f3577b34da6a3ce929d0e0e4736", traceContext.getTraceId());
+        assertEquals("00f067aa0ba902b7", traceContext.getSpanId());
+        assertTrue(traceContext.isSampled());
+        assertEquals("vendor=value", traceContext.getTraceState());
+        assertEquals(TRACEPARENT, traceContext.toTraceparent());
+
+        // Future versions may append fields.
+        assertEquals(traceContext.getTraceId(), TraceContext.parse("cc" + TRACEPARENT.substring(2) + "-extra").getTraceId());
+
+        assertNull(TraceContext.parse(null));
+        assertNull(TraceContext.parse("00-4bf92f3577b34da6a3ce929d0e0e4736-00f067aa0ba902b7"));
+        assertNull(TraceContext.parse("00-4BF92F3577B34DA6A3CE929D0E0E4736-00f067aa0ba902b7-01"));
+        assertNull(TraceContext.parse("00-00000000000000000000000000000000-00f067aa0ba902b7-01"));
+        assertNull(TraceContext.parse("00-4bf92f3577b34da6a3ce929d0e0e4736-0000000000000000-01"));
+        assertNull(TraceContext.parse("ff-4bf92f3577b34da6a3ce929d0e0e4736-00f067aa0ba902b7-01"));
+        assertNull(TraceContext.parse(TRACEPARENT + "-extra"));
+    }
+
+    /**
+     * Requests should continue the current trace as a child span, following its sampling decision.
+     */
+    @Test
+    void testCurrentContextContinued() {
+        final HttpClientRestClient restClient = create(0);
+        final TraceContext parent = TraceContext.parse(TRACEPARENT, "vendor=value");
+        try (TraceContext.Scope scope = parent.makeCurrent()) {
+            restClient.submitRequest(new DummyRequest());
+        }
+        assertNull(TraceContext.current());
+
+        final TraceContext traceContext = sent.get(0).getTraceContext();
+        assertEquals(parent.getTraceId(), traceContext.getTraceId());
+        assertEquals(parent.getSpanId(), traceContext.getParentSpanId());
+        assertNotEquals(parent.getSpanId(), traceContext.getSpanId());
+        assertEquals(traceContext.toTraceparent(), getHeader(sent.get(0), "traceparent"));
+        assertEquals("vendor=value", getHeader(sent.get(0), "tracestate"));
+
+        // Sampled by the parent, despite a sampling rate of 0.
+        assertEquals(1, spans.size());
+        assertEquals(traceContext, spans.get(0).getTraceContext());
+        assertEquals(200, spans.get(0).getHttpCode());
+        assertTrue(spans.get(0).getDurationNanos() >= 0);
+        restClient.close();
+    }
+
+    /**
+     * A request's own trace context should take precedence over the current context.
+     */
+    @Test
+    void testRequestContextContinued() {
+        final HttpClientRestClient restClient = create(0);
+        final TraceContext parent = TraceContext.parse(TRACEPARENT);
+        try (TraceContext.Scope scope = TraceContext.parse("00-0af7651916cd43dd8448eb211c80319c-b7ad6b7169203331-00").makeCurrent()) {
+            restClient.submitRequest(new DummyRequest() {
+                @Override
+                public TraceContext getTraceContext() {
+                    return parent;
+                }
+            });
+        }
+        assertEquals(parent.getTraceId(), sent.get(0).getTraceContext().getTraceId());
+        restClient.close();
+    }
+
+    /**
+     * New traces should be started when there is no parent, sampled at the configured rate, and only sampled
+     * requests should record spans.
+     */
+    @Test
+    void testNewTracesSampled() {
+        HttpClientRestClient restClient = create(0);
+        for (int index = 0; index < 100; index++) {
+            restClient.submitRequest(new DummyRequest());
+        }
+        assertEquals(100, sent.stream().map((request) -> request.getTraceContext().getTraceId()).distinct().count());
+        assertFalse(sent.get(0).getTraceContext().isSampled());
+        assertNull(sent.get(0).getTraceContext().getParentSpanId());
+        assertTrue(getHeader(sent.get(0), "traceparent").endsWith("-00"));
+        assertNull(getHeader(sent.get(0), "tracestate"));
+        assertTrue(spans.isEmpty());
+        restClient.close();
+
+        restClient = create(1);
+        restClient.submitRequest(new DummyRequest());
+        assertEquals(1, spans.size());
+        assertTrue(getHeader(sent.get(sent.size() - 1), "traceparent").endsWith("-01"));
+        restClient.close();
+    }
+
+    /**
+     * Sampling decisions should follow the configured rate.
+     */
+    @Test
+    void testSamplingRate() {
+        final Tracer tracer = new Tracer(TracingConfiguration.newBuilder().withSamplingRate(0.25).build());
+        int sampled = 0;
+        for (int index = 0; index < 10_000; index++) {
+            if (tracer.startSpan(null).isSampled()) {
+                sampled++;
+            }
+        }
+        assertTrue(sampled > 2000 && sampled < 3000, "Sampled " + sampled);
+    }
+
+    private HttpClientRestClient create(final double samplingRate) {
+        final TransportFactory transportFactory = new TransportFactory() {
+            @Override
+            public String getName() {
+                return "in-memory";
+            }
+
+            @Override
+            public Transport create() {
+                return new Transport() {
+                    @Override
+                    public void init(final Configuration configuration) {
+                    }
+
+                    @Override
+                    public RestResponse execute(final PreparedRequest request) {
+                        sent.add(request);
+                        return new RestResponse("response", 200);
+                    }
+
+                    @Override
+                    public void close() {
+                    }
+                };
+            }
+        };
+        final Configuration configuration = new BasicConfiguration<>("http://localhost")
+            .useTransport(transportFactory)
+            .useTracing(TracingConfiguration.newBuilder()
+                .withSamplingRate(samplingRate)
+                .withExporter(spans::add)
+                .build()
+            );
+        final HttpClientRestClient restClient = new HttpClientRestClient();
+        restClient.init(configuration);
+        return restClient;
+    }
+
+    private static String getHeader(final PreparedRequest request, final String name) {
+        return request.getHeaders().stream()
+            .filter((header) -> header.getName().equals(name))
+            .map(RequestHeader::getValue)
+            .reduce((first, second) -> {
+                throw new AssertionError("Duplicate " + name + " header");
+            })
+            .orElse(null);
+    }
+
+    private static class DummyRequest implements GetRequest<String> {
+        @Override
+        public String getApiEndpoint() {
+            return "/resource";
+        }
+
+        @Override
+        public String parseResponse(final String responseStr) {
+            return responseStr;
+        }
+    }
+}
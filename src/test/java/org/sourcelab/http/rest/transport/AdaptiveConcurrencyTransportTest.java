@@ -0,0 +1,226 @@
+/**
+ * Copyright 2019 SourceLab.org https://github.com/SourceLabOrg/http-client-wrapper
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit
+ * persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.sourcelab.http.rest.transport;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.sourcelab.http.rest.RestResponse;
+import org.sourcelab.http.rest.configuration.AdaptiveConcurrencyConfiguration;
+import org.sourcelab.http.rest.configuration.Configuration;
+import org.sourcelab.http.rest.exceptions.ConcurrencyLimitExceededException;
+import org.sourcelab.http.rest.exceptions.RequestCancelledException;
+import org.sourcelab.http.rest.request.GetRequest;
+import org.sourcelab.http.rest.request.RequestMethod;
+
+import java.util.Collections;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AdaptiveConcurrencyTransportTest {
+
+    private static final long MILLISECOND = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private ExecutorService executorService;
+
+    @BeforeEach
+    void setup() {
+        executorService = Executors.newCachedThreadPool();
+    }
+
+    @AfterEach
+    void cleanup() {
+        executorService.shutdownNow();
+    }
+
+    /**
+     * The limit should grow while latency is stable, and shrink once latency rises or requests fail.
+     */
+    @Test
+    void testLimitFollowsLatency() {
+        final AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(
+            AdaptiveConcurrencyConfiguration.newBuilder().withLimits(10, 1, 100).build()
+        );
+
+        for (int index = 0; index < 200; index++) {
+            limiter.onSample(10 * MILLISECOND, limiter.getLimit(), false);
+        }
+        final int grownLimit = limiter.getLimit();
+        assertEquals(100, grownLimit);
+        assertEquals(10.0, limiter.getLongRttInMilliseconds(), 0.01);
+
+        for (int index = 0; index < 10; index++) {
+            limiter.onSample(50 * MILLISECOND, limiter.getLimit(), false);
+        }
+        final int shrunkLimit = limiter.getLimit();
+        assertTrue(shrunkLimit < grownLimit / 2, "Limit " + shrunkLimit + " should have shrunk");
+
+        limiter.onSample(10 * MILLISECOND, limiter.getLimit(), true);
+        assertEquals((int) (shrunkLimit * 0.9), limiter.getLimit(), 1);
+    }
+
+    /**
+     * The limit should not grow while less than half of it is in use.
+     */
+    @Test
+    void testLimitDoesNotGrowWhenIdle() {
+        final AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(
+            AdaptiveConcurrencyConfiguration.newBuilder().withLimits(10, 1, 100).build()
+        );
+        for (int index = 0; index < 200; index++) {
+            limiter.onSample(10 * MILLISECOND, 1, false);
+        }
+        assertEquals(10, limiter.getLimit());
+        assertEquals(200, limiter.getSampleCount());
+    }
+
+    /**
+     * Requests beyond the limit should be rejected when they cannot be queued.
+     */
+    @Test
+    void testRejectBeyondLimit() throws Exception {
+        final BlockingTransport delegate = new BlockingTransport();
+        final AdaptiveConcurrencyTransport transport = new AdaptiveConcurrencyTransport(
+            delegate, AdaptiveConcurrencyConfiguration.newBuilder().withLimits(2, 1, 2).withQueue(0, 0).build()
+        );
+
+        final Future<RestResponse> first = executorService.submit(() -> execute(transport));
+        final Future<RestResponse> second = executorService.submit(() -> execute(transport));
+        assertTrue(delegate.started.tryAcquire(2, 5, TimeUnit.SECONDS));
+
+        final ConcurrencyLimitExceededException exception = assertThrows(ConcurrencyLimitExceededException.class, () -> execute(transport));
+        assertEquals(2, exception.getLimit());
+        assertEquals(1, transport.getLimiter().getRejectedCount());
+
+        delegate.release.countDown();
+        first.get(5, TimeUnit.SECONDS);
+        second.get(5, TimeUnit.SECONDS);
+        assertEquals(0, transport.getLimiter().getInFlight());
+        assertEquals(200, execute(transport).getHttpCode());
+    }
+
+    /**
+     * Queued requests should be admitted once capacity is released.
+     */
+    @Test
+    void testQueuedUntilCapacity() throws Exception {
+        final BlockingTransport delegate = new BlockingTransport();
+        final AdaptiveConcurrencyTransport transport = new AdaptiveConcurrencyTransport(
+            delegate, AdaptiveConcurrencyConfiguration.newBuilder().withLimits(1, 1, 1).withQueue(10, 5000).build()
+        );
+
+        final Future<RestResponse> first = executorService.submit(() -> execute(transport));
+        assertTrue(delegate.started.tryAcquire(5, TimeUnit.SECONDS));
+        final Future<RestResponse> queued = executorService.submit(() -> execute(transport));
+
+        final long deadline = System.currentTimeMillis() + 5000;
+        while (transport.getLimiter().getQueued() == 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(1, transport.getLimiter().getQueued());
+
+        delegate.release.countDown();
+        assertEquals(200, first.get(5, TimeUnit.SECONDS).getHttpCode());
+        assertEquals(200, queued.get(5, TimeUnit.SECONDS).getHttpCode());
+        assertEquals(0, transport.getLimiter().getRejectedCount());
+    }
+
+    /**
+     * A queued request should stop waiting as soon as it is cancelled, without reaching the delegate.
+     */
+    @Test
+    void testCancelledWhileQueued() throws Exception {
+        final BlockingTransport delegate = new BlockingTransport();
+        final AdaptiveConcurrencyTransport transport = new AdaptiveConcurrencyTransport(
+            delegate, AdaptiveConcurrencyConfiguration.newBuilder().withLimits(1, 1, 1).withQueue(10, 5000).build()
+        );
+
+        final Future<RestResponse> first = executorService.submit(() -> execute(transport));
+        assertTrue(delegate.started.tryAcquire(5, TimeUnit.SECONDS));
+        final RequestCancellation cancellation = new RequestCancellation();
+        final Future<RestResponse> queued = executorService.submit(() -> transport.execute(request().withCancellation(cancellation)));
+
+        final long deadline = System.currentTimeMillis() + 5000;
+        while (transport.getLimiter().getQueued() == 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        cancellation.cancel();
+        final ExecutionException exception = assertThrows(ExecutionException.class, () -> queued.get(1, TimeUnit.SECONDS));
+        assertTrue(exception.getCause() instanceof RequestCancelledException);
+
+        delegate.release.countDown();
+        assertEquals(200, first.get(5, TimeUnit.SECONDS).getHttpCode());
+        assertEquals(0, delegate.started.availablePermits());
+        assertEquals(0, transport.getLimiter().getInFlight());
+    }
+
+    private static RestResponse execute(final Transport transport) {
+        return transport.execute(request());
+    }
+
+    private static PreparedRequest request() {
+        return new PreparedRequest(new DummyGetRequest(), RequestMethod.GET, "http://localhost/resource", Collections.emptyList(), null, null);
+    }
+
+    /**
+     * Transport whose requests block until released.
+     */
+    private static class BlockingTransport implements Transport {
+        private final Semaphore started = new Semaphore(0);
+        private final CountDownLatch release = new CountDownLatch(1);
+
+        @Override
+        public void init(final Configuration configuration) {
+        }
+
+        @Override
+        public RestResponse execute(final PreparedRequest request) {
+            started.release();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (final InterruptedException exception) {
+                Thread.currentThread().interrupt();
+            }
+            return new RestResponse("body", 200);
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    private static class DummyGetRequest implements GetRequest<String> {
+        @Override
+        public String getApiEndpoint() {
+            return "/resource";
+        }
+
+        @Override
+        public String parseResponse(final String responseStr) {
+            return responseStr;
+        }
+    }
+}
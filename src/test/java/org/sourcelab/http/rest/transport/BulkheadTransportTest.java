@@ -0,0 +1,250 @@
+/**
+ * Copyright 2019 SourceLab.org https://github.com/SourceLabOrg/http-client-wrapper
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit
+ * persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.sourcelab.http.rest.transport;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.sourcelab.http.rest.RestResponse;
+import org.sourcelab.http.rest.configuration.BulkheadConfiguration;
+import org.sourcelab.http.rest.configuration.Configuration;
+import org.sourcelab.http.rest.exceptions.BulkheadFullException;
+import org.sourcelab.http.rest.exceptions.RequestCancelledException;
+import org.sourcelab.http.rest.request.GetRequest;
+import org.sourcelab.http.rest.request.RequestMethod;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BulkheadTransportTest {
+
+    private BlockingTransport delegate;
+    private ExecutorService executorService;
+
+    @BeforeEach
+    void setup() {
+        delegate = new BlockingTransport();
+        executorService = Executors.newCachedThreadPool();
+    }
+
+    @AfterEach
+    void cleanup() {
+        delegate.release.countDown();
+        executorService.shutdownNow();
+    }
+
+    /**
+     * A saturated bulkhead should fail fast, without affecting endpoints outside it.
+     */
+    @Test
+    void testSaturatedBulkheadFailsFast() throws Exception {
+        final BulkheadTransport transport = new BulkheadTransport(
+            delegate, BulkheadConfiguration.newBuilder().withBulkhead("/export/.*", 2).build()
+        );
+        final Bulkhead bulkhead = transport.getBulkheads().iterator().next();
+
+        final List<Future<RestResponse>> slowRequests = new ArrayList<>();
+        for (int index = 0; index < 2; index++) {
+            slowRequests.add(executorService.submit(() -> transport.execute(get("/export/users"))));
+        }
+        awaitInFlight(bulkhead, 2);
+
+        final BulkheadFullException exception = assertThrows(BulkheadFullException.class, () -> transport.execute(get("/export/orders")));
+        assertEquals("/export/.*", exception.getBulkheadName());
+        assertEquals(1, bulkhead.getRejectedCount());
+
+        // Other endpoints are not limited.
+        assertEquals(200, transport.execute(get("/users/1")).getHttpCode());
+
+        delegate.release.countDown();
+        for (final Future<RestResponse> slowRequest : slowRequests) {
+            assertEquals(200, slowRequest.get(5, TimeUnit.SECONDS).getHttpCode());
+        }
+        assertEquals(0, bulkhead.getInFlight());
+        assertEquals(2, bulkhead.getPermittedCount());
+    }
+
+    /**
+     * Queued requests should wait for a slot, and be rejected once the queue is full or the wait expires.
+     */
+    @Test
+    void testQueuedRequestsWaitForSlot() throws Exception {
+        final BulkheadTransport transport = new BulkheadTransport(
+            delegate, BulkheadConfiguration.newBuilder().withBulkhead("/export/.*", 1, 1, 5000).build()
+        );
+        final Bulkhead bulkhead = transport.getBulkheads().iterator().next();
+
+        final Future<RestResponse> slowRequest = executorService.submit(() -> transport.execute(get("/export/users")));
+        awaitInFlight(bulkhead, 1);
+        final Future<RestResponse> queuedRequest = executorService.submit(() -> transport.execute(get("/export/orders")));
+        awaitQueued(bulkhead, 1);
+
+        // The queue is full.
+        assertThrows(BulkheadFullException.class, () -> transport.execute(get("/export/items")));
+
+        delegate.release.countDown();
+        assertEquals(200, slowRequest.get(5, TimeUnit.SECONDS).getHttpCode());
+        assertEquals(200, queuedRequest.get(5, TimeUnit.SECONDS).getHttpCode());
+        assertEquals(2, bulkhead.getPermittedCount());
+        assertEquals(1, bulkhead.getRejectedCount());
+        assertEquals(0, bulkhead.getQueued());
+    }
+
+    /**
+     * A queued request should be rejected if no slot frees up within the maximum wait.
+     */
+    @Test
+    void testQueueWaitExpires() throws Exception {
+        final BulkheadTransport transport = new BulkheadTransport(
+            delegate, BulkheadConfiguration.newBuilder().withBulkhead("/export/.*", 1, 10, 20).build()
+        );
+        final Bulkhead bulkhead = transport.getBulkheads().iterator().next();
+        executorService.submit(() -> transport.execute(get("/export/users")));
+        awaitInFlight(bulkhead, 1);
+
+        assertThrows(BulkheadFullException.class, () -> transport.execute(get("/export/orders")));
+        assertEquals(0, bulkhead.getQueued());
+    }
+
+    /**
+     * A queued request should stop waiting as soon as it is cancelled, without taking a slot.
+     */
+    @Test
+    void testCancelledWhileQueued() throws Exception {
+        final BulkheadTransport transport = new BulkheadTransport(
+            delegate, BulkheadConfiguration.newBuilder().withBulkhead("/export/.*", 1, 1, 5000).build()
+        );
+        final Bulkhead bulkhead = transport.getBulkheads().iterator().next();
+
+        final Future<RestResponse> slowRequest = executorService.submit(() -> transport.execute(get("/export/users")));
+        awaitInFlight(bulkhead, 1);
+        final RequestCancellation cancellation = new RequestCancellation();
+        final Future<RestResponse> queuedRequest = executorService.submit(
+            () -> transport.execute(get("/export/orders").withCancellation(cancellation))
+        );
+        awaitQueued(bulkhead, 1);
+
+        cancellation.cancel();
+        final ExecutionException exception = assertThrows(ExecutionException.class, () -> queuedRequest.get(1, TimeUnit.SECONDS));
+        assertTrue(exception.getCause() instanceof RequestCancelledException);
+        assertEquals(0, bulkhead.getQueued());
+
+        delegate.release.countDown();
+        assertEquals(200, slowRequest.get(5, TimeUnit.SECONDS).getHttpCode());
+        assertEquals(1, bulkhead.getPermittedCount());
+        assertEquals(0, bulkhead.getInFlight());
+    }
+
+    /**
+     * Slots should be released when the delegate throws.
+     */
+    @Test
+    void testSlotReleasedOnFailure() {
+        final BulkheadTransport transport = new BulkheadTransport(
+            delegate, BulkheadConfiguration.newBuilder().withBulkhead("/export/.*", 1).build()
+        );
+        delegate.block = false;
+        delegate.exception = new IllegalStateException("Failed");
+
+        assertThrows(IllegalStateException.class, () -> transport.execute(get("/export/users")));
+        assertThrows(IllegalStateException.class, () -> transport.execute(get("/export/users")));
+        assertEquals(0, transport.getBulkheads().iterator().next().getInFlight());
+    }
+
+    private static void awaitInFlight(final Bulkhead bulkhead, final int expected) throws InterruptedException {
+        final long deadline = System.currentTimeMillis() + 5000;
+        while (bulkhead.getInFlight() < expected && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(expected, bulkhead.getInFlight());
+    }
+
+    private static void awaitQueued(final Bulkhead bulkhead, final int expected) throws InterruptedException {
+        final long deadline = System.currentTimeMillis() + 5000;
+        while (bulkhead.getQueued() < expected && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(expected, bulkhead.getQueued());
+    }
+
+    private static PreparedRequest get(final String endpoint) {
+        return new PreparedRequest(
+            new DummyGetRequest(endpoint), RequestMethod.GET, "http://localhost" + endpoint, Collections.emptyList(), null, null
+        );
+    }
+
+    /**
+     * Transport whose requests block until released.
+     */
+    private static class BlockingTransport implements Transport {
+        private final CountDownLatch release = new CountDownLatch(1);
+        private volatile boolean block = true;
+        private volatile RuntimeException exception = null;
+
+        @Override
+        public void init(final Configuration configuration) {
+        }
+
+        @Override
+        public RestResponse execute(final PreparedRequest request) {
+            if (block && request.getUrl().contains("/export/")) {
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (final InterruptedException exception) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            if (exception != null) {
+                throw exception;
+            }
+            return new RestResponse("response " + request.getUrl(), 200);
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    private static class DummyGetRequest implements GetRequest<String> {
+        private final String endpoint;
+
+        DummyGetRequest(final String endpoint) {
+            this.endpoint = endpoint;
+        }
+
+        @Override
+        public String getApiEndpoint() {
+            return endpoint;
+        }
+
+        @Override
+        public String parseResponse(final String responseStr) {
+            return responseStr;
+        }
+    }
+}
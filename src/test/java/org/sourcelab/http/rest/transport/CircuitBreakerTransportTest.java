@@ -0,0 +1,271 @@
+/**
+ * Copyright 2019 SourceLab.org https://github.com/SourceLabOrg/http-client-wrapper
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit
+ * persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.sourcelab.http.rest.transport;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.sourcelab.http.rest.RestResponse;
+import org.sourcelab.http.rest.configuration.CircuitBreakerConfiguration;
+import org.sourcelab.http.rest.configuration.Configuration;
+import org.sourcelab.http.rest.exceptions.CircuitBreakerOpenException;
+import org.sourcelab.http.rest.exceptions.ConcurrencyLimitExceededException;
+import org.sourcelab.http.rest.exceptions.ConnectionException;
+import org.sourcelab.http.rest.request.GetRequest;
+import org.sourcelab.http.rest.request.RequestMethod;
+
+import java.net.ConnectException;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class CircuitBreakerTransportTest {
+
+    private StubTransport delegate;
+    private long nanoTime;
+    private CircuitBreakerTransport transport;
+
+    @BeforeEach
+    void setup() {
+        delegate = new StubTransport();
+        nanoTime = 0;
+        transport = new CircuitBreakerTransport(
+            delegate,
+            CircuitBreakerConfiguration.newBuilder()
+                .withSlidingWindow(10, 4)
+                .withFailureRateThreshold(0.5)
+                .withSlowCallRateThreshold(0.5, 1000)
+                .withWaitDurationInOpenStateInMilliseconds(5000)
+                .withPermittedCallsInHalfOpenState(2)
+                .withEndpointPatterns("/users/[^/]+")
+                .build(),
+            () -> nanoTime
+        );
+    }
+
+    /**
+     * Once the failure rate reaches the threshold, calls should be rejected without reaching the delegate.
+     */
+    @Test
+    void testOpensOnFailureRate() {
+        delegate.httpCode = 200;
+        execute("/resource");
+        execute("/resource");
+        delegate.httpCode = 503;
+        execute("/resource");
+        final CircuitBreaker circuitBreaker = transport.getCircuitBreaker("/resource");
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+
+        // Exceptions count as failures too.
+        delegate.exception = new ConnectionException("Connection refused", new ConnectException("Connection refused"));
+        assertThrows(ConnectionException.class, () -> execute("/resource"));
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+        assertEquals(1, circuitBreaker.getOpenedCount());
+
+        final CircuitBreakerOpenException exception = assertThrows(CircuitBreakerOpenException.class, () -> execute("/resource"));
+        assertEquals("/resource", exception.getCircuitBreakerName());
+        assertEquals(4, delegate.executions);
+        assertEquals(1, circuitBreaker.getNotPermittedCallCount());
+
+        // Other endpoints are unaffected.
+        delegate.exception = null;
+        delegate.httpCode = 200;
+        assertEquals(200, execute("/other").getHttpCode());
+    }
+
+    /**
+     * After the wait duration, successful trial calls should close the circuit breaker and a failed trial call
+     * should re-open it.
+     */
+    @Test
+    void testHalfOpenRecovery() {
+        openCircuitBreaker("/resource");
+        final CircuitBreaker circuitBreaker = transport.getCircuitBreaker("/resource");
+
+        // First trial call fails, re-opening.
+        nanoTime += TimeUnit.SECONDS.toNanos(5);
+        execute("/resource");
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+        assertThrows(CircuitBreakerOpenException.class, () -> execute("/resource"));
+
+        // Trial calls succeed, closing.
+        nanoTime += TimeUnit.SECONDS.toNanos(5);
+        delegate.httpCode = 200;
+        execute("/resource");
+        assertEquals(CircuitBreaker.State.HALF_OPEN, circuitBreaker.getState());
+        execute("/resource");
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+        assertEquals(2, circuitBreaker.getOpenedCount());
+        assertEquals(-1, circuitBreaker.getFailureRate());
+    }
+
+    /**
+     * Slow calls should open the circuit breaker even when successful.
+     */
+    @Test
+    void testOpensOnSlowCallRate() {
+        delegate.httpCode = 200;
+        delegate.durationInNanos = TimeUnit.SECONDS.toNanos(2);
+        for (int index = 0; index < 4; index++) {
+            execute("/resource");
+        }
+        final CircuitBreaker circuitBreaker = transport.getCircuitBreaker("/resource");
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+        assertEquals(4, circuitBreaker.getSlowCallCount());
+        assertEquals(0, circuitBreaker.getFailedCallCount());
+    }
+
+    /**
+     * Endpoints matching a pattern should share a circuit breaker.
+     */
+    @Test
+    void testEndpointPatternShared() {
+        openCircuitBreaker("/users/1");
+        assertThrows(CircuitBreakerOpenException.class, () -> execute("/users/2"));
+        assertSame(transport.getCircuitBreaker("/users/1"), transport.getCircuitBreaker("/users/3"));
+        assertEquals("/users/[^/]+", transport.getCircuitBreaker("/users/3").getName());
+        assertEquals(1, transport.getCircuitBreakers().size());
+    }
+
+    /**
+     * Requests rejected by the adaptive concurrency limiter should not be recorded as failures, nor use up trial calls.
+     */
+    @Test
+    void testConcurrencyLimitRejectionsNotRecorded() {
+        delegate.exception = new ConcurrencyLimitExceededException("Concurrency limit of 1 reached", 1);
+        for (int index = 0; index < 10; index++) {
+            assertThrows(ConcurrencyLimitExceededException.class, () -> execute("/resource"));
+        }
+        final CircuitBreaker circuitBreaker = transport.getCircuitBreaker("/resource");
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+        assertEquals(0, circuitBreaker.getFailedCallCount());
+
+        // Rejected trial calls are returned to the half open circuit breaker.
+        delegate.exception = null;
+        openCircuitBreaker("/resource");
+        nanoTime += TimeUnit.SECONDS.toNanos(5);
+        delegate.exception = new ConcurrencyLimitExceededException("Concurrency limit of 1 reached", 1);
+        for (int index = 0; index < 5; index++) {
+            assertThrows(ConcurrencyLimitExceededException.class, () -> execute("/resource"));
+        }
+        delegate.exception = null;
+        delegate.httpCode = 200;
+        execute("/resource");
+        execute("/resource");
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+    }
+
+    /**
+     * Requests cancelled by the client, such as the losing attempt of a hedged request, should not be recorded as failures.
+     */
+    @Test
+    void testCancelledRequestsNotRecorded() {
+        delegate.exception = new ConnectionException("Request aborted", new ConnectException("Request aborted"));
+        final RequestCancellation cancellation = new RequestCancellation();
+        cancellation.cancel();
+        final PreparedRequest request = new PreparedRequest(
+            new DummyGetRequest("/resource"), RequestMethod.GET, "http://localhost/resource", Collections.emptyList(), null, null
+        ).withCancellation(cancellation);
+        for (int index = 0; index < 10; index++) {
+            assertThrows(ConnectionException.class, () -> transport.execute(request));
+        }
+        final CircuitBreaker circuitBreaker = transport.getCircuitBreaker("/resource");
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+        assertEquals(0, circuitBreaker.getFailedCallCount());
+    }
+
+    /**
+     * Endpoints beyond the maximum number of circuit breakers should share a single circuit breaker.
+     */
+    @Test
+    void testMaxCircuitBreakers() {
+        transport = new CircuitBreakerTransport(
+            delegate,
+            CircuitBreakerConfiguration.newBuilder().withSlidingWindow(10, 4).withMaxCircuitBreakers(2).build(),
+            () -> nanoTime
+        );
+        for (int id = 0; id < 100; id++) {
+            execute("/orders/" + id);
+        }
+        assertEquals(3, transport.getCircuitBreakers().size());
+        assertEquals(CircuitBreakerConfiguration.OTHER_ENDPOINTS, transport.getCircuitBreaker("/orders/99").getName());
+        assertEquals(98, transport.getCircuitBreaker("/orders/99").getSuccessfulCallCount());
+        assertEquals("/orders/0", transport.getCircuitBreaker("/orders/0").getName());
+    }
+
+    private void openCircuitBreaker(final String endpoint) {
+        delegate.httpCode = 500;
+        for (int index = 0; index < 4; index++) {
+            execute(endpoint);
+        }
+        assertEquals(CircuitBreaker.State.OPEN, transport.getCircuitBreaker(endpoint).getState());
+    }
+
+    private RestResponse execute(final String endpoint) {
+        return transport.execute(
+            new PreparedRequest(new DummyGetRequest(endpoint), RequestMethod.GET, "http://localhost" + endpoint, Collections.emptyList(), null, null)
+        );
+    }
+
+    /**
+     * Transport returning a fixed status, advancing the clock by a fixed duration per call.
+     */
+    private class StubTransport implements Transport {
+        private int httpCode = 200;
+        private long durationInNanos = 0;
+        private RuntimeException exception = null;
+        private int executions = 0;
+
+        @Override
+        public void init(final Configuration configuration) {
+        }
+
+        @Override
+        public RestResponse execute(final PreparedRequest request) {
+            executions++;
+            nanoTime += durationInNanos;
+            if (exception != null) {
+                throw exception;
+            }
+            return new RestResponse("body", httpCode);
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    private static class DummyGetRequest implements GetRequest<String> {
+        private final String endpoint;
+
+        DummyGetRequest(final String endpoint) {
+            this.endpoint = endpoint;
+        }
+
+        @Override
+        public String getApiEndpoint() {
+            return endpoint;
+        }
+
+        @Override
+        public String parseResponse(final String responseStr) {
+            return responseStr;
+        }
+    }
+}
@@ -0,0 +1,221 @@
+/**
+ * Copyright 2019 SourceLab.org https://github.com/SourceLabOrg/http-client-wrapper
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit
+ * persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.sourcelab.http.rest.transport;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.sourcelab.http.rest.RestResponse;
+import org.sourcelab.http.rest.configuration.CoalescingConfiguration;
+import org.sourcelab.http.rest.configuration.Configuration;
+import org.sourcelab.http.rest.exceptions.ConnectionException;
+import org.sourcelab.http.rest.request.GetRequest;
+import org.sourcelab.http.rest.request.RequestHeader;
+import org.sourcelab.http.rest.request.RequestMethod;
+
+import java.net.ConnectException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CoalescingTransportTest {
+
+    private BlockingTransport delegate;
+    private CoalescingTransport transport;
+    private ExecutorService executorService;
+
+    @BeforeEach
+    void setup() {
+        delegate = new BlockingTransport();
+        transport = new CoalescingTransport(delegate, CoalescingConfiguration.newBuilder().build());
+        executorService = Executors.newCachedThreadPool();
+    }
+
+    @AfterEach
+    void cleanup() {
+        executorService.shutdownNow();
+    }
+
+    /**
+     * Identical concurrent requests should share the response of a single upstream request.
+     */
+    @Test
+    void testIdenticalRequestsCoalesced() throws Exception {
+        final Future<RestResponse> leader = executorService.submit(() -> transport.execute(get("/resource")));
+        assertTrue(delegate.started.await(5, TimeUnit.SECONDS));
+
+        final List<Future<RestResponse>> followers = new ArrayList<>();
+        for (int index = 0; index < 10; index++) {
+            followers.add(executorService.submit(() -> transport.execute(get("/resource"))));
+        }
+        awaitCollapsed(10);
+
+        delegate.release.countDown();
+        final RestResponse response = leader.get(5, TimeUnit.SECONDS);
+        for (final Future<RestResponse> follower : followers) {
+            assertSame(response, follower.get(5, TimeUnit.SECONDS));
+        }
+
+        assertEquals(1, delegate.executions.get());
+        assertEquals(1, transport.getStatistics().getExecutionCount());
+        assertEquals(10, transport.getStatistics().getCollapsedCount());
+        assertEquals(0, transport.getInFlightCount());
+
+        // Once complete, the next request goes upstream again.
+        transport.execute(get("/resource"));
+        assertEquals(2, delegate.executions.get());
+    }
+
+    /**
+     * Requests differing in url or key headers should not be coalesced.
+     */
+    @Test
+    void testDistinctRequestsNotCoalesced() throws Exception {
+        final Future<RestResponse> leader = executorService.submit(() -> transport.execute(get("/resource")));
+        assertTrue(delegate.started.await(5, TimeUnit.SECONDS));
+
+        delegate.block = false;
+        transport.execute(get("/other"));
+        transport.execute(get("/resource", new RequestHeader("Authorization", "Bearer other")));
+
+        // Headers not nominated as key headers are ignored.
+        final Future<RestResponse> follower = executorService.submit(() -> transport.execute(get("/resource", new RequestHeader("X-Trace", "1"))));
+        awaitCollapsed(1);
+
+        delegate.release.countDown();
+        assertSame(leader.get(5, TimeUnit.SECONDS), follower.get(5, TimeUnit.SECONDS));
+        assertEquals(3, delegate.executions.get());
+    }
+
+    /**
+     * Conditional and range requests should never be coalesced with plain requests, whatever the key headers.
+     */
+    @Test
+    void testConditionalRequestsNotCoalesced() throws Exception {
+        transport = new CoalescingTransport(delegate, CoalescingConfiguration.newBuilder().withKeyHeaders().build());
+        final Future<RestResponse> revalidation = executorService.submit(
+            () -> transport.execute(get("/resource", new RequestHeader("If-None-Match", "\"v1\"")))
+        );
+        assertTrue(delegate.started.await(5, TimeUnit.SECONDS));
+
+        delegate.block = false;
+        transport.execute(get("/resource"));
+        transport.execute(get("/resource", new RequestHeader("Range", "bytes=0-99")));
+        assertEquals(3, delegate.executions.get());
+        assertEquals(0, transport.getStatistics().getCollapsedCount());
+
+        // Identical revalidations may still share a response.
+        final Future<RestResponse> follower = executorService.submit(
+            () -> transport.execute(get("/resource", new RequestHeader("If-None-Match", "\"v1\"")))
+        );
+        awaitCollapsed(1);
+
+        delegate.release.countDown();
+        assertSame(revalidation.get(5, TimeUnit.SECONDS), follower.get(5, TimeUnit.SECONDS));
+    }
+
+    /**
+     * Followers should receive the leader's exception.
+     */
+    @Test
+    void testExceptionShared() throws Exception {
+        delegate.exception = new ConnectionException("Connection refused", new ConnectException("Connection refused"));
+
+        final Future<RestResponse> leader = executorService.submit(() -> transport.execute(get("/resource")));
+        assertTrue(delegate.started.await(5, TimeUnit.SECONDS));
+        final Future<Object> follower = executorService.submit(() -> assertThrows(ConnectionException.class, () -> transport.execute(get("/resource"))));
+        awaitCollapsed(1);
+
+        delegate.release.countDown();
+        assertSame(delegate.exception, follower.get(5, TimeUnit.SECONDS));
+        assertEquals(0, transport.getInFlightCount());
+    }
+
+    private void awaitCollapsed(final long expected) throws InterruptedException {
+        final long deadline = System.currentTimeMillis() + 5000;
+        while (transport.getStatistics().getCollapsedCount() < expected && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(expected, transport.getStatistics().getCollapsedCount());
+    }
+
+    private static PreparedRequest get(final String endpoint, final RequestHeader... headers) {
+        final List<RequestHeader> requestHeaders = new ArrayList<>();
+        Collections.addAll(requestHeaders, headers);
+        requestHeaders.add(new RequestHeader("Accept", "application/json"));
+        return new PreparedRequest(new DummyGetRequest(), RequestMethod.GET, "http://localhost" + endpoint, requestHeaders, null, null);
+    }
+
+    /**
+     * Transport whose first request blocks until released.
+     */
+    private static class BlockingTransport implements Transport {
+        private final CountDownLatch started = new CountDownLatch(1);
+        private final CountDownLatch release = new CountDownLatch(1);
+        private final AtomicInteger executions = new AtomicInteger();
+        private volatile boolean block = true;
+        private volatile RuntimeException exception = null;
+
+        @Override
+        public void init(final Configuration configuration) {
+        }
+
+        @Override
+        public RestResponse execute(final PreparedRequest request) {
+            executions.incrementAndGet();
+            if (block) {
+                started.countDown();
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (final InterruptedException exception) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            if (exception != null) {
+                throw exception;
+            }
+            return new RestResponse("response " + request.getUrl(), 200);
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    private static class DummyGetRequest implements GetRequest<String> {
+        @Override
+        public String getApiEndpoint() {
+            return "/resource";
+        }
+
+        @Override
+        public String parseResponse(final String responseStr) {
+            return responseStr;
+        }
+    }
+}
@@ -0,0 +1,368 @@
+/**
+ * Copyright 2019 SourceLab.org https://github.com/SourceLabOrg/http-client-wrapper
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit
+ * persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.sourcelab.http.rest.transport;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.sourcelab.http.rest.RestResponse;
+import org.sourcelab.http.rest.configuration.Configuration;
+import org.sourcelab.http.rest.configuration.HedgingConfiguration;
+import org.sourcelab.http.rest.exceptions.ConnectionException;
+import org.sourcelab.http.rest.request.GetRequest;
+import org.sourcelab.http.rest.request.RequestMethod;
+
+import java.net.ConnectException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HedgingTransportTest {
+
+    private final ScriptedTransport delegate = new ScriptedTransport();
+    private HedgingTransport transport;
+
+    @AfterEach
+    void cleanup() {
+        delegate.release.countDown();
+        if (transport != null) {
+            transport.close();
+        }
+    }
+
+    /**
+     * Fast responses should be returned without sending a hedge.
+     */
+    @Test
+    void testFastResponseNotHedged() {
+        transport = create(HedgingConfiguration.newBuilder().withHedgeDelayInMilliseconds(5000).build());
+        delegate.respond(response(200));
+
+        assertEquals(200, transport.execute(request(RequestMethod.GET)).getHttpCode());
+        assertEquals(1, delegate.executions.get());
+        assertEquals(0, transport.getStatistics().getHedgeCount());
+    }
+
+    /**
+     * A slow request should be hedged, the hedge's response returned, and the slow attempt aborted.
+     */
+    @Test
+    void testSlowRequestHedged() throws InterruptedException {
+        transport = create(HedgingConfiguration.newBuilder().withHedgeDelayInMilliseconds(10).build());
+        delegate.block();
+        delegate.respond(response(201));
+
+        assertEquals(201, transport.execute(request(RequestMethod.GET)).getHttpCode());
+        assertEquals(2, delegate.executions.get());
+        assertEquals(1, transport.getStatistics().getHedgeCount());
+        assertEquals(1, transport.getStatistics().getHedgeWinCount());
+        assertTrue(delegate.aborted.await(5, TimeUnit.SECONDS));
+    }
+
+    /**
+     * A failed attempt should not be returned while another attempt may still succeed.
+     */
+    @Test
+    void testFirstSuccessUsed() {
+        transport = create(HedgingConfiguration.newBuilder().withHedgeDelayInMilliseconds(10).build());
+        delegate.failAfterDelay(new ConnectionException("Connection reset", new ConnectException("Connection reset")), 30);
+        delegate.respondAfterDelay(response(200), 50);
+
+        assertEquals(200, transport.execute(request(RequestMethod.GET)).getHttpCode());
+    }
+
+    /**
+     * Only once every attempt has failed should the failure be thrown.
+     */
+    @Test
+    void testAllAttemptsFailed() {
+        transport = create(HedgingConfiguration.newBuilder().withHedgeDelayInMilliseconds(10).build());
+        delegate.failAfterDelay(new ConnectionException("Connection reset", new ConnectException("Connection reset")), 30);
+        delegate.fail(new ConnectionException("Connection refused", new ConnectException("Connection refused")));
+
+        assertThrows(ConnectionException.class, () -> transport.execute(request(RequestMethod.GET)));
+        assertEquals(2, delegate.executions.get());
+    }
+
+    /**
+     * Request methods which are not nominated should never be hedged.
+     */
+    @Test
+    void testPostNotHedged() {
+        transport = create(HedgingConfiguration.newBuilder().withHedgeDelayInMilliseconds(0).build());
+        delegate.respondAfterDelay(response(200), 50);
+
+        assertEquals(200, transport.execute(request(RequestMethod.POST)).getHttpCode());
+        assertEquals(1, delegate.executions.get());
+        assertEquals(0, transport.getStatistics().getHedgeCount());
+    }
+
+    /**
+     * A configuration with no hedged methods, given as a plain Set, should never hedge.
+     */
+    @Test
+    void testNoHedgedMethods() {
+        transport = create(new HedgingConfiguration(0, 0, Collections.emptyList(), 100, new HashSet<>(), 0.05, 10, 16, null));
+        delegate.respondAfterDelay(response(200), 50);
+
+        assertEquals(200, transport.execute(request(RequestMethod.GET)).getHttpCode());
+        assertEquals(1, delegate.executions.get());
+        assertEquals(0, transport.getStatistics().getHedgeCount());
+    }
+
+    /**
+     * Once the hedge budget is spent, slow requests should wait for their only attempt.
+     */
+    @Test
+    void testHedgeBudget() {
+        transport = create(HedgingConfiguration.newBuilder().withHedgeDelayInMilliseconds(10).withHedgeBudget(0.5, 0).build());
+        delegate.respondAfterDelay(response(200), 50);
+
+        assertEquals(200, transport.execute(request(RequestMethod.GET)).getHttpCode());
+        assertEquals(1, delegate.executions.get());
+        assertEquals(0, transport.getStatistics().getHedgeCount());
+        assertEquals(1, transport.getStatistics().getBudgetExhaustedCount());
+    }
+
+    /**
+     * The original request should be sent on the calling thread, and only the hedge on the supplied hedge executor,
+     * which is left running when the transport is closed.
+     */
+    @Test
+    void testHedgeExecutor() {
+        final ExecutorService hedgeExecutor = Executors.newSingleThreadExecutor();
+        final AtomicInteger hedgesSubmitted = new AtomicInteger();
+        transport = create(HedgingConfiguration.newBuilder()
+            .withHedgeDelayInMilliseconds(10)
+            .withHedgeExecutor((runnable) -> {
+                hedgesSubmitted.incrementAndGet();
+                hedgeExecutor.execute(runnable);
+            })
+            .build());
+        delegate.block();
+        delegate.respond(response(201));
+
+        try {
+            assertEquals(201, transport.execute(request(RequestMethod.GET)).getHttpCode());
+            assertSame(Thread.currentThread(), delegate.threads.get(0));
+            assertEquals(1, hedgesSubmitted.get());
+
+            transport.close();
+            assertFalse(hedgeExecutor.isShutdown());
+        } finally {
+            hedgeExecutor.shutdownNow();
+        }
+    }
+
+    /**
+     * A slow request should not be hedged when the hedge executor rejects the hedge.
+     */
+    @Test
+    void testHedgeRejected() {
+        transport = create(HedgingConfiguration.newBuilder()
+            .withHedgeDelayInMilliseconds(10)
+            .withHedgeExecutor((runnable) -> {
+                throw new RejectedExecutionException("All hedge threads busy");
+            })
+            .build());
+        delegate.respondAfterDelay(response(200), 500);
+
+        assertEquals(200, transport.execute(request(RequestMethod.GET)).getHttpCode());
+        assertEquals(1, delegate.executions.get());
+        assertEquals(0, transport.getStatistics().getHedgeCount());
+        assertEquals(1, transport.getStatistics().getRejectedCount());
+    }
+
+    /**
+     * Endpoints should share latency trackers by endpoint pattern, and endpoints beyond the maximum number of latency
+     * trackers should share a single latency tracker.
+     */
+    @Test
+    void testMaxLatencyTrackers() {
+        transport = create(HedgingConfiguration.newBuilder()
+            .withEndpointPatterns("/users/[^/]+")
+            .withMaxLatencyTrackers(2)
+            .build());
+
+        final LatencyTracker usersTracker = transport.getLatencyTracker("/users/1");
+        assertSame(usersTracker, transport.getLatencyTracker("/users/2"));
+        final LatencyTracker ordersTracker = transport.getLatencyTracker("/orders/0");
+        for (int id = 1; id < 100; id++) {
+            assertSame(transport.getLatencyTracker("/orders/1"), transport.getLatencyTracker("/orders/" + id));
+        }
+        assertNotSame(ordersTracker, transport.getLatencyTracker("/orders/1"));
+        assertSame(usersTracker, transport.getLatencyTracker("/users/3"));
+        assertSame(ordersTracker, transport.getLatencyTracker("/orders/0"));
+    }
+
+    /**
+     * The percentile should track the latency seen by the caller, so should not fall below the hedge delay while hedges
+     * keep winning against slow originals.
+     */
+    @Test
+    void testPercentileStableWhileHedgesWin() {
+        transport = create(HedgingConfiguration.newBuilder().withHedgeDelayPercentile(0.5, 10).withHedgeBudget(1, 1).build());
+        final long hedgeDelayInNanos = TimeUnit.MILLISECONDS.toNanos(10);
+
+        for (int request = 0; request < 2 * LatencyTracker.RECALCULATE_INTERVAL; request++) {
+            delegate.block();
+            delegate.respond(response(201));
+            assertEquals(201, transport.execute(request(RequestMethod.GET)).getHttpCode());
+        }
+        assertEquals(2 * LatencyTracker.RECALCULATE_INTERVAL, transport.getStatistics().getHedgeWinCount());
+        assertTrue(transport.getLatencyTracker("/resource").getPercentileInNanos() >= hedgeDelayInNanos);
+    }
+
+    /**
+     * The percentile should only be reported once enough samples are recorded, and track the recent samples.
+     */
+    @Test
+    void testLatencyTrackerPercentile() {
+        final LatencyTracker latencyTracker = new LatencyTracker(0.9);
+        for (int sample = 1; sample < LatencyTracker.RECALCULATE_INTERVAL; sample++) {
+            latencyTracker.record(sample);
+        }
+        assertEquals(-1, latencyTracker.getPercentileInNanos());
+
+        latencyTracker.record(LatencyTracker.RECALCULATE_INTERVAL);
+        assertEquals(29, latencyTracker.getPercentileInNanos());
+
+        for (int sample = 0; sample < LatencyTracker.SAMPLE_SIZE; sample++) {
+            latencyTracker.record(1000);
+        }
+        assertEquals(1000, latencyTracker.getPercentileInNanos());
+    }
+
+    private HedgingTransport create(final HedgingConfiguration hedgingConfiguration) {
+        return new HedgingTransport(delegate, hedgingConfiguration);
+    }
+
+    private static PreparedRequest request(final RequestMethod requestMethod) {
+        return new PreparedRequest(new DummyGetRequest(), requestMethod, "http://localhost/resource", Collections.emptyList(), null, null);
+    }
+
+    private static RestResponse response(final int httpCode) {
+        return new RestResponse("body".getBytes(StandardCharsets.UTF_8), StandardCharsets.UTF_8, httpCode, Collections.emptyList());
+    }
+
+    /**
+     * Transport returning scripted outcomes in order, which may block until released or delay their result.  Blocked
+     * or delayed attempts end early when aborted via the request's cancellation.
+     */
+    private static class ScriptedTransport implements Transport {
+        private static final Object BLOCK = new Object();
+
+        private final Deque<Object[]> outcomes = new ArrayDeque<>();
+        private final AtomicInteger executions = new AtomicInteger();
+        private final List<Thread> threads = new CopyOnWriteArrayList<>();
+        private final CountDownLatch release = new CountDownLatch(1);
+        private final CountDownLatch aborted = new CountDownLatch(1);
+
+        synchronized void respond(final RestResponse response) {
+            outcomes.add(new Object[] {response, 0L, false});
+        }
+
+        synchronized void respondAfterDelay(final RestResponse response, final long delayInMilliseconds) {
+            outcomes.add(new Object[] {response, delayInMilliseconds, false});
+        }
+
+        synchronized void fail(final RuntimeException exception) {
+            outcomes.add(new Object[] {exception, 0L, false});
+        }
+
+        synchronized void failAfterDelay(final RuntimeException exception, final long delayInMilliseconds) {
+            outcomes.add(new Object[] {exception, delayInMilliseconds, false});
+        }
+
+        synchronized void block() {
+            outcomes.add(new Object[] {BLOCK, 0L, true});
+        }
+
+        private synchronized Object[] next() {
+            return outcomes.remove();
+        }
+
+        @Override
+        public void init(final Configuration configuration) {
+        }
+
+        @Override
+        public RestResponse execute(final PreparedRequest request) {
+            executions.incrementAndGet();
+            threads.add(Thread.currentThread());
+            final Object[] outcome = next();
+            final CountDownLatch abort = new CountDownLatch(1);
+            if (request.getCancellation() != null) {
+                request.getCancellation().onCancel(() -> {
+                    aborted.countDown();
+                    abort.countDown();
+                });
+            }
+            try {
+                if ((Boolean) outcome[2]) {
+                    while (release.getCount() > 0 && !abort.await(10, TimeUnit.MILLISECONDS)) {
+                        // Wait until released or aborted.
+                    }
+                }
+                if (abort.await((Long) outcome[1], TimeUnit.MILLISECONDS)) {
+                    throw new ConnectionException("Request aborted", new ConnectException("Request aborted"));
+                }
+            } catch (final InterruptedException exception) {
+                throw new ConnectionException("Interrupted", exception);
+            }
+            if (outcome[0] == BLOCK) {
+                throw new IllegalStateException("Blocked attempt should have been cancelled");
+            }
+            if (outcome[0] instanceof RuntimeException) {
+                throw (RuntimeException) outcome[0];
+            }
+            return (RestResponse) outcome[0];
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    private static class DummyGetRequest implements GetRequest<String> {
+        @Override
+        public String getApiEndpoint() {
+            return "/resource";
+        }
+
+        @Override
+        public String parseResponse(final String responseStr) {
+            return responseStr;
+        }
+    }
+}
@@ -0,0 +1,234 @@
+/**
+ * Copyright 2019 SourceLab.org https://github.com/SourceLabOrg/http-client-wrapper
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit
+ * persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.sourcelab.http.rest.transport;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.sourcelab.http.rest.RestResponse;
+import org.sourcelab.http.rest.configuration.BasicConfiguration;
+import org.sourcelab.http.rest.configuration.Configuration;
+import org.sourcelab.http.rest.configuration.RateLimiterConfiguration;
+import org.sourcelab.http.rest.exceptions.RateLimitExceededException;
+import org.sourcelab.http.rest.exceptions.RequestCancelledException;
+import org.sourcelab.http.rest.request.GetRequest;
+import org.sourcelab.http.rest.request.RequestMethod;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class RateLimitingTransportTest {
+
+    private long nanoTime;
+    private List<Long> sleeps;
+
+    @BeforeEach
+    void setup() {
+        nanoTime = 0;
+        sleeps = new ArrayList<>();
+    }
+
+    /**
+     * With no wait allowed, requests beyond the burst should fail fast until permits are replenished.
+     */
+    @Test
+    void testFailFast() {
+        final RateLimitingTransport transport = create(RateLimiterConfiguration.newBuilder().withHostRateLimit(10, 2).build());
+
+        execute(transport, "/resource");
+        execute(transport, "/resource");
+        final RateLimitExceededException exception = assertThrows(RateLimitExceededException.class, () -> execute(transport, "/resource"));
+        assertEquals("http://localhost", exception.getRateLimiterName());
+
+        nanoTime += TimeUnit.MILLISECONDS.toNanos(100);
+        execute(transport, "/resource");
+        assertEquals(Collections.emptyList(), sleeps);
+
+        final RateLimiter rateLimiter = transport.getRateLimiters().iterator().next();
+        assertEquals(3, rateLimiter.getPermittedCount());
+        assertEquals(1, rateLimiter.getRejectedCount());
+    }
+
+    /**
+     * Requests should wait for permits, up to the maximum wait.
+     */
+    @Test
+    void testBlockingWithMaxWait() {
+        final RateLimitingTransport transport = create(
+            RateLimiterConfiguration.newBuilder().withHostRateLimit(10, 1).withMaxWaitInMilliseconds(150).build()
+        );
+
+        execute(transport, "/resource");
+        execute(transport, "/resource");
+        assertThrows(RateLimitExceededException.class, () -> execute(transport, "/resource"));
+        assertEquals(Collections.singletonList(TimeUnit.MILLISECONDS.toNanos(100)), sleeps);
+    }
+
+    /**
+     * Endpoint limits should apply in addition to the host limit, and an endpoint permit should be returned when the
+     * host limit rejects the request.
+     */
+    @Test
+    void testEndpointRateLimit() {
+        final RateLimitingTransport transport = create(
+            RateLimiterConfiguration.newBuilder()
+                .withHostRateLimit(1, 2)
+                .withEndpointRateLimit("/search.*", 1, 1)
+                .build()
+        );
+
+        execute(transport, "/search?q=1");
+        assertThrows(RateLimitExceededException.class, () -> execute(transport, "/search?q=2"));
+        execute(transport, "/resource");
+
+        // Host limit exhausted, so the endpoint permit is returned.
+        nanoTime += TimeUnit.SECONDS.toNanos(1);
+        execute(transport, "/resource");
+        assertThrows(RateLimitExceededException.class, () -> execute(transport, "/search?q=3"));
+
+        final RateLimiter endpointRateLimiter = new ArrayList<>(transport.getRateLimiters()).get(1);
+        assertEquals("/search.*", endpointRateLimiter.getName());
+        assertEquals(1, endpointRateLimiter.getPermittedCount());
+
+        nanoTime += TimeUnit.SECONDS.toNanos(1);
+        execute(transport, "/search?q=4");
+    }
+
+    /**
+     * A request cancelled while waiting for a permit should stop waiting, and return the permit for other requests.
+     */
+    @Test
+    void testCancelledWhileWaiting() {
+        final RequestCancellation cancellation = new RequestCancellation();
+        final RateLimitingTransport transport = new RateLimitingTransport(
+            new StubTransport(),
+            RateLimiterConfiguration.newBuilder().withHostRateLimit(10, 1).withMaxWaitInMilliseconds(5000).build(),
+            () -> nanoTime,
+            (nanos) -> {
+                sleeps.add(nanos);
+                // Cancelled part way through the wait.
+                cancellation.cancel();
+                TimeUnit.NANOSECONDS.sleep(nanos);
+            }
+        );
+        transport.init(new BasicConfiguration<>("http://localhost"));
+
+        execute(transport, "/resource");
+        final PreparedRequest request = new PreparedRequest(
+            new DummyGetRequest("/resource"), RequestMethod.GET, "http://localhost/resource", Collections.emptyList(), null, null
+        );
+        assertThrows(RequestCancelledException.class, () -> transport.execute(request.withCancellation(cancellation)));
+        assertFalse(Thread.currentThread().isInterrupted());
+
+        // The permit was returned, so the next request waits no longer than the cancelled one.
+        final RateLimiter rateLimiter = transport.getRateLimiters().iterator().next();
+        assertEquals(1, rateLimiter.getPermittedCount());
+        assertEquals(0, rateLimiter.tryReserve(nanoTime + TimeUnit.MILLISECONDS.toNanos(100), 0));
+    }
+
+    /**
+     * Concurrent reservations should never exceed the burst plus the permits replenished since.
+     */
+    @Test
+    void testConcurrentReservations() throws InterruptedException {
+        final RateLimiter rateLimiter = new RateLimiter("test", 1000, 50, 0);
+        final AtomicInteger permitted = new AtomicInteger();
+        final CountDownLatch start = new CountDownLatch(1);
+
+        final List<Thread> threads = new ArrayList<>();
+        for (int thread = 0; thread < 8; thread++) {
+            threads.add(new Thread(() -> {
+                try {
+                    start.await();
+                } catch (final InterruptedException exception) {
+                    return;
+                }
+                for (int index = 0; index < 1000; index++) {
+                    if (rateLimiter.tryReserve(0, 0) >= 0) {
+                        permitted.incrementAndGet();
+                    }
+                }
+            }));
+        }
+        threads.forEach(Thread::start);
+        start.countDown();
+        for (final Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(50, permitted.get());
+        assertEquals(50, rateLimiter.getPermittedCount());
+        assertEquals(7950, rateLimiter.getRejectedCount());
+
+        // Next permit is available after one emission interval.
+        assertEquals(1_000_000L, rateLimiter.tryReserve(0, 1_000_000));
+    }
+
+    private RateLimitingTransport create(final RateLimiterConfiguration rateLimiterConfiguration) {
+        final RateLimitingTransport transport = new RateLimitingTransport(
+            new StubTransport(), rateLimiterConfiguration, () -> nanoTime, sleeps::add
+        );
+        transport.init(new BasicConfiguration<>("http://localhost"));
+        return transport;
+    }
+
+    private static RestResponse execute(final Transport transport, final String endpoint) {
+        return transport.execute(
+            new PreparedRequest(new DummyGetRequest(endpoint), RequestMethod.GET, "http://localhost" + endpoint, Collections.emptyList(), null, null)
+        );
+    }
+
+    private static class StubTransport implements Transport {
+        @Override
+        public void init(final Configuration configuration) {
+        }
+
+        @Override
+        public RestResponse execute(final PreparedRequest request) {
+            return new RestResponse("body", 200);
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    private static class DummyGetRequest implements GetRequest<String> {
+        private final String endpoint;
+
+        DummyGetRequest(final String endpoint) {
+            this.endpoint = endpoint;
+        }
+
+        @Override
+        public String getApiEndpoint() {
+            return endpoint;
+        }
+
+        @Override
+        public String parseResponse(final String responseStr) {
+            return responseStr;
+        }
+    }
+}
@@ -0,0 +1,254 @@
+/**
+ * Copyright 2019 SourceLab.org https://github.com/SourceLabOrg/http-client-wrapper
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit
+ * persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.sourcelab.http.rest.transport;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.sourcelab.http.rest.ResponseHeader;
+import org.sourcelab.http.rest.RestResponse;
+import org.sourcelab.http.rest.configuration.BasicConfiguration;
+import org.sourcelab.http.rest.configuration.Configuration;
+import org.sourcelab.http.rest.configuration.RetryConfiguration;
+import org.sourcelab.http.rest.exceptions.ConnectionException;
+import org.sourcelab.http.rest.request.GetRequest;
+import org.sourcelab.http.rest.request.RequestMethod;
+
+import java.net.ConnectException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RetryingTransportTest {
+
+    private ScriptedTransport delegate;
+    private List<Long> sleeps;
+
+    @BeforeEach
+    void setup() {
+        delegate = new ScriptedTransport();
+        sleeps = new ArrayList<>();
+    }
+
+    /**
+     * Retryable status codes should be retried until a successful response.
+     */
+    @Test
+    void testRetryableStatusRetried() {
+        final RetryingTransport transport = create(RetryConfiguration.newBuilder().build());
+        delegate.respond(response(503));
+        delegate.respond(response(200));
+
+        assertEquals(200, transport.execute(request(RequestMethod.GET)).getHttpCode());
+        assertEquals(2, delegate.executions);
+        assertEquals(1, transport.getStatistics().getRetryCount());
+        assertEquals(1, sleeps.size());
+        assertTrue(sleeps.get(0) >= 100 && sleeps.get(0) <= 300);
+    }
+
+    /**
+     * Connection failures should be retried up to the maximum number of attempts, then rethrown.
+     */
+    @Test
+    void testConnectionFailureRetriedUntilMaxAttempts() {
+        final RetryingTransport transport = create(RetryConfiguration.newBuilder().withMaxAttempts(3).build());
+        for (int index = 0; index < 3; index++) {
+            delegate.fail(new ConnectionException("Connection refused", new ConnectException("Connection refused")));
+        }
+
+        assertThrows(ConnectionException.class, () -> transport.execute(request(RequestMethod.GET)));
+        assertEquals(3, delegate.executions);
+        assertEquals(2, transport.getStatistics().getRetryCount());
+    }
+
+    /**
+     * POST requests should only be retried once opted in.
+     */
+    @Test
+    void testPostRequiresOptIn() {
+        RetryingTransport transport = create(RetryConfiguration.newBuilder().build());
+        delegate.respond(response(503));
+        assertEquals(503, transport.execute(request(RequestMethod.POST)).getHttpCode());
+        assertEquals(1, delegate.executions);
+
+        transport = create(RetryConfiguration.newBuilder().withRetryPostRequests().build());
+        delegate.respond(response(503));
+        delegate.respond(response(200));
+        assertEquals(200, transport.execute(request(RequestMethod.POST)).getHttpCode());
+        assertEquals(3, delegate.executions);
+    }
+
+    /**
+     * A configuration with no retryable methods, given as a plain Set, should never retry.
+     */
+    @Test
+    void testNoRetryableMethods() {
+        final RetryingTransport transport = create(
+            new RetryConfiguration(3, 100, 1000, new HashSet<>(), Collections.singleton(503), 0.1, 10)
+        );
+        delegate.respond(response(503));
+
+        assertEquals(503, transport.execute(request(RequestMethod.GET)).getHttpCode());
+        assertEquals(1, delegate.executions);
+        assertEquals(0, transport.getStatistics().getRetryCount());
+    }
+
+    /**
+     * Retry-After should be honored as a minimum delay, and not retried if longer than the maximum delay.
+     */
+    @Test
+    void testRetryAfterHonored() {
+        final RetryingTransport transport = create(RetryConfiguration.newBuilder().build());
+        delegate.respond(response(429, "Retry-After", "2"));
+        delegate.respond(response(200));
+        assertEquals(200, transport.execute(request(RequestMethod.GET)).getHttpCode());
+        assertEquals(Collections.singletonList(2000L), sleeps);
+
+        delegate.respond(response(503, "Retry-After", "60"));
+        assertEquals(503, transport.execute(request(RequestMethod.GET)).getHttpCode());
+        assertEquals(3, delegate.executions);
+    }
+
+    /**
+     * Once the retry budget is spent, failures should be returned without retrying.
+     */
+    @Test
+    void testRetryBudget() {
+        final RetryingTransport transport = create(RetryConfiguration.newBuilder().withRetryBudget(0.5, 1).build());
+
+        // Budget starts full, allowing a single retry.
+        delegate.respond(response(503));
+        delegate.respond(response(503));
+        delegate.respond(response(503));
+        assertEquals(503, transport.execute(request(RequestMethod.GET)).getHttpCode());
+        assertEquals(2, delegate.executions);
+        assertEquals(1, transport.getStatistics().getRetryCount());
+        assertEquals(1, transport.getStatistics().getBudgetExhaustedCount());
+
+        // Each request deposits half a retry.
+        delegate.respond(response(200));
+        transport.execute(request(RequestMethod.GET));
+        assertEquals(0.5, transport.getAvailableRetryBudget());
+    }
+
+    /**
+     * Request event listeners should be notified of each retry.
+     */
+    @Test
+    void testRetryEventNotified() {
+        final List<Integer> retriedAttempts = new ArrayList<>();
+        final RetryingTransport transport = create(RetryConfiguration.newBuilder().build());
+        transport.init(new BasicConfiguration<>("http://localhost").useRequestEventListener(new RequestEventListener() {
+            @Override
+            public void onRetry(final PreparedRequest request, final int attemptNumber, final long delayInMilliseconds, final long nanoTime) {
+                retriedAttempts.add(attemptNumber);
+            }
+        }));
+        delegate.respond(response(503));
+        delegate.respond(response(503));
+        delegate.respond(response(200));
+
+        assertEquals(200, transport.execute(request(RequestMethod.GET)).getHttpCode());
+        assertEquals(Arrays.asList(2, 3), retriedAttempts);
+    }
+
+    /**
+     * Decorrelated jitter should stay between the base delay and three times the previous delay, capped at the maximum.
+     */
+    @Test
+    void testNextDelayBounds() {
+        final RetryingTransport transport = create(
+            RetryConfiguration.newBuilder().withBaseDelayInMilliseconds(100).withMaxDelayInMilliseconds(1000).build()
+        );
+        for (int index = 0; index < 1000; index++) {
+            final long delay = transport.nextDelay(200);
+            assertTrue(delay >= 100 && delay <= 600);
+            assertTrue(transport.nextDelay(900) <= 1000);
+        }
+    }
+
+    private RetryingTransport create(final RetryConfiguration retryConfiguration) {
+        return new RetryingTransport(delegate, retryConfiguration, nanos -> sleeps.add(TimeUnit.NANOSECONDS.toMillis(nanos)));
+    }
+
+    private static PreparedRequest request(final RequestMethod requestMethod) {
+        return new PreparedRequest(new DummyGetRequest(), requestMethod, "http://localhost/resource", Collections.emptyList(), null, null);
+    }
+
+    private static RestResponse response(final int httpCode, final String... headers) {
+        final List<ResponseHeader> responseHeaders = new ArrayList<>();
+        for (int index = 0; index < headers.length; index += 2) {
+            responseHeaders.add(new ResponseHeader(headers[index], headers[index + 1]));
+        }
+        return new RestResponse("body".getBytes(StandardCharsets.UTF_8), StandardCharsets.UTF_8, httpCode, responseHeaders);
+    }
+
+    /**
+     * Transport returning scripted responses in order.
+     */
+    private static class ScriptedTransport implements Transport {
+        private final Deque<Object> outcomes = new ArrayDeque<>();
+        private int executions = 0;
+
+        void respond(final RestResponse response) {
+            outcomes.add(response);
+        }
+
+        void fail(final RuntimeException exception) {
+            outcomes.add(exception);
+        }
+
+        @Override
+        public void init(final Configuration configuration) {
+        }
+
+        @Override
+        public RestResponse execute(final PreparedRequest request) {
+            executions++;
+            final Object outcome = outcomes.remove();
+            if (outcome instanceof RuntimeException) {
+                throw (RuntimeException) outcome;
+            }
+            return (RestResponse) outcome;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    private static class DummyGetRequest implements GetRequest<String> {
+        @Override
+        public String getApiEndpoint() {
+            return "/resource";
+        }
+
+        @Override
+        public String parseResponse(final String responseStr) {
+            return responseStr;
+        }
+    }
+}
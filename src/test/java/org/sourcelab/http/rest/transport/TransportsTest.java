@@ -0,0 +1,62 @@
+/**
+ * Copyright 2019 SourceLab.org https://github.com/SourceLabOrg/http-client-wrapper
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit
+ * persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the
+ * Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.sourcelab.http.rest.transport;
+
+import org.junit.jupiter.api.Test;
+import org.sourcelab.http.rest.configuration.BasicConfiguration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TransportsTest {
+    /**
+     * Built in transports should be registered via ServiceLoader.
+     */
+    @Test
+    void testFindBuiltInFactories() {
+        assertEquals(HttpClientTransport.NAME, Transports.findFactory(HttpClientTransport.NAME).getName());
+        assertEquals(HttpAsyncClientTransport.NAME, Transports.findFactory(HttpAsyncClientTransport.NAME).getName());
+        assertEquals(Http2Transport.NAME, Transports.findFactory(Http2Transport.NAME).getName());
+    }
+
+    /**
+     * Unknown transport names should be rejected.
+     */
+    @Test
+    void testFindUnknownFactory() {
+        assertThrows(IllegalArgumentException.class, () -> Transports.findFactory("does-not-exist"));
+    }
+
+    /**
+     * Without explicit configuration, the HttpClient transport should be used.
+     */
+    @Test
+    void testCreateDefaultTransport() {
+        final Transport transport = Transports.create(new BasicConfiguration<>("http://localhost"));
+        assertTrue(transport instanceof HttpClientTransport);
+    }
+
+    /**
+     * Transport should be selectable by name.
+     */
+    @Test
+    void testCreateTransportByName() {
+        final Transport transport = Transports.create(new BasicConfiguration<>("http://localhost").useTransport(Http2Transport.NAME));
+        assertTrue(transport instanceof Http2Transport);
+    }
+}
@@ -23,15 +23,18 @@ public class RequestProperties {
     private final String url;
     private final String requestBody;
     private final String requestMethod;
+    private final String protocol;
 
     public RequestProperties(
         final String url,
         final String requestBody,
-        final String requestMethod
+        final String requestMethod,
+        final String protocol
     ) {
         this.url = url;
         this.requestBody = requestBody;
         this.requestMethod = requestMethod;
+        this.protocol = protocol;
     }
 
     public String getUrl() {
@@ -45,4 +48,8 @@ public class RequestProperties {
     public String getRequestMethod() {
         return requestMethod;
     }
+
+    public String getProtocol() {
+        return protocol;
+    }
 }
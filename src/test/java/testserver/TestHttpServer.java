@@ -17,6 +17,10 @@
 package testserver;
 
 import org.apache.commons.io.IOUtils;
+import org.eclipse.jetty.alpn.server.ALPNServerConnectionFactory;
+import org.eclipse.jetty.http2.HTTP2Cipher;
+import org.eclipse.jetty.http2.server.HTTP2CServerConnectionFactory;
+import org.eclipse.jetty.http2.server.HTTP2ServerConnectionFactory;
 import org.eclipse.jetty.server.Handler;
 import org.eclipse.jetty.server.HttpConfiguration;
 import org.eclipse.jetty.server.HttpConnectionFactory;
@@ -27,6 +31,7 @@ import org.eclipse.jetty.server.ServerConnector;
 import org.eclipse.jetty.server.SslConnectionFactory;
 import org.eclipse.jetty.server.handler.AbstractHandler;
 import org.eclipse.jetty.util.ssl.SslContextFactory;
+import org.eclipse.jetty.util.thread.QueuedThreadPool;
 
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
@@ -49,6 +54,12 @@ public class TestHttpServer implements AutoCloseable {
     // Mocked Responses
     private String responseBody;
     private String mockResponseData;
+    private long responseDelayInMilliseconds = 0;
+    private Long declaredContentLength = null;
+
+    // Server options
+    private Integer maxThreads = null;
+    private boolean http2Enabled = false;
 
     // Http options
     private Integer httpPort = null;
@@ -89,6 +100,26 @@ public class TestHttpServer implements AutoCloseable {
         return this;
     }
 
+    public TestHttpServer withResponseDelay(final long responseDelayInMilliseconds) {
+        this.responseDelayInMilliseconds = responseDelayInMilliseconds;
+        return this;
+    }
+
+    public TestHttpServer withDeclaredContentLength(final long declaredContentLength) {
+        this.declaredContentLength = declaredContentLength;
+        return this;
+    }
+
+    public TestHttpServer withHttp2() {
+        this.http2Enabled = true;
+        return this;
+    }
+
+    public TestHttpServer withMaxThreads(final int maxThreads) {
+        this.maxThreads = maxThreads;
+        return this;
+    }
+
     public TestHttpServer start() throws Exception {
         configureServer();
         jettyServer.start();
@@ -97,7 +128,11 @@ public class TestHttpServer implements AutoCloseable {
 
 
     private void configureServer() {
-        jettyServer = new Server();
+        if (maxThreads != null) {
+            jettyServer = new Server(new QueuedThreadPool(maxThreads));
+        } else {
+            jettyServer = new Server();
+        }
 
         final HttpConfiguration httpConfig = new HttpConfiguration();
         httpConfig.setSecureScheme("https");
@@ -106,7 +141,15 @@ public class TestHttpServer implements AutoCloseable {
 
         // Setup http connector
         if (httpPort != null) {
-            final ServerConnector httpConnector = new ServerConnector(jettyServer, new HttpConnectionFactory(httpConfig));
+            final ServerConnector httpConnector;
+            if (http2Enabled) {
+                // Accept HTTP/2 with prior knowledge (h2c) alongside HTTP/1.1
+                httpConnector = new ServerConnector(
+                    jettyServer, new HttpConnectionFactory(httpConfig), new HTTP2CServerConnectionFactory(httpConfig)
+                );
+            } else {
+                httpConnector = new ServerConnector(jettyServer, new HttpConnectionFactory(httpConfig));
+            }
             httpConnector.setPort(httpPort);
             jettyServer.addConnector(httpConnector);
         }
@@ -142,9 +185,22 @@ public class TestHttpServer implements AutoCloseable {
             // HTTPS connector
             // We create a second ServerConnector, passing in the http configuration we just made along with the
             // previously created ssl context factory. Next we set the port and a longer idle timeout.
-            ServerConnector httpsConnector = new ServerConnector(jettyServer,
-                new SslConnectionFactory(sslContextFactory,"http/1.1"),
-                new HttpConnectionFactory(httpsConfig));
+            final ServerConnector httpsConnector;
+            if (http2Enabled) {
+                // Negotiate HTTP/2 via ALPN, falling back to HTTP/1.1
+                final ALPNServerConnectionFactory alpn = new ALPNServerConnectionFactory("h2", "http/1.1");
+                alpn.setDefaultProtocol("http/1.1");
+                sslContextFactory.setCipherComparator(HTTP2Cipher.COMPARATOR);
+                httpsConnector = new ServerConnector(jettyServer,
+                    new SslConnectionFactory(sslContextFactory, alpn.getProtocol()),
+                    alpn,
+                    new HTTP2ServerConnectionFactory(httpsConfig),
+                    new HttpConnectionFactory(httpsConfig));
+            } else {
+                httpsConnector = new ServerConnector(jettyServer,
+                    new SslConnectionFactory(sslContextFactory,"http/1.1"),
+                    new HttpConnectionFactory(httpsConfig));
+            }
             httpsConnector.setPort(httpsPort);
 
             jettyServer.addConnector(httpsConnector);
@@ -166,13 +222,31 @@ public class TestHttpServer implements AutoCloseable {
                 lastRequest = new RequestProperties(
                     target,
                     IOUtils.toString(baseRequest.getInputStream(), Charset.forName("UTF-8")),
-                    request.getMethod()
+                    request.getMethod(),
+                    request.getProtocol()
                 );
 
+                // Simulate a slow upstream.
+                if (responseDelayInMilliseconds > 0) {
+                    try {
+                        Thread.sleep(responseDelayInMilliseconds);
+                    } catch (final InterruptedException exception) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+
                 setResponseBody(getMockResponseData());
                 response.setStatus(SC_OK);
                 response.setContentType("text/json;charset=utf-8");
+                if (declaredContentLength != null) {
+                    // Declare more than is written, simulating a truncated body.
+                    response.setContentLengthLong(declaredContentLength);
+                }
                 write(getResponseBody(), response.getOutputStream(), Charset.forName("UTF-8"));
+                if (declaredContentLength != null) {
+                    // Commit the response, so the connection is closed short of the declared length.
+                    response.flushBuffer();
+                }
                 baseRequest.setHandled(true);
             }
 